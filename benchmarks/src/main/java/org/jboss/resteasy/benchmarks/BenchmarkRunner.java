@@ -0,0 +1,32 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler, so that <code>gc.alloc.rate.norm</code> (bytes allocated per
+ * operation) is reported next to the time of each benchmark.  The usual JMH command line options are accepted,
+ * e.g. <code>java -jar target/benchmarks.jar Routing -f 1</code>.
+ */
+public final class BenchmarkRunner
+{
+   private BenchmarkRunner()
+   {
+   }
+
+   public static void main(String[] args) throws Exception
+   {
+      CommandLineOptions commandLine = new CommandLineOptions(args);
+      ChainedOptionsBuilder options = new OptionsBuilder()
+            .parent(commandLine)
+            .addProfiler(GCProfiler.class);
+      if (commandLine.getIncludes().isEmpty())
+      {
+         options.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+      }
+      new Runner(options.build()).run();
+   }
+}
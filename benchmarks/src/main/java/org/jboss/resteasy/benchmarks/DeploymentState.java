@@ -0,0 +1,45 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.benchmarks.resource.BenchmarkFilters;
+import org.jboss.resteasy.benchmarks.resource.BenchmarkResource;
+import org.jboss.resteasy.benchmarks.resource.RoutingResource;
+import org.jboss.resteasy.core.ResteasyDeploymentImpl;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.jboss.resteasy.spi.Registry;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * A started deployment with the benchmark resources and filters, shared by all the threads of a benchmark.
+ */
+@State(Scope.Benchmark)
+public class DeploymentState
+{
+   ResteasyDeployment deployment;
+   Dispatcher dispatcher;
+   Registry registry;
+
+   @Setup(Level.Trial)
+   public void start()
+   {
+      deployment = new ResteasyDeploymentImpl();
+      deployment.getActualResourceClasses().add(BenchmarkResource.class);
+      deployment.getActualResourceClasses().add(RoutingResource.class);
+      deployment.getActualProviderClasses().add(BenchmarkFilters.RequestFilter.class);
+      deployment.getActualProviderClasses().add(BenchmarkFilters.ResponseFilter.class);
+      deployment.getActualProviderClasses().add(BenchmarkFilters.Interceptor.class);
+      deployment.start();
+      dispatcher = deployment.getDispatcher();
+      registry = deployment.getRegistry();
+   }
+
+   @TearDown(Level.Trial)
+   public void stop()
+   {
+      deployment.stop();
+   }
+}
@@ -0,0 +1,108 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Complete requests through the {@link org.jboss.resteasy.core.SynchronousDispatcher}: routing, parameter
+ * injection, message body reading and writing, filters and interceptors, and response media type negotiation.
+ * Every operation creates its request and response, like a server adapter would.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DispatcherBenchmark
+{
+   private static final byte[] TEXT = "hello".getBytes(StandardCharsets.UTF_8);
+   private static final byte[] JSON = "{\"id\":42,\"name\":\"benchmark\",\"price\":9.99,\"tags\":[\"a\",\"b\",\"c\"]}"
+         .getBytes(StandardCharsets.UTF_8);
+   private static final byte[] XML = ("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?><item><id>42</id>"
+         + "<name>benchmark</name><price>9.99</price><tags>a</tags><tags>b</tags><tags>c</tags></item>")
+         .getBytes(StandardCharsets.UTF_8);
+
+   private static MockHttpResponse invoke(DeploymentState state, MockHttpRequest request)
+   {
+      MockHttpResponse response = new MockHttpResponse();
+      state.dispatcher.invoke(request, response);
+      if (response.getStatus() >= 300)
+      {
+         throw new IllegalStateException("Unexpected status " + response.getStatus() + " for " + request.getUri().getRequestUri());
+      }
+      return response;
+   }
+
+   @Benchmark
+   public MockHttpResponse getText(DeploymentState state) throws URISyntaxException
+   {
+      return invoke(state, MockHttpRequest.get("/bench/text").accept("text/plain"));
+   }
+
+   @Benchmark
+   public MockHttpResponse postText(DeploymentState state) throws URISyntaxException
+   {
+      return invoke(state, MockHttpRequest.post("/bench/text").contentType("text/plain").content(TEXT));
+   }
+
+   @Benchmark
+   public MockHttpResponse getJson(DeploymentState state) throws URISyntaxException
+   {
+      return invoke(state, MockHttpRequest.get("/bench/json").accept("application/json"));
+   }
+
+   @Benchmark
+   public MockHttpResponse postJson(DeploymentState state) throws URISyntaxException
+   {
+      return invoke(state, MockHttpRequest.post("/bench/json").contentType("application/json")
+            .accept("application/json").content(JSON));
+   }
+
+   @Benchmark
+   public MockHttpResponse getXml(DeploymentState state) throws URISyntaxException
+   {
+      return invoke(state, MockHttpRequest.get("/bench/xml").accept("application/xml"));
+   }
+
+   @Benchmark
+   public MockHttpResponse postXml(DeploymentState state) throws URISyntaxException
+   {
+      return invoke(state, MockHttpRequest.post("/bench/xml").contentType("application/xml")
+            .accept("application/xml").content(XML));
+   }
+
+   /**
+    * Browser like Accept header against a method producing several media types.
+    */
+   @Benchmark
+   public MockHttpResponse negotiate(DeploymentState state) throws URISyntaxException
+   {
+      return invoke(state, MockHttpRequest.get("/bench/negotiate")
+            .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8"));
+   }
+
+   @Benchmark
+   public MockHttpResponse params(DeploymentState state) throws URISyntaxException
+   {
+      return invoke(state, MockHttpRequest.get("/bench/params/1234?q=resteasy&limit=25")
+            .header("X-Tenant", "acme").accept("text/plain"));
+   }
+
+   @Benchmark
+   public MockHttpResponse filtered(DeploymentState state) throws URISyntaxException
+   {
+      return invoke(state, MockHttpRequest.get("/bench/filtered")
+            .header("X-Correlation-Id", "abc-123").accept("text/plain"));
+   }
+}
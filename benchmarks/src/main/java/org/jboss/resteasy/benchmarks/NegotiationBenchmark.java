@@ -0,0 +1,67 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.benchmarks.resource.Item;
+import org.jboss.resteasy.core.ResourceMethodInvoker;
+import org.jboss.resteasy.core.ServerResponseWriter;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.specimpl.BuiltResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response media type negotiation of a method producing JSON and XML, for a routed request with the given Accept
+ * header.  The request is routed once, in the setup, so only the negotiation is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NegotiationBenchmark
+{
+   @State(Scope.Thread)
+   public static class RoutedRequest
+   {
+      @Param({
+            "application/json",
+            "application/xml;q=0.9, application/json;q=0.8",
+            "text/html, application/*;q=0.5",
+            "*/*"
+      })
+      public String accept;
+
+      MockHttpRequest request;
+      ResourceMethodInvoker invoker;
+      BuiltResponse response;
+
+      @Setup(Level.Trial)
+      public void route(DeploymentState state) throws URISyntaxException
+      {
+         request = MockHttpRequest.get("/bench/negotiate").accept(accept);
+         invoker = (ResourceMethodInvoker) state.registry.getResourceInvoker(request);
+         response = (BuiltResponse) Response.ok(new Item(42, "benchmark", 9.99, "a", "b", "c")).build();
+      }
+   }
+
+   @Benchmark
+   public MediaType negotiate(DeploymentState state, RoutedRequest routed)
+   {
+      return ServerResponseWriter.getResponseMediaType(routed.response, routed.request, null,
+            state.deployment.getProviderFactory(), routed.invoker);
+   }
+}
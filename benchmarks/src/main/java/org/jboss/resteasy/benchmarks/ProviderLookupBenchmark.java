@@ -0,0 +1,66 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.benchmarks.resource.Item;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import java.lang.annotation.Annotation;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MessageBodyReader} and {@link MessageBodyWriter} lookup of the provider factory for text, JSON and XML,
+ * without reading or writing a body.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ProviderLookupBenchmark
+{
+   private static final Annotation[] NO_ANNOTATIONS = {};
+
+   @State(Scope.Thread)
+   public static class Lookup
+   {
+      @Param({"text/plain", "application/json", "application/xml"})
+      public String mediaType;
+
+      MediaType type;
+      Class<?> entityClass;
+
+      @Setup(Level.Trial)
+      public void parse()
+      {
+         type = MediaType.valueOf(mediaType);
+         entityClass = type.isCompatible(MediaType.TEXT_PLAIN_TYPE) ? String.class : Item.class;
+      }
+   }
+
+   @Benchmark
+   public MessageBodyWriter<?> writer(DeploymentState state, Lookup lookup)
+   {
+      return state.deployment.getProviderFactory().getMessageBodyWriter(lookup.entityClass, lookup.entityClass,
+            NO_ANNOTATIONS, lookup.type);
+   }
+
+   @Benchmark
+   public MessageBodyReader<?> reader(DeploymentState state, Lookup lookup)
+   {
+      return state.deployment.getProviderFactory().getMessageBodyReader(lookup.entityClass, lookup.entityClass,
+            NO_ANNOTATIONS, lookup.type);
+   }
+}
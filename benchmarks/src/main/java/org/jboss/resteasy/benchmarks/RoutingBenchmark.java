@@ -0,0 +1,45 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.spi.ResourceInvoker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resource method selection of the registry for literal, templated and regular expression paths.  Matching
+ * stores the path parameters in the request, so each operation needs a new request: subtract
+ * {@link UriInfoBenchmark#mockRequest} to get the routing cost alone.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RoutingBenchmark
+{
+   @Param({
+         "/customers",
+         "/customers/search",
+         "/customers/1234",
+         "/customers/1234/orders/5678",
+         "/customers/1234/orders/5678/lines/3",
+         "/customers/1234/invoices/2020-05",
+         "/bench/params/1234"
+   })
+   public String path;
+
+   @Benchmark
+   public ResourceInvoker route(DeploymentState state) throws URISyntaxException
+   {
+      return state.registry.getResourceInvoker(MockHttpRequest.get(path));
+   }
+}
@@ -0,0 +1,110 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.benchmarks.resource.Item;
+import org.jboss.resteasy.core.ResteasyContext;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing and reading the message body of a text, JSON and XML entity with the providers of the deployment.  The
+ * providers are looked up once, in the setup, so only the serialization is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SerializationBenchmark
+{
+   private static final Annotation[] NO_ANNOTATIONS = {};
+
+   @State(Scope.Thread)
+   public static class Bodies
+   {
+      @Param({"text/plain", "application/json", "application/xml"})
+      public String mediaType;
+
+      MediaType type;
+      Class<Object> entityClass;
+      Object entity;
+      MessageBodyWriter<Object> writer;
+      MessageBodyReader<Object> reader;
+      byte[] body;
+      ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+      MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+      MultivaluedMap<String, String> requestHeaders = new MultivaluedHashMap<>();
+      ResteasyContext.CloseableContext context;
+
+      @SuppressWarnings("unchecked")
+      @Setup(Level.Trial)
+      public void lookup(DeploymentState state) throws IOException
+      {
+         ResteasyProviderFactory providerFactory = state.deployment.getProviderFactory();
+         // the JSON and XML providers find their context resolvers through the injected Providers
+         context = ResteasyContext.addCloseableContextDataLevel();
+         ResteasyContext.pushContext(Providers.class, providerFactory);
+
+         type = MediaType.valueOf(mediaType);
+         boolean text = type.isCompatible(MediaType.TEXT_PLAIN_TYPE);
+         entityClass = (Class<Object>) (text ? String.class : Item.class);
+         entity = text ? "hello" : new Item(42, "benchmark", 9.99, "a", "b", "c");
+         writer = (MessageBodyWriter<Object>) providerFactory.getMessageBodyWriter(entityClass, entityClass,
+               NO_ANNOTATIONS, type);
+         reader = (MessageBodyReader<Object>) providerFactory.getMessageBodyReader(entityClass, entityClass,
+               NO_ANNOTATIONS, type);
+         write();
+         body = out.toByteArray();
+      }
+
+      @TearDown(Level.Trial)
+      public void close()
+      {
+         context.close();
+      }
+
+      void write() throws IOException
+      {
+         out.reset();
+         headers.clear();
+         writer.writeTo(entity, entityClass, entityClass, NO_ANNOTATIONS, type, headers, out);
+      }
+   }
+
+   @Benchmark
+   public ByteArrayOutputStream write(Bodies bodies) throws IOException
+   {
+      bodies.write();
+      return bodies.out;
+   }
+
+   @Benchmark
+   public Object read(Bodies bodies) throws IOException
+   {
+      return bodies.reader.readFrom(bodies.entityClass, bodies.entityClass, NO_ANNOTATIONS, bodies.type,
+            bodies.requestHeaders, new ByteArrayInputStream(bodies.body));
+   }
+}
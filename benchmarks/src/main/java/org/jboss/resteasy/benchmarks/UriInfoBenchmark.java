@@ -0,0 +1,46 @@
+package org.jboss.resteasy.benchmarks;
+
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.specimpl.ResteasyUriInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.core.MultivaluedMap;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the request URI information, done once per request by every server adapter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UriInfoBenchmark
+{
+   private static final String URI = "http://localhost:8080/app/bench/params/1234?q=resteasy&limit=25";
+
+   @Benchmark
+   public ResteasyUriInfo create()
+   {
+      return new ResteasyUriInfo(URI, "/app");
+   }
+
+   @Benchmark
+   public MultivaluedMap<String, String> queryParameters()
+   {
+      return new ResteasyUriInfo(URI, "/app").getQueryParameters();
+   }
+
+   @Benchmark
+   public MockHttpRequest mockRequest() throws URISyntaxException
+   {
+      return MockHttpRequest.get("/customers/1234/orders/5678");
+   }
+}
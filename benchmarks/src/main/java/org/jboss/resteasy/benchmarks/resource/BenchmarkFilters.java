@@ -0,0 +1,55 @@
+package org.jboss.resteasy.benchmarks.resource;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.ext.Provider;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+
+/**
+ * Filters and interceptor doing the kind of header work typical applications do, bound with {@link Filtered}.
+ */
+public final class BenchmarkFilters
+{
+   private BenchmarkFilters()
+   {
+   }
+
+   @Provider
+   @Filtered
+   public static class RequestFilter implements ContainerRequestFilter
+   {
+      @Override
+      public void filter(ContainerRequestContext requestContext) throws IOException
+      {
+         String correlationId = requestContext.getHeaderString("X-Correlation-Id");
+         requestContext.setProperty("correlation-id", correlationId == null ? "none" : correlationId);
+      }
+   }
+
+   @Provider
+   @Filtered
+   public static class ResponseFilter implements ContainerResponseFilter
+   {
+      @Override
+      public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException
+      {
+         responseContext.getHeaders().add("X-Correlation-Id", requestContext.getProperty("correlation-id"));
+      }
+   }
+
+   @Provider
+   @Filtered
+   public static class Interceptor implements WriterInterceptor
+   {
+      @Override
+      public void aroundWriteTo(WriterInterceptorContext context) throws IOException
+      {
+         context.getHeaders().add("X-Intercepted", "true");
+         context.proceed();
+      }
+   }
+}
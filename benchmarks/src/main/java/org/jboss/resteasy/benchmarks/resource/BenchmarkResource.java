@@ -0,0 +1,94 @@
+package org.jboss.resteasy.benchmarks.resource;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+@Path("/bench")
+public class BenchmarkResource
+{
+   private static final Item ITEM = new Item(42, "benchmark", 9.99, "a", "b", "c");
+
+   @GET
+   @Path("text")
+   @Produces("text/plain")
+   public String getText()
+   {
+      return "hello";
+   }
+
+   @POST
+   @Path("text")
+   @Consumes("text/plain")
+   @Produces("text/plain")
+   public String postText(String text)
+   {
+      return text;
+   }
+
+   @GET
+   @Path("json")
+   @Produces("application/json")
+   public Item getJson()
+   {
+      return ITEM;
+   }
+
+   @POST
+   @Path("json")
+   @Consumes("application/json")
+   @Produces("application/json")
+   public Item postJson(Item item)
+   {
+      return item;
+   }
+
+   @GET
+   @Path("xml")
+   @Produces("application/xml")
+   public Item getXml()
+   {
+      return ITEM;
+   }
+
+   @POST
+   @Path("xml")
+   @Consumes("application/xml")
+   @Produces("application/xml")
+   public Item postXml(Item item)
+   {
+      return item;
+   }
+
+   @GET
+   @Path("negotiate")
+   @Produces({"application/json", "application/xml"})
+   public Item negotiate()
+   {
+      return ITEM;
+   }
+
+   @GET
+   @Path("params/{id}")
+   @Produces("text/plain")
+   public String params(@PathParam("id") long id, @QueryParam("q") String query,
+                        @QueryParam("limit") @DefaultValue("10") int limit, @HeaderParam("X-Tenant") String tenant)
+   {
+      return tenant;
+   }
+
+   @GET
+   @Path("filtered")
+   @Produces("text/plain")
+   @Filtered
+   public String filtered()
+   {
+      return "hello";
+   }
+}
@@ -0,0 +1,72 @@
+package org.jboss.resteasy.benchmarks.resource;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.util.ArrayList;
+import java.util.List;
+
+@XmlRootElement(name = "item")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class Item
+{
+   private long id;
+   private String name;
+   private double price;
+   private List<String> tags = new ArrayList<String>();
+
+   public Item()
+   {
+   }
+
+   public Item(final long id, final String name, final double price, final String... tags)
+   {
+      this.id = id;
+      this.name = name;
+      this.price = price;
+      for (String tag : tags)
+      {
+         this.tags.add(tag);
+      }
+   }
+
+   public long getId()
+   {
+      return id;
+   }
+
+   public void setId(long id)
+   {
+      this.id = id;
+   }
+
+   public String getName()
+   {
+      return name;
+   }
+
+   public void setName(String name)
+   {
+      this.name = name;
+   }
+
+   public double getPrice()
+   {
+      return price;
+   }
+
+   public void setPrice(double price)
+   {
+      this.price = price;
+   }
+
+   public List<String> getTags()
+   {
+      return tags;
+   }
+
+   public void setTags(List<String> tags)
+   {
+      this.tags = tags;
+   }
+}
@@ -0,0 +1,86 @@
+package org.jboss.resteasy.benchmarks.resource;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+
+/**
+ * A resource class with a mix of literal, templated and regular expression paths, so that routing has to
+ * discriminate between several candidates.
+ */
+@Path("/customers")
+@Produces("text/plain")
+public class RoutingResource
+{
+   @GET
+   public String list()
+   {
+      return "list";
+   }
+
+   @GET
+   @Path("search")
+   public String search()
+   {
+      return "search";
+   }
+
+   @GET
+   @Path("{id}")
+   public String get(@PathParam("id") String id)
+   {
+      return id;
+   }
+
+   @PUT
+   @Path("{id}")
+   public String put(@PathParam("id") String id)
+   {
+      return id;
+   }
+
+   @DELETE
+   @Path("{id}")
+   public String delete(@PathParam("id") String id)
+   {
+      return id;
+   }
+
+   @GET
+   @Path("{id}/orders")
+   public String orders(@PathParam("id") String id)
+   {
+      return id;
+   }
+
+   @GET
+   @Path("{id}/orders/{orderId}")
+   public String order(@PathParam("id") String id, @PathParam("orderId") String orderId)
+   {
+      return orderId;
+   }
+
+   @GET
+   @Path("{id}/orders/{orderId}/lines/{line: \\d+}")
+   public String line(@PathParam("id") String id, @PathParam("orderId") String orderId, @PathParam("line") int line)
+   {
+      return orderId;
+   }
+
+   @GET
+   @Path("{id}/address")
+   public String address(@PathParam("id") String id)
+   {
+      return id;
+   }
+
+   @GET
+   @Path("{id}/invoices/{year: \\d{4}}-{month: \\d{2}}")
+   public String invoice(@PathParam("id") String id, @PathParam("year") int year, @PathParam("month") int month)
+   {
+      return id;
+   }
+}
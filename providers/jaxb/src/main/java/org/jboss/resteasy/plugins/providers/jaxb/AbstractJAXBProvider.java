@@ -26,6 +26,7 @@ import org.jboss.resteasy.core.messagebody.AsyncBufferedMessageBodyWriter;
 import org.jboss.resteasy.plugins.providers.AbstractEntityProvider;
 import org.jboss.resteasy.plugins.providers.jaxb.i18n.LogMessages;
 import org.jboss.resteasy.plugins.providers.jaxb.i18n.Messages;
+import org.jboss.resteasy.plugins.server.servlet.ResteasyContextParameters;
 import org.jboss.resteasy.spi.ResteasyConfiguration;
 import org.jboss.resteasy.util.NoContent;
 import org.jboss.resteasy.util.TypeConverter;
@@ -46,6 +47,8 @@ public abstract class AbstractJAXBProvider<T> extends AbstractEntityProvider<T>
    private boolean disableExternalEntities = true;
    private boolean enableSecureProcessingFeature = true;
    private boolean disableDTDs = true;
+   private JAXBMarshallerPool<Marshaller> marshallerPool = new JAXBMarshallerPool<Marshaller>(JAXBMarshallerPool.DEFAULT_SIZE);
+   private JAXBMarshallerPool<Unmarshaller> unmarshallerPool = new JAXBMarshallerPool<Unmarshaller>(JAXBMarshallerPool.DEFAULT_SIZE);
 
    public AbstractJAXBProvider()
    {
@@ -68,6 +71,11 @@ public abstract class AbstractJAXBProvider<T> extends AbstractEntityProvider<T>
          {
             setDisableDTDs(Boolean.parseBoolean(s));
          }
+         s = context.getParameter(ResteasyContextParameters.RESTEASY_JAXB_MARSHALLER_POOL_SIZE);
+         if (s != null)
+         {
+            setMarshallerPoolSize(Integer.parseInt(s));
+         }
       }
    }
 
@@ -96,6 +104,48 @@ public abstract class AbstractJAXBProvider<T> extends AbstractEntityProvider<T>
       return processor.decorate(Unmarshaller.class, marshaller, type, annotations, mediaType);
    }
 
+   /**
+    * Returns an Unmarshaller to use with the given key, either a pooled one or a new one.  The decorators of the key
+    * still need to be applied.
+    *
+    * @param jaxb JAXB context
+    * @param key key, see {@link JAXBMarshallerPool#key(Class, JAXBContext, Class, Annotation[], MediaType)}
+    * @return unmarshaller
+    * @throws JAXBException if the unmarshaller could not be created
+    */
+   protected Unmarshaller acquireUnmarshaller(JAXBContext jaxb, JAXBMarshallerPool.Key key) throws JAXBException
+   {
+      Unmarshaller unmarshaller = unmarshallerPool == null ? null : unmarshallerPool.acquire(key);
+      return unmarshaller != null ? unmarshaller : jaxb.createUnmarshaller();
+   }
+
+   /**
+    * Gives back an Unmarshaller which was used successfully, before it was decorated.
+    *
+    * @param key key it was acquired with
+    * @param unmarshaller unmarshaller
+    */
+   protected void releaseUnmarshaller(JAXBMarshallerPool.Key key, Unmarshaller unmarshaller)
+   {
+      if (unmarshallerPool != null) unmarshallerPool.release(key, unmarshaller);
+   }
+
+   /**
+    * Applies the decorators of the key, if there are any.
+    *
+    * @param key key the unmarshaller was acquired with
+    * @param type type
+    * @param annotations annotations
+    * @param mediaType media type
+    * @param unmarshaller unmarshaller
+    * @return decorated unmarshaller
+    * @throws JAXBException if a decorator failed
+    */
+   protected static Unmarshaller decorateUnmarshaller(JAXBMarshallerPool.Key key, Class type, Annotation[] annotations, MediaType mediaType, Unmarshaller unmarshaller) throws JAXBException
+   {
+      return key.isDecorated() ? decorateUnmarshaller(type, annotations, mediaType, unmarshaller) : unmarshaller;
+   }
+
    @SuppressWarnings("unchecked")
    public T readFrom(Class<T> type,
                      Type genericType,
@@ -109,26 +159,29 @@ public abstract class AbstractJAXBProvider<T> extends AbstractEntityProvider<T>
          LogMessages.LOGGER.debugf("Provider : %s,  Method : readFrom", getClass().getName());
          NoContent.contentLengthCheck(httpHeaders);
          JAXBContext jaxb = findJAXBContext(type, annotations, mediaType, true);
-         Unmarshaller unmarshaller = jaxb.createUnmarshaller();
-         unmarshaller = decorateUnmarshaller(type, annotations, mediaType, unmarshaller);
+         JAXBMarshallerPool.Key key = JAXBMarshallerPool.key(Unmarshaller.class, jaxb, type, annotations, mediaType);
+         Unmarshaller pooled = acquireUnmarshaller(jaxb, key);
+         Unmarshaller unmarshaller = decorateUnmarshaller(key, type, annotations, mediaType, pooled);
 
+         T result;
          if (needsSecurity())
          {
-            return processWithSecureProcessing(unmarshaller, entityStream, getCharset(mediaType));
+            result = processWithSecureProcessing(unmarshaller, entityStream, getCharset(mediaType));
          }
-
-         if (getCharset(mediaType) == null)
+         else if (getCharset(mediaType) == null)
          {
             InputSource is = new InputSource(entityStream);
             is.setEncoding(StandardCharsets.UTF_8.name());
             StreamSource source = new StreamSource(new InputStreamReader(entityStream, StandardCharsets.UTF_8));
             source.setInputStream(entityStream);
-            return (T) unmarshaller.unmarshal(source);
+            result = (T) unmarshaller.unmarshal(source);
          }
          else
          {
-            return (T) unmarshaller.unmarshal(new StreamSource(entityStream));
+            result = (T) unmarshaller.unmarshal(new StreamSource(entityStream));
          }
+         releaseUnmarshaller(key, pooled);
+         return result;
       }
       catch (JAXBException e)
       {
@@ -147,9 +200,20 @@ public abstract class AbstractJAXBProvider<T> extends AbstractEntityProvider<T>
       try
       {
          LogMessages.LOGGER.debugf("Provider : %s,  Method : writeTo", getClass().getName());
-         Marshaller marshaller = getMarshaller(type, annotations, mediaType);
-         marshaller = decorateMarshaller(type, annotations, mediaType, marshaller);
+         JAXBContext jaxb = marshallerPool == null ? null : findJAXBContext(type, annotations, mediaType, false);
+         JAXBMarshallerPool.Key key = JAXBMarshallerPool.key(Marshaller.class, jaxb, type, annotations, mediaType);
+         Marshaller pooled = marshallerPool == null ? null : marshallerPool.acquire(key);
+         if (pooled == null)
+         {
+            // the context was already looked up to build the key
+            pooled = jaxb == null ? getMarshaller(type, annotations, mediaType) : createMarshaller(jaxb, mediaType);
+         }
+         Marshaller marshaller = key.isDecorated() ? decorateMarshaller(type, annotations, mediaType, pooled) : pooled;
          marshaller.marshal(t, outputStream);
+         if (marshallerPool != null)
+         {
+            marshallerPool.release(key, pooled);
+         }
       }
       catch (JAXBException e)
       {
@@ -171,17 +235,7 @@ public abstract class AbstractJAXBProvider<T> extends AbstractEntityProvider<T>
    {
       try
       {
-         JAXBContext jaxb = findJAXBContext(type, annotations, mediaType, false);
-         Marshaller marshaller = jaxb.createMarshaller();
-         setCharset(mediaType, marshaller);
-         // Pretty Print the XML response.
-         Object formatted = mediaType.getParameters().get("formatted");
-         if (formatted != null)
-         {
-            Boolean value = TypeConverter.getBooleanValue(formatted.toString());
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, value);
-         }
-         return marshaller;
+         return createMarshaller(findJAXBContext(type, annotations, mediaType, false), mediaType);
       }
       catch (JAXBException e)
       {
@@ -189,6 +243,28 @@ public abstract class AbstractJAXBProvider<T> extends AbstractEntityProvider<T>
       }
    }
 
+   /**
+    * Creates a marshaller configured for the media type: its charset and formatted parameters.
+    *
+    * @param jaxb JAXB context
+    * @param mediaType media type
+    * @return jaxb marshaller
+    * @throws JAXBException if the marshaller could not be created
+    */
+   protected Marshaller createMarshaller(JAXBContext jaxb, MediaType mediaType) throws JAXBException
+   {
+      Marshaller marshaller = jaxb.createMarshaller();
+      setCharset(mediaType, marshaller);
+      // Pretty Print the XML response.
+      Object formatted = mediaType.getParameters().get("formatted");
+      if (formatted != null)
+      {
+         Boolean value = TypeConverter.getBooleanValue(formatted.toString());
+         marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, value);
+      }
+      return marshaller;
+   }
+
    public static void setCharset(MediaType mediaType, Marshaller marshaller)
          throws PropertyException
    {
@@ -266,6 +342,34 @@ public abstract class AbstractJAXBProvider<T> extends AbstractEntityProvider<T>
       this.disableDTDs = disableDTDs;
    }
 
+   /**
+    * Sets the number of configured Marshallers and Unmarshallers kept per JAXB context, type, media type and
+    * decorators, 0 disables pooling.
+    *
+    * @param size pool size
+    */
+   public void setMarshallerPoolSize(int size)
+   {
+      marshallerPool = size > 0 ? new JAXBMarshallerPool<Marshaller>(size) : null;
+      unmarshallerPool = size > 0 ? new JAXBMarshallerPool<Unmarshaller>(size) : null;
+   }
+
+   /**
+    * @return pool of Marshallers, null if pooling is disabled
+    */
+   public JAXBMarshallerPool<Marshaller> getMarshallerPool()
+   {
+      return marshallerPool;
+   }
+
+   /**
+    * @return pool of Unmarshallers, null if pooling is disabled
+    */
+   public JAXBMarshallerPool<Unmarshaller> getUnmarshallerPool()
+   {
+      return unmarshallerPool;
+   }
+
    protected boolean needsSecurity()
    {
       return true;
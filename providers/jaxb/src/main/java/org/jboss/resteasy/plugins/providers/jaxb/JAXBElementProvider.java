@@ -84,8 +84,9 @@ public class JAXBElementProvider extends AbstractJAXBProvider<JAXBElement<?>>
       JAXBElement<?> result;
       try
       {
-         Unmarshaller unmarshaller = jaxb.createUnmarshaller();
-         unmarshaller = decorateUnmarshaller(type, annotations, mediaType, unmarshaller);
+         JAXBMarshallerPool.Key key = JAXBMarshallerPool.key(Unmarshaller.class, jaxb, type, annotations, mediaType);
+         Unmarshaller pooled = acquireUnmarshaller(jaxb, key);
+         Unmarshaller unmarshaller = decorateUnmarshaller(key, type, annotations, mediaType, pooled);
 
          if (needsSecurity())
          {
@@ -117,6 +118,7 @@ public class JAXBElementProvider extends AbstractJAXBProvider<JAXBElement<?>>
                result = e;
             }
          }
+         releaseUnmarshaller(key, pooled);
       }
       catch (JAXBException e)
       {
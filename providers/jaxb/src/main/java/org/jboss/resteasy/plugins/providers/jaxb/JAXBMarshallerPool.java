@@ -0,0 +1,276 @@
+package org.jboss.resteasy.plugins.providers.jaxb;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.ws.rs.core.MediaType;
+import javax.xml.bind.JAXBContext;
+
+import org.jboss.resteasy.annotations.Decorator;
+import org.jboss.resteasy.annotations.Decorators;
+
+/**
+ * Bounded pool of Marshallers or Unmarshallers, so that they are not created and configured again for every
+ * request.  Instances are pooled per {@link Key}: the JAXBContext, the type, the media type (its charset and
+ * formatted parameters configure the instances) and the decorator annotations which apply.
+ * <p>
+ * Marshallers and Unmarshallers are not thread safe: an acquired instance belongs to the caller until it is
+ * released.  An instance should only be released after it was used successfully, one which failed may be left in
+ * an inconsistent state and is simply dropped.  The decorators of the key must be applied again to every acquired
+ * instance, they may depend on the current request, see {@link XmlHeaderProcessor}.
+ *
+ * @param <T> Marshaller or Unmarshaller
+ */
+public class JAXBMarshallerPool<T>
+{
+   /**
+    * Default maximum number of instances kept per key.
+    */
+   public static final int DEFAULT_SIZE = 8;
+
+   /**
+    * Maximum number of keys whose instances are pooled.  Beyond this the least recently used key is dropped, for
+    * instance when a ContextResolver creates a new JAXBContext for every request.
+    */
+   public static final int MAX_KEYS = 64;
+
+   public static final class Key
+   {
+      private final JAXBContext context;
+      private final Class<?> type;
+      private final MediaType mediaType;
+      private final List<Annotation> decorators;
+      private final int hash;
+
+      Key(final JAXBContext context, final Class<?> type, final MediaType mediaType, final List<Annotation> decorators)
+      {
+         this.context = context;
+         this.type = type;
+         this.mediaType = mediaType;
+         this.decorators = decorators;
+         int h = System.identityHashCode(context);
+         h = 31 * h + (type == null ? 0 : type.hashCode());
+         h = 31 * h + (mediaType == null ? 0 : mediaType.hashCode());
+         this.hash = 31 * h + decorators.hashCode();
+      }
+
+      /**
+       * @return true if decorators apply to the instances of this key
+       */
+      public boolean isDecorated()
+      {
+         return !decorators.isEmpty();
+      }
+
+      @Override
+      public boolean equals(Object o)
+      {
+         if (this == o) return true;
+         if (!(o instanceof Key)) return false;
+         Key key = (Key) o;
+         return hash == key.hash && context == key.context && type == key.type
+               && (mediaType == null ? key.mediaType == null : mediaType.equals(key.mediaType))
+               && decorators.equals(key.decorators);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hash;
+      }
+   }
+
+   private static final class Slots<T>
+   {
+      final Queue<T> instances = new ConcurrentLinkedQueue<T>();
+      final AtomicInteger count = new AtomicInteger();
+   }
+
+   private final int size;
+   // access ordered, guarded by itself
+   private final LinkedHashMap<Key, Slots<T>> pools = new LinkedHashMap<Key, Slots<T>>(16, 0.75f, true)
+   {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Slots<T>> eldest)
+      {
+         return size() > MAX_KEYS;
+      }
+   };
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+
+   /**
+    * @param size maximum number of instances kept per key
+    */
+   public JAXBMarshallerPool(final int size)
+   {
+      if (size < 1) throw new IllegalArgumentException("size must be positive: " + size);
+      this.size = size;
+   }
+
+   /**
+    * Creates the key of the instances used to process a type.  The decorators are selected like
+    * {@link org.jboss.resteasy.core.interception.jaxrs.DecoratorMatcher} does: the annotations of the type, overridden
+    * by the method or parameter annotations.
+    *
+    * @param target Marshaller or Unmarshaller
+    * @param context JAXB context the instances are created from
+    * @param type i.e. a JAXB annotated class
+    * @param annotations i.e. method or parameter annotations
+    * @param mediaType media type
+    * @return key
+    */
+   public static Key key(Class<?> target, JAXBContext context, Class<?> type, Annotation[] annotations, MediaType mediaType)
+   {
+      Map<Class<?>, Annotation> meta = null;
+      if (type != null)
+      {
+         meta = findDecorators(target, meta, type.getAnnotations());
+      }
+      if (annotations != null)
+      {
+         meta = findDecorators(target, meta, annotations);
+      }
+      List<Annotation> decorators = meta == null ? Collections.<Annotation>emptyList() : new ArrayList<Annotation>(meta.values());
+      return new Key(context, type, mediaType, decorators);
+   }
+
+   private static Map<Class<?>, Annotation> findDecorators(Class<?> target, Map<Class<?>, Annotation> meta, Annotation[] annotations)
+   {
+      for (Annotation annotation : annotations)
+      {
+         Class<? extends Annotation> annotationType = annotation.annotationType();
+         Decorators decorators = annotationType.getAnnotation(Decorators.class);
+         if (decorators != null)
+         {
+            for (Decorator decorator : decorators.values())
+            {
+               meta = putDecorator(target, meta, annotation, decorator);
+            }
+         }
+         else
+         {
+            meta = putDecorator(target, meta, annotation, annotationType.getAnnotation(Decorator.class));
+         }
+      }
+      return meta;
+   }
+
+   private static Map<Class<?>, Annotation> putDecorator(Class<?> target, Map<Class<?>, Annotation> meta, Annotation annotation, Decorator decorator)
+   {
+      if (decorator != null && target.isAssignableFrom(decorator.target()))
+      {
+         if (meta == null) meta = new LinkedHashMap<Class<?>, Annotation>();
+         meta.remove(annotation.annotationType());
+         meta.put(annotation.annotationType(), annotation);
+      }
+      return meta;
+   }
+
+   /**
+    * @param key key
+    * @return a pooled instance, or null if the caller should create one
+    */
+   public T acquire(Key key)
+   {
+      Slots<T> slots;
+      synchronized (pools)
+      {
+         slots = pools.get(key);
+      }
+      T instance = slots == null ? null : slots.instances.poll();
+      if (instance == null)
+      {
+         misses.increment();
+         return null;
+      }
+      slots.count.decrementAndGet();
+      hits.increment();
+      return instance;
+   }
+
+   /**
+    * Returns an instance to the pool, it is dropped if the pool of its key is full.
+    *
+    * @param key key the instance was acquired or created with
+    * @param instance instance which was used successfully
+    */
+   public void release(Key key, T instance)
+   {
+      Slots<T> slots;
+      synchronized (pools)
+      {
+         slots = pools.computeIfAbsent(key, k -> new Slots<T>());
+      }
+      if (slots.count.incrementAndGet() > size)
+      {
+         slots.count.decrementAndGet();
+         return;
+      }
+      slots.instances.offer(instance);
+   }
+
+   public void clear()
+   {
+      synchronized (pools)
+      {
+         pools.clear();
+      }
+   }
+
+   public int getSize()
+   {
+      return size;
+   }
+
+   /**
+    * @return number of instances currently pooled
+    */
+   public int getPooledCount()
+   {
+      int count = 0;
+      synchronized (pools)
+      {
+         for (Slots<T> slots : pools.values())
+         {
+            count += slots.count.get();
+         }
+      }
+      return count;
+   }
+
+   /**
+    * @return number of keys whose instances are pooled
+    */
+   public int getKeyCount()
+   {
+      synchronized (pools)
+      {
+         return pools.size();
+      }
+   }
+
+   /**
+    * @return number of acquisitions which got a pooled instance
+    */
+   public long getHitCount()
+   {
+      return hits.sum();
+   }
+
+   /**
+    * @return number of acquisitions for which an instance had to be created
+    */
+   public long getMissCount()
+   {
+      return misses.sum();
+   }
+}
@@ -97,8 +97,9 @@ public class JAXBXmlTypeProvider extends AbstractJAXBProvider<Object>
             jaxb = getJAXBContextFinder(type, annotations, mediaType);
          }
 
-         Unmarshaller unmarshaller = jaxb.createUnmarshaller();
-         unmarshaller = decorateUnmarshaller(type, annotations, mediaType, unmarshaller);
+         JAXBMarshallerPool.Key key = JAXBMarshallerPool.key(Unmarshaller.class, jaxb, type, annotations, mediaType);
+         Unmarshaller pooled = acquireUnmarshaller(jaxb, key);
+         Unmarshaller unmarshaller = decorateUnmarshaller(key, type, annotations, mediaType, pooled);
 
          Object obj = null;
          if (needsSecurity())
@@ -130,6 +131,7 @@ public class JAXBXmlTypeProvider extends AbstractJAXBProvider<Object>
                obj = unmarshaller.unmarshal(new StreamSource(entityStream));
             }
          }
+         releaseUnmarshaller(key, pooled);
          if (obj instanceof JAXBElement)
          {
             JAXBElement element = (JAXBElement) obj;
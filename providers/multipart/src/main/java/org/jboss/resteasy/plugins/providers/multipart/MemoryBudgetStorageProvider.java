@@ -0,0 +1,141 @@
+package org.jboss.resteasy.plugins.providers.multipart;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.james.mime4j.storage.AbstractStorageProvider;
+import org.apache.james.mime4j.storage.Storage;
+import org.apache.james.mime4j.storage.StorageOutputStream;
+import org.apache.james.mime4j.storage.StorageProvider;
+
+/**
+ * Keeps the bodies of the parts of one multipart message in memory as long as each one is smaller than a threshold
+ * and all of them together fit in a budget, the others are stored by a backend provider, usually in temporary files.
+ * Unlike ThresholdStorageProvider a part that outgrows the threshold is copied to the backend at once instead of
+ * being kept split between memory and the backend.
+ */
+public class MemoryBudgetStorageProvider extends AbstractStorageProvider
+{
+   private final StorageProvider backend;
+   private final int threshold;
+   private final AtomicLong budget;
+
+   /**
+    * @param backend stores the parts which don't fit in memory
+    * @param threshold maximum size of a part kept in memory
+    * @param budget maximum size of all the parts kept in memory
+    */
+   public MemoryBudgetStorageProvider(final StorageProvider backend, final int threshold, final long budget)
+   {
+      this.backend = backend;
+      this.threshold = threshold;
+      this.budget = new AtomicLong(budget);
+   }
+
+   /**
+    * @return memory left for the next parts
+    */
+   public long getRemainingBudget()
+   {
+      return budget.get();
+   }
+
+   private boolean reserve(int size)
+   {
+      for (;;)
+      {
+         long remaining = budget.get();
+         if (remaining < size) return false;
+         if (budget.compareAndSet(remaining, remaining - size)) return true;
+      }
+   }
+
+   private void release(int size)
+   {
+      budget.addAndGet(size);
+   }
+
+   public StorageOutputStream createStorageOutputStream() throws IOException
+   {
+      return new BudgetStorageOutputStream();
+   }
+
+   private final class BudgetStorageOutputStream extends StorageOutputStream
+   {
+      private byte[] head = new byte[Math.min(threshold, 1024)];
+      private int size;
+      private StorageOutputStream tail;
+
+      @Override
+      protected void write0(byte[] buffer, int offset, int length) throws IOException
+      {
+         if (tail == null && size + length <= threshold && reserve(length))
+         {
+            if (size + length > head.length)
+            {
+               head = Arrays.copyOf(head, Math.min(threshold, Math.max(size + length, head.length << 1)));
+            }
+            System.arraycopy(buffer, offset, head, size, length);
+            size += length;
+            return;
+         }
+         if (tail == null)
+         {
+            tail = backend.createStorageOutputStream();
+            tail.write(head, 0, size);
+            release(size);
+            head = null;
+         }
+         tail.write(buffer, offset, length);
+      }
+
+      @Override
+      protected Storage toStorage0() throws IOException
+      {
+         if (tail != null)
+         {
+            return tail.toStorage();
+         }
+         return new MemoryStorage(head, size);
+      }
+
+      @Override
+      public void close() throws IOException
+      {
+         super.close();
+         if (tail != null) tail.close();
+      }
+   }
+
+   private final class MemoryStorage implements Storage
+   {
+      private byte[] data;
+      private final int size;
+
+      MemoryStorage(final byte[] data, final int size)
+      {
+         this.data = data;
+         this.size = size;
+      }
+
+      public InputStream getInputStream() throws IOException
+      {
+         if (data == null)
+            throw new IllegalStateException("storage has been deleted");
+
+         return new ByteArrayInputStream(data, 0, size);
+      }
+
+      public void delete()
+      {
+         if (data != null)
+         {
+            data = null;
+            release(size);
+         }
+      }
+   }
+}
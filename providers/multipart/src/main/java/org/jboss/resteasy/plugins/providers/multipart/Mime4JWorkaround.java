@@ -30,7 +30,9 @@ import org.apache.james.mime4j.storage.StorageProvider;
 import org.apache.james.mime4j.storage.ThresholdStorageProvider;
 import org.apache.james.mime4j.stream.BodyDescriptorBuilder;
 import org.apache.james.mime4j.stream.MimeConfig;
+import org.eclipse.microprofile.config.Config;
 import org.jboss.resteasy.microprofile.config.ResteasyConfigProvider;
+import org.jboss.resteasy.plugins.server.servlet.ResteasyContextParameters;
 
 /**
  * Copy code from org.apache.james.mime4j.message.DefaultMessageBuilder.parseMessage().
@@ -56,14 +58,7 @@ public class Mime4JWorkaround {
             DecodeMonitor mon = strict ? DecodeMonitor.STRICT : DecodeMonitor.SILENT;
             BodyDescriptorBuilder bdb = new DefaultBodyDescriptorBuilder(null, strict ? DefaultFieldParser.getParser() : LenientFieldParser.getParser(), mon);
 
-            StorageProvider storageProvider;
-            if (ResteasyConfigProvider.getConfig().getOptionalValue(DefaultStorageProvider.DEFAULT_STORAGE_PROVIDER_PROPERTY, String.class).orElse(null) != null) {
-                storageProvider = DefaultStorageProvider.getInstance();
-            } else {
-                StorageProvider backend = new CustomTempFileStorageProvider();
-                storageProvider = new ThresholdStorageProvider(backend, 1024);
-            }
-            BodyFactory bf = new StorageBodyFactory(storageProvider, mon);
+            BodyFactory bf = new StorageBodyFactory(createStorageProvider(), mon);
 
             MimeStreamParser parser = new MimeStreamParser(cfg, mon, bdb);
             // EntityBuilder expect the parser will send ParserFields for the well known fields
@@ -80,6 +75,30 @@ public class Mime4JWorkaround {
     }
 
 
+    /**
+     * Creates the provider storing the bodies of the parts of one message.  Parts smaller than
+     * {@value ResteasyContextParameters#RESTEASY_MULTIPART_MEMORY_THRESHOLD} bytes are kept in memory, up to
+     * {@value ResteasyContextParameters#RESTEASY_MULTIPART_MEMORY_BUDGET} bytes for the whole message, the others
+     * are written to temporary files in {@value ResteasyContextParameters#RESTEASY_MULTIPART_TEMP_DIRECTORY}.
+     *
+     * @return storage provider
+     */
+    public static StorageProvider createStorageProvider() {
+        Config config = ResteasyConfigProvider.getConfig();
+        if (config.getOptionalValue(DefaultStorageProvider.DEFAULT_STORAGE_PROVIDER_PROPERTY, String.class).orElse(null) != null) {
+            return DefaultStorageProvider.getInstance();
+        }
+        String directory = config.getOptionalValue(ResteasyContextParameters.RESTEASY_MULTIPART_TEMP_DIRECTORY, String.class).orElse(null);
+        StorageProvider backend = new CustomTempFileStorageProvider(CustomTempFileStorageProvider.DEFAULT_PREFIX, null,
+                directory == null ? null : new File(directory));
+        int threshold = Integer.parseInt(config.getOptionalValue(ResteasyContextParameters.RESTEASY_MULTIPART_MEMORY_THRESHOLD, String.class).orElse("1024"));
+        String budget = config.getOptionalValue(ResteasyContextParameters.RESTEASY_MULTIPART_MEMORY_BUDGET, String.class).orElse(null);
+        if (budget == null) {
+            return new ThresholdStorageProvider(backend, threshold);
+        }
+        return new MemoryBudgetStorageProvider(backend, threshold, Long.parseLong(budget));
+    }
+
     /**
      * A custom TempFileStorageProvider that do no set deleteOnExit on temp files,
      * to avoid memory leaks (see https://issues.apache.org/jira/browse/MIME4J-251)
@@ -29,14 +29,16 @@ public class MultipartReader implements MessageBodyReader<MultipartInput>
 
    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
    {
-      return type.equals(MultipartInput.class);
+      return type.equals(MultipartInput.class) || type.equals(StreamingMultipartInput.class);
    }
 
    public MultipartInput readFrom(Class<MultipartInput> type, Type genericType, Annotation[] annotations, MediaType mediaType, MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException, WebApplicationException
    {
       String boundary = mediaType.getParameters().get("boundary");
       if (boundary == null) throw new IOException(Messages.MESSAGES.unableToGetBoundary());
-      MultipartInputImpl input = new MultipartInputImpl(mediaType, workers);
+      MultipartInputImpl input = StreamingMultipartInput.class.equals(type)
+            ? new StreamingMultipartInputImpl(mediaType, workers)
+            : new MultipartInputImpl(mediaType, workers);
       /*
       StringWriter writer = new StringWriter();
       int b;
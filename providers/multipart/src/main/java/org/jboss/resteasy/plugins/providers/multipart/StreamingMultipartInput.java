@@ -0,0 +1,25 @@
+package org.jboss.resteasy.plugins.providers.multipart;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Multipart message read part by part as it arrives, instead of being parsed completely before the resource method
+ * is invoked.  The body of a part is not stored: it is read directly from the request, and is only available
+ * until the next part is requested.
+ */
+public interface StreamingMultipartInput extends MultipartInput {
+
+   /**
+    * @return the next part, or null if all the parts were read
+    * @throws IOException if the message could not be read
+    */
+   InputPart nextPart() throws IOException;
+
+   /**
+    * Reads the parts that were not returned by {@link #nextPart()} yet, storing their bodies like
+    * {@link MultipartInputImpl} does.
+    */
+   @Override
+   List<InputPart> getParts();
+}
@@ -0,0 +1,223 @@
+package org.jboss.resteasy.plugins.providers.multipart;
+
+import org.apache.james.mime4j.MimeException;
+import org.apache.james.mime4j.MimeIOException;
+import org.apache.james.mime4j.codec.Base64InputStream;
+import org.apache.james.mime4j.codec.DecodeMonitor;
+import org.apache.james.mime4j.codec.QuotedPrintableInputStream;
+import org.apache.james.mime4j.dom.BinaryBody;
+import org.apache.james.mime4j.dom.FieldParser;
+import org.apache.james.mime4j.dom.Header;
+import org.apache.james.mime4j.dom.field.ParsedField;
+import org.apache.james.mime4j.field.DefaultFieldParser;
+import org.apache.james.mime4j.field.LenientFieldParser;
+import org.apache.james.mime4j.message.BodyPart;
+import org.apache.james.mime4j.message.DefaultBodyDescriptorBuilder;
+import org.apache.james.mime4j.message.HeaderImpl;
+import org.apache.james.mime4j.storage.StorageBodyFactory;
+import org.apache.james.mime4j.stream.EntityState;
+import org.apache.james.mime4j.stream.MimeConfig;
+import org.apache.james.mime4j.stream.MimeTokenStream;
+import org.apache.james.mime4j.stream.RecursionMode;
+import org.apache.james.mime4j.util.MimeUtil;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.Providers;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pulls the parts of the message from the request with a MimeTokenStream.  A part which is itself a multipart
+ * message is returned with its raw body.
+ */
+public class StreamingMultipartInputImpl extends MultipartInputImpl implements StreamingMultipartInput
+{
+   protected MimeTokenStream stream;
+   protected FieldParser<ParsedField> fieldParser;
+   protected DecodeMonitor monitor;
+   protected String preamble;
+   protected List<BodyPart> storedParts = new ArrayList<BodyPart>();
+   private int depth;
+   private boolean started;
+
+   public StreamingMultipartInputImpl(final MediaType contentType, final Providers workers)
+   {
+      super(contentType, workers);
+   }
+
+   @Override
+   public void parse(InputStream is) throws IOException
+   {
+      MimeConfig cfg = new MimeConfig();
+      boolean strict = cfg.isStrictParsing();
+      monitor = strict ? DecodeMonitor.STRICT : DecodeMonitor.SILENT;
+      fieldParser = strict ? DefaultFieldParser.getParser() : LenientFieldParser.getParser();
+      stream = new MimeTokenStream(cfg, monitor, new DefaultBodyDescriptorBuilder(null, fieldParser, monitor));
+      stream.parseHeadless(is, contentType.toString());
+   }
+
+   public InputPart nextPart() throws IOException
+   {
+      BodyPart bodyPart = next();
+      if (bodyPart == null)
+      {
+         return null;
+      }
+      bodyPart.setBody(new StreamedBody(decode(stream.getBodyDescriptor().getTransferEncoding(), stream.getInputStream())));
+      return extractPart(bodyPart);
+   }
+
+   /**
+    * Moves the token stream to the body of the next part.
+    *
+    * @return the part, with its headers but no body yet, or null at the end of the message
+    */
+   private BodyPart next() throws IOException
+   {
+      try
+      {
+         Header header = null;
+         for (EntityState state = started ? stream.next() : stream.getState(); state != EntityState.T_END_OF_STREAM; state = stream.next())
+         {
+            started = true;
+            switch (state)
+            {
+               case T_START_MULTIPART:
+                  if (depth++ == 0)
+                  {
+                     // the parts of the message are not parsed any further, nested multiparts are read as bodies
+                     stream.setRecursionMode(RecursionMode.M_FLAT);
+                  }
+                  break;
+               case T_END_MULTIPART:
+                  depth--;
+                  break;
+               case T_PREAMBLE:
+                  if (depth == 1)
+                  {
+                     preamble = read(stream.getInputStream());
+                  }
+                  break;
+               case T_START_BODYPART:
+                  if (depth == 1)
+                  {
+                     header = new HeaderImpl();
+                  }
+                  break;
+               case T_FIELD:
+                  if (depth == 1 && header != null)
+                  {
+                     header.addField(fieldParser.parse(stream.getField(), monitor));
+                  }
+                  break;
+               case T_BODY:
+                  if (depth == 1 && header != null)
+                  {
+                     BodyPart bodyPart = new BodyPart();
+                     bodyPart.setHeader(header);
+                     return bodyPart;
+                  }
+                  break;
+               default:
+                  break;
+            }
+         }
+         return null;
+      }
+      catch (MimeException e)
+      {
+         throw new MimeIOException(e);
+      }
+   }
+
+   private static InputStream decode(String transferEncoding, InputStream is)
+   {
+      if (MimeUtil.ENC_BASE64.equals(transferEncoding))
+      {
+         return new Base64InputStream(is);
+      }
+      else if (MimeUtil.ENC_QUOTED_PRINTABLE.equals(transferEncoding))
+      {
+         return new QuotedPrintableInputStream(is);
+      }
+      return is;
+   }
+
+   private static String read(InputStream is) throws IOException
+   {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[1024];
+      for (int n; (n = is.read(buffer)) != -1; )
+      {
+         out.write(buffer, 0, n);
+      }
+      return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+   }
+
+   @Override
+   public String getPreamble()
+   {
+      return preamble;
+   }
+
+   @Override
+   public List<InputPart> getParts()
+   {
+      try
+      {
+         StorageBodyFactory bodyFactory = new StorageBodyFactory(Mime4JWorkaround.createStorageProvider(), DecodeMonitor.SILENT);
+         for (BodyPart bodyPart = next(); bodyPart != null; bodyPart = next())
+         {
+            bodyPart.setBody(bodyFactory.binaryBody(decode(stream.getBodyDescriptor().getTransferEncoding(), stream.getInputStream())));
+            storedParts.add(bodyPart);
+            parts.add(extractPart(bodyPart));
+         }
+      }
+      catch (IOException e)
+      {
+         throw new UncheckedIOException(e);
+      }
+      return parts;
+   }
+
+   @Override
+   public void close()
+   {
+      for (BodyPart bodyPart : storedParts)
+      {
+         try
+         {
+            bodyPart.dispose();
+         }
+         catch (Exception e)
+         {
+
+         }
+      }
+      storedParts.clear();
+   }
+
+   /**
+    * Body of the current part, read from the request.
+    */
+   private static class StreamedBody extends BinaryBody
+   {
+      private final InputStream in;
+
+      StreamedBody(final InputStream in)
+      {
+         this.in = in;
+      }
+
+      @Override
+      public InputStream getInputStream()
+      {
+         return in;
+      }
+   }
+}
@@ -0,0 +1,31 @@
+package org.jboss.resteasy.plugins.cache.server;
+
+/**
+ * Computes the ETag of the responses cached by the {@link ServerCacheInterceptor} when the application did not
+ * set one.  The entity is fed to a {@link Hash} while it is written, it never has to be hashed again from a copy.
+ */
+public interface ETagGenerator
+{
+   /**
+    * 64 bit non-cryptographic hash of the entity and its length.  Cheap, but not meant to withstand collisions
+    * crafted on purpose.
+    */
+   ETagGenerator FAST = FastETagGenerator::new;
+
+   /**
+    * MD5 digest of the entity, the ETag historically generated by the server cache.
+    */
+   ETagGenerator MD5 = new MessageDigestETagGenerator("MD5");
+
+   /**
+    * Incremental hash of one entity, not thread safe.
+    */
+   interface Hash
+   {
+      void update(byte[] bytes, int offset, int length);
+
+      String getETag();
+   }
+
+   Hash newHash();
+}
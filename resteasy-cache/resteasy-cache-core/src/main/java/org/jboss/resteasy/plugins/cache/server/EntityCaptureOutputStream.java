@@ -0,0 +1,137 @@
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+
+/**
+ * Captures a response entity for the server cache.  The bytes are kept in chunks which double in size up to
+ * {@value #MAX_CHUNK} bytes, so unlike a ByteArrayOutputStream the captured bytes are never copied while the entity
+ * grows, and they can be written out without assembling a single array.  Once {@link #toByteArray()} assembled
+ * that array, it replaces the chunks, so the capture never holds the entity twice.  When an
+ * {@link ETagGenerator.Hash} is given it is updated with every write.
+ */
+public class EntityCaptureOutputStream extends OutputStream
+{
+   private static final int FIRST_CHUNK = 1024;
+   private static final int MAX_CHUNK = 64 * 1024;
+
+   private final ETagGenerator.Hash hash;
+   private final List<byte[]> chunks = new ArrayList<>();
+   private byte[] current;
+   private int position;
+   private int size;
+
+   public EntityCaptureOutputStream(final ETagGenerator.Hash hash)
+   {
+      this.hash = hash;
+   }
+
+   @Override
+   public void write(int b)
+   {
+      if (current == null || position == current.length)
+      {
+         nextChunk();
+      }
+      current[position++] = (byte) b;
+      size++;
+      if (hash != null)
+      {
+         hash.update(current, position - 1, 1);
+      }
+   }
+
+   @Override
+   public void write(byte[] bytes, int offset, int length)
+   {
+      if (hash != null)
+      {
+         hash.update(bytes, offset, length);
+      }
+      size += length;
+      while (length > 0)
+      {
+         if (current == null || position == current.length)
+         {
+            nextChunk();
+         }
+         int n = Math.min(length, current.length - position);
+         System.arraycopy(bytes, offset, current, position, n);
+         position += n;
+         offset += n;
+         length -= n;
+      }
+   }
+
+   private void nextChunk()
+   {
+      current = new byte[current == null ? FIRST_CHUNK : Math.max(FIRST_CHUNK, Math.min(MAX_CHUNK, current.length << 1))];
+      chunks.add(current);
+      position = 0;
+   }
+
+   public int size()
+   {
+      return size;
+   }
+
+   /**
+    * @return the ETag computed while the entity was written, null if no hash was given
+    */
+   public String getETag()
+   {
+      return hash == null ? null : hash.getETag();
+   }
+
+   /**
+    * @return the captured bytes, which then replace the chunks
+    */
+   public byte[] toByteArray()
+   {
+      if (chunks.size() == 1 && position == current.length)
+      {
+         return current;
+      }
+      byte[] bytes = new byte[size];
+      int offset = 0;
+      for (int i = 0; i < chunks.size(); i++)
+      {
+         byte[] chunk = chunks.get(i);
+         int n = chunk == current ? position : chunk.length;
+         System.arraycopy(chunk, 0, bytes, offset, n);
+         offset += n;
+         // let the chunks be collected as they are copied
+         chunks.set(i, null);
+      }
+      chunks.clear();
+      chunks.add(bytes);
+      current = bytes;
+      position = size;
+      return bytes;
+   }
+
+   public void writeTo(OutputStream out) throws IOException
+   {
+      for (byte[] chunk : chunks)
+      {
+         out.write(chunk, 0, chunk == current ? position : chunk.length);
+      }
+   }
+
+   public CompletionStage<Void> asyncWriteTo(AsyncOutputStream out)
+   {
+      CompletionStage<Void> ret = CompletableFuture.completedFuture(null);
+      for (byte[] chunk : chunks)
+      {
+         int length = chunk == current ? position : chunk.length;
+         ret = ret.thenCompose(v -> out.asyncWrite(chunk, 0, length));
+      }
+      return ret;
+   }
+}
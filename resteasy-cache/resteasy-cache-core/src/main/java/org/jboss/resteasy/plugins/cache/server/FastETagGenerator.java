@@ -0,0 +1,90 @@
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * {@link ETagGenerator.Hash} consuming the entity 8 bytes at a time with multiply and rotate rounds, finalized with
+ * the length of the entity and the MurmurHash3 avalanche.  The bytes of a word split between two writes are kept
+ * until the word is complete, so the hash does not depend on how the entity was written.
+ */
+class FastETagGenerator implements ETagGenerator.Hash
+{
+   private static final long K1 = 0x9E3779B185EBCA87L;
+   private static final long K2 = 0xC2B2AE3D27D4EB4FL;
+   private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+   private long hash = 0x27D4EB2F165667C5L;
+   private long length;
+   private long pending;
+   private int pendingBytes;
+
+   @Override
+   public void update(byte[] bytes, int offset, int length)
+   {
+      int end = offset + length;
+      this.length += length;
+      while (pendingBytes > 0 && offset < end)
+      {
+         addPending(bytes[offset++]);
+      }
+      if (end - offset >= 8)
+      {
+         ByteBuffer words = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+         for (; end - offset >= 8; offset += 8)
+         {
+            round(words.getLong(offset));
+         }
+      }
+      while (offset < end)
+      {
+         addPending(bytes[offset++]);
+      }
+   }
+
+   private void addPending(byte b)
+   {
+      pending |= (b & 0xFFL) << (pendingBytes << 3);
+      if (++pendingBytes == 8)
+      {
+         round(pending);
+         pending = 0;
+         pendingBytes = 0;
+      }
+   }
+
+   private void round(long word)
+   {
+      hash ^= word * K1;
+      hash = Long.rotateLeft(hash, 31) * K2;
+   }
+
+   @Override
+   public String getETag()
+   {
+      long h = hash;
+      if (pendingBytes > 0)
+      {
+         h ^= pending * K2;
+         h = Long.rotateLeft(h, 27) * K1;
+      }
+      h ^= length;
+      h ^= h >>> 33;
+      h *= 0xFF51AFD7ED558CCDL;
+      h ^= h >>> 33;
+      h *= 0xC4CEB9FE1A85EC53L;
+      h ^= h >>> 33;
+      return toHex(h);
+   }
+
+   static String toHex(long value)
+   {
+      char[] chars = new char[16];
+      for (int i = 15; i >= 0; i--)
+      {
+         chars[i] = HEX[(int) value & 0xF];
+         value >>>= 4;
+      }
+      return new String(chars);
+   }
+}
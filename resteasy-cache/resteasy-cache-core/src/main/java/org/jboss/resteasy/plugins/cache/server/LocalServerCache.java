@@ -0,0 +1,345 @@
+package org.jboss.resteasy.plugins.cache.server;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import org.jboss.resteasy.util.WeightedCache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process ServerCache bounded by the size of its entries, for the deployments which don't need a distributed
+ * cache.  Entries are indexed by URI, then by media type and {@code Vary} headers, and expire after the max-age of
+ * their response.  Expired entries are dropped as entries are added, or all at once by {@link #cleanUp()}, and when
+ * the cache is full the least recently used of a few sampled entries are evicted.
+ * <p>
+ * The bodies can be stored off-heap in direct buffers, which keeps a large cache out of the old generation.  They
+ * are served through {@link Entry#getCachedStream()}, which reads the buffer without copying it to the heap.
+ * <p>
+ * Lookups never lock, adding and removing entries is serialized.
+ *
+ * @see WeightedCache
+ */
+public class LocalServerCache implements ServerCache
+{
+   public static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+   private static final Node[] NO_NODES = {};
+
+   private static class Node implements Entry
+   {
+      final String uri;
+      final MediaType mediaType;
+      final MultivaluedMap<String, Object> headers;
+      final MultivaluedMap<String, String> varyHeaders;
+      final String etag;
+      final int expires;
+      final long timestamp = System.currentTimeMillis();
+      final byte[] heap;
+      final ByteBuffer direct;
+      final WeightedCache.Handle<Node> handle;
+
+      Node(final String uri, final MediaType mediaType, final MultivaluedMap<String, Object> headers, final byte[] entity,
+           final int expires, final String etag, final MultivaluedMap<String, String> varyHeaders, final boolean offHeap)
+      {
+         this.uri = uri;
+         this.mediaType = mediaType;
+         this.headers = headers;
+         this.varyHeaders = varyHeaders;
+         this.etag = etag;
+         this.expires = expires;
+         if (offHeap)
+         {
+            this.heap = null;
+            this.direct = ByteBuffer.allocateDirect(entity.length);
+            this.direct.put(entity).flip();
+         }
+         else
+         {
+            this.heap = entity;
+            this.direct = null;
+         }
+         this.handle = new WeightedCache.Handle<Node>(this, uri, weigh(uri, headers, varyHeaders, entity));
+      }
+
+      public int getExpirationInSeconds()
+      {
+         return expires - (int) ((System.currentTimeMillis() - timestamp) / 1000);
+      }
+
+      public boolean isExpired()
+      {
+         return System.currentTimeMillis() - timestamp >= expires * 1000L;
+      }
+
+      public String getEtag()
+      {
+         return etag;
+      }
+
+      /**
+       * Copies an off-heap body to the heap, prefer {@link #getCachedStream()}.
+       */
+      public byte[] getCached()
+      {
+         if (heap != null) return heap;
+         byte[] bytes = new byte[direct.capacity()];
+         direct.duplicate().get(bytes);
+         return bytes;
+      }
+
+      public InputStream getCachedStream()
+      {
+         if (heap != null) return new ByteArrayInputStream(heap);
+         return new ByteBufferInputStream(direct.duplicate());
+      }
+
+      public MultivaluedMap<String, Object> getHeaders()
+      {
+         return headers;
+      }
+
+      public MultivaluedMap<String, String> getVaryHeaders()
+      {
+         return varyHeaders;
+      }
+
+      boolean isVariant(MediaType mediaType, MultivaluedMap<String, String> varyHeaders)
+      {
+         return this.mediaType.equals(mediaType) && this.varyHeaders.equals(varyHeaders);
+      }
+   }
+
+   private static class ByteBufferInputStream extends InputStream
+   {
+      private final ByteBuffer buffer;
+
+      ByteBufferInputStream(final ByteBuffer buffer)
+      {
+         this.buffer = buffer;
+      }
+
+      @Override
+      public int read()
+      {
+         return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len)
+      {
+         if (len == 0) return 0;
+         if (!buffer.hasRemaining()) return -1;
+         int n = Math.min(len, buffer.remaining());
+         buffer.get(b, off, n);
+         return n;
+      }
+
+      @Override
+      public int available()
+      {
+         return buffer.remaining();
+      }
+   }
+
+   // variants of an URI are replaced, never modified, so that they can be read without locking
+   private final Map<String, Node[]> entries = new ConcurrentHashMap<String, Node[]>();
+   private final boolean offHeap;
+   private final WeightedCache<Node> weights;
+
+   public LocalServerCache()
+   {
+      this(DEFAULT_MAX_BYTES, false);
+   }
+
+   /**
+    * @param maxBytes maximum weight of the entries, see {@link #weigh(String, MultivaluedMap, MultivaluedMap, byte[])}
+    * @param offHeap whether the bodies are stored in direct buffers
+    */
+   public LocalServerCache(final long maxBytes, final boolean offHeap)
+   {
+      this.offHeap = offHeap;
+      this.weights = new WeightedCache<Node>(maxBytes, 0, Node::isExpired, this::unlink);
+   }
+
+   /**
+    * Approximation of the memory retained by an entry: its body, and the characters of its URI and headers.
+    */
+   protected static long weigh(String uri, MultivaluedMap<String, Object> headers, MultivaluedMap<String, String> varyHeaders, byte[] entity)
+   {
+      long weight = entity.length + 2L * uri.length();
+      for (Map.Entry<String, List<Object>> header : headers.entrySet())
+      {
+         weight += 2L * header.getKey().length();
+         for (Object value : header.getValue())
+         {
+            if (value != null) weight += 2L * value.toString().length();
+         }
+      }
+      for (Map.Entry<String, List<String>> header : varyHeaders.entrySet())
+      {
+         weight += 2L * header.getKey().length();
+         for (String value : header.getValue())
+         {
+            if (value != null) weight += 2L * value.length();
+         }
+      }
+      return weight;
+   }
+
+   public Entry get(String uri, MediaType accept, MultivaluedMap<String, String> headers)
+   {
+      Node[] variants = entries.get(uri);
+      if (variants != null)
+      {
+         for (Node node : variants)
+         {
+            if (accept.isCompatible(node.mediaType) && !ServerCache.mayVary(node, headers))
+            {
+               if (node.isExpired())
+               {
+                  weights.evict(node.handle);
+                  continue;
+               }
+               weights.recordHit(node.handle);
+               return node;
+            }
+         }
+      }
+      weights.recordMiss(uri);
+      return null;
+   }
+
+   public Entry add(String uri, MediaType mediaType, CacheControl cc, MultivaluedMap<String, Object> headers, byte[] entity, String etag, MultivaluedMap<String, String> varyHeaders)
+   {
+      if (varyHeaders == null) varyHeaders = new MultivaluedHashMap<String, String>();
+      Node node = new Node(uri, mediaType, headers, entity, cc.getMaxAge(), etag, varyHeaders, offHeap && cc.getMaxAge() > 0 && entity.length > 0);
+      if (cc.getMaxAge() <= 0) return node;
+      weights.add(node.handle, () -> {
+         for (Node variant : entries.getOrDefault(node.uri, NO_NODES))
+         {
+            if (variant.isVariant(node.mediaType, node.varyHeaders)) return variant.handle;
+         }
+         return null;
+      }, () -> link(node));
+      return node;
+   }
+
+   /**
+    * Adds a node in place of its previous variant, if any.  Called with the lock of the weights held.
+    */
+   private void link(Node node)
+   {
+      Node[] variants = entries.getOrDefault(node.uri, NO_NODES);
+      List<Node> updated = new ArrayList<Node>(variants.length + 1);
+      for (Node variant : variants)
+      {
+         if (!variant.isVariant(node.mediaType, node.varyHeaders)) updated.add(variant);
+      }
+      updated.add(node);
+      entries.put(node.uri, updated.toArray(NO_NODES));
+   }
+
+   /**
+    * Removes a node from its variants.  Called with the lock of the weights held.
+    */
+   private void unlink(Node node)
+   {
+      Node[] variants = entries.get(node.uri);
+      if (variants == null) return;
+      int index = Arrays.asList(variants).indexOf(node);
+      if (index < 0) return;
+      if (variants.length == 1)
+      {
+         entries.remove(node.uri);
+      }
+      else
+      {
+         Node[] updated = new Node[variants.length - 1];
+         System.arraycopy(variants, 0, updated, 0, index);
+         System.arraycopy(variants, index + 1, updated, index, updated.length - index);
+         entries.put(node.uri, updated);
+      }
+   }
+
+   public void remove(String uri)
+   {
+      Node[] variants = entries.get(uri);
+      if (variants == null) return;
+      for (Node node : variants)
+      {
+         weights.remove(node.handle);
+      }
+   }
+
+   public void clear()
+   {
+      weights.clear(entries::clear);
+   }
+
+   /**
+    * Evicts all the expired entries, instead of the few checked by each addition.
+    */
+   public void cleanUp()
+   {
+      weights.cleanUp();
+   }
+
+   public long getMaxBytes()
+   {
+      return weights.getMaxBytes();
+   }
+
+   public boolean isOffHeap()
+   {
+      return offHeap;
+   }
+
+   /**
+    * @return the weight of the cached entries
+    */
+   public long getByteCount()
+   {
+      return weights.getByteCount();
+   }
+
+   public int getEntryCount()
+   {
+      return weights.getEntryCount();
+   }
+
+   public long getHitCount()
+   {
+      return weights.getHitCount();
+   }
+
+   public long getMissCount()
+   {
+      return weights.getMissCount();
+   }
+
+   /**
+    * @return number of entries removed because they expired or to make room for new ones
+    */
+   public long getEvictionCount()
+   {
+      return weights.getEvictionCount();
+   }
+
+   /**
+    * @return number of entries which were not stored because they were larger than the cache
+    */
+   public long getRejectionCount()
+   {
+      return weights.getRejectionCount();
+   }
+}
@@ -0,0 +1,70 @@
+package org.jboss.resteasy.plugins.cache.server;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * ETags computed with a {@link MessageDigest}.  New digests are cloned from a prototype, which is much cheaper than
+ * looking the algorithm up in the security providers for every response.
+ */
+public class MessageDigestETagGenerator implements ETagGenerator
+{
+   private final String algorithm;
+   private final MessageDigest prototype;
+
+   public MessageDigestETagGenerator(final String algorithm)
+   {
+      this.algorithm = algorithm;
+      MessageDigest digest = newDigest(algorithm);
+      try
+      {
+         digest.clone();
+      }
+      catch (CloneNotSupportedException e)
+      {
+         digest = null;
+      }
+      this.prototype = digest;
+   }
+
+   private static MessageDigest newDigest(String algorithm)
+   {
+      try
+      {
+         return MessageDigest.getInstance(algorithm);
+      }
+      catch (NoSuchAlgorithmException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
+   @Override
+   public Hash newHash()
+   {
+      MessageDigest digest;
+      try
+      {
+         digest = prototype != null ? (MessageDigest) prototype.clone() : newDigest(algorithm);
+      }
+      catch (CloneNotSupportedException e)
+      {
+         digest = newDigest(algorithm);
+      }
+      final MessageDigest md = digest;
+      return new Hash()
+      {
+         @Override
+         public void update(byte[] bytes, int offset, int length)
+         {
+            md.update(bytes, offset, length);
+         }
+
+         @Override
+         public String getETag()
+         {
+            return ServerCacheInterceptor.byteArrayToHexString(md.digest());
+         }
+      };
+   }
+}
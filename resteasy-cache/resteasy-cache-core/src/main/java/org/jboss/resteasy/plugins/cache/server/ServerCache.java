@@ -1,5 +1,7 @@
 package org.jboss.resteasy.plugins.cache.server;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -32,6 +34,14 @@ public interface ServerCache
 
       byte[] getCached();
 
+      /**
+       * @return the cached body, which caches that don't keep it in a byte array can serve without copying it
+       */
+      default InputStream getCachedStream()
+      {
+         return new ByteArrayInputStream(getCached());
+      }
+
       MultivaluedMap<String, Object> getHeaders();
 
       MultivaluedMap<String, String> getVaryHeaders();
@@ -42,10 +42,31 @@ public class ServerCacheFeature implements Feature
       ServerCache cache = getCache(configurable);
       if (cache == null) return false;
       configurable.register(new ServerCacheHitFilter(cache));
-      configurable.register(new ServerCacheInterceptor(cache));
+      configurable.register(new ServerCacheInterceptor(cache, getETagGenerator(configurable)));
       return true;
    }
 
+   /**
+    * The ETag generator is set with the server.request.cache.etag.generator property: "fast" (the default), "md5"
+    * or the name of a class implementing {@link ETagGenerator}.
+    */
+   protected ETagGenerator getETagGenerator(Configurable configurable)
+   {
+      String generator = getProperty(configurable, "server.request.cache.etag.generator");
+      if (generator == null || generator.equalsIgnoreCase("fast")) return ETagGenerator.FAST;
+      if (generator.equalsIgnoreCase("md5")) return ETagGenerator.MD5;
+      try
+      {
+         ClassLoader loader = Thread.currentThread().getContextClassLoader();
+         if (loader == null) loader = ServerCacheFeature.class.getClassLoader();
+         return (ETagGenerator)loader.loadClass(generator).getDeclaredConstructor().newInstance();
+      }
+      catch (ReflectiveOperationException e)
+      {
+         throw new RuntimeException(e);
+      }
+   }
+
    protected ResteasyConfiguration getResteasyConfiguration()
    {
       return ResteasyContext.getContextData(ResteasyConfiguration.class);
@@ -64,6 +85,8 @@ public class ServerCacheFeature implements Feature
       if (this.cache != null) return this.cache;
       ServerCache c = (ServerCache)configurable.getConfiguration().getProperty(ServerCache.class.getName());
       if (c != null) return c;
+      c = getLocalCache(configurable);
+      if (c != null) return c;
       c = getXmlCache(configurable);
       if (c != null) return c;
       return getDefaultCache();
@@ -90,6 +113,28 @@ public class ServerCacheFeature implements Feature
       return new InfinispanCache(c);
    }
 
+   protected String getProperty(Configurable configurable, String name)
+   {
+      Object value = configurable.getConfiguration().getProperty(name);
+      if (value != null) return value.toString();
+      return getConfigProperty(name);
+   }
+
+   /**
+    * A {@link LocalServerCache} is used instead of Infinispan if server.request.cache.type is "local".  Its size is
+    * set with server.request.cache.local.max.bytes, and server.request.cache.local.offheap stores the cached
+    * bodies in direct buffers.
+    */
+   protected ServerCache getLocalCache(Configurable configurable)
+   {
+      String type = getProperty(configurable, "server.request.cache.type");
+      if (!"local".equalsIgnoreCase(type)) return null;
+      String maxBytes = getProperty(configurable, "server.request.cache.local.max.bytes");
+      String offHeap = getProperty(configurable, "server.request.cache.local.offheap");
+      return new LocalServerCache(maxBytes == null ? LocalServerCache.DEFAULT_MAX_BYTES : Long.parseLong(maxBytes.trim()),
+         Boolean.parseBoolean(offHeap));
+   }
+
    protected ServerCache getXmlCache(Configurable configurable)
    {
       String path = (String)configurable.getConfiguration().getProperty("server.request.cache.infinispan.config.file");
@@ -76,7 +76,7 @@ public class ServerCacheHitFilter implements ContainerRequestFilter
             }
 
             builder = Response.ok();
-            builder.entity(entry.getCached());
+            builder.entity(entry.getCachedStream());
 
             for (Map.Entry<String, List<Object>> header : entry.getHeaders().entrySet())
             {
@@ -22,14 +22,16 @@ import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.WriterInterceptor;
 import javax.ws.rs.ext.WriterInterceptorContext;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
 /**
+ * Caches the GET responses that are not marked no-cache.  When the application set the ETag of the response the
+ * entity is written to the client while it is captured for the cache, otherwise it is buffered until its ETag has
+ * been computed by the {@link ETagGenerator}.
+ *
  * @author <a href="mailto:bill@burkecentral.com">Bill Burke</a>
  * @version $Revision: 1 $
  */
@@ -37,10 +39,36 @@ import java.util.concurrent.CompletionStage;
 public class ServerCacheInterceptor implements WriterInterceptor, AsyncWriterInterceptor
 {
    protected ServerCache cache;
+   protected ETagGenerator etagGenerator;
+   private final boolean customHash;
 
    public ServerCacheInterceptor(final ServerCache cache)
+   {
+      this(cache, ETagGenerator.FAST);
+   }
+
+   public ServerCacheInterceptor(final ServerCache cache, final ETagGenerator etagGenerator)
    {
       this.cache = cache;
+      this.etagGenerator = etagGenerator;
+      this.customHash = overridesCreateHash(getClass());
+   }
+
+   private static boolean overridesCreateHash(Class<?> type)
+   {
+      for (Class<?> c = type; c != ServerCacheInterceptor.class; c = c.getSuperclass())
+      {
+         try
+         {
+            c.getDeclaredMethod("createHash", byte[].class);
+            return true;
+         }
+         catch (NoSuchMethodException e)
+         {
+            // keep looking up the hierarchy
+         }
+      }
+      return false;
    }
 
    @Context
@@ -50,48 +78,28 @@ public class ServerCacheInterceptor implements WriterInterceptor, AsyncWriterInt
    protected Request validation;
 
 
-   private static final String[] pseudo = {"0", "1", "2",
-      "3", "4", "5", "6", "7", "8",
-      "9", "A", "B", "C", "D", "E",
-      "F"};
+   private static final char[] pseudo = "0123456789ABCDEF".toCharArray();
 
    public static String byteArrayToHexString(byte[] bytes)
    {
-
-      byte ch = 0x00;
-
-      StringBuffer out = new StringBuffer(bytes.length * 2);
-
-      for (byte b : bytes)
+      char[] out = new char[bytes.length * 2];
+      for (int i = 0; i < bytes.length; i++)
       {
-
-         ch = (byte) (b & 0xF0);
-         ch = (byte) (ch >>> 4);
-         ch = (byte) (ch & 0x0F);
-         out.append(pseudo[(int) ch]);
-         ch = (byte) (b & 0x0F);
-         out.append(pseudo[(int) ch]);
-
+         out[2 * i] = pseudo[(bytes[i] >> 4) & 0x0F];
+         out[2 * i + 1] = pseudo[bytes[i] & 0x0F];
       }
-
-      String rslt = new String(out);
-
-      return rslt;
-
+      return new String(out);
    }
 
+   /**
+    * Computes the ETag of an entity with the {@link ETagGenerator}.  Subclasses which override this method still get
+    * it called, with the complete entity, but the ETag of the other responses is computed while they are written.
+    */
    protected String createHash(byte[] entity)
    {
-      try
-      {
-         MessageDigest messagedigest = MessageDigest.getInstance("MD5");
-         byte[] abyte0 = messagedigest.digest(entity);
-         return byteArrayToHexString(abyte0);
-      }
-      catch (NoSuchAlgorithmException e)
-      {
-         throw new RuntimeException(e);
-      }
+      ETagGenerator.Hash hash = etagGenerator.newHash();
+      hash.update(entity, 0, entity.length);
+      return hash.getETag();
    }
 
    private CacheControl getCacheControl(MultivaluedMap<String, Object> headers) {
@@ -120,39 +128,53 @@ public class ServerCacheInterceptor implements WriterInterceptor, AsyncWriterInt
        return cc;
    }
 
-   private byte[] handleCaching(ByteArrayOutputStream buffer, CacheControl cc, MultivaluedMap<String, Object> headers, MediaType mediaType) {
-       byte[] entity = buffer.toByteArray();
+   private static String getApplicationETag(MultivaluedMap<String, Object> headers) {
        Object etagObject = headers.getFirst(HttpHeaders.ETAG);
-       String etag = null;
-       if (etagObject == null)
-       {
-          etag = createHash(entity);
-          headers.putSingle(HttpHeaders.ETAG, etag);
-       }
-       else // use application provided ETag if it exists
-       {
-          etag = etagObject.toString();
-       }
+       return etagObject == null ? null : etagObject.toString();
+   }
+
+   private static boolean isStored(CacheControl cc) {
+       return !cc.isPrivate() && !cc.isNoStore();
+   }
 
-       if (!cc.isPrivate() && !cc.isNoStore()) {
-          MultivaluedMap<String, String> varyHeaders = new MultivaluedHashMap<>();
-          if (headers.containsKey(HttpHeaders.VARY)) {
-             for (Object varyHeader : headers.get(HttpHeaders.VARY)) {
-                if (request.getMutableHeaders().containsKey(varyHeader)) {
-                   varyHeaders.addAll((String) varyHeader, request.getMutableHeaders().get(varyHeader));
-                }
+   private void store(byte[] entity, String etag, CacheControl cc, MultivaluedMap<String, Object> headers, MediaType mediaType) {
+       MultivaluedMap<String, String> varyHeaders = new MultivaluedHashMap<>();
+       if (headers.containsKey(HttpHeaders.VARY)) {
+          for (Object varyHeader : headers.get(HttpHeaders.VARY)) {
+             if (request.getMutableHeaders().containsKey(varyHeader)) {
+                varyHeaders.addAll((String) varyHeader, request.getMutableHeaders().get(varyHeader));
              }
           }
-          cache.add(request.getUri().getRequestUri().toString(), mediaType, cc, headers, entity, etag, varyHeaders);
        }
+       cache.add(request.getUri().getRequestUri().toString(), mediaType, cc, headers, entity, etag, varyHeaders);
+   }
 
-       // check to see if ETags are the same.  If they are, we don't need to send a response back.
+   /**
+    * check to see if ETags are the same.  If they are, we don't need to send a response back.
+    */
+   private void evaluatePreconditions(String etag, CacheControl cc) {
        Response.ResponseBuilder validatedResponse = validation.evaluatePreconditions(new EntityTag(etag));
        if (validatedResponse != null)
        {
           throw new NoLogWebApplicationException(validatedResponse.status(Response.Status.NOT_MODIFIED).cacheControl(cc).header(HttpHeaders.ETAG, etag).build());
        }
-       return entity;
+   }
+
+   private EntityCaptureOutputStream newBuffer() {
+       return new EntityCaptureOutputStream(customHash ? null : etagGenerator.newHash());
+   }
+
+   /**
+    * Stores the buffered entity if the response may be cached, sets its ETag and validates it.  The buffer is then
+    * written from the array that was stored, see {@link EntityCaptureOutputStream#toByteArray()}.
+    */
+   private void handleCaching(EntityCaptureOutputStream buffer, CacheControl cc, MultivaluedMap<String, Object> headers, MediaType mediaType) {
+       String etag = customHash ? createHash(buffer.toByteArray()) : buffer.getETag();
+       headers.putSingle(HttpHeaders.ETAG, etag);
+       if (isStored(cc)) {
+          store(buffer.toByteArray(), etag, cc, headers, mediaType);
+       }
+       evaluatePreconditions(etag, cc);
    }
 
    @Override
@@ -166,15 +188,39 @@ public class ServerCacheInterceptor implements WriterInterceptor, AsyncWriterInt
           return;
       }
 
-      ByteArrayOutputStream buffer = new ByteArrayOutputStream();
       OutputStream old = context.getOutputStream();
+      String etag = getApplicationETag(context.getHeaders());
+      if (etag != null)
+      {
+         // use application provided ETag, no need to render the entity if the client has it
+         evaluatePreconditions(etag, cc);
+         if (!isStored(cc))
+         {
+            context.proceed();
+            return;
+         }
+         EntityCaptureOutputStream capture = new EntityCaptureOutputStream(null);
+         try
+         {
+            context.setOutputStream(new TeeOutputStream(capture, new BlockingAsyncOutputStream(old)));
+            context.proceed();
+         }
+         finally
+         {
+            context.setOutputStream(old);
+         }
+         store(capture.toByteArray(), etag, cc, context.getHeaders(), context.getMediaType());
+         return;
+      }
+
+      EntityCaptureOutputStream buffer = newBuffer();
       try
       {
          context.setOutputStream(buffer);
          context.proceed();
 
-         byte[] entity = handleCaching(buffer, cc, context.getHeaders(), context.getMediaType());
-         old.write(entity);
+         handleCaching(buffer, cc, context.getHeaders(), context.getMediaType());
+         buffer.writeTo(old);
       }
       finally
       {
@@ -191,13 +237,86 @@ public class ServerCacheInterceptor implements WriterInterceptor, AsyncWriterInt
            return context.asyncProceed();
        }
 
-       ByteArrayOutputStream buffer = new ByteArrayOutputStream();
        AsyncOutputStream old = context.getAsyncOutputStream();
+       String etag = getApplicationETag(context.getHeaders());
+       if (etag != null) {
+           try {
+               evaluatePreconditions(etag, cc);
+           } catch (WebApplicationException e) {
+               CompletableFuture<Void> ret = new CompletableFuture<>();
+               ret.completeExceptionally(e);
+               return ret;
+           }
+           if (!isStored(cc)) {
+               return context.asyncProceed();
+           }
+           EntityCaptureOutputStream capture = new EntityCaptureOutputStream(null);
+           context.setAsyncOutputStream(new TeeOutputStream(capture, old));
+           return context.asyncProceed()
+                   .thenAccept(v -> store(capture.toByteArray(), etag, cc, context.getHeaders(), context.getMediaType()))
+                   .whenComplete((v, t) -> context.setAsyncOutputStream(old));
+       }
+
+       EntityCaptureOutputStream buffer = newBuffer();
        context.setAsyncOutputStream(new BlockingAsyncOutputStream(buffer));
        return context.asyncProceed()
                .thenCompose(v -> {
-                   byte[] entity = handleCaching(buffer, cc, context.getHeaders(), context.getMediaType());
-                   return old.asyncWrite(entity);
+                   handleCaching(buffer, cc, context.getHeaders(), context.getMediaType());
+                   return buffer.asyncWriteTo(old);
                }).whenComplete((v, t) -> context.setAsyncOutputStream(old));
    }
+
+   /**
+    * Writes the entity to the client and to the capture of the cache.
+    */
+   private static class TeeOutputStream extends AsyncOutputStream
+   {
+      private final EntityCaptureOutputStream capture;
+      private final AsyncOutputStream out;
+
+      TeeOutputStream(final EntityCaptureOutputStream capture, final AsyncOutputStream out)
+      {
+         this.capture = capture;
+         this.out = out;
+      }
+
+      @Override
+      public void write(int b) throws IOException
+      {
+         capture.write(b);
+         out.write(b);
+      }
+
+      @Override
+      public void write(byte[] b, int off, int len) throws IOException
+      {
+         capture.write(b, off, len);
+         out.write(b, off, len);
+      }
+
+      @Override
+      public void flush() throws IOException
+      {
+         out.flush();
+      }
+
+      @Override
+      public void close() throws IOException
+      {
+         out.close();
+      }
+
+      @Override
+      public CompletionStage<Void> asyncFlush()
+      {
+         return out.asyncFlush();
+      }
+
+      @Override
+      public CompletionStage<Void> asyncWrite(byte[] bytes, int offset, int length)
+      {
+         capture.write(bytes, offset, length);
+         return out.asyncWrite(bytes, offset, length);
+      }
+   }
 }
@@ -0,0 +1,72 @@
+package org.jboss.resteasy.test.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.jboss.resteasy.plugins.cache.server.ETagGenerator;
+import org.jboss.resteasy.plugins.cache.server.EntityCaptureOutputStream;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ETagGeneratorTest
+{
+   private static String etag(ETagGenerator generator, byte[] entity, int... splits)
+   {
+      ETagGenerator.Hash hash = generator.newHash();
+      int offset = 0;
+      for (int split : splits)
+      {
+         hash.update(entity, offset, split - offset);
+         offset = split;
+      }
+      hash.update(entity, offset, entity.length - offset);
+      return hash.getETag();
+   }
+
+   @Test
+   public void testFastIndependentOfWrites()
+   {
+      byte[] entity = new byte[1000];
+      new Random(42).nextBytes(entity);
+      String etag = etag(ETagGenerator.FAST, entity);
+      Assert.assertEquals(16, etag.length());
+      Assert.assertEquals(etag, etag(ETagGenerator.FAST, entity, 3));
+      Assert.assertEquals(etag, etag(ETagGenerator.FAST, entity, 1, 2, 13, 500, 999));
+
+      entity[500]++;
+      Assert.assertNotEquals(etag, etag(ETagGenerator.FAST, entity));
+      Assert.assertNotEquals(etag(ETagGenerator.FAST, new byte[0]), etag(ETagGenerator.FAST, new byte[1]));
+      Assert.assertNotEquals(etag(ETagGenerator.FAST, new byte[7]), etag(ETagGenerator.FAST, new byte[8]));
+   }
+
+   @Test
+   public void testMD5()
+   {
+      byte[] entity = "hello world".getBytes(StandardCharsets.UTF_8);
+      Assert.assertEquals("5EB63BBBE01EEED093CB22BB8F5ACDC3", etag(ETagGenerator.MD5, entity, 5));
+   }
+
+   @Test
+   public void testCapture() throws Exception
+   {
+      byte[] entity = new byte[200000];
+      new Random(7).nextBytes(entity);
+      EntityCaptureOutputStream capture = new EntityCaptureOutputStream(ETagGenerator.FAST.newHash());
+      capture.write(entity[0]);
+      capture.write(entity, 1, 99999);
+      capture.write(entity, 100000, 100000);
+      Assert.assertEquals(entity.length, capture.size());
+      Assert.assertArrayEquals(entity, capture.toByteArray());
+      Assert.assertSame("The assembled array replaces the chunks", capture.toByteArray(), capture.toByteArray());
+      Assert.assertEquals(etag(ETagGenerator.FAST, entity), capture.getETag());
+
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      capture.writeTo(out);
+      Assert.assertArrayEquals(entity, out.toByteArray());
+
+      capture.write(entity, 0, 10);
+      Assert.assertEquals(entity.length + 10, capture.size());
+      Assert.assertEquals(entity.length + 10, capture.toByteArray().length);
+   }
+}
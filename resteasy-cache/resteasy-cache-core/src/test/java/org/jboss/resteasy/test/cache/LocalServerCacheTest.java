@@ -0,0 +1,149 @@
+package org.jboss.resteasy.test.cache;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LocalServerCacheTest
+{
+   private static final MediaType TEXT = MediaType.TEXT_PLAIN_TYPE;
+
+   private static MultivaluedMap<String, String> vary(String... nameValues)
+   {
+      MultivaluedMap<String, String> vary = new MultivaluedHashMap<String, String>();
+      for (int i = 0; i < nameValues.length; i += 2)
+      {
+         vary.add(nameValues[i], nameValues[i + 1]);
+      }
+      return vary;
+   }
+
+   private static void add(LocalServerCache cache, String uri, MediaType type, int size, int maxAge, MultivaluedMap<String, String> vary)
+   {
+      CacheControl cc = new CacheControl();
+      cc.setMaxAge(maxAge);
+      cache.add(uri, type, cc, new MultivaluedHashMap<String, Object>(), new byte[size], "etag", vary);
+   }
+
+   private void testEviction(boolean offHeap)
+   {
+      LocalServerCache cache = new LocalServerCache(1000, offHeap);
+      add(cache, "a", TEXT, 300, 60, vary());
+      add(cache, "b", TEXT, 300, 60, vary());
+      add(cache, "c", TEXT, 300, 60, vary());
+      Assert.assertEquals(3, cache.getEntryCount());
+
+      Assert.assertNotNull(cache.get("a", MediaType.WILDCARD_TYPE, vary()));
+      Assert.assertNotNull(cache.get("c", TEXT, vary()));
+      Assert.assertNull(cache.get("c", MediaType.APPLICATION_JSON_TYPE, vary()));
+      add(cache, "d", TEXT, 300, 60, vary());
+
+      Assert.assertNull("Least recently used entry should be evicted", cache.get("b", TEXT, vary()));
+      Assert.assertNotNull(cache.get("a", TEXT, vary()));
+      Assert.assertEquals(300, cache.get("d", TEXT, vary()).getCached().length);
+      Assert.assertEquals(1, cache.getEvictionCount());
+      Assert.assertTrue(cache.getByteCount() <= cache.getMaxBytes());
+
+      add(cache, "too big", TEXT, 2000, 60, vary());
+      Assert.assertNull(cache.get("too big", TEXT, vary()));
+      Assert.assertEquals("Oversize entry is not an eviction", 1, cache.getEvictionCount());
+      Assert.assertEquals(1, cache.getRejectionCount());
+   }
+
+   @Test
+   public void testEviction()
+   {
+      testEviction(false);
+   }
+
+   @Test
+   public void testEvictionOffHeap()
+   {
+      testEviction(true);
+   }
+
+   @Test
+   public void testVariants()
+   {
+      LocalServerCache cache = new LocalServerCache();
+      add(cache, "v", TEXT, 10, 60, vary("Accept-Language", "en"));
+      add(cache, "v", TEXT, 10, 60, vary("Accept-Language", "fr"));
+      add(cache, "v", MediaType.APPLICATION_JSON_TYPE, 10, 60, vary());
+      Assert.assertEquals(3, cache.getEntryCount());
+      Assert.assertNotNull(cache.get("v", TEXT, vary("Accept-Language", "fr")));
+      Assert.assertNull(cache.get("v", TEXT, vary("Accept-Language", "de")));
+
+      long bytes = cache.getByteCount();
+      add(cache, "v", TEXT, 20, 60, vary("Accept-Language", "fr"));
+      Assert.assertEquals(3, cache.getEntryCount());
+      Assert.assertEquals(bytes + 10, cache.getByteCount());
+
+      cache.remove("v");
+      Assert.assertEquals(0, cache.getEntryCount());
+      Assert.assertEquals(0, cache.getByteCount());
+   }
+
+   @Test
+   public void testExpiration() throws Exception
+   {
+      LocalServerCache cache = new LocalServerCache();
+      add(cache, "no max-age", TEXT, 10, -1, vary());
+      Assert.assertEquals(0, cache.getEntryCount());
+
+      add(cache, "e", TEXT, 10, 1, vary());
+      Assert.assertNotNull(cache.get("e", TEXT, vary()));
+      Thread.sleep(1100);
+      Assert.assertNull(cache.get("e", TEXT, vary()));
+      Assert.assertEquals(0, cache.getByteCount());
+   }
+
+   @Test
+   public void testCachedStreamOffHeap() throws Exception
+   {
+      LocalServerCache cache = new LocalServerCache(1000, true);
+      CacheControl cc = new CacheControl();
+      cc.setMaxAge(60);
+      byte[] body = "off heap body".getBytes("UTF-8");
+      cache.add("s", TEXT, cc, new MultivaluedHashMap<String, Object>(), body, "etag", vary());
+
+      // every hit reads the same buffer from the start
+      ServerCache.Entry entry = cache.get("s", TEXT, vary());
+      for (int i = 0; i < 2; i++)
+      {
+         ByteArrayOutputStream read = new ByteArrayOutputStream();
+         try (InputStream in = entry.getCachedStream())
+         {
+            Assert.assertEquals(body.length, in.available());
+            byte[] buffer = new byte[4];
+            int n;
+            while ((n = in.read(buffer)) != -1)
+            {
+               read.write(buffer, 0, n);
+            }
+         }
+         Assert.assertArrayEquals(body, read.toByteArray());
+      }
+   }
+
+   @Test
+   public void testCleanUp() throws Exception
+   {
+      LocalServerCache cache = new LocalServerCache();
+      add(cache, "short", TEXT, 10, 1, vary());
+      add(cache, "long", TEXT, 10, 60, vary());
+      Thread.sleep(1100);
+      cache.cleanUp();
+      Assert.assertEquals(1, cache.getEntryCount());
+      Assert.assertEquals(1, cache.getEvictionCount());
+      Assert.assertNotNull(cache.get("long", TEXT, vary()));
+   }
+}
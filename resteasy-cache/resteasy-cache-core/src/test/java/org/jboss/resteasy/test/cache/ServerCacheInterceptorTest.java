@@ -0,0 +1,195 @@
+package org.jboss.resteasy.test.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.WriterInterceptorContext;
+
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.jboss.resteasy.plugins.cache.server.ETagGenerator;
+import org.jboss.resteasy.plugins.cache.server.LocalServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCache;
+import org.jboss.resteasy.plugins.cache.server.ServerCacheInterceptor;
+import org.jboss.resteasy.spi.HttpRequest;
+import org.jboss.resteasy.specimpl.RequestImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ServerCacheInterceptorTest
+{
+   private static final byte[] ENTITY = "cached entity".getBytes(StandardCharsets.UTF_8);
+
+   private static class Context implements WriterInterceptorContext
+   {
+      private final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<String, Object>();
+      private OutputStream out = new ByteArrayOutputStream();
+
+      Context()
+      {
+         CacheControl cc = new CacheControl();
+         cc.setMaxAge(60);
+         headers.putSingle(HttpHeaders.CACHE_CONTROL, cc);
+      }
+
+      public void proceed() throws IOException
+      {
+         out.write(ENTITY);
+      }
+
+      public Object getEntity()
+      {
+         return ENTITY;
+      }
+
+      public void setEntity(Object entity)
+      {
+      }
+
+      public OutputStream getOutputStream()
+      {
+         return out;
+      }
+
+      public void setOutputStream(OutputStream os)
+      {
+         out = os;
+      }
+
+      public MultivaluedMap<String, Object> getHeaders()
+      {
+         return headers;
+      }
+
+      public Object getProperty(String name)
+      {
+         return null;
+      }
+
+      public Collection<String> getPropertyNames()
+      {
+         return Collections.emptyList();
+      }
+
+      public void setProperty(String name, Object object)
+      {
+      }
+
+      public void removeProperty(String name)
+      {
+      }
+
+      public Annotation[] getAnnotations()
+      {
+         return new Annotation[0];
+      }
+
+      public void setAnnotations(Annotation[] annotations)
+      {
+      }
+
+      public Class<?> getType()
+      {
+         return byte[].class;
+      }
+
+      public void setType(Class<?> type)
+      {
+      }
+
+      public Type getGenericType()
+      {
+         return byte[].class;
+      }
+
+      public void setGenericType(Type genericType)
+      {
+      }
+
+      public MediaType getMediaType()
+      {
+         return MediaType.TEXT_PLAIN_TYPE;
+      }
+
+      public void setMediaType(MediaType mediaType)
+      {
+      }
+   }
+
+   private static class Interceptor extends ServerCacheInterceptor
+   {
+      Interceptor(final ServerCache cache)
+      {
+         super(cache);
+      }
+
+      void inject(HttpRequest request)
+      {
+         this.request = request;
+         this.validation = new RequestImpl(request, new MockHttpResponse());
+      }
+   }
+
+   private static class CustomHashInterceptor extends Interceptor
+   {
+      CustomHashInterceptor(final ServerCache cache)
+      {
+         super(cache);
+      }
+
+      @Override
+      protected String createHash(byte[] entity)
+      {
+         return "custom-" + entity.length;
+      }
+   }
+
+   private static ServerCache.Entry write(Interceptor interceptor, LocalServerCache cache, Context context) throws Exception
+   {
+      MockHttpRequest request = MockHttpRequest.get("/cached");
+      interceptor.inject(request);
+
+      OutputStream client = context.getOutputStream();
+      interceptor.aroundWriteTo(context);
+      Assert.assertArrayEquals(ENTITY, ((ByteArrayOutputStream) client).toByteArray());
+      Assert.assertSame(client, context.getOutputStream());
+      return cache.get(request.getUri().getRequestUri().toString(), MediaType.TEXT_PLAIN_TYPE, new MultivaluedHashMap<String, String>());
+   }
+
+   @Test
+   public void testGeneratedETag() throws Exception
+   {
+      LocalServerCache cache = new LocalServerCache();
+      Context context = new Context();
+      ServerCache.Entry entry = write(new Interceptor(cache), cache, context);
+
+      ETagGenerator.Hash hash = ETagGenerator.FAST.newHash();
+      hash.update(ENTITY, 0, ENTITY.length);
+      Assert.assertEquals(hash.getETag(), context.getHeaders().getFirst(HttpHeaders.ETAG));
+      Assert.assertEquals(hash.getETag(), entry.getEtag());
+      Assert.assertArrayEquals(ENTITY, entry.getCached());
+   }
+
+   @Test
+   public void testOverriddenCreateHash() throws Exception
+   {
+      LocalServerCache cache = new LocalServerCache();
+      Context context = new Context();
+      ServerCache.Entry entry = write(new CustomHashInterceptor(cache), cache, context);
+
+      Assert.assertEquals("custom-" + ENTITY.length, context.getHeaders().getFirst(HttpHeaders.ETAG));
+      Assert.assertEquals("custom-" + ENTITY.length, entry.getEtag());
+      Assert.assertArrayEquals(ENTITY, entry.getCached());
+   }
+}
@@ -0,0 +1,217 @@
+package org.jboss.resteasy.client.jaxrs.engines;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.EventLoop;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * {@link InputStream} over the body of a response which is still being received.  The retained {@link ByteBuf}s of
+ * the body are requested one at a time until more than the high watermark of bytes wait to be read, and again once the
+ * reader brings them below the low watermark, so that a slow reader stops the connection from reading.
+ * <p>
+ * A read which would wait for the next buffer blocks the calling thread, so it fails on the event loop of the
+ * connection, which would never deliver that buffer.  Readers which must not block use {@link #whenReadable()}, which
+ * completes once {@link #available()} bytes, or the end of the body, can be read without blocking.
+ *
+ * @see ReactorNettyClientHttpEngine#setStreaming(boolean)
+ */
+final class ByteBufFluxInputStream extends InputStream implements Subscriber<ByteBuf> {
+
+    private final EventLoop eventLoop;
+    private final int highWatermark;
+    private final int lowWatermark;
+    private final ArrayDeque<ByteBuf> buffers = new ArrayDeque<>();
+    private final CompletableFuture<Void> terminated = new CompletableFuture<>();
+    private Subscription subscription;
+    private int buffered;
+    private boolean requesting;
+    private boolean finished;
+    private boolean closed;
+    private IOException failure;
+    private CompletableFuture<Void> readable;
+
+    ByteBufFluxInputStream(final EventLoop eventLoop, final int highWatermark) {
+        this.eventLoop = eventLoop;
+        this.highWatermark = highWatermark;
+        this.lowWatermark = highWatermark / 2;
+    }
+
+    /**
+     * @return a {@link Mono} which completes, without a value, once the body is received, failed or closed
+     */
+    <T> Mono<T> terminated() {
+        return Mono.fromCompletionStage(terminated).then(Mono.empty());
+    }
+
+    @Override
+    public synchronized void onSubscribe(Subscription s) {
+        subscription = s;
+        if (closed) {
+            s.cancel();
+            return;
+        }
+        requesting = true;
+        s.request(1);
+    }
+
+    @Override
+    public void onNext(ByteBuf buffer) {
+        final CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            requesting = false;
+            if (closed) {
+                buffer.release();
+                return;
+            }
+            if (!buffer.isReadable()) {
+                buffer.release();
+                requesting = true;
+                subscription.request(1);
+                return;
+            }
+            buffers.add(buffer);
+            buffered += buffer.readableBytes();
+            if (buffered <= highWatermark) {
+                requesting = true;
+                subscription.request(1);
+            }
+            toComplete = signal();
+        }
+        complete(toComplete);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        final CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            failure = t instanceof IOException ? (IOException) t : new IOException(t);
+            toComplete = signal();
+        }
+        complete(toComplete);
+        terminated.complete(null);
+    }
+
+    @Override
+    public void onComplete() {
+        final CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            finished = true;
+            toComplete = signal();
+        }
+        complete(toComplete);
+        terminated.complete(null);
+    }
+
+    /**
+     * @return a stage which completes when {@link #read(byte[], int, int)} no longer blocks
+     */
+    public synchronized CompletionStage<Void> whenReadable() {
+        if (!buffers.isEmpty() || finished || closed || failure != null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (readable == null) {
+            readable = new CompletableFuture<>();
+        }
+        return readable;
+    }
+
+    @Override
+    public synchronized int available() {
+        return buffered;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        final int n = read(b, 0, 1);
+        return n < 0 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public synchronized int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (buffers.isEmpty()) {
+            if (closed || finished) {
+                return -1;
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (eventLoop.inEventLoop()) {
+                throw new IOException("Cannot block the event loop while waiting for the response body");
+            }
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+        final ByteBuf buffer = buffers.peek();
+        final int n = Math.min(len, buffer.readableBytes());
+        buffer.readBytes(b, off, n);
+        if (!buffer.isReadable()) {
+            buffers.poll().release();
+        }
+        buffered -= n;
+        requestIfDrained();
+        return n;
+    }
+
+    /**
+     * Releases the buffers which were not read, and cancels the rest of the body.
+     */
+    @Override
+    public void close() {
+        final CompletableFuture<Void> toComplete;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            ByteBuf buffer;
+            while ((buffer = buffers.poll()) != null) {
+                buffer.release();
+            }
+            buffered = 0;
+            if (subscription != null && !finished && failure == null) {
+                subscription.cancel();
+            }
+            toComplete = signal();
+        }
+        complete(toComplete);
+        terminated.complete(null);
+    }
+
+    private void requestIfDrained() {
+        if (!requesting && !closed && !finished && failure == null && buffered < lowWatermark) {
+            requesting = true;
+            subscription.request(1);
+        }
+    }
+
+    private CompletableFuture<Void> signal() {
+        notifyAll();
+        final CompletableFuture<Void> toComplete = readable;
+        readable = null;
+        return toComplete;
+    }
+
+    private static void complete(CompletableFuture<Void> toComplete) {
+        // outside of the monitor, the continuations may read
+        if (toComplete != null) {
+            toComplete.complete(null);
+        }
+    }
+}
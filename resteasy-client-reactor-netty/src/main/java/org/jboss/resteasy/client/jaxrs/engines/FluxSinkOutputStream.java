@@ -0,0 +1,150 @@
+package org.jboss.resteasy.client.jaxrs.engines;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.util.ReferenceCountUtil;
+import org.jboss.resteasy.spi.AsyncOutputStream;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * {@link AsyncOutputStream} which emits what is written to it as {@link ByteBuf}s of a request body.  An async write
+ * completes once the body is requested again, so that an {@link org.jboss.resteasy.spi.AsyncMessageBodyWriter} does
+ * not write faster than the connection sends.
+ * <p>
+ * The request headers are sent with the first buffer, so {@link #start()} is called before it is emitted, which lets
+ * writers that set headers while writing, set them in time.
+ * <p>
+ * Once the body is cancelled, e.g. because the connection was closed or the response cancelled, a pending async
+ * write fails, as do the next writes, and the buffers which were not sent are released.
+ */
+final class FluxSinkOutputStream extends AsyncOutputStream {
+
+    private final FluxSink<ByteBuf> sink;
+    private final ByteBufAllocator alloc;
+    private final Runnable onStart;
+    private boolean started;
+    private boolean disposed;
+    private CompletableFuture<Void> requested;
+
+    FluxSinkOutputStream(final FluxSink<ByteBuf> sink, final ByteBufAllocator alloc, final Runnable onStart) {
+        this.sink = sink;
+        this.alloc = alloc;
+        this.onStart = onStart;
+        sink.onRequest(n -> {
+            final CompletableFuture<Void> toComplete;
+            synchronized (this) {
+                toComplete = requested;
+                requested = null;
+            }
+            if (toComplete != null) {
+                toComplete.complete(null);
+            }
+        });
+        sink.onDispose(() -> {
+            final CompletableFuture<Void> toFail;
+            synchronized (this) {
+                disposed = true;
+                toFail = requested;
+                requested = null;
+            }
+            if (toFail != null) {
+                toFail.completeExceptionally(cancelled());
+            }
+        });
+    }
+
+    /**
+     * @param alloc allocator of the buffers of the body
+     * @param onStart called before the first buffer, or the end of the body, is emitted
+     * @param writer writes the body to the stream, and completes once it is written
+     * @return the body, which is written once subscribed to
+     */
+    static Flux<ByteBuf> body(final ByteBufAllocator alloc, final Runnable onStart,
+                              final Function<FluxSinkOutputStream, CompletionStage<Void>> writer) {
+        return Flux.<ByteBuf>create(sink -> {
+            final FluxSinkOutputStream outputStream = new FluxSinkOutputStream(sink, alloc, onStart);
+            writer.apply(outputStream).whenComplete((v, t) -> {
+                if (sink.isCancelled()) {
+                    return;
+                }
+                if (t != null) {
+                    sink.error(t);
+                } else {
+                    outputStream.start();
+                    sink.complete();
+                }
+            });
+        })
+                // buffers still queued in the sink when the body is cancelled
+                .doOnDiscard(ByteBuf.class, ReferenceCountUtil::safeRelease);
+    }
+
+    private static IOException cancelled() {
+        return new IOException("The request body was cancelled");
+    }
+
+    /**
+     * Runs the start callback, once, before the first buffer or the end of the body is emitted.
+     */
+    synchronized void start() {
+        if (!started) {
+            started = true;
+            onStart.run();
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        synchronized (this) {
+            if (disposed) {
+                throw cancelled();
+            }
+        }
+        start();
+        sink.next(alloc.buffer(len).writeBytes(b, off, len));
+    }
+
+    @Override
+    public CompletionStage<Void> asyncWrite(byte[] bytes, int offset, int length) {
+        final CompletableFuture<Void> ret = new CompletableFuture<>();
+        try {
+            write(bytes, offset, length);
+        } catch (IOException e) {
+            ret.completeExceptionally(e);
+            return ret;
+        }
+        synchronized (this) {
+            if (disposed) {
+                ret.completeExceptionally(cancelled());
+                return ret;
+            }
+            if (sink.requestedFromDownstream() > 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (requested == null) {
+                requested = new CompletableFuture<>();
+            }
+            return requested;
+        }
+    }
+
+    @Override
+    public CompletionStage<Void> asyncFlush() {
+        // every write is emitted, and flushed by reactor-netty, as it is made
+        return CompletableFuture.completedFuture(null);
+    }
+}
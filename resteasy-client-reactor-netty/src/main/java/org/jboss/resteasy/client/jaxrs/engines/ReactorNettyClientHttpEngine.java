@@ -1,7 +1,11 @@
 package org.jboss.resteasy.client.jaxrs.engines;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.group.ChannelGroup;
+import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.HttpResponseStatus;
 import org.jboss.resteasy.client.jaxrs.internal.ClientConfiguration;
 import org.jboss.resteasy.client.jaxrs.internal.ClientInvocation;
 import org.jboss.resteasy.client.jaxrs.internal.ClientRequestHeaders;
@@ -9,8 +13,13 @@ import org.jboss.resteasy.client.jaxrs.internal.ClientResponse;
 import org.jboss.resteasy.tracing.RESTEasyTracingLogger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
+import reactor.netty.Connection;
 import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
 import reactor.netty.http.client.HttpClientResponse;
 import reactor.netty.resources.ConnectionProvider;
 
@@ -47,6 +56,8 @@ public class ReactorNettyClientHttpEngine implements AsyncClientHttpEngine {
     private final ConnectionProvider connectionProvider;
     private final Optional<Duration> requestTimeout;
     private final BiFunction<ClientConfiguration, InputStream, ClientResponse> fnClientResponse;
+    private volatile boolean streaming;
+    private volatile int responseBodyBufferSize = 64 * 1024;
 
     /**
      * Constructor for ReactorNettyClientHttpEngine
@@ -129,18 +140,16 @@ public class ReactorNettyClientHttpEngine implements AsyncClientHttpEngine {
                                            final ResultExtractor<T> extractor,
                                            final ExecutorService executorService) {
 
-        final Optional<byte[]> payload =
-            Optional.ofNullable(request.getEntity()).map(entity -> requestContent(request));
+        final boolean streamRequest = streaming && request.isAsyncWritable();
+        final Optional<byte[]> payload = streamRequest
+                ? Optional.empty()
+                : Optional.ofNullable(request.getEntity()).map(entity -> requestContent(request));
 
         final HttpClient.RequestSender requestSender =
                 httpClient
                         .headers(headerBuilder -> {
                             final ClientRequestHeaders resteasyHeaders = request.getHeaders();
-                            resteasyHeaders.getHeaders().entrySet().forEach(entry -> {
-                                final String key = entry.getKey();
-                                final List<Object> valueList = entry.getValue();
-                                valueList.forEach(value -> headerBuilder.add(key, value != null ? value : ""));
-                            });
+                            copyHeaders(resteasyHeaders, headerBuilder);
 
                             payload.ifPresent(bytes -> {
 
@@ -158,12 +167,18 @@ public class ReactorNettyClientHttpEngine implements AsyncClientHttpEngine {
 
         // Please see https://github.com/reactor/reactor-netty/issues/585 to see why
         // we do not use outbound.sendObject(object) API.
-        final HttpClient.ResponseReceiver<?> responseReceiver =
-            payload.<HttpClient.ResponseReceiver<?>>map(bytes -> requestSender.send(
+        final HttpClient.ResponseReceiver<?> responseReceiver = streamRequest
+            ? requestSender.send((httpClientRequest, outbound) ->
+                outbound.send(requestContent(request, httpClientRequest, outbound.alloc())))
+            : payload.<HttpClient.ResponseReceiver<?>>map(bytes -> requestSender.send(
                 (httpClientRequest, outbound) ->
                     outbound.sendObject(Mono.just(outbound.alloc().buffer().writeBytes(bytes))))
             ).orElse(requestSender);
 
+        if (streaming && !buffered) {
+            return submitStreaming(request, responseReceiver, extractor);
+        }
+
         final Mono<ClientResponse> responseMono = responseReceiver
                 .responseSingle((response, bytes) -> bytes
                         .asInputStream()
@@ -193,28 +208,125 @@ public class ReactorNettyClientHttpEngine implements AsyncClientHttpEngine {
         return requestTimeout
                 .map(duration -> responseMono.timeout(duration))
                 .orElse(responseMono)
-                .<T>handle((response, sink) -> {
-                    try {
-                        sink.next(extractor.extractResult(response));
-                    } catch (final Exception e) {
-                        try {
-                            // We release the connection instead of closing it because the WebApplicationException
-                            // *may* make use of the response.  However, since we are releasing the
-                            // connection here, handlers of the rethrown exception will not be able
-                            // to use the stream (we ASSume buffering happened).  An alternative is
-                            // to force handlers to be responsible for closing the response; however,
-                            // that does open the possibility of leaks..  But then again, so do
-                            // several paths you can take with the Client API.
-                            response.releaseConnection();
-                        } catch (final IOException ie) {
-                            log.warn("There was a problem releasing the connection in an error scenario.", ie);
-                        }
-                        sink.error(e);
-                    }
-                })
+                .<T>handle((response, sink) -> extractResult(extractor, response, sink))
                 .toFuture();
     }
 
+    /**
+     * Completes with the response as soon as its headers are received, while its body is read from a
+     * {@link ByteBufFluxInputStream} as it arrives.
+     */
+    private <T> CompletableFuture<T> submitStreaming(final ClientInvocation request,
+                                                     final HttpClient.ResponseReceiver<?> responseReceiver,
+                                                     final ResultExtractor<T> extractor) {
+
+        final Flux<ClientResponse> responseFlux = responseReceiver
+                .responseConnection((response, connection) -> streamingResponse(request, response, connection));
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        // the flux outlives the future: it completes once the body has been received, which releases the connection
+        final Disposable subscription = requestTimeout
+                .map(duration -> responseFlux.timeout(Mono.delay(duration), response -> Mono.never()))
+                .orElse(responseFlux)
+                .<T>handle((response, sink) -> extractResult(extractor, response, sink))
+                .subscribe(future::complete, future::completeExceptionally);
+        future.whenComplete((result, throwable) -> {
+            if (future.isCancelled()) {
+                subscription.dispose();
+            }
+        });
+        return future;
+    }
+
+    private Flux<ClientResponse> streamingResponse(final ClientInvocation request,
+                                                   final HttpClientResponse response,
+                                                   final Connection connection) {
+
+        final ByteBufFluxInputStream body =
+                new ByteBufFluxInputStream(connection.channel().eventLoop(), responseBodyBufferSize);
+        connection.inbound().receive().retain().subscribe(body);
+
+        final ClientResponse clientResponse =
+                toRestEasyResponse(request.getClientConfiguration(), response, hasBody(request, response) ? body : null);
+        return Flux.just(clientResponse)
+                .concatWith(body.<ClientResponse>terminated())
+                .doOnCancel(body::close);
+    }
+
+    private static boolean hasBody(final ClientInvocation request, final HttpClientResponse response) {
+        final int status = response.status().code();
+        return !HttpMethod.HEAD.name().equals(request.getMethod())
+                && status != HttpResponseStatus.NO_CONTENT.code()
+                && status != HttpResponseStatus.NOT_MODIFIED.code()
+                && response.responseHeaders().getInt(CONTENT_LENGTH, -1) != 0;
+    }
+
+    private static <T> void extractResult(final ResultExtractor<T> extractor,
+                                          final ClientResponse response,
+                                          final SynchronousSink<T> sink) {
+        try {
+            sink.next(extractor.extractResult(response));
+        } catch (final Exception e) {
+            try {
+                // We release the connection instead of closing it because the WebApplicationException
+                // *may* make use of the response.  However, since we are releasing the
+                // connection here, handlers of the rethrown exception will not be able
+                // to use the stream (we ASSume buffering happened).  An alternative is
+                // to force handlers to be responsible for closing the response; however,
+                // that does open the possibility of leaks..  But then again, so do
+                // several paths you can take with the Client API.
+                response.releaseConnection();
+            } catch (final IOException ie) {
+                log.warn("There was a problem releasing the connection in an error scenario.", ie);
+            }
+            sink.error(e);
+        }
+    }
+
+    /**
+     * In streaming mode request entities written by an {@link org.jboss.resteasy.spi.AsyncMessageBodyWriter} are sent
+     * as they are written, with chunked transfer encoding, instead of being serialized up front to compute their
+     * Content-Length.  The bodies of responses which are not buffered, e.g. a {@link Response} returned by
+     * {@code submitCF()} or {@code invoke}, are read as they are received: the response completes once its headers
+     * are received.
+     * <p>
+     * A streamed response body must not be read on the event loop before it is received, e.g. in a continuation of
+     * the {@link CompletableFuture}, since that read would block the thread which receives it: such a read fails
+     * instead.  Typed responses are still buffered before their entity is read, so that
+     * {@link javax.ws.rs.client.CompletionStageRxInvoker} and the other async invokers never block a thread on I/O.
+     *
+     * @param streaming true to stream request and response bodies
+     */
+    public void setStreaming(final boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    /**
+     * @param responseBodyBufferSize the number of bytes of a streamed response body received ahead of the reader
+     *                               before the connection stops reading
+     */
+    public void setResponseBodyBufferSize(final int responseBodyBufferSize) {
+        if (responseBodyBufferSize <= 0)
+            throw new IllegalArgumentException("Required positive value for responseBodyBufferSize");
+        this.responseBodyBufferSize = responseBodyBufferSize;
+    }
+
+    public int getResponseBodyBufferSize() {
+        return responseBodyBufferSize;
+    }
+
+    private static void copyHeaders(final ClientRequestHeaders resteasyHeaders, final HttpHeaders headers) {
+        resteasyHeaders.getHeaders().entrySet().forEach(entry -> {
+            final String key = entry.getKey();
+            final List<Object> valueList = entry.getValue();
+            valueList.forEach(value -> headers.add(key, value != null ? value : ""));
+        });
+    }
+
     private static boolean isContentLengthInvalid(final String headerValue, final byte[] payload) {
 
         try {
@@ -292,6 +404,19 @@ public class ReactorNettyClientHttpEngine implements AsyncClientHttpEngine {
         }
     }
 
+    private static Flux<ByteBuf> requestContent(final ClientInvocation request,
+                                                final HttpClientRequest httpClientRequest,
+                                                final ByteBufAllocator alloc) {
+        // writers may set headers, e.g. a multipart boundary, until the first bytes are written
+        return FluxSinkOutputStream.body(alloc,
+                () -> {
+                    final HttpHeaders headers = httpClientRequest.requestHeaders();
+                    request.getHeaders().getHeaders().keySet().forEach(headers::remove);
+                    copyHeaders(request.getHeaders(), headers);
+                },
+                request::asyncWriteRequestBody);
+    }
+
     private ClientResponse toRestEasyResponse(final ClientConfiguration clientConfiguration,
                                               final HttpClientResponse reactorNettyResponse,
                                               final InputStream inputStream) {
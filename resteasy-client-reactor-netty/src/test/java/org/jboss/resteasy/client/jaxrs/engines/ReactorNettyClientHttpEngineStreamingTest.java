@@ -0,0 +1,351 @@
+package org.jboss.resteasy.client.jaxrs.engines;
+
+import io.netty.buffer.AbstractByteBufAllocator;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import io.netty.channel.DefaultEventLoop;
+import io.netty.channel.group.DefaultChannelGroup;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.util.concurrent.DefaultEventExecutor;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.spi.AsyncMessageBodyWriter;
+import org.jboss.resteasy.spi.AsyncOutputStream;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.reactivestreams.Subscription;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.HttpResources;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReactorNettyClientHttpEngineStreamingTest {
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+    private static final int CHUNKS = 64;
+    private static final String HELLO_WORLD = "Hello World!";
+
+    /**
+     * Entity written by {@link ChunksWriter}, in {@code count} writes of {@value #CHUNK_SIZE} bytes.
+     */
+    public static class Chunks {
+        final int count;
+        final AtomicInteger written = new AtomicInteger();
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        Chunks(final int count) {
+            this.count = count;
+        }
+    }
+
+    public static class ChunksWriter implements AsyncMessageBodyWriter<Chunks> {
+
+        @Override
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+            return Chunks.class.isAssignableFrom(type);
+        }
+
+        @Override
+        public void writeTo(Chunks chunks, Class<?> type, Type genericType, Annotation[] annotations,
+                            MediaType mediaType, MultivaluedMap<String, Object> httpHeaders,
+                            OutputStream entityStream) throws IOException {
+            for (int i = 0; i < chunks.count; i++) {
+                entityStream.write(new byte[CHUNK_SIZE]);
+            }
+        }
+
+        @Override
+        public CompletionStage<Void> asyncWriteTo(Chunks chunks, Class<?> type, Type genericType,
+                                                  Annotation[] annotations, MediaType mediaType,
+                                                  MultivaluedMap<String, Object> httpHeaders,
+                                                  AsyncOutputStream entityStream) {
+            write(chunks, entityStream);
+            return chunks.done;
+        }
+
+        /**
+         * Writes the next chunks until a write waits for the connection, and carries on once it completes.
+         */
+        private static void write(final Chunks chunks, final AsyncOutputStream out) {
+            while (chunks.written.get() < chunks.count) {
+                final CompletableFuture<Void> written = out.asyncWrite(new byte[CHUNK_SIZE]).toCompletableFuture();
+                chunks.written.incrementAndGet();
+                if (!written.isDone() || written.isCompletedExceptionally()) {
+                    written.whenComplete((v, t) -> {
+                        if (t != null) {
+                            chunks.done.completeExceptionally(t);
+                        } else {
+                            write(chunks, out);
+                        }
+                    });
+                    return;
+                }
+            }
+            chunks.done.complete(null);
+        }
+    }
+
+    private static Client client;
+    private static DisposableServer mockServer;
+
+    @BeforeClass
+    public static void setup() {
+        mockServer = HttpServer.create()
+                .host("localhost")
+                .route(routes -> routes
+                        .get("/hello", (request, response) ->
+                                response.addHeader(HttpHeaderNames.CONTENT_TYPE, "text/plain")
+                                        .sendString(Mono.just(HELLO_WORLD)))
+                        .get("/large", (request, response) ->
+                                response.addHeader(HttpHeaderNames.CONTENT_TYPE, "application/octet-stream")
+                                        .sendByteArray(Flux.range(0, CHUNKS).map(i -> new byte[CHUNK_SIZE])))
+                        .post("/close", (request, response) ->
+                                // closes the connection once the first buffer of the body is received
+                                request.receive()
+                                        .take(1)
+                                        .doOnNext(buffer -> request.withConnection(Connection::dispose))
+                                        .then())
+                        .get("/noentity", (request, response) ->
+                                response.status(HttpResponseStatus.NO_CONTENT).send())
+                        .post("/count", (request, response) -> {
+                            final String transferEncoding =
+                                    Optional.ofNullable(request.requestHeaders().get(HttpHeaderNames.TRANSFER_ENCODING))
+                                            .orElse("none");
+                            return response.addHeader(HttpHeaderNames.CONTENT_TYPE, "text/plain").sendString(
+                                    request.receive()
+                                            .map(ByteBuf::readableBytes)
+                                            .reduce(0, Integer::sum)
+                                            .map(count -> transferEncoding + ":" + count));
+                        }))
+                .bindNow();
+
+        final ReactorNettyClientHttpEngine engine =
+                new ReactorNettyClientHttpEngine(
+                        HttpClient.create(),
+                        new DefaultChannelGroup(new DefaultEventExecutor()),
+                        HttpResources.get());
+        engine.setStreaming(true);
+        engine.setResponseBodyBufferSize(CHUNK_SIZE);
+
+        final ClientBuilder builder = ClientBuilder.newBuilder();
+        ((ResteasyClientBuilder) builder).httpEngine(engine);
+        client = builder.build();
+    }
+
+    @AfterClass
+    public static void cleanup() {
+        mockServer.dispose();
+    }
+
+    private static Client singleConnectionClient() {
+        final ReactorNettyClientHttpEngine engine =
+                new ReactorNettyClientHttpEngine(
+                        HttpClient.create(ConnectionProvider.fixed("streaming-single-connection", 1)),
+                        new DefaultChannelGroup(new DefaultEventExecutor()),
+                        HttpResources.get());
+        engine.setStreaming(true);
+        engine.setResponseBodyBufferSize(CHUNK_SIZE);
+
+        final ClientBuilder builder = ClientBuilder.newBuilder();
+        ((ResteasyClientBuilder) builder).httpEngine(engine);
+        return builder.build();
+    }
+
+    private static String url(String path) {
+        return "http://localhost:" + mockServer.port() + path;
+    }
+
+    @Test
+    public void testStreamedRequestBody() {
+        final byte[] body = new byte[CHUNK_SIZE * CHUNKS];
+        final String result = client.target(url("/count"))
+                .request()
+                .post(Entity.entity(body, MediaType.APPLICATION_OCTET_STREAM_TYPE), String.class);
+        assertEquals("chunked:" + body.length, result);
+    }
+
+    @Test
+    public void testStreamedResponseBody() {
+        final Response response = client.target(url("/large")).request().get();
+        assertEquals(200, response.getStatus());
+        assertEquals(CHUNK_SIZE * CHUNKS, response.readEntity(byte[].class).length);
+    }
+
+    @Test
+    public void testStreamedResponseBodyAsync() throws Exception {
+        final Response response = client.target(url("/large")).request().async().get().get(10, TimeUnit.SECONDS);
+        assertEquals(200, response.getStatus());
+        assertEquals(CHUNK_SIZE * CHUNKS, response.readEntity(byte[].class).length);
+    }
+
+    @Test
+    public void testRxGetWithType() throws Exception {
+        final String entity = client.target(url("/hello"))
+                .request()
+                .rx()
+                .get(String.class)
+                .toCompletableFuture()
+                .get(10, TimeUnit.SECONDS);
+        assertEquals(HELLO_WORLD, entity);
+    }
+
+    @Test
+    public void testNoResponseEntity() {
+        final Response response = client.target(url("/noentity")).request().get();
+        assertEquals(204, response.getStatus());
+        assertFalse(response.hasEntity());
+    }
+
+    @Test(timeout = 30000)
+    public void testClosedResponseReleasesConnection() {
+        final Client singleConnection = singleConnectionClient();
+        try {
+            // with a single connection, a request would wait forever for the connection of an unread response
+            for (int i = 0; i < 5; i++) {
+                final Response response = singleConnection.target(url("/large")).request().get();
+                assertEquals(200, response.getStatus());
+                response.close();
+            }
+            assertEquals(HELLO_WORLD, singleConnection.target(url("/hello")).request().get(String.class));
+        } finally {
+            singleConnection.close();
+        }
+    }
+
+    @Test
+    public void testClosedResponseBodyReleasesBuffers() {
+        final DefaultEventLoop eventLoop = new DefaultEventLoop();
+        try {
+            final ByteBufFluxInputStream body = new ByteBufFluxInputStream(eventLoop, 4 * CHUNK_SIZE);
+            final List<ByteBuf> buffers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                buffers.add(UnpooledByteBufAllocator.DEFAULT.buffer(CHUNK_SIZE).writeZero(CHUNK_SIZE));
+            }
+            final AtomicBoolean cancelled = new AtomicBoolean();
+            Flux.fromIterable(buffers)
+                    .concatWith(Flux.never())
+                    .doOnCancel(() -> cancelled.set(true))
+                    .subscribe(body);
+
+            body.close();
+            assertTrue(cancelled.get());
+            for (ByteBuf buffer : buffers) {
+                assertEquals(0, buffer.refCnt());
+            }
+        } finally {
+            eventLoop.shutdownGracefully();
+        }
+    }
+
+    @Test
+    public void testCancelledRequestBodyFailsPendingWrite() throws Exception {
+        final List<ByteBuf> allocated = new ArrayList<>();
+        final ByteBufAllocator alloc = new AbstractByteBufAllocator() {
+            @Override
+            protected ByteBuf newHeapBuffer(int initialCapacity, int maxCapacity) {
+                final ByteBuf buffer = Unpooled.buffer(initialCapacity, maxCapacity);
+                allocated.add(buffer);
+                return buffer;
+            }
+
+            @Override
+            protected ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity) {
+                return newHeapBuffer(initialCapacity, maxCapacity);
+            }
+
+            @Override
+            public boolean isDirectBufferPooled() {
+                return false;
+            }
+        };
+        final CompletableFuture<AsyncOutputStream> stream = new CompletableFuture<>();
+        final CompletableFuture<CompletionStage<Void>> pending = new CompletableFuture<>();
+        final Flux<ByteBuf> requestBody = FluxSinkOutputStream.body(alloc, () -> { }, out -> {
+            stream.complete(out);
+            // nothing was requested, so the write waits for demand
+            pending.complete(out.asyncWrite(new byte[CHUNK_SIZE]));
+            return new CompletableFuture<>();
+        });
+        final BaseSubscriber<ByteBuf> subscriber = new BaseSubscriber<ByteBuf>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                // the connection was closed before any buffer was requested
+            }
+        };
+        requestBody.subscribe(subscriber);
+
+        final CompletableFuture<Void> write = pending.get(10, TimeUnit.SECONDS).toCompletableFuture();
+        assertFalse(write.isDone());
+        subscriber.dispose();
+
+        try {
+            write.get(10, TimeUnit.SECONDS);
+            fail("the pending write should fail once the body is cancelled");
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof IOException);
+        }
+        try {
+            stream.get().write(new byte[CHUNK_SIZE]);
+            fail("writes should fail once the body is cancelled");
+        } catch (IOException expected) {
+        }
+        assertEquals(1, allocated.size());
+        assertEquals(0, allocated.get(0).refCnt());
+    }
+
+    @Test(timeout = 30000)
+    public void testStreamedRequestBodyToClosingServer() throws Exception {
+        final Chunks chunks = new Chunks(4096);
+        try {
+            client.target(url("/close"))
+                    .register(ChunksWriter.class)
+                    .request()
+                    .async()
+                    .post(Entity.entity(chunks, MediaType.APPLICATION_OCTET_STREAM_TYPE))
+                    .get(20, TimeUnit.SECONDS)
+                    .close();
+            fail("the request should fail once the server closes the connection");
+        } catch (ExecutionException expected) {
+        }
+        // the writer does not wait forever for the connection to request more
+        try {
+            chunks.done.get(20, TimeUnit.SECONDS);
+            fail("the writer should fail once the server closes the connection");
+        } catch (ExecutionException expected) {
+        }
+        assertTrue(chunks.written.get() < chunks.count);
+    }
+}
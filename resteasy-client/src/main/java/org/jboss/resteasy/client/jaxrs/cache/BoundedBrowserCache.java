@@ -0,0 +1,186 @@
+package org.jboss.resteasy.client.jaxrs.cache;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import org.jboss.resteasy.util.WeightedCache;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory BrowserCache bounded by the size of its entries.  Unlike {@link LightweightBrowserCache}, which wipes
+ * everything once its maximum is reached, only the entries least worth keeping are evicted:
+ * <ol>
+ * <li>expired entries that cannot be revalidated (neither ETag nor Last-Modified)</li>
+ * <li>then the least recently used entries</li>
+ * </ol>
+ * A new entry is only admitted in place of an entry whose URL has been requested less frequently (TinyLFU), so a
+ * burst of one-off requests does not flush the entries that are actually reused.
+ * <p>
+ * Lookups never lock: they read a concurrent map and record the access time and frequency of the entry.  Adding
+ * an entry is serialized; when the cache is full the victims are the least recently used of a few sampled entries,
+ * so adding costs the same whatever the size of the cache.  Each addition also drops a few expired entries, and
+ * {@link #cleanUp()} drops all of them.
+ *
+ * @see WeightedCache
+ */
+public class BoundedBrowserCache implements BrowserCache
+{
+   private static class Node extends CacheEntry
+   {
+      private static final long serialVersionUID = 1L;
+
+      final transient WeightedCache.Handle<Node> handle;
+
+      Node(final String key, final MultivaluedMap<String, String> headers, final byte[] cached, final int expires,
+           final String etag, final String lastModified, final MediaType mediaType)
+      {
+         super(key, headers, cached, expires, etag, lastModified, mediaType);
+         this.handle = new WeightedCache.Handle<Node>(this, key, weigh(key, headers, cached));
+      }
+
+      /**
+       * Expired entries are still useful while they can be revalidated.
+       */
+      boolean stale()
+      {
+         return expired() && getValidationHeaders().length == 0;
+      }
+   }
+
+   protected final MapCache entries = new MapCache();
+   private final WeightedCache<Node> weights;
+
+   /**
+    * Cache of 2 megabytes, the same default as {@link LightweightBrowserCache}.
+    */
+   public BoundedBrowserCache()
+   {
+      this(2000000);
+   }
+
+   public BoundedBrowserCache(final long maxBytes)
+   {
+      // about one frequency counter per kilobyte, enough to tell apart the URLs that may be cached
+      this.weights = new WeightedCache<Node>(maxBytes, (int) Math.max(64, Math.min(1 << 20, maxBytes / 1024)), Node::stale,
+            node -> entries.remove(node.getKey(), node.getMediaType()));
+   }
+
+   /**
+    * Approximation of the memory retained by an entry: its body, and the characters of its key and headers.
+    */
+   protected static long weigh(String key, MultivaluedMap<String, String> headers, byte[] cached)
+   {
+      long weight = cached.length + 2L * key.length();
+      if (headers != null)
+      {
+         for (Map.Entry<String, List<String>> header : headers.entrySet())
+         {
+            weight += 2L * header.getKey().length();
+            for (String value : header.getValue())
+            {
+               if (value != null) weight += 2L * value.length();
+            }
+         }
+      }
+      return weight;
+   }
+
+   public Entry get(String key, MediaType accept)
+   {
+      return record(key, entries.get(key, accept));
+   }
+
+   public Entry getAny(String key)
+   {
+      return record(key, entries.getAny(key));
+   }
+
+   private Entry record(String key, Entry entry)
+   {
+      if (entry == null) weights.recordMiss(key);
+      else weights.recordHit(((Node) entry).handle);
+      return entry;
+   }
+
+   public Entry put(String key, MediaType mediaType, MultivaluedMap<String, String> headers, byte[] cached,
+                    int expires, String etag, String lastModified)
+   {
+      Node node = new Node(key, headers, cached, expires, etag, lastModified, mediaType);
+      weights.add(node.handle, () -> {
+         Node previous = (Node) entries.getEntry(key, node.getMediaType());
+         return previous == null ? null : previous.handle;
+      }, () -> entries.put(node));
+      return node;
+   }
+
+   public Entry remove(String key, MediaType type)
+   {
+      Node removed = (Node) entries.getEntry(key, type);
+      if (removed == null || !weights.remove(removed.handle)) return null;
+      return removed;
+   }
+
+   public void clear()
+   {
+      weights.clear(entries::clear);
+   }
+
+   /**
+    * Evicts all the expired entries which can't be revalidated, instead of the few checked by each put.
+    */
+   public void cleanUp()
+   {
+      weights.cleanUp();
+   }
+
+   public long getMaxBytes()
+   {
+      return weights.getMaxBytes();
+   }
+
+   /**
+    * @return the weight of the cached entries, see {@link #weigh(String, MultivaluedMap, byte[])}
+    */
+   public long getByteCount()
+   {
+      return weights.getByteCount();
+   }
+
+   public int getEntryCount()
+   {
+      return weights.getEntryCount();
+   }
+
+   public long getHitCount()
+   {
+      return weights.getHitCount();
+   }
+
+   public long getMissCount()
+   {
+      return weights.getMissCount();
+   }
+
+   /**
+    * @return number of entries removed because they expired or to make room for new ones
+    */
+   public long getEvictionCount()
+   {
+      return weights.getEvictionCount();
+   }
+
+   /**
+    * @return number of responses that were not cached, because they were too large or requested less
+    * frequently than the entries they would have replaced
+    */
+   public long getRejectionCount()
+   {
+      return weights.getRejectionCount();
+   }
+
+   public double getHitRatio()
+   {
+      return weights.getHitRatio();
+   }
+}
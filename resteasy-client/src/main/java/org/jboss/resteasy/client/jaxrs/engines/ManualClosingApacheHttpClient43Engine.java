@@ -26,24 +26,34 @@ import org.jboss.resteasy.client.jaxrs.internal.ClientResponse;
 import org.jboss.resteasy.client.jaxrs.internal.FinalizedClientResponse;
 import org.jboss.resteasy.microprofile.config.ResteasyConfigProvider;
 import org.jboss.resteasy.util.CaseInsensitiveMap;
+import org.jboss.resteasy.util.CommitHeaderOutputStream;
 
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.lang.management.ManagementFactory;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * An Apache HTTP engine for use with the new Builder Config style.
@@ -81,6 +91,19 @@ public class ManualClosingApacheHttpClient43Engine implements ApacheHttpClientEn
 
    protected boolean followRedirects = false;
 
+   /**
+    * Write the request entity to the connection while it is being sent, instead of buffering it first. See
+    * {@link #setStreamingRequestEntity(boolean)}.
+    */
+   protected boolean streamingRequestEntity = false;
+
+   /**
+    * Size of the buffer which gathers the small writes of a streamed request entity.
+    */
+   protected int streamingBufferSize = 8192;
+
+   private ExecutorService streamingExecutor;
+
    /**
     * For uploading File's over JAX-RS framework, this property, together with {@link #fileUploadMemoryUnit},
     * defines the maximum File size allowed in memory. If fileSize exceeds this size, it will be stored to
@@ -263,21 +286,14 @@ public class ManualClosingApacheHttpClient43Engine implements ApacheHttpClientEn
       {
          loadHttpMethod(request, httpMethod);
 
-         if (System.getSecurityManager() == null) {
-            res = httpClient.execute(httpMethod,
-                    ((httpContextProvider == null)? null : httpContextProvider.getContext()));
-         } else {
-            try {
-               res = AccessController.doPrivileged(new PrivilegedExceptionAction<HttpResponse>() {
-                  @Override
-                  public HttpResponse run() throws Exception {
-                     return httpClient.execute(httpMethod,
-                             ((httpContextProvider == null)? null : httpContextProvider.getContext()));
-                  }
-               });
-            } catch (PrivilegedActionException pae) {
-               throw new RuntimeException(pae);
-            }
+         HttpEntity requestEntity = httpMethod instanceof HttpPost ? ((HttpPost) httpMethod).getEntity() : null;
+         if (requestEntity instanceof StreamingEntity)
+         {
+            res = executeStreaming(request, httpMethod, (StreamingEntity) requestEntity);
+         }
+         else
+         {
+            res = execute(httpMethod);
          }
       }
       catch (Exception e)
@@ -407,6 +423,105 @@ public class ManualClosingApacheHttpClient43Engine implements ApacheHttpClientEn
       return response;
    }
 
+   private HttpResponse execute(final HttpRequestBase httpMethod) throws Exception
+   {
+      if (System.getSecurityManager() == null) {
+         return httpClient.execute(httpMethod,
+                 ((httpContextProvider == null)? null : httpContextProvider.getContext()));
+      } else {
+         try {
+            return AccessController.doPrivileged(new PrivilegedExceptionAction<HttpResponse>() {
+               @Override
+               public HttpResponse run() throws Exception {
+                  return httpClient.execute(httpMethod,
+                          ((httpContextProvider == null)? null : httpContextProvider.getContext()));
+               }
+            });
+         } catch (PrivilegedActionException pae) {
+            throw new RuntimeException(pae);
+         }
+      }
+   }
+
+   /**
+    * Writes the request entity on the calling thread while the request is executed on a thread of the engine. The
+    * headers are committed, and the request started, on the first write of the entity, so that the headers set by
+    * the writer interceptors and the MessageBodyWriter are sent.
+    */
+   private HttpResponse executeStreaming(final ClientInvocation request, final HttpRequestBase httpMethod, final StreamingEntity entity) throws Exception
+   {
+      final CompletableFuture<HttpResponse> response = new CompletableFuture<HttpResponse>();
+      final AtomicBoolean started = new AtomicBoolean();
+      CommitHeaderOutputStream out = new CommitHeaderOutputStream(new BufferedOutputStream(entity.getOutputStream(), streamingBufferSize), () -> {
+         commitHeaders(request, httpMethod);
+         started.set(true);
+         getStreamingExecutor().execute(() -> {
+            try
+            {
+               response.complete(execute(httpMethod));
+            }
+            catch (Throwable t)
+            {
+               entity.fail(t);
+               response.completeExceptionally(t);
+            }
+         });
+      });
+      request.getDelegatingOutputStream().setDelegate(out);
+      try
+      {
+         request.writeRequestBody(request.getEntityStream());
+         out.close();
+      }
+      catch (Exception e)
+      {
+         entity.fail(e);
+         if (started.get())
+         {
+            // the request fails as well, wait for its connection to be released
+            try
+            {
+               response.get();
+            }
+            catch (ExecutionException ignored)
+            {
+            }
+         }
+         throw e;
+      }
+      try
+      {
+         return response.get();
+      }
+      catch (InterruptedException e)
+      {
+         httpMethod.abort();
+         Thread.currentThread().interrupt();
+         throw e;
+      }
+      catch (ExecutionException e)
+      {
+         if (e.getCause() instanceof Exception)
+         {
+            throw (Exception) e.getCause();
+         }
+         throw e;
+      }
+   }
+
+   private synchronized ExecutorService getStreamingExecutor()
+   {
+      if (streamingExecutor == null)
+      {
+         streamingExecutor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "resteasy-client-streaming");
+            t.setDaemon(true);
+            return t;
+         });
+      }
+      return streamingExecutor;
+   }
+
    protected HttpRequestBase createHttpMethod(String url, String restVerb)
    {
       if ("GET".equals(restVerb))
@@ -447,6 +562,13 @@ public class ManualClosingApacheHttpClient43Engine implements ApacheHttpClientEn
          if (httpMethod instanceof HttpGet)
             throw new ProcessingException(Messages.MESSAGES.getRequestCannotHaveBody());
 
+         if (isStreaming(request))
+         {
+            // the headers are committed once the entity is being written
+            ((HttpPost) httpMethod).setEntity(new StreamingEntity());
+            return;
+         }
+
          ByteArrayOutputStream baos = new ByteArrayOutputStream();
          request.getDelegatingOutputStream().setDelegate(baos);
          try
@@ -490,6 +612,44 @@ public class ManualClosingApacheHttpClient43Engine implements ApacheHttpClientEn
       this.chunked = chunked;
    }
 
+   public boolean isStreamingRequestEntity()
+   {
+      return streamingRequestEntity;
+   }
+
+   /**
+    * Write request entities to the connection while they are being sent, with a chunked transfer encoding, instead
+    * of writing them to memory, or to a temporary file beyond {@link #fileUploadInMemoryThresholdLimit}, first. A
+    * streamed entity cannot be sent again, so the entities of the requests which carry a Content-Length header, or
+    * which follow redirects, are still buffered.
+    *
+    * @param streamingRequestEntity true to stream request entities. Defaults to false.
+    */
+   public void setStreamingRequestEntity(boolean streamingRequestEntity)
+   {
+      this.streamingRequestEntity = streamingRequestEntity;
+   }
+
+   public int getStreamingBufferSize()
+   {
+      return streamingBufferSize;
+   }
+
+   /**
+    * @param streamingBufferSize size of the buffer which gathers the small writes of a streamed request entity.
+    *                            Defaults to 8192.
+    */
+   public void setStreamingBufferSize(int streamingBufferSize)
+   {
+      this.streamingBufferSize = streamingBufferSize;
+   }
+
+   protected boolean isStreaming(final ClientInvocation request)
+   {
+      return streamingRequestEntity && !isFollowRedirects()
+            && request.getHeaders().getHeader(HttpHeaders.CONTENT_LENGTH) == null;
+   }
+
    public boolean isFollowRedirects()
    {
       return followRedirects;
@@ -662,6 +822,168 @@ public class ManualClosingApacheHttpClient43Engine implements ApacheHttpClientEn
       }
    }
 
+   /**
+    * {@link HttpEntity} written by the writer of the request entity while HttpClient sends it. The writer runs on the
+    * calling thread and hands each write over to the thread which executes the request. That thread writes it to the
+    * connection and then lets the writer carry on, so a single write is held in memory, without being copied.
+    */
+   private static class StreamingEntity extends AbstractHttpEntity
+   {
+      private byte[] bytes;
+      private int offset;
+      private int length;
+      private boolean ended;
+      private Throwable failure;
+
+      StreamingEntity()
+      {
+         setChunked(true);
+      }
+
+      OutputStream getOutputStream()
+      {
+         return new OutputStream()
+         {
+            @Override
+            public void write(int b) throws IOException
+            {
+               handOver(new byte[] {(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException
+            {
+               if (len > 0)
+               {
+                  handOver(b, off, len);
+               }
+            }
+
+            @Override
+            public void close()
+            {
+               end();
+            }
+         };
+      }
+
+      private synchronized void handOver(byte[] b, int off, int len) throws IOException
+      {
+         if (failure != null)
+         {
+            throw new IOException(failure);
+         }
+         bytes = b;
+         offset = off;
+         length = len;
+         notifyAll();
+         while (bytes != null && failure == null)
+         {
+            await();
+         }
+         if (bytes != null)
+         {
+            bytes = null;
+            throw new IOException(failure);
+         }
+      }
+
+      private synchronized void end()
+      {
+         ended = true;
+         notifyAll();
+      }
+
+      synchronized void fail(Throwable cause)
+      {
+         if (failure == null)
+         {
+            failure = cause;
+         }
+         notifyAll();
+      }
+
+      private void await() throws InterruptedIOException
+      {
+         try
+         {
+            wait();
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+         }
+      }
+
+      @Override
+      public void writeTo(OutputStream outstream) throws IOException
+      {
+         while (true)
+         {
+            byte[] b;
+            int off;
+            int len;
+            synchronized (this)
+            {
+               while (bytes == null && !ended && failure == null)
+               {
+                  await();
+               }
+               if (failure != null)
+               {
+                  throw new IOException(failure);
+               }
+               if (bytes == null)
+               {
+                  return;
+               }
+               b = bytes;
+               off = offset;
+               len = length;
+            }
+            try
+            {
+               outstream.write(b, off, len);
+            }
+            catch (IOException e)
+            {
+               fail(e);
+               throw e;
+            }
+            synchronized (this)
+            {
+               bytes = null;
+               notifyAll();
+            }
+         }
+      }
+
+      @Override
+      public boolean isRepeatable()
+      {
+         return false;
+      }
+
+      @Override
+      public long getContentLength()
+      {
+         return -1;
+      }
+
+      @Override
+      public InputStream getContent()
+      {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public boolean isStreaming()
+      {
+         return true;
+      }
+   }
+
    protected HttpClient createDefaultHttpClient()
    {
       final HttpClientBuilder builder = HttpClientBuilder.create();
@@ -725,6 +1047,13 @@ public class ManualClosingApacheHttpClient43Engine implements ApacheHttpClientEn
       if (closed)
          return;
 
+      synchronized (this)
+      {
+         if (streamingExecutor != null)
+         {
+            streamingExecutor.shutdown();
+         }
+      }
       if (allowClosingHttpClient && httpClient != null)
       {
          try
@@ -9,6 +9,7 @@ import java.lang.reflect.Type;
 import java.net.URI;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
@@ -53,6 +54,9 @@ import org.jboss.resteasy.core.ResteasyContext.CloseableContext;
 import org.jboss.resteasy.core.interception.jaxrs.AbstractWriterInterceptorContext;
 import org.jboss.resteasy.core.interception.jaxrs.ClientWriterInterceptorContext;
 import org.jboss.resteasy.plugins.providers.sse.EventInput;
+import org.jboss.resteasy.spi.AsyncMessageBodyWriter;
+import org.jboss.resteasy.spi.AsyncOutputStream;
+import org.jboss.resteasy.spi.AsyncWriterInterceptor;
 import org.jboss.resteasy.specimpl.MultivaluedTreeMap;
 import org.jboss.resteasy.spi.util.Types;
 import org.jboss.resteasy.tracing.RESTEasyTracingLogger;
@@ -444,6 +448,56 @@ public class ClientInvocation implements Invocation
       }
    }
 
+   /**
+    * @return true when the entity is written by an {@link AsyncMessageBodyWriter} through {@link AsyncWriterInterceptor}s
+    * only, so that {@link #asyncWriteRequestBody(AsyncOutputStream)} does not block on the output stream
+    */
+   public boolean isAsyncWritable()
+   {
+      if (entity == null)
+      {
+         return false;
+      }
+      WriterInterceptor[] interceptors = getWriterInterceptors();
+      if (interceptors != null)
+      {
+         for (WriterInterceptor interceptor : interceptors)
+         {
+            if (!(interceptor instanceof AsyncWriterInterceptor))
+            {
+               return false;
+            }
+         }
+      }
+      return configuration.getProviderFactory().getClientMessageBodyWriter(entityClass, entityGenericType,
+            entityAnnotations, headers.getMediaType()) instanceof AsyncMessageBodyWriter;
+   }
+
+   public CompletionStage<Void> asyncWriteRequestBody(AsyncOutputStream outputStream)
+   {
+      if (entity == null)
+      {
+         return CompletableFuture.completedFuture(null);
+      }
+
+      WriterInterceptor[] interceptors = getWriterInterceptors();
+      AbstractWriterInterceptorContext ctx = new ClientWriterInterceptorContext(interceptors,
+            configuration.getProviderFactory(), entity, entityClass, entityGenericType, entityAnnotations,
+            headers.getMediaType(), headers.getHeaders(), outputStream, getMutableProperties(), tracingLogger);
+
+      final long timestamp = tracingLogger.timestamp("WI_SUMMARY");
+      CompletionStage<Void> started;
+      try {
+         started = ctx.getStarted();
+      } catch (RuntimeException e) {
+         CompletableFuture<Void> failed = new CompletableFuture<>();
+         failed.completeExceptionally(e);
+         started = failed;
+      }
+      return started.whenComplete((v, t) -> tracingLogger.logDuration("WI_SUMMARY", timestamp,
+              ctx.getProcessedInterceptorCount()));
+   }
+
    public WriterInterceptor[] getWriterInterceptors()
    {
       return configuration.getWriterInterceptors(null, null);
@@ -38,4 +38,25 @@ public interface MethodStatisticsLogger {
    default long getFailedInvocationCnt() { return -1;}
    default long getAvgExecutionTime() { return -1;}
    default long getTotalExecutionTime() { return -1;}
+   default long getMaxExecutionTime() { return -1;}
+
+   /**
+    * Execution time, in nanoseconds, under which the given percentage of the invocations completed
+    * @param percentile between 0 and 100, e.g. 99.9
+    * @return
+    */
+   default long getExecutionTimePercentile(final double percentile) { return -1;}
+
+   /**
+    * Several execution time percentiles computed from the same snapshot
+    * @param percentiles between 0 and 100, in increasing order
+    * @return
+    */
+   default long[] getExecutionTimePercentiles(final double... percentiles) {
+      long[] values = new long[percentiles.length];
+      for (int i = 0; i < percentiles.length; i++) {
+         values[i] = getExecutionTimePercentile(percentiles[i]);
+      }
+      return values;
+   }
 }
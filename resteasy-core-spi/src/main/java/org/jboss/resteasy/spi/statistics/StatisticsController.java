@@ -2,8 +2,24 @@ package org.jboss.resteasy.spi.statistics;
 
 import org.jboss.resteasy.spi.ResourceInvoker;
 
+import java.util.Collection;
+import java.util.Collections;
+
 public interface StatisticsController {
    void register(ResourceInvoker invoker);
    void setEnabled(boolean b);
    void reset();
+
+   default boolean isEnabled() {
+      return false;
+   }
+
+   /**
+    * The registered invokers, whose statistics are available through
+    * {@link ResourceInvoker#getMethodStatisticsLogger()}
+    * @return
+    */
+   default Collection<ResourceInvoker> getResourceInvokers() {
+      return Collections.emptyList();
+   }
 }
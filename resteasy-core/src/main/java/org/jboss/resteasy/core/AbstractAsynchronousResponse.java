@@ -46,7 +46,7 @@ public abstract class AbstractAsynchronousResponse implements ResteasyAsynchrono
       this.dispatcher = dispatcher;
       this.request = request;
       this.response = response;
-      contextDataMap = ResteasyContext.getContextDataMap();
+      contextDataMap = ResteasyContext.captureContextDataMap();
    }
 
 
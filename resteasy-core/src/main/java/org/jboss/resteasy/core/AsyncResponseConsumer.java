@@ -54,7 +54,7 @@ public abstract class AsyncResponseConsumer
    public AsyncResponseConsumer(final ResourceMethodInvoker method)
    {
       this.method = method;
-      contextDataMap = ResteasyContext.getContextDataMap();
+      contextDataMap = ResteasyContext.captureContextDataMap();
       dispatcher = (SynchronousDispatcher) contextDataMap.get(Dispatcher.class);
       HttpRequest httpRequest = (HttpRequest) contextDataMap.get(HttpRequest.class);
       if(httpRequest.getAsyncContext().isSuspended())
@@ -16,6 +16,7 @@ import javax.ws.rs.BadRequestException;
 import javax.ws.rs.NotFoundException;
 import javax.ws.rs.WebApplicationException;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Parameter;
@@ -34,10 +35,14 @@ public class ConstructorInjectorImpl implements ConstructorInjector
 {
    protected Constructor constructor;
    protected ValueInjector[] params;
+   private final MethodHandle instantiator;
+   private final InvocationHandles.Parameters parameters;
 
    public ConstructorInjectorImpl(final ResourceConstructor constructor, final ResteasyProviderFactory factory)
    {
       this.constructor = constructor.getConstructor();
+      this.instantiator = InvocationHandles.forConstructor(this.constructor);
+      this.parameters = new InvocationHandles.Parameters(this.constructor.getParameterTypes());
       params = new ValueInjector[constructor.getParams().length];
       int i = 0;
       for (ConstructorParameter parameter : constructor.getParams())
@@ -51,6 +56,8 @@ public class ConstructorInjectorImpl implements ConstructorInjector
    public ConstructorInjectorImpl(final Constructor constructor, final ResteasyProviderFactory factory)
    {
       this.constructor = constructor;
+      this.instantiator = InvocationHandles.forConstructor(constructor);
+      this.parameters = new InvocationHandles.Parameters(constructor.getParameterTypes());
       params = new ValueInjector[constructor.getParameterTypes().length];
       Parameter[] reflectionParameters = constructor.getParameters();
       for (int i = 0; i < constructor.getParameterTypes().length; i++)
@@ -152,7 +159,7 @@ public class ConstructorInjectorImpl implements ConstructorInjector
    protected Object constructInRequest(Object[] args) {
       try
       {
-         return constructor.newInstance(args);
+         return newInstance(args);
       }
       catch (InstantiationException e)
       {
@@ -217,7 +224,7 @@ public class ConstructorInjectorImpl implements ConstructorInjector
       {
          Object target = null;
          if (System.getSecurityManager() == null) {
-            target = constructor.newInstance(args);
+            target = newInstance(args);
          } else {
             try {
                target = AccessController.doPrivileged(new PrivilegedExceptionAction<Object>() {
@@ -268,4 +275,21 @@ public class ConstructorInjectorImpl implements ConstructorInjector
          throw new RuntimeException(msg, e);
       }
    }
+
+   private Object newInstance(Object[] args) throws InstantiationException, IllegalAccessException, InvocationTargetException
+   {
+      if (instantiator == null || !parameters.accepts(args))
+      {
+         return constructor.newInstance(args);
+      }
+      try
+      {
+         return (Object) instantiator.invokeExact(args);
+      }
+      catch (Throwable t)
+      {
+         // wrapped as by reflection, so that it is handled the same way
+         throw new InvocationTargetException(t);
+      }
+   }
 }
@@ -0,0 +1,297 @@
+package org.jboss.resteasy.core;
+
+import org.jboss.resteasy.plugins.server.Cleanables;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.jboss.resteasy.spi.HttpRequest;
+import org.jboss.resteasy.spi.HttpResponse;
+import org.jboss.resteasy.spi.Registry;
+import org.jboss.resteasy.spi.ResteasyAsynchronousContext;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+
+import javax.ws.rs.container.ResourceContext;
+import javax.ws.rs.core.Application;
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.SecurityContext;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Providers;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Context data of a request.  The types every request puts in its context, and which {@link javax.ws.rs.core.Context}
+ * injection looks up the most, have a fixed slot in an array; other types go to a map created on first use.  Filling
+ * the context of a request thus allocates nothing but the array, and looking up a well-known type is an array access.
+ * <p>
+ * A map is not thread safe, it is used by one thread at a time: the thread processing the request, then the thread
+ * resuming it if the request is suspended.  The map a thread created is recycled by {@link ResteasyContext} for the
+ * next request of that thread once the request completed, unless it was suspended or {@link #retain() retained}.
+ */
+public class ContextDataMap extends AbstractMap<Class<?>, Object>
+{
+   private static final Class<?>[] SLOT_TYPES = {
+         HttpRequest.class,
+         HttpResponse.class,
+         HttpHeaders.class,
+         UriInfo.class,
+         Request.class,
+         SecurityContext.class,
+         ResteasyAsynchronousContext.class,
+         ResourceContext.class,
+         Providers.class,
+         Registry.class,
+         Dispatcher.class,
+         InternalDispatcher.class,
+         Configuration.class,
+         ResteasyDeployment.class,
+         Application.class,
+         Cleanables.class,
+         PostResourceMethodInvokers.class
+   };
+
+   private static final ClassValue<Integer> SLOTS = new ClassValue<Integer>()
+   {
+      @Override
+      protected Integer computeValue(Class<?> type)
+      {
+         for (int i = 0; i < SLOT_TYPES.length; i++)
+         {
+            if (SLOT_TYPES[i] == type) return i;
+         }
+         return -1;
+      }
+   };
+
+   // stands for a null value, an empty slot is null
+   private static final Object NULL = new Object();
+
+   private final Object[] slots = new Object[SLOT_TYPES.length];
+   private final Thread owner;
+   private int slotCount;
+   private Map<Class<?>, Object> others;
+   private Set<Map.Entry<Class<?>, Object>> entrySet;
+   private volatile boolean retained;
+
+   public ContextDataMap()
+   {
+      this(null);
+   }
+
+   ContextDataMap(final Thread owner)
+   {
+      this.owner = owner;
+   }
+
+   private static int slot(Object key)
+   {
+      return key instanceof Class ? SLOTS.get((Class<?>) key) : -1;
+   }
+
+   private static Object unmask(Object value)
+   {
+      return value == NULL ? null : value;
+   }
+
+   @Override
+   public Object get(Object key)
+   {
+      int slot = slot(key);
+      if (slot >= 0) return unmask(slots[slot]);
+      return others == null ? null : others.get(key);
+   }
+
+   @Override
+   public boolean containsKey(Object key)
+   {
+      int slot = slot(key);
+      if (slot >= 0) return slots[slot] != null;
+      return others != null && others.containsKey(key);
+   }
+
+   @Override
+   public Object put(Class<?> key, Object value)
+   {
+      int slot = slot(key);
+      if (slot >= 0)
+      {
+         Object previous = slots[slot];
+         slots[slot] = value == null ? NULL : value;
+         if (previous == null) slotCount++;
+         return unmask(previous);
+      }
+      if (others == null) others = new HashMap<Class<?>, Object>();
+      return others.put(key, value);
+   }
+
+   @Override
+   public Object remove(Object key)
+   {
+      int slot = slot(key);
+      if (slot >= 0)
+      {
+         Object previous = slots[slot];
+         if (previous == null) return null;
+         slots[slot] = null;
+         slotCount--;
+         return unmask(previous);
+      }
+      return others == null ? null : others.remove(key);
+   }
+
+   @Override
+   public int size()
+   {
+      return others == null ? slotCount : slotCount + others.size();
+   }
+
+   @Override
+   public void clear()
+   {
+      Arrays.fill(slots, null);
+      slotCount = 0;
+      if (others != null) others.clear();
+   }
+
+   /**
+    * Keeps the map from being recycled, for when it is captured to be used by another thread.
+    */
+   public void retain()
+   {
+      retained = true;
+   }
+
+   public boolean isRetained()
+   {
+      return retained;
+   }
+
+   boolean isRecyclable()
+   {
+      return !retained && owner == Thread.currentThread();
+   }
+
+   @Override
+   public Set<Map.Entry<Class<?>, Object>> entrySet()
+   {
+      Set<Map.Entry<Class<?>, Object>> set = entrySet;
+      if (set == null)
+      {
+         set = new AbstractSet<Map.Entry<Class<?>, Object>>()
+         {
+            @Override
+            public Iterator<Map.Entry<Class<?>, Object>> iterator()
+            {
+               return new EntryIterator();
+            }
+
+            @Override
+            public int size()
+            {
+               return ContextDataMap.this.size();
+            }
+
+            @Override
+            public void clear()
+            {
+               ContextDataMap.this.clear();
+            }
+         };
+         entrySet = set;
+      }
+      return set;
+   }
+
+   private final class SlotEntry extends AbstractMap.SimpleEntry<Class<?>, Object>
+   {
+      private static final long serialVersionUID = 1L;
+      private final int slot;
+
+      SlotEntry(final int slot)
+      {
+         super(SLOT_TYPES[slot], unmask(slots[slot]));
+         this.slot = slot;
+      }
+
+      @Override
+      public Object setValue(Object value)
+      {
+         slots[slot] = value == null ? NULL : value;
+         return super.setValue(value);
+      }
+   }
+
+   private final class EntryIterator implements Iterator<Map.Entry<Class<?>, Object>>
+   {
+      private int next = -1;
+      private int current = -1;
+      private Iterator<Map.Entry<Class<?>, Object>> othersIterator;
+      private boolean returnedOther;
+
+      EntryIterator()
+      {
+         advance();
+      }
+
+      private void advance()
+      {
+         do
+         {
+            next++;
+         }
+         while (next < slots.length && slots[next] == null);
+      }
+
+      @Override
+      public boolean hasNext()
+      {
+         if (next < slots.length) return true;
+         if (others == null) return false;
+         if (othersIterator == null) othersIterator = others.entrySet().iterator();
+         return othersIterator.hasNext();
+      }
+
+      @Override
+      public Map.Entry<Class<?>, Object> next()
+      {
+         if (next < slots.length)
+         {
+            current = next;
+            advance();
+            returnedOther = false;
+            return new SlotEntry(current);
+         }
+         if (!hasNext()) throw new NoSuchElementException();
+         current = -1;
+         Map.Entry<Class<?>, Object> entry = othersIterator.next();
+         returnedOther = true;
+         return entry;
+      }
+
+      @Override
+      public void remove()
+      {
+         if (current >= 0)
+         {
+            if (slots[current] == null) throw new IllegalStateException();
+            slots[current] = null;
+            slotCount--;
+            current = -1;
+         }
+         else if (returnedOther)
+         {
+            othersIterator.remove();
+         }
+         else
+         {
+            throw new IllegalStateException();
+         }
+      }
+   }
+}
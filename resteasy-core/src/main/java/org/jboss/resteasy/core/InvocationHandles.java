@@ -0,0 +1,149 @@
+package org.jboss.resteasy.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Method handles which resource methods, constructors and injected properties are invoked through, instead of
+ * reflection.  They are created once, when the injectors are created, with the types erased to <code>Object</code>
+ * so that they are invoked with <code>invokeExact</code> and the JIT can inline the call through them.
+ * <p>
+ * A handle is only created for a member the injectors may access; when it cannot be created, or when an invocation
+ * would need the conversions reflection does (widening a primitive argument, or a proxy target which does not
+ * implement the declaring class), the injectors fall back to reflection.  The handles can be turned off with the
+ * <code>org.jboss.resteasy.method_handles</code> system property.
+ * <p>
+ * The handles are of fixed arity, so that the array of a varargs parameter is passed as it is, as reflection does.
+ */
+final class InvocationHandles
+{
+   private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("org.jboss.resteasy.method_handles", "true"));
+
+   private static final MethodType SETTER = MethodType.methodType(void.class, Object.class, Object.class);
+
+   private InvocationHandles()
+   {
+   }
+
+   /**
+    * @param method an instance method
+    * @return a handle of type <code>(Object, Object[])Object</code>, or null
+    */
+   static MethodHandle forMethod(Method method)
+   {
+      if (!ENABLED || Modifier.isStatic(method.getModifiers())) return null;
+      try
+      {
+         MethodHandle handle = MethodHandles.lookup().unreflect(method).asFixedArity();
+         return handle.asType(handle.type().generic())
+               .asSpreader(Object[].class, method.getParameterCount());
+      }
+      catch (IllegalAccessException | RuntimeException e)
+      {
+         return null;
+      }
+   }
+
+   /**
+    * @param constructor constructor of a concrete class
+    * @return a handle of type <code>(Object[])Object</code>, or null
+    */
+   static MethodHandle forConstructor(Constructor<?> constructor)
+   {
+      if (!ENABLED || Modifier.isAbstract(constructor.getDeclaringClass().getModifiers())) return null;
+      try
+      {
+         MethodHandle handle = MethodHandles.lookup().unreflectConstructor(constructor).asFixedArity();
+         return handle.asType(handle.type().generic())
+               .asSpreader(Object[].class, constructor.getParameterCount());
+      }
+      catch (IllegalAccessException | RuntimeException e)
+      {
+         return null;
+      }
+   }
+
+   /**
+    * @param setter an instance method taking one parameter
+    * @return a handle of type <code>(Object, Object)void</code>, or null
+    */
+   static MethodHandle forSetter(Method setter)
+   {
+      if (!ENABLED || Modifier.isStatic(setter.getModifiers())) return null;
+      try
+      {
+         return MethodHandles.lookup().unreflect(setter).asFixedArity().asType(SETTER);
+      }
+      catch (IllegalAccessException | RuntimeException e)
+      {
+         return null;
+      }
+   }
+
+   /**
+    * @param field an instance field
+    * @return a handle of type <code>(Object, Object)void</code>, or null
+    */
+   static MethodHandle forField(Field field)
+   {
+      if (!ENABLED || Modifier.isStatic(field.getModifiers())) return null;
+      try
+      {
+         return MethodHandles.lookup().unreflectSetter(field).asType(SETTER);
+      }
+      catch (IllegalAccessException | RuntimeException e)
+      {
+         return null;
+      }
+   }
+
+   /**
+    * Parameter types of a member invoked through a handle.
+    */
+   static final class Parameters
+   {
+      private final Class<?>[] types;
+      private final boolean[] primitive;
+
+      Parameters(final Class<?>[] types)
+      {
+         this.types = new Class<?>[types.length];
+         this.primitive = new boolean[types.length];
+         for (int i = 0; i < types.length; i++)
+         {
+            this.types[i] = MethodType.methodType(types[i]).wrap().returnType();
+            this.primitive[i] = types[i].isPrimitive();
+         }
+      }
+
+      /**
+       * @param args arguments, may be null if there are no parameters
+       * @return whether the arguments can be passed through a handle without any conversion
+       */
+      boolean accepts(Object[] args)
+      {
+         int length = args == null ? 0 : args.length;
+         if (length != types.length) return false;
+         for (int i = 0; i < length; i++)
+         {
+            Object arg = args[i];
+            if (arg == null ? primitive[i] : !types[i].isInstance(arg)) return false;
+         }
+         return true;
+      }
+
+      /**
+       * @param arg argument of a single parameter
+       * @return whether the argument can be passed through a handle without any conversion
+       */
+      boolean accepts(Object arg)
+      {
+         return arg == null ? !primitive[0] : types[0].isInstance(arg);
+      }
+   }
+}
@@ -1,6 +1,7 @@
 package org.jboss.resteasy.core;
 
 import org.jboss.resteasy.plugins.delegates.MediaTypeHeaderDelegate;
+import org.jboss.resteasy.util.BoundedCache;
 import org.jboss.resteasy.util.MediaTypeHelper;
 
 import javax.ws.rs.core.MediaType;
@@ -13,6 +14,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -283,24 +285,32 @@ public class MediaTypeMap<T>
    private static class CachedMediaTypeAndClass
    {
       // we need a weak reference because of possible hot deployment
-      // Although, these reference should get cleared up with any add() invocation
-      private WeakReference<Class<?>> clazz;
-      private MediaType mediaType;
+      // Although, these reference should get cleared up with any add() invocation.
+      // Keys only used for lookups hold the class directly to avoid allocating the reference.
+      private final Object clazz;
+      private final MediaType mediaType;
       private final int hash;
 
-      @SuppressWarnings({"rawtypes", "unchecked"})
-      private CachedMediaTypeAndClass(final Class clazz, final MediaType mediaType)
+      private CachedMediaTypeAndClass(final Class<?> clazz, final MediaType mediaType, final boolean weak)
       {
-         this.clazz = new WeakReference(clazz);
+         this.clazz = weak ? new WeakReference<Class<?>>(clazz) : clazz;
          this.mediaType = mediaType;
          int result = clazz.hashCode();
          result = 31 * result + (mediaType.getType() != null ? mediaType.getType().hashCode() : 0) +  (mediaType.getSubtype() != null ? mediaType.getSubtype().hashCode() : 0);
          hash = result;
       }
 
+      @SuppressWarnings("unchecked")
       private Class<?> getClazz()
       {
-         return clazz.get();
+         if (clazz instanceof WeakReference) return ((WeakReference<Class<?>>) clazz).get();
+         return (Class<?>) clazz;
+      }
+
+      private CachedMediaTypeAndClass toWeakKey()
+      {
+         if (clazz instanceof WeakReference) return this;
+         return new CachedMediaTypeAndClass((Class<?>) clazz, mediaType, true);
       }
 
       @Override
@@ -310,6 +320,7 @@ public class MediaTypeMap<T>
          if (o == null || getClass() != o.getClass()) return false;
 
          CachedMediaTypeAndClass that = (CachedMediaTypeAndClass) o;
+         if (hash != that.hash) return false;
 
          // WeakReference may have GC'd
          Class<?> clazz = getClazz();
@@ -339,16 +350,31 @@ public class MediaTypeMap<T>
       }
    }
 
+   /**
+    * Hit and miss counters of the class cache.  They are shared with the snapshots copied from a map, so they
+    * cover the whole life of a registry.
+    */
+   private static class CacheStatistics
+   {
+      private final LongAdder hits = new LongAdder();
+      private final LongAdder misses = new LongAdder();
+   }
+
    private volatile Map<String, SubtypeMap<T>> index;
-   private Map<CachedMediaTypeAndClass, List<T>> classCache;
+   // replaced, not cleared, on add as snapshots may share it
+   private volatile BoundedCache<CachedMediaTypeAndClass, List<T>> classCache;
+   private volatile BoundedCache<MediaType, List<T>> typeCache;
+   private final CacheStatistics cacheStatistics;
    private volatile List<Entry<T>> wildcards;
    private volatile List<Entry<T>> everything;
+   private volatile int version;
    private boolean lockSnapshots;
 
    public MediaTypeMap() {
       index = new HashMap<>();
       wildcards = new ArrayList<>();
       everything = new ArrayList<>();
+      cacheStatistics = new CacheStatistics();
    }
 
    /**
@@ -362,6 +388,9 @@ public class MediaTypeMap<T>
       wildcards  = mediaTypeMap.wildcards;
       everything        = mediaTypeMap.everything;
       classCache = mediaTypeMap.classCache;
+      typeCache = mediaTypeMap.typeCache;
+      cacheStatistics = mediaTypeMap.cacheStatistics;
+      version = mediaTypeMap.version;
    }
 
    /**
@@ -495,6 +524,18 @@ public class MediaTypeMap<T>
          Collections.sort(everything);
       }
       classCache = null;
+      typeCache = null;
+      version++;
+   }
+
+   /**
+    * Incremented on every add, so a lookup result computed from this map can be recognized as stale.
+    *
+    * @return modification count
+    */
+   public int getVersion()
+   {
+      return version;
    }
 
 
@@ -518,23 +559,46 @@ public class MediaTypeMap<T>
     */
    public List<T> getPossible(MediaType accept)
    {
-      accept = new MediaType(accept.getType().toLowerCase(), accept.getSubtype().toLowerCase(), accept.getParameters());
-      List<Entry<T>> matches = new ArrayList<Entry<T>>();
-      if (accept.isWildcardType())
+      BoundedCache<MediaType, List<T>> cache = null;
+      if (useCache)
       {
-         return convert(everything);
+         cache = typeCache;
+         if (cache != null)
+         {
+            List<T> cached = cache.get(accept);
+            if (cached != null)
+            {
+               cacheStatistics.hits.increment();
+               return cached;
+            }
+         }
+         cacheStatistics.misses.increment();
+      }
+      MediaType normalized = normalize(accept);
+      List<T> possible;
+      if (normalized.isWildcardType())
+      {
+         possible = convert(everything);
       }
       else
       {
-         SubtypeMap<T> indexed = index.get(accept.getType());
+         List<Entry<T>> matches = new ArrayList<Entry<T>>();
+         SubtypeMap<T> indexed = index.get(normalized.getType());
          if (indexed != null)
          {
-            matches.addAll(indexed.getPossible(accept));
+            matches.addAll(indexed.getPossible(normalized));
          }
          matches.addAll(wildcards);
+         Collections.sort(matches);
+         possible = convert(matches);
       }
-      Collections.sort(matches);
-      return convert(matches);
+      if (!useCache) return possible;
+      if (cache == null)
+      {
+         cache = new BoundedCache<>(cacheSize);
+         typeCache = cache;
+      }
+      return cache.putIfAbsent(accept, Collections.unmodifiableList(possible));
    }
 
    /**
@@ -544,47 +608,99 @@ public class MediaTypeMap<T>
     */
    public static boolean useCache = true;
 
+   /**
+    * Maximum number of MediaType and MediaType/Class matches cached by each map.
+    */
+   public static int cacheSize = 1024;
+
    public List<T> getPossible(MediaType accept, Class<?> type)
    {
       List<T> cached = null;
       CachedMediaTypeAndClass cacheEntry = null;
+      BoundedCache<CachedMediaTypeAndClass, List<T>> cache = null;
       if (useCache)
       {
-         if (classCache != null) {
-            cacheEntry = new CachedMediaTypeAndClass(type, accept);
-            cached = classCache.get(cacheEntry);
-            if (cached != null) return cached;
+         cache = classCache;
+         if (cache != null) {
+            cacheEntry = new CachedMediaTypeAndClass(type, accept, false);
+            cached = cache.get(cacheEntry);
+            if (cached != null) {
+               cacheStatistics.hits.increment();
+               return cached;
+            }
          }
+         cacheStatistics.misses.increment();
       }
 
-      accept = new MediaType(accept.getType().toLowerCase(), accept.getSubtype().toLowerCase(), accept.getParameters());
+      MediaType normalized = normalize(accept);
       List<Entry<T>> matches = new ArrayList<Entry<T>>();
-      if (accept.isWildcardType())
+      if (normalized.isWildcardType())
       {
          matches.addAll(everything);
       }
       else
       {
-         SubtypeMap<T> indexed = index.get(accept.getType());
+         SubtypeMap<T> indexed = index.get(normalized.getType());
          if (indexed != null)
          {
-            matches.addAll(indexed.getPossible(accept));
+            matches.addAll(indexed.getPossible(normalized));
          }
          matches.addAll(wildcards);
       }
       Collections.sort(matches, new TypedEntryComparator(type));
-      cached = convert(matches);
+      cached = Collections.unmodifiableList(convert(matches));
       if (useCache) {
-         // don't care about variable volatility.  Really rare to add entries post boot
-         Map<CachedMediaTypeAndClass, List<T>> cache = classCache;
-         if (classCache == null) {
-            cache = new HashMap<>();
+         if (cache == null) {
+            // a concurrent add() may replace it right away, the worst case is a wasted cache
+            cache = new BoundedCache<>(cacheSize);
             classCache = cache;
          }
-         cache.put(cacheEntry, cached);
+         cacheEntry = cacheEntry == null ? new CachedMediaTypeAndClass(type, accept, true) : cacheEntry.toWeakKey();
+         cached = cache.putIfAbsent(cacheEntry, cached);
       }
       return cached;
 
    }
 
+   /**
+    * @return number of {@link #getPossible} calls served from the cache
+    */
+   public long getCacheHitCount()
+   {
+      return cacheStatistics.hits.sum();
+   }
+
+   /**
+    * @return number of {@link #getPossible} calls that had to compute the match
+    */
+   public long getCacheMissCount()
+   {
+      return cacheStatistics.misses.sum();
+   }
+
+   public double getCacheHitRatio()
+   {
+      long hits = cacheStatistics.hits.sum();
+      long total = hits + cacheStatistics.misses.sum();
+      return total == 0 ? 0.0 : (double) hits / total;
+   }
+
+   /**
+    * Lower cases the type and subtype, without allocating a new MediaType when they already are.
+    */
+   private static MediaType normalize(MediaType mediaType)
+   {
+      if (isLowerCase(mediaType.getType()) && isLowerCase(mediaType.getSubtype())) return mediaType;
+      return new MediaType(mediaType.getType().toLowerCase(), mediaType.getSubtype().toLowerCase(), mediaType.getParameters());
+   }
+
+   private static boolean isLowerCase(String s)
+   {
+      for (int i = 0; i < s.length(); i++)
+      {
+         if (Character.isUpperCase(s.charAt(i))) return false;
+      }
+      return true;
+   }
+
 }
@@ -16,6 +16,7 @@ import org.jboss.resteasy.spi.validation.GeneralValidatorCDI;
 
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.WebApplicationException;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.concurrent.CompletableFuture;
@@ -32,12 +33,16 @@ public class MethodInjectorImpl implements MethodInjector
    protected ResourceLocator method;
    protected Method interfaceBasedMethod;
    protected boolean expectsBody;
+   private final MethodHandle invoker;
+   private final InvocationHandles.Parameters parameters;
 
    public MethodInjectorImpl(final ResourceLocator resourceMethod, final ResteasyProviderFactory factory)
    {
       this.factory = factory;
       this.method = resourceMethod;
       this.interfaceBasedMethod = findInterfaceBasedMethod(resourceMethod.getResourceClass().getClazz(), resourceMethod.getMethod());
+      this.invoker = InvocationHandles.forMethod(resourceMethod.getMethod());
+      this.parameters = new InvocationHandles.Parameters(resourceMethod.getMethod().getParameterTypes());
       params = new ValueInjector[resourceMethod.getParams().length];
       int i = 0;
       for (MethodParameter parameter : resourceMethod.getParams())
@@ -147,7 +152,7 @@ public class MethodInjectorImpl implements MethodInjector
       }
 
       Method invokedMethod = method.getMethod();
-      if (!invokedMethod.getDeclaringClass().isAssignableFrom(resource.getClass()))
+      if (!invokedMethod.getDeclaringClass().isInstance(resource))
       {
          // invokedMethod is for when the target object might be a proxy and
          // resteasy is getting the bean class to introspect.
@@ -164,7 +169,14 @@ public class MethodInjectorImpl implements MethodInjector
       Object result = null;
       try
       {
-         result = invokedMethod.invoke(resource, args);
+         if (invoker != null && invokedMethod == method.getMethod() && parameters.accepts(args))
+         {
+            result = invokeHandle(resource, args);
+         }
+         else
+         {
+            result = invokedMethod.invoke(resource, args);
+         }
       }
       catch (IllegalAccessException e)
       {
@@ -213,4 +225,17 @@ public class MethodInjectorImpl implements MethodInjector
       return result;
    }
 
+   private Object invokeHandle(Object resource, Object[] args) throws InvocationTargetException
+   {
+      try
+      {
+         return (Object) invoker.invokeExact(resource, args);
+      }
+      catch (Throwable t)
+      {
+         // wrapped as by reflection, so that it is handled the same way
+         throw new InvocationTargetException(t);
+      }
+   }
+
 }
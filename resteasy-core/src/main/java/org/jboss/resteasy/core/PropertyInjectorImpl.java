@@ -14,6 +14,7 @@ import org.jboss.resteasy.spi.util.MethodHashing;
 
 import java.beans.Introspector;
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
 import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
@@ -25,7 +26,6 @@ import java.security.PrivilegedAction;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 
@@ -37,6 +37,7 @@ import java.util.concurrent.CompletionStage;
 public class PropertyInjectorImpl implements PropertyInjector
 {
    protected HashMap<Field, ValueInjector> fieldMap = new HashMap<Field, ValueInjector>();
+   private final List<FieldSetter> fields = new ArrayList<FieldSetter>();
 
    private static class SetterMethod
    {
@@ -44,10 +45,69 @@ public class PropertyInjectorImpl implements PropertyInjector
       {
          this.method = method;
          this.extractor = extractor;
+         this.handle = InvocationHandles.forSetter(method);
+         this.parameters = new InvocationHandles.Parameters(method.getParameterTypes());
       }
 
       public Method method;
       public ValueInjector extractor;
+      private final MethodHandle handle;
+      private final InvocationHandles.Parameters parameters;
+
+      private void invoke(Object target, Object value) throws IllegalAccessException, InvocationTargetException
+      {
+         if (handle == null || !parameters.accepts(value))
+         {
+            method.invoke(target, value);
+            return;
+         }
+         try
+         {
+            handle.invokeExact(target, value);
+         }
+         catch (Throwable t)
+         {
+            // wrapped as by reflection, so that it is handled the same way
+            throw new InvocationTargetException(t);
+         }
+      }
+   }
+
+   private static class FieldSetter
+   {
+      private FieldSetter(final Field field, final ValueInjector extractor)
+      {
+         this.field = field;
+         this.extractor = extractor;
+         this.handle = InvocationHandles.forField(field);
+         this.parameters = new InvocationHandles.Parameters(new Class<?>[]{field.getType()});
+      }
+
+      private final Field field;
+      private final ValueInjector extractor;
+      private final MethodHandle handle;
+      private final InvocationHandles.Parameters parameters;
+
+      private void set(Object target, Object value) throws IllegalAccessException
+      {
+         if (handle == null || !parameters.accepts(value))
+         {
+            field.set(target, value);
+            return;
+         }
+         try
+         {
+            handle.invokeExact(target, value);
+         }
+         catch (RuntimeException | Error e)
+         {
+            throw e;
+         }
+         catch (Throwable t)
+         {
+            throw new IllegalStateException(t);
+         }
+      }
    }
 
    protected List<SetterMethod> setters = new ArrayList<SetterMethod>();
@@ -78,6 +138,7 @@ public class PropertyInjectorImpl implements PropertyInjector
                setAccessible(field);
             }
             fieldMap.put(field, extractor);
+            fields.add(new FieldSetter(field, extractor));
          }
       }
       for (Method method : getDeclaredMethods(clazz))
@@ -139,16 +200,16 @@ public class PropertyInjectorImpl implements PropertyInjector
    public CompletionStage<Void> inject(HttpRequest request, HttpResponse response, Object target, boolean unwrapAsync) throws Failure
    {
       CompletionStage<Void> ret = null;
-      for (Map.Entry<Field, ValueInjector> entry : fieldMap.entrySet())
+      for (FieldSetter entry : fields)
       {
-         Object injectValue = entry.getValue().inject(request, response, unwrapAsync);
+         Object injectValue = entry.extractor.inject(request, response, unwrapAsync);
          if (injectValue != null && injectValue instanceof CompletionStage) {
             if (ret == null) ret = CompletableFuture.completedFuture(null);
             ret = ret.thenCompose(v -> ((CompletionStage<Object>)injectValue)
                     .thenAccept(value -> {
                        try
                        {
-                          entry.getKey().set(target, CompletionStageHolder.resolve(value));
+                          entry.set(target, CompletionStageHolder.resolve(value));
                        }
                        catch (IllegalAccessException e)
                        {
@@ -157,7 +218,7 @@ public class PropertyInjectorImpl implements PropertyInjector
                     }));
          } else {
             try {
-               entry.getKey().set(target, CompletionStageHolder.resolve(injectValue));
+               entry.set(target, CompletionStageHolder.resolve(injectValue));
             } catch (IllegalAccessException e) {
                throw new InternalServerErrorException(e);
             }
@@ -172,7 +233,7 @@ public class PropertyInjectorImpl implements PropertyInjector
                     .thenAccept(value -> {
                        try
                        {
-                          setter.method.invoke(target, CompletionStageHolder.resolve(value));
+                          setter.invoke(target, CompletionStageHolder.resolve(value));
                        }
                        catch (IllegalAccessException e)
                        {
@@ -185,7 +246,7 @@ public class PropertyInjectorImpl implements PropertyInjector
                     }));
          } else {
             try {
-               setter.method.invoke(target, CompletionStageHolder.resolve(injectedValue));
+               setter.invoke(target, CompletionStageHolder.resolve(injectedValue));
             } catch (IllegalAccessException e) {
                throw new InternalServerErrorException(e);
             } catch (InvocationTargetException e) {
@@ -201,16 +262,16 @@ public class PropertyInjectorImpl implements PropertyInjector
    public CompletionStage<Void> inject(Object target, boolean unwrapAsync)
    {
       CompletionStage<Void> ret = null;
-      for (Map.Entry<Field, ValueInjector> entry : fieldMap.entrySet())
+      for (FieldSetter entry : fields)
       {
-         Object injectedValue = entry.getValue().inject(unwrapAsync);
+         Object injectedValue = entry.extractor.inject(unwrapAsync);
          if (injectedValue != null && injectedValue instanceof CompletionStage) {
             if (ret == null) ret = CompletableFuture.completedFuture(null);
             ret = ret.thenCompose(v -> ((CompletionStage<Object>)injectedValue)
                     .thenAccept(value -> {
                        try
                        {
-                          entry.getKey().set(target, CompletionStageHolder.resolve(value));
+                          entry.set(target, CompletionStageHolder.resolve(value));
                        }
                        catch (IllegalAccessException e)
                        {
@@ -221,7 +282,7 @@ public class PropertyInjectorImpl implements PropertyInjector
          } else {
             try
             {
-               entry.getKey().set(target, CompletionStageHolder.resolve(injectedValue));
+               entry.set(target, CompletionStageHolder.resolve(injectedValue));
             }
             catch (IllegalAccessException e)
             {
@@ -239,7 +300,7 @@ public class PropertyInjectorImpl implements PropertyInjector
                     .thenAccept(value -> {
                        try
                        {
-                          setter.method.invoke(target, CompletionStageHolder.resolve(value));
+                          setter.invoke(target, CompletionStageHolder.resolve(value));
                        }
                        catch (IllegalAccessException e)
                        {
@@ -254,7 +315,7 @@ public class PropertyInjectorImpl implements PropertyInjector
          } else {
             try
             {
-               setter.method.invoke(target, CompletionStageHolder.resolve(injectedValue));
+               setter.invoke(target, CompletionStageHolder.resolve(injectedValue));
             }
             catch (IllegalAccessException e)
             {
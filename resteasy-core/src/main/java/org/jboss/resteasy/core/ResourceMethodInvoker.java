@@ -2,6 +2,7 @@ package org.jboss.resteasy.core;
 
 import org.jboss.resteasy.annotations.Stream;
 import org.jboss.resteasy.core.interception.jaxrs.PostMatchContainerRequestContext;
+import org.jboss.resteasy.core.providerfactory.MessageBodyProviderCache;
 import org.jboss.resteasy.core.providerfactory.ResteasyProviderFactoryImpl;
 import org.jboss.resteasy.core.registry.SegmentNode;
 import org.jboss.resteasy.plugins.server.resourcefactory.SingletonResource;
@@ -33,6 +34,7 @@ import org.jboss.resteasy.spi.validation.GeneralValidator;
 import org.jboss.resteasy.spi.validation.GeneralValidatorCDI;
 import org.jboss.resteasy.statistics.StatisticsControllerImpl;
 import org.jboss.resteasy.tracing.RESTEasyTracingLogger;
+import org.jboss.resteasy.util.BoundedCache;
 import org.jboss.resteasy.util.DynamicFeatureContextDelegate;
 
 import javax.ws.rs.ProcessingException;
@@ -90,6 +92,11 @@ public class ResourceMethodInvoker implements ResourceInvoker, JaxrsInterceptorR
    protected boolean expectsBody;
    protected final boolean hasProduces;
    protected MethodStatisticsLogger methodStatisticsLogger;
+   // a resource method reads and writes a handful of distinct types, the bound only guards against abuse
+   protected final MessageBodyProviderCache messageBodyReaderCache = new MessageBodyProviderCache(16);
+   protected final MessageBodyProviderCache messageBodyWriterCache = new MessageBodyProviderCache(16);
+   // clients of a method send a few distinct Accept headers, the bound only guards against abuse
+   protected final BoundedCache<String, MediaType> negotiatedMediaTypeCache = new BoundedCache<>(32);
 
 
 
@@ -189,6 +196,38 @@ public class ResourceMethodInvoker implements ResourceInvoker, JaxrsInterceptorR
       return hasProduces;
    }
 
+   /**
+    * Readers already picked for the entity parameter of this method.
+    *
+    * @return reader resolution cache
+    */
+   public MessageBodyProviderCache getMessageBodyReaderCache()
+   {
+      return messageBodyReaderCache;
+   }
+
+   /**
+    * Writers already picked for the entities returned by this method.  Only resolutions made with the
+    * annotations of {@link #getMethodAnnotations()} are cached.
+    *
+    * @return writer resolution cache
+    */
+   public MessageBodyProviderCache getMessageBodyWriterCache()
+   {
+      return messageBodyWriterCache;
+   }
+
+   /**
+    * Response media types negotiated from the {@link Produces} of this method, per normalized Accept header.  Its
+    * statistics tell how often responses without a Content-Type skip the negotiation.
+    *
+    * @return negotiation cache
+    */
+   public BoundedCache<String, MediaType> getNegotiatedMediaTypeCache()
+   {
+      return negotiatedMediaTypeCache;
+   }
+
    // spec section 9.3 Server API:
    // A resource method that injects an SseEventSink and
    // produces the media type text/event-stream is an SSE resource method.
@@ -5,7 +5,7 @@ import org.jboss.resteasy.util.ThreadLocalStack;
 
 import javax.ws.rs.BadRequestException;
 import javax.ws.rs.core.UriInfo;
-import java.util.HashMap;
+import java.lang.ref.WeakReference;
 import java.util.Map;
 
 @SuppressWarnings("unchecked")
@@ -18,6 +18,13 @@ public final class ResteasyContext
 
    private static final ThreadLocalStack<Map<Class<?>, Object>> contextualData = new ThreadLocalStack<Map<Class<?>, Object>>();
 
+   // context of the previous request of the thread, emptied, to be used by the next one; only weakly referenced so
+   // that a pooled thread which never runs another request does not keep the deployment loaded
+   private static final ThreadLocal<WeakReference<ContextDataMap>> spare = new ThreadLocal<WeakReference<ContextDataMap>>();
+
+   // not final so that the tests can enable it
+   static boolean recycle = Boolean.getBoolean("org.jboss.resteasy.recycle_context_data");
+
    private static final int maxForwards = 20;
 
    public static <T> void pushContext(Class<T> type, T data)
@@ -50,16 +57,73 @@ public final class ResteasyContext
       contextualData.clear();
    }
 
+   /**
+    * Clears the context data of the thread.  When the request is over and nothing else may use its context, the
+    * context is emptied and kept for the next request of the thread, if the
+    * {@code org.jboss.resteasy.recycle_context_data} system property is true.
+    *
+    * @param completed whether the request completed on this thread, that is it was not suspended
+    */
+   public static void clearContextData(boolean completed)
+   {
+      if (completed && recycle && contextualData.size() == 1)
+      {
+         Map<Class<?>, Object> map = contextualData.get();
+         if (map instanceof ContextDataMap && ((ContextDataMap) map).isRecyclable())
+         {
+            map.clear();
+            spare.set(new WeakReference<ContextDataMap>((ContextDataMap) map));
+         }
+      }
+      contextualData.clear();
+   }
+
+   /**
+    * Removes the context data and the recycled context of the thread, for instance when the deployment is stopped.
+    */
+   public static void removeContextData()
+   {
+      contextualData.clear();
+      spare.remove();
+   }
+
+   /**
+    * Gets the context data of the thread to use it from another thread, with {@link #pushContextDataMap(Map)}.  Unlike
+    * {@link #getContextDataMap()} it makes sure the context is not recycled once the request completes.
+    *
+    * @return context data of the thread
+    */
+   public static Map<Class<?>, Object> captureContextDataMap()
+   {
+      Map<Class<?>, Object> map = getContextDataMap();
+      if (map instanceof ContextDataMap)
+      {
+         ((ContextDataMap) map).retain();
+      }
+      return map;
+   }
+
    public static Map<Class<?>, Object> getContextDataMap(boolean create)
    {
       Map<Class<?>, Object> map = contextualData.get();
       if (map == null && create)
       {
-         contextualData.setLast(map = new HashMap<Class<?>, Object>());
+         contextualData.setLast(map = newContextDataMap());
       }
       return map;
    }
 
+   private static ContextDataMap newContextDataMap()
+   {
+      WeakReference<ContextDataMap> ref = spare.get();
+      ContextDataMap map = ref == null ? null : ref.get();
+      if (ref != null)
+      {
+         spare.remove();
+      }
+      return map == null ? new ContextDataMap(Thread.currentThread()) : map;
+   }
+
    public static Map<Class<?>, Object> addContextDataLevel()
    {
       if (getContextDataLevelCount() == maxForwards)
@@ -67,7 +131,7 @@ public final class ResteasyContext
          throw new BadRequestException(
                Messages.MESSAGES.excededMaximumForwards(getContextData(UriInfo.class).getPath()));
       }
-      Map<Class<?>, Object> map = new HashMap<Class<?>, Object>();
+      Map<Class<?>, Object> map = new ContextDataMap();
       contextualData.push(map);
       return map;
    }
@@ -4,6 +4,8 @@ import org.jboss.resteasy.core.interception.jaxrs.AbstractWriterInterceptorConte
 import org.jboss.resteasy.core.interception.jaxrs.ContainerResponseContextImpl;
 import org.jboss.resteasy.core.interception.jaxrs.ResponseContainerRequestContext;
 import org.jboss.resteasy.core.interception.jaxrs.ServerWriterInterceptorContext;
+import org.jboss.resteasy.core.providerfactory.MessageBodyProviderCache;
+import org.jboss.resteasy.core.providerfactory.ResteasyProviderFactoryImpl;
 import org.jboss.resteasy.core.registry.SegmentNode;
 import org.jboss.resteasy.resteasy_jaxrs.i18n.LogMessages;
 import org.jboss.resteasy.specimpl.BuiltResponse;
@@ -55,6 +57,9 @@ public class ServerResponseWriter
       void run(Consumer<Throwable> onComplete) throws IOException;
    }
 
+   // longer Accept headers are negotiated every time rather than filling the caches
+   private static final int MAX_ACCEPT_KEY_LENGTH = 512;
+
    private static Produces WILDCARD_PRODUCES = new Produces() {
 
       @Override
@@ -114,8 +119,19 @@ public class ServerResponseWriter
          Type generic = jaxrsResponse.getGenericType();
          Annotation[] annotations = jaxrsResponse.getAnnotations();
          final MediaType mt = jaxrsResponse.getMediaType();
-         MessageBodyWriter writer = providerFactory.getMessageBodyWriter(
-               type, generic, annotations, mt);
+         MessageBodyProviderCache writerCache = ServerWriterInterceptorContext.getWriterCache(request, annotations);
+         MessageBodyWriter writer;
+         if (writerCache != null && providerFactory instanceof ResteasyProviderFactoryImpl)
+         {
+            // resolves the writer once for this check and the ServerWriterInterceptorContext below
+            writer = ((ResteasyProviderFactoryImpl) providerFactory).getServerMessageBodyWriter(
+                  type, generic, annotations, mt, RESTEasyTracingLogger.EMPTY, writerCache);
+         }
+         else
+         {
+            writer = providerFactory.getMessageBodyWriter(
+                  type, generic, annotations, mt);
+         }
          if (writer!=null)
             LogMessages.LOGGER.debugf("MessageBodyWriter: %s", writer.getClass().getName());
 
@@ -283,11 +299,21 @@ public class ServerResponseWriter
       hasProduces |= method != null && method.getProduces() != null && method.getProduces().length > 0;
       hasProduces |= method != null && method.getMethod().getDeclaringClass().getAnnotation(Produces.class) != null;
 
+      String acceptKey = null;
       if (hasProduces)
       {
          //we have @Produces on the resource (method or class), so we're not going to scan for @Produces on MBws
          if (!isConcrete(chosen))
          {
+            // the outcome only depends on the @Produces of the method and on the Accept header
+            if (method != null && (acceptKey = acceptKey(request.getHttpHeaders())) != null)
+            {
+               MediaType negotiated = method.getNegotiatedMediaTypeCache().get(acceptKey);
+               if (negotiated != null)
+               {
+                  return negotiated;
+               }
+            }
             //no concrete content-type set, compute again (JAX-RS 2.0 Section 3.8 step 2, first and second bullets)
             MediaType[] produces = null;
             if (method != null)
@@ -427,9 +453,78 @@ public class ServerResponseWriter
          }
          chosen = new MediaType(chosen.getType(), chosen.getSubtype(), map);
       }
+      if (acceptKey != null)
+      {
+         method.getNegotiatedMediaTypeCache().putIfAbsent(acceptKey, chosen);
+      }
       return chosen;
    }
 
+   /**
+    * Normalizes the Accept header so that equivalent headers share an entry of the negotiation cache: the values
+    * are joined and the whitespace around separators is dropped.  Whitespace between a media range and its
+    * parameters is part of the subtype for the parser, such headers are not cached.
+    *
+    * @param headers request headers
+    * @return the key, or null if the header should not be cached
+    */
+   static String acceptKey(HttpHeaders headers)
+   {
+      List<String> values = headers.getRequestHeader(HttpHeaders.ACCEPT);
+      if (values == null || values.isEmpty())
+      {
+         // same as an explicit */*
+         return MediaType.WILDCARD;
+      }
+      StringBuilder key = new StringBuilder();
+      for (String value : values)
+      {
+         if (key.length() > 0) key.append(',');
+         int start = key.length();
+         boolean space = false;
+         boolean params = false;
+         for (int i = 0; i < value.length(); i++)
+         {
+            char c = value.charAt(i);
+            if (c == '"')
+            {
+               // whitespace is significant in quoted strings
+               return null;
+            }
+            if (c == ' ' || c == '\t')
+            {
+               space = true;
+               continue;
+            }
+            if (c == ',')
+            {
+               params = false;
+            }
+            else if (c == ';')
+            {
+               if (space && !params && key.length() > start && key.charAt(key.length() - 1) != ',')
+               {
+                  return null;
+               }
+               params = true;
+            }
+            if (space && key.length() > start && !isSeparator(c) && !isSeparator(key.charAt(key.length() - 1)))
+            {
+               key.append(' ');
+            }
+            space = false;
+            key.append(c);
+         }
+         if (key.length() > MAX_ACCEPT_KEY_LENGTH) return null;
+      }
+      return key.toString();
+   }
+
+   private static boolean isSeparator(char c)
+   {
+      return c == ',' || c == ';' || c == '=';
+   }
+
    private static MediaType chooseFromM(MediaType currentChoice, List<SortableMediaType> M, boolean hasStarStar, boolean hasApplicationStar)
    {
       //JAX-RS 2.0 Section 3.8.6
@@ -417,7 +417,10 @@ public class SynchronousDispatcher implements Dispatcher
                // Empty
             }
          }
-         ResteasyContext.clearContextData();
+         // the context of a suspended request is still used by the thread resuming it
+         HttpRequest request = (HttpRequest) map.get(HttpRequest.class);
+         ResteasyContext.clearContextData(request != null && request.getAsyncContext() != null
+               && !request.getAsyncContext().isSuspended());
       }
       // just in case there were internalDispatches that need to be cleaned up
       MessageBodyParameterInjector.clearBodies();
@@ -178,6 +178,8 @@ public abstract class AbstractWriterInterceptorContext implements WriterIntercep
 
    private boolean interceptorsSupportAsyncIo()
    {
+      if (interceptors == null)
+         return true;
       for (WriterInterceptor interceptor : interceptors)
       {
          if(interceptor instanceof AsyncWriterInterceptor == false)
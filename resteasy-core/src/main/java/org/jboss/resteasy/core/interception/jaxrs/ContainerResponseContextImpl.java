@@ -69,7 +69,7 @@ public class ContainerResponseContextImpl implements SuspendableContainerRespons
       this.responseFilters = responseFilters;
       this.continuation = continuation;
       this.onComplete = onComplete;
-      contextDataMap = ResteasyContext.getContextDataMap();
+      contextDataMap = ResteasyContext.captureContextDataMap();
    }
 
    public BuiltResponse getJaxrsResponse()
@@ -58,7 +58,7 @@ public class PreMatchContainerRequestContext implements SuspendableContainerRequ
       this.httpRequest = request;
       this.requestFilters = requestFilters;
       this.continuation = continuation;
-      contextDataMap = ResteasyContext.getContextDataMap();
+      contextDataMap = ResteasyContext.captureContextDataMap();
    }
 
    public HttpRequest getHttpRequest()
@@ -1,5 +1,7 @@
 package org.jboss.resteasy.core.interception.jaxrs;
 
+import org.jboss.resteasy.core.ResourceMethodInvoker;
+import org.jboss.resteasy.core.providerfactory.MessageBodyProviderCache;
 import org.jboss.resteasy.core.providerfactory.ResteasyProviderFactoryImpl;
 import org.jboss.resteasy.resteasy_jaxrs.i18n.Messages;
 import org.jboss.resteasy.spi.HttpRequest;
@@ -42,9 +44,11 @@ public class ServerReaderInterceptorContext extends AbstractReaderInterceptorCon
    @Override
    protected MessageBodyReader resolveReader(MediaType mediaType)
    {
+      ResourceMethodInvoker method = (ResourceMethodInvoker) request.getAttribute(ResourceMethodInvoker.class.getName());
+      MessageBodyProviderCache cache = method == null ? null : method.getMessageBodyReaderCache();
       @SuppressWarnings(value = "unchecked")
       MessageBodyReader reader =  ((ResteasyProviderFactoryImpl)providerFactory).getServerMessageBodyReader(type,
-              genericType, annotations, mediaType, tracingLogger);
+              genericType, annotations, mediaType, tracingLogger, cache);
       //logger.info("**** picked reader: " + reader.getClass().getName());
       return reader;
    }
@@ -18,6 +18,8 @@ import javax.ws.rs.ext.MessageBodyWriter;
 import javax.ws.rs.ext.WriterInterceptor;
 
 import org.jboss.resteasy.core.NoMessageBodyWriterFoundFailure;
+import org.jboss.resteasy.core.ResourceMethodInvoker;
+import org.jboss.resteasy.core.providerfactory.MessageBodyProviderCache;
 import org.jboss.resteasy.core.providerfactory.ResteasyProviderFactoryImpl;
 import org.jboss.resteasy.spi.AsyncMessageBodyWriter;
 import org.jboss.resteasy.spi.AsyncOutputStream;
@@ -52,7 +54,22 @@ public class ServerWriterInterceptorContext extends AbstractWriterInterceptorCon
    protected MessageBodyWriter resolveWriter()
    {
       return ((ResteasyProviderFactoryImpl)providerFactory).getServerMessageBodyWriter(
-            type, genericType, annotations, mediaType, tracingLogger);
+            type, genericType, annotations, mediaType, tracingLogger, getWriterCache(request, annotations));
+   }
+
+   /**
+    * The annotations of a response are usually the ones of the resource method, anything else (annotations given to
+    * the Response, changed by an interceptor) is resolved without cache.
+    *
+    * @param request request
+    * @param annotations annotations the writer is resolved with
+    * @return the writer cache of the invoked resource method, or null
+    */
+   public static MessageBodyProviderCache getWriterCache(HttpRequest request, Annotation[] annotations)
+   {
+      ResourceMethodInvoker method = (ResourceMethodInvoker) request.getAttribute(ResourceMethodInvoker.class.getName());
+      if (method == null || annotations != method.getMethodAnnotations()) return null;
+      return method.getMessageBodyWriterCache();
    }
 
    @Override
@@ -1,6 +1,5 @@
 package org.jboss.resteasy.core.messagebody;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
@@ -14,17 +13,26 @@ import org.jboss.resteasy.plugins.providers.ProviderHelper;
 import org.jboss.resteasy.spi.AsyncMessageBodyWriter;
 import org.jboss.resteasy.spi.AsyncOutputStream;
 
+/**
+ * Implements asynchronous writes with the blocking {@link #writeTo} method, by buffering the entity in memory.
+ * The entity is buffered in chunks which are written one after the other, see {@link ChunkedBufferOutputStream}.
+ */
 public interface AsyncBufferedMessageBodyWriter<T> extends AsyncMessageBodyWriter<T>
 {
    @Override
    default CompletionStage<Void> asyncWriteTo(T t, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
                                               MultivaluedMap<String, Object> httpHeaders, AsyncOutputStream entityStream) {
-       ByteArrayOutputStream bos = new ByteArrayOutputStream();
+       ChunkedBufferOutputStream bos = new ChunkedBufferOutputStream(ChunkedBufferOutputStream.getSizeHint(getClass(), type));
        try {
            writeTo(t, type, genericType, annotations, mediaType, httpHeaders, bos);
-           return entityStream.asyncWrite(bos.toByteArray());
        } catch (WebApplicationException | IOException e) {
+           bos.release();
            return ProviderHelper.completedException(e);
+       } catch (RuntimeException e) {
+           bos.release();
+           throw e;
        }
+       ChunkedBufferOutputStream.recordSize(getClass(), type, bos.size());
+       return bos.writeTo(entityStream);
    }
 }
@@ -0,0 +1,189 @@
+package org.jboss.resteasy.core.messagebody;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+
+/**
+ * Buffers an entity in a list of chunks, which are handed to an {@link AsyncOutputStream} one write each: unlike a
+ * ByteArrayOutputStream the buffer never grows by copying, and the content is not copied again into a single array.
+ * <p>
+ * Chunks of {@value #CHUNK_SIZE} bytes come from a shared bounded pool, they return to it once written.  When the
+ * previous entities of the same type written by the same writer were larger, the first chunk is allocated with
+ * their size, see {@link #getSizeHint(Class, Class)}, so that the entity is usually written at once.
+ */
+public class ChunkedBufferOutputStream extends OutputStream
+{
+   public static final int CHUNK_SIZE = 8192;
+   private static final int POOL_SIZE = 256;
+   private static final int MAX_HINTS = 1024;
+   private static final int MAX_HINT = 4 * 1024 * 1024;
+
+   private static final Queue<byte[]> pool = new ConcurrentLinkedQueue<byte[]>();
+   private static final AtomicInteger pooled = new AtomicInteger();
+
+   private static final ClassValue<Map<Class<?>, AtomicInteger>> hints = new ClassValue<Map<Class<?>, AtomicInteger>>()
+   {
+      @Override
+      protected Map<Class<?>, AtomicInteger> computeValue(Class<?> writer)
+      {
+         return new ConcurrentHashMap<Class<?>, AtomicInteger>();
+      }
+   };
+
+   private final List<byte[]> chunks = new ArrayList<byte[]>(2);
+   private byte[] current;
+   private int count;
+   private long size;
+   private boolean released;
+
+   public ChunkedBufferOutputStream()
+   {
+      this(0);
+   }
+
+   /**
+    * @param sizeHint expected size of the entity, 0 if unknown
+    */
+   public ChunkedBufferOutputStream(final int sizeHint)
+   {
+      current = sizeHint > CHUNK_SIZE ? new byte[sizeHint] : acquire();
+      chunks.add(current);
+   }
+
+   /**
+    * @param writer class of the MessageBodyWriter
+    * @param type class of the entity
+    * @return a size large enough for most entities of this type, 0 if unknown
+    */
+   public static int getSizeHint(Class<?> writer, Class<?> type)
+   {
+      AtomicInteger hint = hints.get(writer).get(type);
+      return hint == null ? 0 : hint.get();
+   }
+
+   /**
+    * Records the size of an entity.  The hint follows a moving average, with some margin so that entities a little
+    * larger than the average still fit.
+    *
+    * @param writer class of the MessageBodyWriter
+    * @param type class of the entity
+    * @param size size of the entity
+    */
+   public static void recordSize(Class<?> writer, Class<?> type, long size)
+   {
+      Map<Class<?>, AtomicInteger> writerHints = hints.get(writer);
+      AtomicInteger hint = writerHints.get(type);
+      if (hint == null)
+      {
+         if (writerHints.size() >= MAX_HINTS) return;
+         hint = writerHints.computeIfAbsent(type, t -> new AtomicInteger());
+      }
+      int target = (int) Math.min(MAX_HINT, size + (size >> 3));
+      int previous = hint.get();
+      // concurrent updates may get lost, the hint is only an estimate
+      hint.lazySet(previous == 0 ? target : previous + ((target - previous) >> 2));
+   }
+
+   private static byte[] acquire()
+   {
+      byte[] chunk = pool.poll();
+      if (chunk == null)
+      {
+         return new byte[CHUNK_SIZE];
+      }
+      pooled.decrementAndGet();
+      return chunk;
+   }
+
+   private static void release(byte[] chunk)
+   {
+      if (chunk.length != CHUNK_SIZE) return;
+      if (pooled.incrementAndGet() > POOL_SIZE)
+      {
+         pooled.decrementAndGet();
+         return;
+      }
+      pool.offer(chunk);
+   }
+
+   /**
+    * @return number of bytes written
+    */
+   public long size()
+   {
+      return size;
+   }
+
+   @Override
+   public void write(int b)
+   {
+      if (count == current.length) nextChunk();
+      current[count++] = (byte) b;
+      size++;
+   }
+
+   @Override
+   public void write(byte[] b, int off, int len)
+   {
+      size += len;
+      while (len > 0)
+      {
+         if (count == current.length) nextChunk();
+         int n = Math.min(len, current.length - count);
+         System.arraycopy(b, off, current, count, n);
+         count += n;
+         off += n;
+         len -= n;
+      }
+   }
+
+   private void nextChunk()
+   {
+      current = acquire();
+      chunks.add(current);
+      count = 0;
+   }
+
+   /**
+    * Writes the chunks one after the other, each one once the previous write completed.  The chunks are released
+    * afterwards, this stream must not be used anymore.
+    *
+    * @param out stream to write to
+    * @return completion of the last write
+    */
+   public CompletionStage<Void> writeTo(AsyncOutputStream out)
+   {
+      CompletionStage<Void> stage = out.asyncWrite(chunks.get(0), 0, chunks.size() == 1 ? count : chunks.get(0).length);
+      for (int i = 1; i < chunks.size(); i++)
+      {
+         byte[] chunk = chunks.get(i);
+         int length = i == chunks.size() - 1 ? count : chunk.length;
+         stage = stage.thenCompose(v -> out.asyncWrite(chunk, 0, length));
+      }
+      return stage.whenComplete((v, t) -> release());
+   }
+
+   /**
+    * Gives the pooled chunks back, if the entity is not written.
+    */
+   public void release()
+   {
+      if (released) return;
+      released = true;
+      for (byte[] chunk : chunks)
+      {
+         release(chunk);
+      }
+      chunks.clear();
+      current = null;
+   }
+}
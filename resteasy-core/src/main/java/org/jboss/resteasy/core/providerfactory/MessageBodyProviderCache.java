@@ -0,0 +1,119 @@
+package org.jboss.resteasy.core.providerfactory;
+
+import org.jboss.resteasy.core.MediaTypeMap;
+import org.jboss.resteasy.util.BoundedCache;
+
+import javax.ws.rs.core.MediaType;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+/**
+ * Remembers which {@link javax.ws.rs.ext.MessageBodyReader} or {@link javax.ws.rs.ext.MessageBodyWriter} was
+ * picked for a type, generic type, annotations and media type, so a resource method does not query
+ * <code>isReadable()</code>/<code>isWriteable()</code> of every candidate on each request.
+ * <p>
+ * The annotations are compared by identity: callers are expected to pass a stable array, like the annotations of
+ * the resource method or of a method parameter.  A resolution is only reused while the provider map it was computed
+ * from is the same instance and has not been modified since, so registering a provider invalidates it.
+ */
+public class MessageBodyProviderCache
+{
+   private static final class Key
+   {
+      private final Class<?> type;
+      private final Type genericType;
+      private final Annotation[] annotations;
+      private final MediaType mediaType;
+      private final int hash;
+
+      Key(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType)
+      {
+         this.type = type;
+         this.genericType = genericType;
+         this.annotations = annotations;
+         this.mediaType = mediaType;
+         int h = type.hashCode();
+         h = 31 * h + Objects.hashCode(genericType);
+         h = 31 * h + System.identityHashCode(annotations);
+         h = 31 * h + Objects.hashCode(mediaType);
+         this.hash = h;
+      }
+
+      @Override
+      public boolean equals(Object o)
+      {
+         if (this == o) return true;
+         if (!(o instanceof Key)) return false;
+         Key that = (Key) o;
+         return hash == that.hash
+               && type == that.type
+               && annotations == that.annotations
+               && Objects.equals(genericType, that.genericType)
+               && Objects.equals(mediaType, that.mediaType);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hash;
+      }
+   }
+
+   private static final class Resolved
+   {
+      private final MediaTypeMap<?> providers;
+      private final int version;
+      private final Object provider;
+
+      Resolved(final MediaTypeMap<?> providers, final Object provider)
+      {
+         this.providers = providers;
+         this.version = providers.getVersion();
+         this.provider = provider;
+      }
+   }
+
+   private final BoundedCache<Key, Resolved> cache;
+
+   public MessageBodyProviderCache(final int maxSize)
+   {
+      cache = new BoundedCache<>(maxSize);
+   }
+
+   /**
+    * @param providers   the provider map the caller would resolve from
+    * @param type        entity class
+    * @param genericType entity generic type
+    * @param annotations annotations
+    * @param mediaType   media type
+    * @return the provider previously resolved from <code>providers</code>, or null
+    */
+   public Object get(MediaTypeMap<?> providers, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
+   {
+      Key key = new Key(type, genericType, annotations, mediaType);
+      Resolved resolved = cache.get(key);
+      if (resolved == null) return null;
+      if (resolved.providers != providers || resolved.version != providers.getVersion())
+      {
+         cache.remove(key);
+         return null;
+      }
+      return resolved.provider;
+   }
+
+   public void put(MediaTypeMap<?> providers, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType, Object provider)
+   {
+      cache.putIfAbsent(new Key(type, genericType, annotations, mediaType), new Resolved(providers, provider));
+   }
+
+   public void clear()
+   {
+      cache.clear();
+   }
+
+   public BoundedCache<?, ?> getCache()
+   {
+      return cache;
+   }
+}
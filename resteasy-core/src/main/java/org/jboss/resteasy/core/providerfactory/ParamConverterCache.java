@@ -0,0 +1,118 @@
+package org.jboss.resteasy.core.providerfactory;
+
+import org.jboss.resteasy.util.BoundedCache;
+
+import javax.ws.rs.ext.ParamConverter;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Objects;
+
+/**
+ * Remembers the {@link ParamConverter} found for a class, generic type and annotations, including the fact that
+ * no {@link javax.ws.rs.ext.ParamConverterProvider} could convert it.  The annotations are compared by identity,
+ * they are the annotations of an injection point or null for header values.
+ * <p>
+ * Every resolution records the version of the provider set it was made against and is ignored once that version
+ * has changed.
+ */
+public class ParamConverterCache
+{
+   private static final class Key
+   {
+      private final Class<?> clazz;
+      private final Type genericType;
+      private final Annotation[] annotations;
+      private final int hash;
+
+      Key(final Class<?> clazz, final Type genericType, final Annotation[] annotations)
+      {
+         this.clazz = clazz;
+         this.genericType = genericType;
+         this.annotations = annotations;
+         int h = clazz.hashCode();
+         h = 31 * h + Objects.hashCode(genericType);
+         h = 31 * h + System.identityHashCode(annotations);
+         this.hash = h;
+      }
+
+      @Override
+      public boolean equals(Object o)
+      {
+         if (this == o) return true;
+         if (!(o instanceof Key)) return false;
+         Key that = (Key) o;
+         return hash == that.hash
+               && clazz == that.clazz
+               && annotations == that.annotations
+               && Objects.equals(genericType, that.genericType);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hash;
+      }
+   }
+
+   public static final class Resolved
+   {
+      private final int version;
+      private final ParamConverter<?> converter;
+
+      Resolved(final int version, final ParamConverter<?> converter)
+      {
+         this.version = version;
+         this.converter = converter;
+      }
+
+      /**
+       * @return the converter, null if no provider supports the type
+       */
+      public ParamConverter<?> getConverter()
+      {
+         return converter;
+      }
+   }
+
+   private final BoundedCache<Key, Resolved> cache;
+
+   public ParamConverterCache(final int maxSize)
+   {
+      cache = new BoundedCache<>(maxSize);
+   }
+
+   /**
+    * @param clazz       class
+    * @param genericType generic type
+    * @param annotations annotations
+    * @param version     current version of the provider set
+    * @return the resolution made against that version, or null if there is none
+    */
+   public Resolved get(Class<?> clazz, Type genericType, Annotation[] annotations, int version)
+   {
+      Key key = new Key(clazz, genericType, annotations);
+      Resolved resolved = cache.get(key);
+      if (resolved == null) return null;
+      if (resolved.version != version)
+      {
+         cache.remove(key);
+         return null;
+      }
+      return resolved;
+   }
+
+   public void put(Class<?> clazz, Type genericType, Annotation[] annotations, int version, ParamConverter<?> converter)
+   {
+      cache.putIfAbsent(new Key(clazz, genericType, annotations), new Resolved(version, converter));
+   }
+
+   public void clear()
+   {
+      cache.clear();
+   }
+
+   public BoundedCache<?, ?> getCache()
+   {
+      return cache;
+   }
+}
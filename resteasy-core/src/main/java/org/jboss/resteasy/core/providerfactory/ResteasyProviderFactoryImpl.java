@@ -96,6 +96,7 @@ import java.util.TreeSet;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * @author <a href="mailto:bill@burkecentral.com">Bill Burke</a>
@@ -122,6 +123,9 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
    protected Map<Class<?>, MediaTypeMap<SortedKey<ContextResolver>>> contextResolvers;
    protected boolean attachedParamConverterProviders;
    protected Set<ExtSortedKey<ParamConverterProvider>> sortedParamConverterProviders;
+   // shared with the factories attached to the same sortedParamConverterProviders
+   protected AtomicInteger paramConverterProvidersVersion;
+   protected ParamConverterCache paramConverterCache = new ParamConverterCache(512);
 
    protected Set<Class<?>> alreadyEstablishedNullHeaderDelegate = ConcurrentHashMap.newKeySet();
    protected boolean builtinsRegistered = false;
@@ -202,6 +206,7 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
             // we don't want to copy these
             attachedParamConverterProviders = true;
             sortedParamConverterProviders = parent.sortedParamConverterProviders;
+            paramConverterProvidersVersion = parent.paramConverterProvidersVersion;
             attachedContextResolvers = true;
             contextResolvers = parent.contextResolvers;
          } else {
@@ -211,10 +216,12 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
                contextResolvers.put(entry.getKey(), new MediaTypeMap<>(entry.getValue()));
             }
             sortedParamConverterProviders = Collections.synchronizedSortedSet(new TreeSet<>(parent.sortedParamConverterProviders));
+            paramConverterProvidersVersion = new AtomicInteger();
          }
       } else {
          contextResolvers = new ConcurrentHashMap<>();
          sortedParamConverterProviders = Collections.synchronizedSortedSet(new TreeSet<>());
+         paramConverterProvidersVersion = new AtomicInteger();
       }
 
       resourceBuilder = new ResourceBuilder();
@@ -532,6 +539,38 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
       return resolveMessageBodyReader(type, genericType, annotations, mediaType, availableReaders, tracingLogger);
    }
 
+   /**
+    * Same as {@link #getServerMessageBodyReader(Class, Type, Annotation[], MediaType, RESTEasyTracingLogger)} but
+    * first looks up the reader in the given cache.  The cache is bypassed while tracing is enabled so that the
+    * reader selection still gets logged.
+    *
+    * @param type          type
+    * @param genericType   generic type
+    * @param annotations   annotations, expected to be the same array on every call
+    * @param mediaType     media type
+    * @param tracingLogger tracing logger
+    * @param cache         resolution cache, may be null
+    * @param <T> type
+    * @return message reader
+    */
+   @SuppressWarnings("unchecked")
+   public <T> MessageBodyReader<T> getServerMessageBodyReader(Class<T> type, Type genericType, Annotation[] annotations,
+         MediaType mediaType, RESTEasyTracingLogger tracingLogger, MessageBodyProviderCache cache)
+   {
+      MediaTypeMap<SortedKey<MessageBodyReader>> availableReaders = getServerMessageBodyReaders();
+      if (cache == null || availableReaders == null || tracingLogger.isLogEnabled("MBR_FIND"))
+      {
+         return resolveMessageBodyReader(type, genericType, annotations, mediaType, availableReaders, tracingLogger);
+      }
+      MessageBodyReader<T> reader = (MessageBodyReader<T>) cache.get(availableReaders, type, genericType, annotations, mediaType);
+      if (reader == null)
+      {
+         reader = resolveMessageBodyReader(type, genericType, annotations, mediaType, availableReaders, tracingLogger);
+         if (reader != null) cache.put(availableReaders, type, genericType, annotations, mediaType, reader);
+      }
+      return reader;
+   }
+
    /**
     * Always returns server MBRs.
     *
@@ -706,6 +745,24 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
    }
 
    public ParamConverter getParamConverter(Class clazz, Type genericType, Annotation[] annotations)
+   {
+      if (paramConverterProvidersVersion == null)
+      {
+         return findParamConverter(clazz, genericType, annotations);
+      }
+      // read the version first, a provider added during the lookup leaves a stale entry behind
+      int version = paramConverterProvidersVersion.get();
+      ParamConverterCache.Resolved resolved = paramConverterCache.get(clazz, genericType, annotations, version);
+      if (resolved != null)
+      {
+         return resolved.getConverter();
+      }
+      ParamConverter converter = findParamConverter(clazz, genericType, annotations);
+      paramConverterCache.put(clazz, genericType, annotations, version, converter);
+      return converter;
+   }
+
+   protected ParamConverter findParamConverter(Class clazz, Type genericType, Annotation[] annotations)
    {
       try
       {
@@ -964,15 +1021,22 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
       copyParamConvertsIfNeeded();
       sortedParamConverterProviders
             .add(new ExtSortedKey<>(null, paramConverterProvider, provider, priority, isBuiltin));
+      paramConverterProvidersChanged();
    }
 
    private void copyParamConvertsIfNeeded() {
       if (attachedParamConverterProviders) {
          sortedParamConverterProviders = Collections.synchronizedSortedSet(new TreeSet<>(sortedParamConverterProviders));
+         paramConverterProvidersVersion = new AtomicInteger();
          attachedParamConverterProviders = false;
       }
    }
 
+   private void paramConverterProvidersChanged() {
+      paramConverterProvidersVersion.incrementAndGet();
+      paramConverterCache.clear();
+   }
+
    /**
     * Register a @Provider object.  Can be a MessageBodyReader/Writer or ExceptionMapper.
     *
@@ -1012,6 +1076,7 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
          copyParamConvertsIfNeeded();
          sortedParamConverterProviders.add(
                new ExtSortedKey<>(null, (ParamConverterProvider) provider, provider.getClass(), priority, builtIn));
+         paramConverterProvidersChanged();
          newContracts.put(ParamConverterProvider.class, priority);
       }
       if (Utils.isA(provider, ContextResolver.class, contracts))
@@ -1230,6 +1295,38 @@ public class ResteasyProviderFactoryImpl extends ResteasyProviderFactory impleme
       return resolveMessageBodyWriter(type, genericType, annotations, mediaType, availableWriters, tracingLogger);
    }
 
+   /**
+    * Same as {@link #getServerMessageBodyWriter(Class, Type, Annotation[], MediaType, RESTEasyTracingLogger)} but
+    * first looks up the writer in the given cache.  The cache is bypassed while tracing is enabled so that the
+    * writer selection still gets logged.
+    *
+    * @param type          type
+    * @param genericType   generic type
+    * @param annotations   annotations, expected to be the same array on every call
+    * @param mediaType     media type
+    * @param tracingLogger tracing logger
+    * @param cache         resolution cache, may be null
+    * @param <T> type
+    * @return message writer
+    */
+   @SuppressWarnings("unchecked")
+   public <T> MessageBodyWriter<T> getServerMessageBodyWriter(Class<T> type, Type genericType, Annotation[] annotations,
+         MediaType mediaType, RESTEasyTracingLogger tracingLogger, MessageBodyProviderCache cache)
+   {
+      MediaTypeMap<SortedKey<MessageBodyWriter>> availableWriters = getServerMessageBodyWriters();
+      if (cache == null || availableWriters == null || tracingLogger.isLogEnabled("MBW_FIND"))
+      {
+         return resolveMessageBodyWriter(type, genericType, annotations, mediaType, availableWriters, tracingLogger);
+      }
+      MessageBodyWriter<T> writer = (MessageBodyWriter<T>) cache.get(availableWriters, type, genericType, annotations, mediaType);
+      if (writer == null)
+      {
+         writer = resolveMessageBodyWriter(type, genericType, annotations, mediaType, availableWriters, tracingLogger);
+         if (writer != null) cache.put(availableWriters, type, genericType, annotations, mediaType, writer);
+      }
+      return writer;
+   }
+
    /**
     * Always gets server MBW.
     *
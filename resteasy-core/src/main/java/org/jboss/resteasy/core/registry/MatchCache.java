@@ -4,15 +4,22 @@ package org.jboss.resteasy.core.registry;
 import org.jboss.resteasy.specimpl.ResteasyUriInfo;
 import org.jboss.resteasy.spi.HttpRequest;
 import org.jboss.resteasy.spi.ResourceInvoker;
+import org.jboss.resteasy.util.BoundedCache;
 
 import javax.ws.rs.core.MediaType;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MatchCache {
     public MediaType chosen;
     public SegmentNode.Match match;
     public ResourceInvoker invoker;
+    /**
+     * Expression that was selected, kept for entries cached by {@link TemplateKey} so the path parameters
+     * of a later request can be extracted from its own matcher.
+     */
+    public MethodExpression expression;
 
     public static class Key {
         public String path;
@@ -40,11 +47,10 @@ public class MatchCache {
                     method.equals(key.method) &&
                     Objects.equals(contentType, key.contentType);
             if (!b) return false;
-            if (accepts.isEmpty() && key.accepts.isEmpty()) return true;
+            // requests sending the same Accept header share the parsed list, see AcceptHeaderCache
+            if (accepts == key.accepts) return true;
             if (accepts.size() != key.accepts.size()) return false;
-            // todo improve this
-            return b &&
-                    accepts.equals(key.accepts);
+            return accepts.equals(key.accepts);
         }
 
         @Override
@@ -52,4 +58,77 @@ public class MatchCache {
             return Objects.hash(path, start, method);
         }
     }
+
+    /**
+     * Key for templated paths.  It is made of the template the request path was matched against, i.e. the
+     * candidate expressions lying on the path, and of the set of their regexes that matched, rather than of the
+     * literal path, so every request to {@code /orders/{id}} shares one entry whatever the value of {@code id}.
+     * Those, the HTTP method, the Content-Type and the Accept header are all the input the media type negotiation
+     * depends on.
+     */
+    public static class TemplateKey {
+        private final Object template;
+        private final long matched;
+        private final String method;
+        private final MediaType contentType;
+        private final List<MediaType> accepts;
+        private final int hash;
+
+        /**
+         * @param template the matched template, compared with {@code equals}
+         * @param matched bit set of the regexes of the template which matched the request path
+         * @param request request
+         */
+        public TemplateKey(final Object template, final long matched, final HttpRequest request) {
+            this.template = template;
+            this.matched = matched;
+            this.method = request.getHttpMethod();
+            this.contentType = request.getHttpHeaders().getMediaType();
+            this.accepts = request.getHttpHeaders().getAcceptableMediaTypes();
+            int h = template.hashCode();
+            h = 31 * h + Long.hashCode(matched);
+            h = 31 * h + method.hashCode();
+            h = 31 * h + Objects.hashCode(contentType);
+            // the parsed Accept lists shared by AcceptHeaderCache memoize their hash
+            h = 31 * h + accepts.hashCode();
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            TemplateKey key = (TemplateKey) o;
+            return hash == key.hash &&
+                    matched == key.matched &&
+                    template.equals(key.template) &&
+                    method.equals(key.method) &&
+                    Objects.equals(contentType, key.contentType) &&
+                    (accepts == key.accepts || accepts.equals(key.accepts));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * What is derived from the bindings of a {@link RootNode} to route templated paths: the candidate expressions of
+     * the nodes of the tree and the negotiation results.  It is replaced as a whole when the bindings change, so a
+     * request racing with the change stores what it derived from the outdated bindings in an instance nobody reads.
+     */
+    public static class Templates {
+        final BoundedCache<TemplateKey, MatchCache> matches;
+        final ConcurrentHashMap<SegmentNode, SegmentNode.Candidates> endingAt = new ConcurrentHashMap<>();
+        final ConcurrentHashMap<SegmentNode, SegmentNode.Candidates> passingThrough = new ConcurrentHashMap<>();
+
+        public Templates(final int cacheSize) {
+            this.matches = new BoundedCache<>(cacheSize);
+        }
+
+        public BoundedCache<TemplateKey, MatchCache> getMatches() {
+            return matches;
+        }
+    }
 }
@@ -1,15 +1,17 @@
 package org.jboss.resteasy.core.registry;
 
 import org.jboss.resteasy.core.ResourceMethodInvoker;
+import org.jboss.resteasy.microprofile.config.ResteasyConfigProvider;
+import org.jboss.resteasy.plugins.server.servlet.ResteasyContextParameters;
 import org.jboss.resteasy.spi.HttpRequest;
 import org.jboss.resteasy.spi.ResourceInvoker;
+import org.jboss.resteasy.util.BoundedCache;
 
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import static org.jboss.resteasy.core.registry.SegmentNode.RESTEASY_CHOSEN_ACCEPT;
 
@@ -22,7 +24,28 @@ public class RootNode
    protected SegmentNode root = new SegmentNode("");
    protected int size = 0;
    protected MultivaluedMap<String, MethodExpression> bounded = new MultivaluedHashMap<String, MethodExpression>();
-   protected ConcurrentHashMap<MatchCache.Key, MatchCache> cache = new ConcurrentHashMap<>();
+   protected final boolean cacheEnabled;
+   // exact request path -> match, only for paths without path parameters
+   protected final BoundedCache<MatchCache.Key, MatchCache> cache;
+   protected final int cacheSize;
+   // matched templates -> negotiated match, path parameters are still extracted per request
+   protected volatile MatchCache.Templates templates;
+   protected final boolean compiledRouting;
+   protected volatile SegmentTrie trie;
+   // incremented after each change of the bindings, a trie built for an older generation is rebuilt
+   protected volatile int generation;
+
+   public RootNode()
+   {
+      cacheEnabled = Boolean.parseBoolean(ResteasyConfigProvider.getConfig()
+            .getOptionalValue(ResteasyContextParameters.RESTEASY_MATCH_CACHE_ENABLED, String.class).orElse("true"));
+      cacheSize = Integer.parseInt(ResteasyConfigProvider.getConfig()
+            .getOptionalValue(ResteasyContextParameters.RESTEASY_MATCH_CACHE_SIZE, String.class).orElse("2048"));
+      cache = new BoundedCache<>(cacheSize);
+      templates = new MatchCache.Templates(cacheSize);
+      compiledRouting = Boolean.parseBoolean(ResteasyConfigProvider.getConfig()
+            .getOptionalValue(ResteasyContextParameters.RESTEASY_COMPILED_ROUTING, String.class).orElse("false"));
+   }
 
    public int getSize()
    {
@@ -42,22 +65,34 @@ public class RootNode
       return rtn;
    }
 
-   private static boolean CACHE = true;
+   /**
+    * @return cache of matches for request paths without path parameters
+    */
+   public BoundedCache<MatchCache.Key, MatchCache> getMatchCache()
+   {
+      return cache;
+   }
+
+   /**
+    * @return cache of matches for templated request paths
+    */
+   public BoundedCache<MatchCache.TemplateKey, MatchCache> getTemplateMatchCache()
+   {
+      return templates.getMatches();
+   }
 
    public ResourceInvoker match(HttpRequest request, int start)
    {
-      if (!CACHE) {
-         return root.match(request, start).invoker;
+      if (!cacheEnabled) {
+         return findMatch(request, start, null).invoker;
       }
       MatchCache.Key key = new MatchCache.Key(request, start);
       MatchCache match = cache.get(key);
       if (match != null) {
-         //System.out.println("*** cache hit: " + key.method + " " + key.path);
          request.setAttribute(RESTEASY_CHOSEN_ACCEPT, match.chosen);
       } else {
-         match = root.match(request, start);
+         match = findMatch(request, start, templates);
          if (match.match != null && match.match.expression.getNumGroups() == 0 && match.invoker instanceof ResourceMethodInvoker) {
-            //System.out.println("*** caching: " + key.method + " " + key.path);
             match.match = null;
             cache.putIfAbsent(key, match);
          }
@@ -65,6 +100,30 @@ public class RootNode
       return match.invoker;
    }
 
+   protected MatchCache findMatch(HttpRequest request, int start, MatchCache.Templates templates)
+   {
+      if (!compiledRouting) return root.match(request, start, templates);
+      int current = generation;
+      SegmentTrie compiled = trie;
+      if (compiled == null || compiled.getGeneration() != current)
+      {
+         // stamped with the generation read before the tree is walked: if the bindings change meanwhile, a trie
+         // built from outdated bindings is at worst used until the next request notices the new generation
+         compiled = new SegmentTrie(root, current);
+         trie = compiled;
+      }
+      return compiled.match(request, start, templates);
+   }
+
+   protected void bindingsChanged()
+   {
+      cache.clear();
+      templates = new MatchCache.Templates(cacheSize);
+      // bindings are changed by one thread at a time
+      generation++;
+      trie = null;
+   }
+
    public void removeBinding(String path, Method method)
    {
       List<MethodExpression> expressions = bounded.get(path);
@@ -78,6 +137,7 @@ public class RootNode
             expressions.remove(expression);
             if (expressions.size() == 0) bounded.remove(path);
             size--;
+            bindingsChanged();
             if (invoker instanceof ResourceMethodInvoker)
             {
                ((ResourceMethodInvoker)invoker).cleanup();
@@ -92,6 +152,7 @@ public class RootNode
       MethodExpression expression = addExpression(path, invoker);
       size++;
       bounded.add(path, expression);
+      bindingsChanged();
    }
    protected MethodExpression addExpression(String path, ResourceInvoker invoker)
    {
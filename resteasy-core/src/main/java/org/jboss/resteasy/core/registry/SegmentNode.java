@@ -12,6 +12,8 @@ import org.jboss.resteasy.spi.HttpRequest;
 import org.jboss.resteasy.spi.HttpResponseCodes;
 import org.jboss.resteasy.spi.ResourceInvoker;
 import org.jboss.resteasy.tracing.RESTEasyTracingLogger;
+import org.jboss.resteasy.util.AcceptHeaderCache;
+import org.jboss.resteasy.util.BoundedCache;
 import org.jboss.resteasy.util.HttpHeaderNames;
 import org.jboss.resteasy.util.WeightedMediaType;
 
@@ -73,12 +75,79 @@ public class SegmentNode
    }
 
    public MatchCache match(HttpRequest request, int start)
+   {
+      return match(request, start, null);
+   }
+
+   /**
+    * The expressions a request path reaching a node may match, sorted by precedence, and their distinct regexes.
+    * They depend only on the node the path walk ends at and on whether the path ends there, so they are computed
+    * once per change of the bindings.
+    */
+   protected static class Candidates
+   {
+      final MethodExpression[] expressions;
+      final Pattern[] patterns;
+      // index in patterns of the regex of each expression
+      final int[] patternOf;
+      final boolean locators;
+
+      Candidates(final List<MethodExpression> potentials)
+      {
+         expressions = potentials.toArray(new MethodExpression[potentials.size()]);
+         patternOf = new int[expressions.length];
+         List<Pattern> distinct = new ArrayList<Pattern>();
+         Map<String, Integer> indexes = new HashMap<String, Integer>();
+         boolean hasLocator = false;
+         for (int i = 0; i < expressions.length; i++)
+         {
+            MethodExpression expression = expressions[i];
+            hasLocator |= expression.getInvoker() instanceof ResourceLocatorInvoker;
+            Integer index = indexes.get(expression.getRegex());
+            if (index == null)
+            {
+               index = distinct.size();
+               indexes.put(expression.getRegex(), index);
+               distinct.add(expression.getPattern());
+            }
+            patternOf[i] = index;
+         }
+         patterns = distinct.toArray(new Pattern[distinct.size()]);
+         locators = hasLocator;
+      }
+
+      int patternOf(MethodExpression expression)
+      {
+         for (int i = 0; i < expressions.length; i++)
+         {
+            if (expressions[i] == expression) return patternOf[i];
+         }
+         return -1;
+      }
+   }
+
+   /**
+    * @param request request
+    * @param start index in the matching path to start matching from
+    * @param templates optional cache of the candidates and negotiation results for templated paths, may be null
+    * @return match
+    */
+   public MatchCache match(HttpRequest request, int start, MatchCache.Templates templates)
    {
       String path = ((ResteasyUriInfo) request.getUri()).getMatchingPath();
       RESTEasyTracingLogger logger = RESTEasyTracingLogger.getInstance(request);
       logger.log("MATCH_PATH_FIND", ((ResteasyUriInfo)request.getUri()).getMatchingPath());
 
       if (start < path.length() && path.charAt(start) == '/') start++;
+      if (templates != null)
+      {
+         Candidates candidates = candidates(path, start, templates);
+         // locators are matched in order and may stop the scan, the set of matching regexes is kept in a long
+         if (!candidates.locators && candidates.patterns.length <= Long.SIZE)
+         {
+            return matchTemplate(request, path, start, candidates, templates, logger);
+         }
+      }
       List<MethodExpression> potentials = new ArrayList<MethodExpression>();
       potentials(path, start, potentials);
       Collections.sort(potentials);
@@ -103,40 +172,7 @@ public class SegmentNode
             ResourceInvoker invoker = expression.getInvoker();
             if (invoker instanceof ResourceLocatorInvoker)
             {
-               MatchCache ctx = new MatchCache();
-               ctx.invoker = invoker;
-               ResteasyUriInfo uriInfo = (ResteasyUriInfo) request.getUri();
-               int length = matcher.start(expression.getNumGroups() + 1);
-               if (length == -1)
-               {
-                  uriInfo.pushMatchedPath(path);
-                  uriInfo.pushMatchedURI(path);
-               }
-               else
-               {
-                  // must find the end of the matched pattern
-                  // and get the substring from 1st char thru end
-                  // of matched chars
-                  Pattern p = expression.getPattern();
-                  Matcher m = p.matcher(path);
-                  m.region(start, path.length());
-                  String substring = path;
-                  while(m.find()) {
-                     String endText = m.group(m.groupCount());
-                     if (endText != null && !endText.isEmpty()) {
-                        int indx = path.indexOf(endText, length);
-                        if (indx > -1) {
-                           substring = path.substring(0, indx);
-                        }
-                     }
-                  }
-
-                  uriInfo.pushMatchedPath(substring);
-                  uriInfo.pushMatchedURI(substring);
-               }
-               expression.populatePathParams(request, matcher, path);
-               logger.log("MATCH_LOCATOR", invoker.getMethod());
-               return ctx;
+               return matchLocator(request, path, start, expression, matcher, logger);
             }
             else
             {
@@ -147,15 +183,201 @@ public class SegmentNode
             logger.log("MATCH_PATH_NOT_MATCHED", expression.getRegex());
          }
       }
-      if (matches.size() == 0)
+      return selectMatch(request, path, start, matches, null, null, logger);
+   }
+
+   /**
+    * Finds the node the {@link #potentials} walk of the path ends at, and returns the candidates of that node.
+    */
+   protected Candidates candidates(String path, int start, MatchCache.Templates templates)
+   {
+      SegmentNode node = this;
+      int index = start;
+      while (index < path.length())
+      {
+         int endOfSegmentIndex = path.indexOf('/', index);
+         String simpleSegment = endOfSegmentIndex > -1 ? path.substring(index, endOfSegmentIndex) : path.substring(index);
+         SegmentNode child = node.children.get(simpleSegment);
+         if (child == null) break;
+         node = child;
+         index += simpleSegment.length();
+         if (endOfSegmentIndex > -1) index++; // go past '/'
+      }
+      boolean end = index == path.length();
+      Map<SegmentNode, Candidates> cache = end ? templates.endingAt : templates.passingThrough;
+      Candidates candidates = cache.get(node);
+      if (candidates == null)
+      {
+         // the walk has no side effect, it is redone to collect the candidates of every node on the path
+         List<MethodExpression> potentials = new ArrayList<MethodExpression>();
+         potentials(path, start, potentials);
+         Collections.sort(potentials);
+         candidates = new Candidates(potentials);
+         Candidates existing = cache.putIfAbsent(node, candidates);
+         if (existing != null) candidates = existing;
+      }
+      return candidates;
+   }
+
+   /**
+    * Runs each distinct regex of the candidates once.  When the same set of regexes matched a former request with
+    * the same method, Content-Type and Accept header, the negotiated match is reused and only the path parameters
+    * are extracted, from the matchers that were run anyway.
+    */
+   protected MatchCache matchTemplate(HttpRequest request, String path, int start, Candidates candidates,
+                                      MatchCache.Templates templates, RESTEasyTracingLogger logger)
+   {
+      Matcher[] matchers = new Matcher[candidates.patterns.length];
+      long matched = 0;
+      for (int i = 0; i < matchers.length; i++)
+      {
+         Matcher matcher = candidates.patterns[i].matcher(path);
+         matcher.region(start, path.length());
+         if (matcher.matches())
+         {
+            matchers[i] = matcher;
+            matched |= 1L << i;
+         }
+         else
+         {
+            logger.log("MATCH_PATH_NOT_MATCHED", candidates.patterns[i].pattern());
+         }
+      }
+      if (matched == 0)
       {
          throw new NotFoundException(Messages.MESSAGES.couldNotFindResourceForFullPath(request.getUri().getRequestUri()));
       }
+      MatchCache.TemplateKey key = new MatchCache.TemplateKey(candidates, matched, request);
+      MatchCache cached = templates.matches.get(key);
+      if (cached != null)
+      {
+         request.setAttribute(RESTEASY_CHOSEN_ACCEPT, cached.chosen);
+         cached.expression.populatePathParams(request, matchers[candidates.patternOf(cached.expression)], path);
+         logger.log("MATCH_PATH_SELECTED", cached.expression.getRegex());
+         return cached;
+      }
+      List<Match> matches = new ArrayList<Match>();
+      for (int i = 0; i < candidates.expressions.length; i++)
+      {
+         Matcher matcher = matchers[candidates.patternOf[i]];
+         if (matcher != null) matches.add(new Match(candidates.expressions[i], matcher));
+      }
       MatchCache match = match(matches, request.getHttpMethod(), request);
+      if (match.match.expression.getNumGroups() > 0)
+      {
+         templates.matches.putIfAbsent(key, copyForTemplate(match));
+      }
       match.match.expression.populatePathParams(request, match.match.matcher, path);
       logger.log("MATCH_PATH_SELECTED", match.match.expression.getRegex());
       return match;
+   }
+
+   private static MatchCache copyForTemplate(MatchCache match)
+   {
+      MatchCache cached = new MatchCache();
+      cached.chosen = match.chosen;
+      cached.invoker = match.invoker;
+      cached.expression = match.match.expression;
+      return cached;
+   }
+
+   /**
+    * Pushes the matched path of a sub-resource locator and populates its path parameters.
+    */
+   protected MatchCache matchLocator(HttpRequest request, String path, int start, MethodExpression expression, Matcher matcher,
+                                     RESTEasyTracingLogger logger)
+   {
+      ResourceInvoker invoker = expression.getInvoker();
+      MatchCache ctx = new MatchCache();
+      ctx.invoker = invoker;
+      ResteasyUriInfo uriInfo = (ResteasyUriInfo) request.getUri();
+      int length = matcher.start(expression.getNumGroups() + 1);
+      if (length == -1)
+      {
+         uriInfo.pushMatchedPath(path);
+         uriInfo.pushMatchedURI(path);
+      }
+      else
+      {
+         // must find the end of the matched pattern
+         // and get the substring from 1st char thru end
+         // of matched chars
+         Pattern p = expression.getPattern();
+         Matcher m = p.matcher(path);
+         m.region(start, path.length());
+         String substring = path;
+         while(m.find()) {
+            String endText = m.group(m.groupCount());
+            if (endText != null && !endText.isEmpty()) {
+               int indx = path.indexOf(endText, length);
+               if (indx > -1) {
+                  substring = path.substring(0, indx);
+               }
+            }
+         }
 
+         uriInfo.pushMatchedPath(substring);
+         uriInfo.pushMatchedURI(substring);
+      }
+      expression.populatePathParams(request, matcher, path);
+      logger.log("MATCH_LOCATOR", invoker.getMethod());
+      return ctx;
+   }
+
+   /**
+    * Selects the resource method to invoke among the expressions that matched the request path.  A {@link Match}
+    * may have a null matcher if the path was matched without running the expression's regex, the regex is then
+    * only run if path parameters need to be extracted.
+    *
+    * @param template identifies the matched expressions in the key of the cached negotiation result, may be null
+    * @param templates cache of negotiation results, may be null
+    */
+   protected MatchCache selectMatch(HttpRequest request, String path, int start, List<Match> matches,
+                                    Object template, MatchCache.Templates templates, RESTEasyTracingLogger logger)
+   {
+      if (matches.size() == 0)
+      {
+         throw new NotFoundException(Messages.MESSAGES.couldNotFindResourceForFullPath(request.getUri().getRequestUri()));
+      }
+      MatchCache.TemplateKey templateKey = null;
+      if (templates != null && template != null)
+      {
+         templateKey = new MatchCache.TemplateKey(template, 0L, request);
+         MatchCache cached = templates.matches.get(templateKey);
+         if (cached != null)
+         {
+            for (Match m : matches)
+            {
+               if (m.expression == cached.expression)
+               {
+                  request.setAttribute(RESTEASY_CHOSEN_ACCEPT, cached.chosen);
+                  populatePathParams(request, path, start, m);
+                  logger.log("MATCH_PATH_SELECTED", m.expression.getRegex());
+                  return cached;
+               }
+            }
+         }
+      }
+      MatchCache match = match(matches, request.getHttpMethod(), request);
+      if (templateKey != null && match.match.expression.getNumGroups() > 0)
+      {
+         templates.matches.putIfAbsent(templateKey, copyForTemplate(match));
+      }
+      populatePathParams(request, path, start, match.match);
+      logger.log("MATCH_PATH_SELECTED", match.match.expression.getRegex());
+      return match;
+   }
+
+   private static void populatePathParams(HttpRequest request, String path, int start, Match match)
+   {
+      if (match.matcher == null && match.expression.getNumGroups() > 0)
+      {
+         Matcher matcher = match.expression.getPattern().matcher(path);
+         matcher.region(start, path.length());
+         matcher.matches();
+         match.matcher = matcher;
+      }
+      match.expression.populatePathParams(request, match.matcher, path);
    }
 
    public void potentials(String path, int start, List<MethodExpression> matches)
@@ -357,8 +579,16 @@ public class SegmentNode
       MediaType contentType = request.getHttpHeaders().getMediaType();
 
       List<MediaType> requestAccepts = request.getHttpHeaders().getAcceptableMediaTypes();
-      List<WeightedMediaType> weightedAccepts = new ArrayList<WeightedMediaType>();
-      for (MediaType accept : requestAccepts) weightedAccepts.add(WeightedMediaType.parse(accept));
+      List<WeightedMediaType> weightedAccepts;
+      if (requestAccepts instanceof AcceptHeaderCache.Parsed)
+      {
+         weightedAccepts = ((AcceptHeaderCache.Parsed) requestAccepts).getWeightedMediaTypes();
+      }
+      else
+      {
+         weightedAccepts = new ArrayList<WeightedMediaType>();
+         for (MediaType accept : requestAccepts) weightedAccepts.add(WeightedMediaType.parse(accept));
+      }
 
       List<Match> list = new ArrayList<Match>();
       boolean methodMatch = false;
@@ -0,0 +1,253 @@
+package org.jboss.resteasy.core.registry;
+
+import org.jboss.resteasy.core.ResourceMethodInvoker;
+import org.jboss.resteasy.specimpl.ResteasyUriInfo;
+import org.jboss.resteasy.spi.HttpRequest;
+import org.jboss.resteasy.tracing.RESTEasyTracingLogger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+/**
+ * Routing table compiled from the {@link SegmentNode} tree of a {@link RootNode}.  Every path template is split in
+ * segments and stored in a trie with three kinds of nodes:
+ * <ul>
+ * <li>literal segments, looked up by a hash map</li>
+ * <li>simple <code>{param}</code> segments, matching any non empty segment</li>
+ * <li>anything else (<code>{param: regex}</code>, mixed literal and parameter segments, sub-resource locators),
+ * kept as candidates that are verified with the expression's regex</li>
+ * </ul>
+ * Templates made only of literal and simple parameter segments are matched without any regex, and the precedence
+ * of the candidates is computed once when the trie is built, so a request does not sort its potential matches.
+ * The selection among the matching resource methods is the same as {@link SegmentNode}.
+ *
+ * @see org.jboss.resteasy.plugins.server.servlet.ResteasyContextParameters#RESTEASY_COMPILED_ROUTING
+ */
+public class SegmentTrie
+{
+   private static final Comparator<Candidate> PRECEDENCE = new Comparator<Candidate>()
+   {
+      @Override
+      public int compare(Candidate o1, Candidate o2)
+      {
+         return Integer.compare(o1.rank, o2.rank);
+      }
+   };
+
+   private static class Candidate
+   {
+      final MethodExpression expression;
+      final boolean regex;
+      int rank;
+
+      Candidate(final MethodExpression expression, final boolean regex)
+      {
+         this.expression = expression;
+         this.regex = regex;
+      }
+   }
+
+   private static class Node
+   {
+      final Map<String, Node> literals = new HashMap<String, Node>();
+      Node param;
+      final List<Candidate> terminals = new ArrayList<Candidate>();
+      final List<Candidate> regexes = new ArrayList<Candidate>();
+   }
+
+   protected final SegmentNode root;
+   private final int generation;
+   private final Node trie = new Node();
+
+   public SegmentTrie(final SegmentNode root)
+   {
+      this(root, 0);
+   }
+
+   /**
+    * @param root tree to compile
+    * @param generation generation of the bindings of the tree
+    */
+   public SegmentTrie(final SegmentNode root, final int generation)
+   {
+      this.root = root;
+      this.generation = generation;
+      List<MethodExpression> expressions = new ArrayList<MethodExpression>();
+      collect(root, expressions);
+      // stable sort, expressions of same precedence keep the order SegmentNode.potentials() would give them
+      Collections.sort(expressions);
+      int rank = 0;
+      for (MethodExpression expression : expressions)
+      {
+         add(expression).rank = rank++;
+      }
+   }
+
+   public int getGeneration()
+   {
+      return generation;
+   }
+
+   /**
+    * Depth first, children before the node's own targets, which is the order {@link SegmentNode#potentials} lists
+    * the expressions lying on a request path.
+    */
+   private static void collect(SegmentNode node, List<MethodExpression> expressions)
+   {
+      for (SegmentNode child : node.children.values())
+      {
+         collect(child, expressions);
+      }
+      expressions.addAll(node.targets);
+   }
+
+   private Candidate add(MethodExpression expression)
+   {
+      Node node = trie;
+      List<String> segments = split(expression.getPathExpression());
+      boolean regex = !(expression.getInvoker() instanceof ResourceMethodInvoker);
+      for (String segment : segments)
+      {
+         if (segment.indexOf('{') < 0)
+         {
+            Node child = node.literals.get(segment);
+            if (child == null)
+            {
+               child = new Node();
+               node.literals.put(segment, child);
+            }
+            node = child;
+         }
+         else if (isSimpleParam(segment))
+         {
+            if (node.param == null) node.param = new Node();
+            node = node.param;
+         }
+         else
+         {
+            regex = true;
+            break;
+         }
+      }
+      Candidate candidate = new Candidate(expression, regex);
+      if (regex) node.regexes.add(candidate);
+      else node.terminals.add(candidate);
+      return candidate;
+   }
+
+   /**
+    * Splits a path template on the '/' characters that are not within a <code>{param: regex}</code>.
+    */
+   static List<String> split(String template)
+   {
+      List<String> segments = new ArrayList<String>();
+      if (template.isEmpty()) return segments;
+      int depth = 0;
+      int begin = 0;
+      for (int i = 0; i < template.length(); i++)
+      {
+         char c = template.charAt(i);
+         if (c == '{') depth++;
+         else if (c == '}') depth--;
+         else if (c == '/' && depth == 0)
+         {
+            segments.add(template.substring(begin, i));
+            begin = i + 1;
+         }
+      }
+      segments.add(template.substring(begin));
+      return segments;
+   }
+
+   static boolean isSimpleParam(String segment)
+   {
+      return segment.length() > 2
+            && segment.charAt(0) == '{'
+            && segment.charAt(segment.length() - 1) == '}'
+            && segment.indexOf('{', 1) < 0
+            && segment.indexOf(':') < 0;
+   }
+
+   public MatchCache match(HttpRequest request, int start, MatchCache.Templates templates)
+   {
+      String path = ((ResteasyUriInfo) request.getUri()).getMatchingPath();
+      RESTEasyTracingLogger logger = RESTEasyTracingLogger.getInstance(request);
+      logger.log("MATCH_PATH_FIND", path);
+
+      if (start < path.length() && path.charAt(start) == '/') start++;
+      List<Candidate> candidates = new ArrayList<Candidate>();
+      walk(trie, path, start, start, candidates);
+      if (candidates.size() > 1) candidates.sort(PRECEDENCE);
+
+      boolean expressionMatched = false;
+      List<SegmentNode.Match> matches = new ArrayList<SegmentNode.Match>();
+      // the matched expressions identify the template, no regex is run to find them for simple templates
+      List<MethodExpression> template = templates == null ? null : new ArrayList<MethodExpression>();
+      for (Candidate candidate : candidates)
+      {
+         MethodExpression expression = candidate.expression;
+         // We ignore locators if the first match was a resource method as per the spec Section 3, Step 2(h)
+         if (expressionMatched && expression.isLocator())
+         {
+            logger.log("MATCH_PATH_SKIPPED", expression.getRegex());
+            continue;
+         }
+         Matcher matcher = null;
+         if (candidate.regex)
+         {
+            matcher = expression.getPattern().matcher(path);
+            matcher.region(start, path.length());
+            if (!matcher.matches())
+            {
+               logger.log("MATCH_PATH_NOT_MATCHED", expression.getRegex());
+               continue;
+            }
+         }
+         expressionMatched = true;
+         if (expression.isLocator())
+         {
+            return root.matchLocator(request, path, start, expression, matcher, logger);
+         }
+         matches.add(new SegmentNode.Match(expression, matcher));
+         if (template != null) template.add(expression);
+      }
+      return root.selectMatch(request, path, start, matches, template, templates, logger);
+   }
+
+   private static void walk(Node node, String path, int start, int index, List<Candidate> candidates)
+   {
+      candidates.addAll(node.regexes);
+      int length = path.length();
+      if (index == length)
+      {
+         // a trailing '/' is not matched by a template without regex
+         if (index == start || path.charAt(index - 1) != '/') candidates.addAll(node.terminals);
+         return;
+      }
+      int end = path.indexOf('/', index);
+      int next;
+      if (end < 0)
+      {
+         end = length;
+         next = length;
+      }
+      else
+      {
+         next = end + 1;
+      }
+      if (!node.literals.isEmpty())
+      {
+         Node child = node.literals.get(path.substring(index, end));
+         if (child != null) walk(child, path, start, next, candidates);
+      }
+      if (node.param != null && end > index)
+      {
+         walk(node.param, path, start, next, candidates);
+      }
+   }
+}
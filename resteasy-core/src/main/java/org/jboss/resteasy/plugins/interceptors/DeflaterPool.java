@@ -0,0 +1,73 @@
+package org.jboss.resteasy.plugins.interceptors;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Deflater;
+
+/**
+ * Bounded pool of raw (nowrap) Deflaters of one compression level.  A Deflater holds native memory until it is
+ * ended, creating one per response is expensive and leaves the memory to the finalizer when a response fails.
+ */
+public class DeflaterPool
+{
+   private final int level;
+   private final int size;
+   private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<Deflater>();
+   private final AtomicInteger count = new AtomicInteger();
+
+   /**
+    * @param level compression level, see {@link Deflater#setLevel(int)}
+    * @param size maximum number of idle Deflaters kept
+    */
+   public DeflaterPool(final int level, final int size)
+   {
+      if (level != Deflater.DEFAULT_COMPRESSION && (level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION))
+      {
+         throw new IllegalArgumentException("invalid compression level: " + level);
+      }
+      this.level = level;
+      this.size = size;
+   }
+
+   public int getLevel()
+   {
+      return level;
+   }
+
+   /**
+    * @return number of idle Deflaters
+    */
+   public int getIdleCount()
+   {
+      return count.get();
+   }
+
+   public Deflater acquire()
+   {
+      Deflater deflater = deflaters.poll();
+      if (deflater == null)
+      {
+         return new Deflater(level, true);
+      }
+      count.decrementAndGet();
+      return deflater;
+   }
+
+   /**
+    * Resets a Deflater and keeps it for reuse, or ends it if the pool is full.
+    *
+    * @param deflater deflater obtained from {@link #acquire()}
+    */
+   public void release(Deflater deflater)
+   {
+      if (count.incrementAndGet() > size)
+      {
+         count.decrementAndGet();
+         deflater.end();
+         return;
+      }
+      deflater.reset();
+      deflaters.offer(deflater);
+   }
+}
@@ -1,27 +1,68 @@
 package org.jboss.resteasy.plugins.interceptors;
 
+import org.jboss.resteasy.core.ResteasyContext;
+import org.jboss.resteasy.plugins.server.servlet.ResteasyContextParameters;
 import org.jboss.resteasy.resteasy_jaxrs.i18n.LogMessages;
+import org.jboss.resteasy.spi.AsyncOutputStream;
+import org.jboss.resteasy.spi.AsyncWriterInterceptor;
+import org.jboss.resteasy.spi.AsyncWriterInterceptorContext;
+import org.jboss.resteasy.spi.ResteasyConfiguration;
 import org.jboss.resteasy.util.CommitHeaderOutputStream;
 
 import javax.annotation.Priority;
 import javax.ws.rs.Priorities;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.Provider;
-import javax.ws.rs.ext.WriterInterceptor;
 import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 
 /**
+ * Compresses entities whose Content-Encoding is gzip, on both the blocking and the asynchronous write paths.
+ * Entities smaller than {@link ResteasyContextParameters#RESTEASY_GZIP_MIN_SIZE} bytes and entities whose media type
+ * is already compressed are written as is, without the Content-Encoding header.
+ *
  * @author <a href="mailto:bill@burkecentral.com">Bill Burke</a>
  * @version $Revision: 1 $
  */
 @Provider
 @Priority(Priorities.ENTITY_CODER)
-public class GZIPEncodingInterceptor implements WriterInterceptor
+public class GZIPEncodingInterceptor implements AsyncWriterInterceptor
 {
+   private static final int DEFAULT_MIN_SIZE = 0;
+   private static final int POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+
+   private int minSize;
+   private int level;
+   private volatile DeflaterPool deflaterPool;
+
+   public GZIPEncodingInterceptor()
+   {
+      this(-1, Deflater.DEFAULT_COMPRESSION);
+   }
+
+   /**
+    * @param minSize size in bytes under which entities are not compressed, -1 to read it from the configuration
+    * @param level compression level, see {@link Deflater#setLevel(int)}
+    */
+   public GZIPEncodingInterceptor(final int minSize, final int level)
+   {
+      this.minSize = minSize;
+      this.level = level;
+      if (minSize != -1)
+      {
+         deflaterPool = new DeflaterPool(level, POOL_SIZE);
+      }
+   }
+
    public static class EndableGZIPOutputStream extends GZIPOutputStream
    {
       public EndableGZIPOutputStream(final OutputStream os) throws IOException
@@ -75,25 +116,28 @@ public class GZIPEncodingInterceptor implements WriterInterceptor
    {
       LogMessages.LOGGER.debugf("Interceptor : %s,  Method : aroundWriteTo", getClass().getName());
 
-      Object encoding = context.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
-
-      if (encoding != null && encoding.toString().equalsIgnoreCase("gzip"))
+      if (isGzip(context.getHeaders()) && shouldCompress(context.getHeaders(), context.getMediaType(), context.getEntity()))
       {
          OutputStream old = context.getOutputStream();
-         // GZIPOutputStream constructor writes to underlying OS causing headers to be written.
-         CommittedGZIPOutputStream gzipOutputStream = new CommittedGZIPOutputStream(old, null);
+         MultivaluedMap<String, Object> headers = context.getHeaders();
+         // nothing is written before there is something to compress, so the headers may still be changed
+         GZIPEncodingOutputStream gzipOutputStream = new GZIPEncodingOutputStream(old, getDeflaterPool(), minSize,
+               () -> headers.remove(HttpHeaders.CONTENT_ENCODING));
 
          // Any content length set will be obsolete
          context.getHeaders().remove("Content-Length");
 
          context.setOutputStream(gzipOutputStream);
+         boolean written = false;
          try
          {
             context.proceed();
+            gzipOutputStream.finish();
+            written = true;
          }
          finally
          {
-            if (gzipOutputStream.getGzip() != null) gzipOutputStream.getGzip().finish();
+            if (!written) gzipOutputStream.discard();
             context.setOutputStream(old);
          }
          return;
@@ -103,4 +147,165 @@ public class GZIPEncodingInterceptor implements WriterInterceptor
          context.proceed();
       }
    }
+
+   @Override
+   public CompletionStage<Void> asyncAroundWriteTo(AsyncWriterInterceptorContext context)
+   {
+      LogMessages.LOGGER.debugf("Interceptor : %s,  Method : asyncAroundWriteTo", getClass().getName());
+
+      if (!isGzip(context.getHeaders()) || !shouldCompress(context.getHeaders(), context.getMediaType(), context.getEntity()))
+      {
+         return context.asyncProceed();
+      }
+      AsyncOutputStream old = context.getAsyncOutputStream();
+      MultivaluedMap<String, Object> headers = context.getHeaders();
+      GZIPEncodingOutputStream gzipOutputStream = new GZIPEncodingOutputStream(old, getDeflaterPool(), minSize,
+            () -> headers.remove(HttpHeaders.CONTENT_ENCODING));
+
+      // Any content length set will be obsolete
+      headers.remove("Content-Length");
+
+      context.setAsyncOutputStream(gzipOutputStream);
+      CompletionStage<Void> proceed;
+      try
+      {
+         proceed = context.asyncProceed();
+      }
+      catch (RuntimeException e)
+      {
+         CompletableFuture<Void> failed = new CompletableFuture<>();
+         failed.completeExceptionally(e);
+         proceed = failed;
+      }
+      return proceed.thenCompose(v -> gzipOutputStream.asyncFinish())
+            .whenComplete((v, t) -> {
+               if (t != null) gzipOutputStream.discard();
+               context.setAsyncOutputStream(old);
+            });
+   }
+
+   private static boolean isGzip(MultivaluedMap<String, Object> headers)
+   {
+      Object encoding = headers.getFirst(HttpHeaders.CONTENT_ENCODING);
+      return encoding != null && encoding.toString().equalsIgnoreCase("gzip");
+   }
+
+   /**
+    * Drops the Content-Encoding header if the entity should not be compressed because it is already compressed,
+    * or because it is known to be smaller than the minimum size.
+    */
+   private boolean shouldCompress(MultivaluedMap<String, Object> headers, MediaType mediaType, Object entity)
+   {
+      long size = -1;
+      if (entity instanceof byte[])
+      {
+         size = ((byte[]) entity).length;
+      }
+      else if (entity instanceof File)
+      {
+         size = ((File) entity).length();
+      }
+      if (isCompressed(mediaType) || (size >= 0 && size < getMinSize()))
+      {
+         headers.remove(HttpHeaders.CONTENT_ENCODING);
+         return false;
+      }
+      return true;
+   }
+
+   /**
+    * @param mediaType media type
+    * @return true if entities of this type are compressed already, compressing them again would only cost time
+    */
+   protected boolean isCompressed(MediaType mediaType)
+   {
+      if (mediaType == null) return false;
+      String type = mediaType.getType().toLowerCase();
+      String subtype = mediaType.getSubtype().toLowerCase();
+      switch (type)
+      {
+         case "image":
+            return !subtype.equals("svg+xml") && !subtype.equals("bmp") && !subtype.equals("x-icon") && !subtype.equals("vnd.microsoft.icon");
+         case "audio":
+         case "video":
+            return true;
+         case "font":
+            return subtype.equals("woff") || subtype.equals("woff2");
+         case "application":
+            switch (subtype)
+            {
+               case "zip":
+               case "gzip":
+               case "x-gzip":
+               case "x-bzip2":
+               case "x-xz":
+               case "zstd":
+               case "x-7z-compressed":
+               case "x-rar-compressed":
+               case "vnd.rar":
+               case "java-archive":
+                  return true;
+               default:
+                  return false;
+            }
+         default:
+            return false;
+      }
+   }
+
+   private int getMinSize()
+   {
+      if (minSize == -1)
+      {
+         configure();
+      }
+      return minSize;
+   }
+
+   private DeflaterPool getDeflaterPool()
+   {
+      if (deflaterPool == null)
+      {
+         configure();
+      }
+      return deflaterPool;
+   }
+
+   private synchronized void configure()
+   {
+      if (deflaterPool != null) return;
+      int size = DEFAULT_MIN_SIZE;
+      ResteasyConfiguration context = ResteasyContext.getContextData(ResteasyConfiguration.class);
+      if (context != null)
+      {
+         String s = context.getParameter(ResteasyContextParameters.RESTEASY_GZIP_MIN_SIZE);
+         if (s != null)
+         {
+            try
+            {
+               size = Integer.parseInt(s);
+            }
+            catch (NumberFormatException e)
+            {
+               LogMessages.LOGGER.invalidFormat(ResteasyContextParameters.RESTEASY_GZIP_MIN_SIZE, Integer.toString(DEFAULT_MIN_SIZE));
+            }
+         }
+         s = context.getParameter(ResteasyContextParameters.RESTEASY_GZIP_COMPRESSION_LEVEL);
+         if (s != null)
+         {
+            try
+            {
+               int l = Integer.parseInt(s);
+               if (l < Deflater.DEFAULT_COMPRESSION || l > Deflater.BEST_COMPRESSION) throw new NumberFormatException(s);
+               level = l;
+            }
+            catch (NumberFormatException e)
+            {
+               LogMessages.LOGGER.invalidFormat(ResteasyContextParameters.RESTEASY_GZIP_COMPRESSION_LEVEL, Integer.toString(Deflater.DEFAULT_COMPRESSION));
+            }
+         }
+      }
+      minSize = Math.max(0, size);
+      deflaterPool = new DeflaterPool(level, POOL_SIZE);
+   }
 }
@@ -0,0 +1,311 @@
+package org.jboss.resteasy.plugins.interceptors;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+
+/**
+ * Writes the GZIP encoding of an entity to the wrapped stream, compressing incrementally.  Writes through
+ * {@link #asyncWrite(byte[], int, int)} deflate the given bytes at once and hand the result to the wrapped
+ * {@link AsyncOutputStream} without blocking.
+ * <p>
+ * The first {@code minSize} bytes are held back: if the entity ends before, it is written as is and the
+ * {@code uncompressed} callback is called first so that the Content-Encoding header can be removed.  Nothing is
+ * written to the wrapped stream before that decision, so the response headers are not committed.
+ * <p>
+ * The stream must be completed with {@link #finish()} or {@link #asyncFinish()}, which give the Deflater back to
+ * its pool.  If the entity could not be written {@link #discard()} releases the Deflater instead.
+ */
+public class GZIPEncodingOutputStream extends AsyncOutputStream
+{
+   private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+   private static final int CHUNK_SIZE = 8192;
+   private static final CompletionStage<Void> DONE = CompletableFuture.completedFuture(null);
+
+   private final OutputStream delegate;
+   private final DeflaterPool pool;
+   private final int minSize;
+   private final Runnable uncompressed;
+   private final CRC32 crc = new CRC32();
+   private Deflater deflater;
+   private byte[] pending;
+   private int pendingCount;
+   private byte[] buffer;
+   private int count;
+   private boolean finished;
+
+   /**
+    * @param delegate stream the encoded entity is written to
+    * @param pool pool the Deflater is taken from
+    * @param minSize size under which the entity is not compressed
+    * @param uncompressed called when the entity is written as is, may be null
+    */
+   public GZIPEncodingOutputStream(final OutputStream delegate, final DeflaterPool pool, final int minSize, final Runnable uncompressed)
+   {
+      this.delegate = delegate;
+      this.pool = pool;
+      this.minSize = minSize;
+      this.uncompressed = uncompressed;
+   }
+
+   /**
+    * @return true once the entity is being compressed
+    */
+   public boolean isCompressing()
+   {
+      return deflater != null;
+   }
+
+   @Override
+   public void write(int b) throws IOException
+   {
+      write(new byte[]{(byte) b}, 0, 1);
+   }
+
+   @Override
+   public void write(byte[] b, int off, int len) throws IOException
+   {
+      if (encode(b, off, len, false))
+      {
+         writeBuffer();
+      }
+   }
+
+   @Override
+   public CompletionStage<Void> asyncWrite(byte[] bytes, int offset, int length)
+   {
+      try
+      {
+         if (encode(bytes, offset, length, true))
+         {
+            return asyncWriteBuffer();
+         }
+         return DONE;
+      }
+      catch (IOException e)
+      {
+         CompletableFuture<Void> ret = new CompletableFuture<>();
+         ret.completeExceptionally(e);
+         return ret;
+      }
+   }
+
+   /**
+    * Deflaters only write out their output once they have gathered enough input, so flushing writes whatever
+    * compressed output is ready.  Nothing is flushed while the entity may still be written as is.
+    */
+   @Override
+   public void flush() throws IOException
+   {
+      if (deflater != null && !finished)
+      {
+         delegate.flush();
+      }
+   }
+
+   @Override
+   public CompletionStage<Void> asyncFlush()
+   {
+      if (deflater != null && !finished && delegate instanceof AsyncOutputStream)
+      {
+         return ((AsyncOutputStream) delegate).asyncFlush();
+      }
+      return DONE;
+   }
+
+   /**
+    * Writes the end of the entity, but does not close the wrapped stream.
+    *
+    * @throws IOException if the entity could not be written
+    */
+   public void finish() throws IOException
+   {
+      if (finish0())
+      {
+         writeBuffer();
+      }
+   }
+
+   public CompletionStage<Void> asyncFinish()
+   {
+      try
+      {
+         if (finish0())
+         {
+            return asyncWriteBuffer();
+         }
+         return DONE;
+      }
+      catch (IOException e)
+      {
+         CompletableFuture<Void> ret = new CompletableFuture<>();
+         ret.completeExceptionally(e);
+         return ret;
+      }
+   }
+
+   /**
+    * Releases the Deflater if the entity could not be written completely.
+    */
+   public void discard()
+   {
+      finished = true;
+      if (deflater != null)
+      {
+         deflater.end();
+         deflater = null;
+      }
+   }
+
+   @Override
+   public void close() throws IOException
+   {
+      finish();
+      delegate.close();
+   }
+
+   /**
+    * @return true if there is output to write
+    */
+   private boolean encode(byte[] b, int off, int len, boolean async) throws IOException
+   {
+      if (finished) throw new IOException("write beyond end of stream");
+      if (len == 0) return false;
+      if (deflater == null)
+      {
+         if (pendingCount + len <= minSize)
+         {
+            if (pending == null) pending = new byte[Math.min(minSize, Math.max(len, 512))];
+            else if (pendingCount + len > pending.length) pending = Arrays.copyOf(pending, Math.min(minSize, Math.max(pendingCount + len, pending.length << 1)));
+            System.arraycopy(b, off, pending, pendingCount, len);
+            pendingCount += len;
+            return false;
+         }
+         deflater = pool.acquire();
+         allocateBuffer(async ? len / 2 : 0);
+         System.arraycopy(HEADER, 0, buffer, 0, HEADER.length);
+         count = HEADER.length;
+         if (pendingCount > 0)
+         {
+            deflate(pending, 0, pendingCount, async);
+            pending = null;
+         }
+      }
+      allocateBuffer(async ? len / 2 : 0);
+      deflate(b, off, len, async);
+      return count > 0;
+   }
+
+   private void deflate(byte[] b, int off, int len, boolean async) throws IOException
+   {
+      crc.update(b, off, len);
+      deflater.setInput(b, off, len);
+      while (!deflater.needsInput())
+      {
+         drain(async);
+      }
+   }
+
+   /**
+    * Writes the output of the Deflater to the buffer.  Blocking writes hand full buffers to the wrapped stream,
+    * asynchronous ones grow the buffer so that it is written at once.
+    */
+   private void drain(boolean async) throws IOException
+   {
+      if (count == buffer.length)
+      {
+         if (async)
+         {
+            buffer = Arrays.copyOf(buffer, buffer.length << 1);
+         }
+         else
+         {
+            writeBuffer();
+         }
+      }
+      count += deflater.deflate(buffer, count, buffer.length - count);
+   }
+
+   /**
+    * @return true if there is output to write
+    */
+   private boolean finish0() throws IOException
+   {
+      if (finished) return false;
+      if (deflater == null)
+      {
+         finished = true;
+         if (pendingCount == 0 && minSize == 0) return false;
+         if (uncompressed != null) uncompressed.run();
+         buffer = pending == null ? new byte[0] : pending;
+         count = pendingCount;
+         pending = null;
+         return count > 0;
+      }
+      allocateBuffer(0);
+      deflater.finish();
+      while (!deflater.finished())
+      {
+         drain(delegate instanceof AsyncOutputStream);
+      }
+      if (buffer.length - count < 8) buffer = Arrays.copyOf(buffer, count + 8);
+      writeInt((int) crc.getValue());
+      writeInt((int) deflater.getBytesRead());
+      finished = true;
+      pool.release(deflater);
+      deflater = null;
+      return true;
+   }
+
+   private void allocateBuffer(int size)
+   {
+      if (buffer == null)
+      {
+         buffer = new byte[Math.max(CHUNK_SIZE, size)];
+      }
+   }
+
+   private void writeInt(int i)
+   {
+      buffer[count++] = (byte) i;
+      buffer[count++] = (byte) (i >> 8);
+      buffer[count++] = (byte) (i >> 16);
+      buffer[count++] = (byte) (i >> 24);
+   }
+
+   private void writeBuffer() throws IOException
+   {
+      delegate.write(buffer, 0, count);
+      count = 0;
+   }
+
+   private CompletionStage<Void> asyncWriteBuffer()
+   {
+      if (!(delegate instanceof AsyncOutputStream))
+      {
+         try
+         {
+            writeBuffer();
+            return DONE;
+         }
+         catch (IOException e)
+         {
+            CompletableFuture<Void> ret = new CompletableFuture<>();
+            ret.completeExceptionally(e);
+            return ret;
+         }
+      }
+      // the wrapped stream may keep the array until the write completes, the next writes use a new one
+      byte[] bytes = buffer;
+      int length = count;
+      buffer = null;
+      count = 0;
+      return ((AsyncOutputStream) delegate).asyncWrite(bytes, 0, length);
+   }
+}
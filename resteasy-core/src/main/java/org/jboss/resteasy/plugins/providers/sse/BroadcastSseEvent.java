@@ -0,0 +1,126 @@
+package org.jboss.resteasy.plugins.providers.sse;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.sse.OutboundSseEvent;
+
+/**
+ * Event sent by an {@link SseBroadcasterImpl} to all of its sinks.  The first sink to write it keeps the encoded
+ * event, the other sinks write the same bytes as long as they resolve the same media type.
+ */
+final class BroadcastSseEvent implements OutboundSseEvent
+{
+   interface Encoder
+   {
+      byte[] encode(OutboundSseEvent event, MediaType mediaType) throws IOException;
+   }
+
+   private static final class Encoded
+   {
+      final MediaType mediaType;
+      final byte[] bytes;
+
+      Encoded(final MediaType mediaType, final byte[] bytes)
+      {
+         this.mediaType = mediaType;
+         this.bytes = bytes;
+      }
+   }
+
+   private final OutboundSseEvent event;
+   private volatile Encoded encoded;
+
+   BroadcastSseEvent(final OutboundSseEvent event)
+   {
+      this.event = event;
+   }
+
+   OutboundSseEvent getEvent()
+   {
+      return event;
+   }
+
+   byte[] getBytes(MediaType mediaType, Encoder encoder) throws IOException
+   {
+      Encoded e = encoded;
+      if (e != null && e.mediaType.equals(mediaType))
+      {
+         return e.bytes;
+      }
+      synchronized (this)
+      {
+         e = encoded;
+         if (e != null)
+         {
+            if (e.mediaType.equals(mediaType)) return e.bytes;
+            // only the first media type is kept, sinks of another element type encode their own copy
+            return encoder.encode(event, mediaType);
+         }
+         byte[] bytes = encoder.encode(event, mediaType);
+         encoded = new Encoded(mediaType, bytes);
+         return bytes;
+      }
+   }
+
+   @Override
+   public Class<?> getType()
+   {
+      return event.getType();
+   }
+
+   @Override
+   public Type getGenericType()
+   {
+      return event.getGenericType();
+   }
+
+   @Override
+   public MediaType getMediaType()
+   {
+      return event.getMediaType();
+   }
+
+   @Override
+   public Object getData()
+   {
+      return event.getData();
+   }
+
+   @Override
+   public String getId()
+   {
+      return event.getId();
+   }
+
+   @Override
+   public String getName()
+   {
+      return event.getName();
+   }
+
+   @Override
+   public String getComment()
+   {
+      return event.getComment();
+   }
+
+   @Override
+   public long getReconnectDelay()
+   {
+      return event.getReconnectDelay();
+   }
+
+   @Override
+   public boolean isReconnectDelaySet()
+   {
+      return event.isReconnectDelaySet();
+   }
+
+   @Override
+   public String toString()
+   {
+      return event.toString();
+   }
+}
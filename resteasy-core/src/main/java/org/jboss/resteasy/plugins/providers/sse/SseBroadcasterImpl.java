@@ -1,6 +1,7 @@
 package org.jboss.resteasy.plugins.providers.sse;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
@@ -17,8 +18,16 @@ import javax.ws.rs.sse.OutboundSseEvent;
 import javax.ws.rs.sse.SseBroadcaster;
 import javax.ws.rs.sse.SseEventSink;
 
+import org.jboss.resteasy.plugins.server.servlet.ResteasyContextParameters;
 import org.jboss.resteasy.resteasy_jaxrs.i18n.Messages;
 
+/**
+ * Broadcasts each event to all the registered sinks at once.  The event is encoded by the first sink that writes
+ * it, the others write the same bytes.  An {@link SseEventOutputImpl} queues the events it is sent, so a slow
+ * client does not delay the others; the size of its queue and what happens when it is full are set with the
+ * {@value ResteasyContextParameters#RESTEASY_SSE_SINK_QUEUE_SIZE} and
+ * {@value ResteasyContextParameters#RESTEASY_SSE_SINK_OVERFLOW_POLICY} configuration properties.
+ */
 public class SseBroadcasterImpl implements SseBroadcaster
 {
    private ConcurrentLinkedQueue<SseEventSink> outputQueue = new ConcurrentLinkedQueue<>();
@@ -141,31 +150,105 @@ public class SseBroadcasterImpl implements SseBroadcaster
    public CompletionStage<?> broadcast(OutboundSseEvent event)
    {
       checkClosed();
-      CompletionStage<?> ret = CompletableFuture.completedFuture(null);
+      BroadcastSseEvent broadcastEvent = new BroadcastSseEvent(event);
+      List<CompletableFuture<?>> sent = new ArrayList<>();
+      // send() only queues the event, each sink writes it at its own pace
       for (SseEventSink eventSink : outputQueue)
       {
-         ret = ret.thenCompose(v -> {
-            try {
-               return eventSink.send(event)
-                     .exceptionally(err -> {
-                        // do not propagate the exception to the returned CF
-                        // apparently, the goal is to close this sink and not report the error
-                        // of the broadcast operation
-                        notifyOnErrorListeners(eventSink, err);
-                        return null;
-                     });
-            }
-            catch (Exception e)
-            {
-               // do not propagate the exception to the returned CF
-               // apparently, the goal is to close this sink and not report the error
-               // of the broadcast operation
-               notifyOnErrorListeners(eventSink, e);
-               return CompletableFuture.completedFuture(null);
-            }
-         });
+         CompletionStage<?> ret;
+         try
+         {
+            ret = eventSink.send(broadcastEvent)
+                  .exceptionally(err -> {
+                     // do not propagate the exception to the returned CF
+                     // apparently, the goal is to close this sink and not report the error
+                     // of the broadcast operation
+                     notifyOnErrorListeners(eventSink, err);
+                     return null;
+                  });
+         }
+         catch (Exception e)
+         {
+            notifyOnErrorListeners(eventSink, e);
+            continue;
+         }
+         sent.add(ret.toCompletableFuture());
+      }
+      return CompletableFuture.allOf(sent.toArray(new CompletableFuture<?>[0]));
+   }
+
+   /**
+    * @return number of events waiting to be written to the sink, -1 if it is not registered or does not queue
+    * its events
+    */
+   public int getQueueDepth(SseEventSink eventSink)
+   {
+      return eventSink instanceof SseEventOutputImpl && outputQueue.contains(eventSink)
+            ? ((SseEventOutputImpl) eventSink).getQueuedEventCount() : -1;
+   }
+
+   /**
+    * @return largest number of events waiting to be written to one of the registered sinks
+    */
+   public int getMaxQueueDepth()
+   {
+      int max = 0;
+      for (SseEventSink eventSink : outputQueue)
+      {
+         if (eventSink instanceof SseEventOutputImpl)
+         {
+            max = Math.max(max, ((SseEventOutputImpl) eventSink).getQueuedEventCount());
+         }
       }
-      return ret;
+      return max;
    }
 
+   /**
+    * @return number of events waiting to be written to the registered sinks
+    */
+   public long getQueuedEventCount()
+   {
+      long count = 0;
+      for (SseEventSink eventSink : outputQueue)
+      {
+         if (eventSink instanceof SseEventOutputImpl)
+         {
+            count += ((SseEventOutputImpl) eventSink).getQueuedEventCount();
+         }
+      }
+      return count;
+   }
+
+   /**
+    * @return number of events that the registered sinks discarded because their queue was full
+    */
+   public long getDroppedEventCount()
+   {
+      long count = 0;
+      for (SseEventSink eventSink : outputQueue)
+      {
+         if (eventSink instanceof SseEventOutputImpl)
+         {
+            count += ((SseEventOutputImpl) eventSink).getDroppedEventCount();
+         }
+      }
+      return count;
+   }
+
+   /**
+    * @return number of events that the registered sinks replaced by a newer event of the same name while waiting
+    * to be written
+    */
+   public long getCoalescedEventCount()
+   {
+      long count = 0;
+      for (SseEventSink eventSink : outputQueue)
+      {
+         if (eventSink instanceof SseEventOutputImpl)
+         {
+            count += ((SseEventOutputImpl) eventSink).getCoalescedEventCount();
+         }
+      }
+      return count;
+   }
 }
@@ -5,11 +5,13 @@ import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
 
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.Produces;
@@ -29,6 +31,8 @@ import org.jboss.resteasy.core.ServerResponseWriter;
 import org.jboss.resteasy.plugins.server.Cleanable;
 import org.jboss.resteasy.plugins.server.Cleanables;
 import org.jboss.resteasy.core.SynchronousDispatcher;
+import org.jboss.resteasy.microprofile.config.ResteasyConfigProvider;
+import org.jboss.resteasy.plugins.server.servlet.ResteasyContextParameters;
 import org.jboss.resteasy.resteasy_jaxrs.i18n.LogMessages;
 import org.jboss.resteasy.resteasy_jaxrs.i18n.Messages;
 import org.jboss.resteasy.specimpl.BuiltResponse;
@@ -39,6 +43,14 @@ import org.jboss.resteasy.spi.ResteasyAsynchronousContext;
 import org.jboss.resteasy.spi.ResteasyAsynchronousResponse;
 import org.jboss.resteasy.spi.ResteasyProviderFactory;
 
+/**
+ * Events sent to the sink are encoded by the sending thread and written one at a time from a bounded queue.  The
+ * size of the queue and what happens when it is full are set with the
+ * {@value ResteasyContextParameters#RESTEASY_SSE_SINK_QUEUE_SIZE},
+ * {@value ResteasyContextParameters#RESTEASY_SSE_SINK_QUEUE_MAX_BYTES} and
+ * {@value ResteasyContextParameters#RESTEASY_SSE_SINK_OVERFLOW_POLICY} configuration properties; producers can wait
+ * for {@link #whenReady()} instead of overflowing it.
+ */
 public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements SseEventSink
 {
    private static final Logger LOG = Logger.getLogger(SseEventOutputImpl.class);
@@ -54,14 +66,26 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
 
    private final Map<Class<?>, Object> contextDataMap;
 
-   private boolean responseFlushed = false;
+   private volatile boolean responseFlushed = false;
 
    private final Object lock = new Object();
 
+   private final int queueSize;
+
+   private final long queueMaxBytes;
+
+   private final SseOverflowPolicy overflowPolicy;
+
+   private final LongAdder droppedEvents = new LongAdder();
+
+   private final LongAdder coalescedEvents = new LongAdder();
+
+   private final SseEventQueue queue;
+
    public SseEventOutputImpl(final MessageBodyWriter<OutboundSseEvent> writer)
    {
       this.writer = writer;
-      contextDataMap = ResteasyContext.getContextDataMap();
+      contextDataMap = ResteasyContext.captureContextDataMap();
 
       request = ResteasyContext.getContextData(org.jboss.resteasy.spi.HttpRequest.class);
       asyncContext = request.getAsyncContext();
@@ -79,8 +103,27 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
       }
 
       response = ResteasyContext.getContextData(HttpResponse.class);
+
+      queueSize = Integer.parseInt(getConfig(ResteasyContextParameters.RESTEASY_SSE_SINK_QUEUE_SIZE,
+            String.valueOf(Integer.MAX_VALUE)));
+      queueMaxBytes = Long.parseLong(getConfig(ResteasyContextParameters.RESTEASY_SSE_SINK_QUEUE_MAX_BYTES,
+            String.valueOf(Long.MAX_VALUE)));
+      overflowPolicy = SseOverflowPolicy.valueOf(getConfig(ResteasyContextParameters.RESTEASY_SSE_SINK_OVERFLOW_POLICY,
+            SseOverflowPolicy.DROP.name()).toUpperCase(Locale.ENGLISH));
+      queue = new SseEventQueue(queueSize, queueMaxBytes, overflowPolicy, this::writeEncoded, () -> close(false),
+            droppedEvents, coalescedEvents);
    }
 
+   private static String getConfig(String name, String defaultValue)
+   {
+      return ResteasyConfigProvider.getConfig().getOptionalValue(name, String.class).orElse(defaultValue);
+   }
+
+   /**
+    * Closes the sink.  If no event is waiting to be written, the response is flushed and completed before this
+    * method returns.  Otherwise the sink is closed at once, but the response is only flushed and completed once
+    * the queued events are written, asynchronously: this method does not wait for it.
+    */
    @Override
    public void close()
    {
@@ -89,6 +132,19 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
 
    protected void close(boolean flushBeforeClose)
    {
+      if (flushBeforeClose)
+      {
+         CompletableFuture<Void> written = queue.whenWritten().toCompletableFuture();
+         if (!written.isDone())
+         {
+            // never block the thread which completes the last write, it may be the one that has to flush
+            closed = true;
+            written.thenCompose(v -> flushAsync())
+                  .whenComplete((v, t) -> close(false));
+            return;
+         }
+      }
+      queue.close(new IllegalStateException(Messages.MESSAGES.sseEventSinkIsClosed()));
       synchronized (lock)
       {
          closed = true;
@@ -128,6 +184,28 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
       }
    }
 
+   private CompletionStage<Void> flushAsync()
+   {
+      if (!responseFlushed)
+      {
+         return CompletableFuture.completedFuture(null);
+      }
+      ResteasyContext.pushContextDataMap(contextDataMap);
+      try
+      {
+         return response.getAsyncOutputStream().asyncFlush();
+      }
+      catch (IOException e)
+      {
+         // ignore it and let's just close
+         return CompletableFuture.completedFuture(null);
+      }
+      finally
+      {
+         ResteasyContext.removeContextDataLevel();
+      }
+   }
+
    public void clearContextData()
    {
       Map<Class<?>, Object> map = ResteasyContext.getContextDataMap(false);
@@ -156,6 +234,10 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
 
    private CompletionStage<Void> internalFlushResponseToClient(boolean throwIOException)
    {
+      if (responseFlushed)
+      {
+         return CompletableFuture.completedFuture(null);
+      }
       synchronized (lock)
       {
          if (!responseFlushed)
@@ -273,118 +355,219 @@ public class SseEventOutputImpl extends GenericType<OutboundSseEvent> implements
    @Override
    public CompletionStage<?> send(OutboundSseEvent event)
    {
-      synchronized (lock)
+      if (closed)
       {
-         if (closed)
-         {
-            // FIXME: should be this
-//            CompletableFuture<?> ret = new CompletableFuture<>();
-//            ret.completeExceptionally(new IllegalStateException(Messages.MESSAGES.sseEventSinkIsClosed()));
-//            return ret;
-            // But the TCK expects a real exception
-            throw new IllegalStateException(Messages.MESSAGES.sseEventSinkIsClosed());
-         }
-         // eager composition to guarantee ordering
-         CompletionStage<Void> a = internalFlushResponseToClient(true);
-         CompletionStage<Void> b = writeEvent(event);
-         return a.thenCompose(v -> b);
+         // FIXME: should be this
+//         CompletableFuture<?> ret = new CompletableFuture<>();
+//         ret.completeExceptionally(new IllegalStateException(Messages.MESSAGES.sseEventSinkIsClosed()));
+//         return ret;
+         // But the TCK expects a real exception
+         throw new IllegalStateException(Messages.MESSAGES.sseEventSinkIsClosed());
       }
+      // eager composition to guarantee ordering
+      CompletionStage<Void> a = internalFlushResponseToClient(true);
+      CompletionStage<Void> b = writeEvent(event);
+      return a.thenCompose(v -> b);
+   }
+
+   /**
+    * Backpressure signal: a producer which waits for it before sending the next event does not overflow the queue
+    * of this sink.
+    *
+    * @return completed once the queue has room for another event, completed exceptionally once the sink is closed
+    */
+   public CompletionStage<Void> whenReady()
+   {
+      return queue.whenReady();
+   }
+
+   /**
+    * @return number of events waiting to be written
+    */
+   public int getQueuedEventCount()
+   {
+      return queue.getDepth();
+   }
+
+   /**
+    * @return size in bytes of the events waiting to be written
+    */
+   public long getQueuedBytes()
+   {
+      return queue.getQueuedBytes();
    }
 
+   /**
+    * @return number of events discarded because the queue was full
+    */
+   public long getDroppedEventCount()
+   {
+      return droppedEvents.sum();
+   }
+
+   /**
+    * @return number of events replaced by a newer event of the same name while waiting to be written
+    */
+   public long getCoalescedEventCount()
+   {
+      return coalescedEvents.sum();
+   }
+
+   public int getQueueSize()
+   {
+      return queueSize;
+   }
+
+   public long getQueueMaxBytes()
+   {
+      return queueMaxBytes;
+   }
+
+   public SseOverflowPolicy getOverflowPolicy()
+   {
+      return overflowPolicy;
+   }
+
+   /**
+    * Encodes the event and queues it.
+    *
+    * @param event event
+    * @return completed once the event is written, or was discarded
+    */
    protected CompletionStage<Void> writeEvent(OutboundSseEvent event)
    {
-      synchronized (lock)
+      ResteasyContext.pushContextDataMap(contextDataMap);
+      try
       {
-         ResteasyContext.pushContextDataMap(contextDataMap);
-         try
+         if (event != null)
          {
-            if (event != null)
+            //// Check media type?
+            OutboundSseEvent source = event instanceof BroadcastSseEvent ? ((BroadcastSseEvent) event).getEvent() : event;
+            MediaType mediaType = source.getMediaType();
+            boolean mediaTypeSet = source instanceof OutboundSseEventImpl ? ((OutboundSseEventImpl) source).isMediaTypeSet() : true;
+            if (mediaType == null || !mediaTypeSet)
             {
-               //// Check media type?
-               ByteArrayOutputStream bout = new ByteArrayOutputStream();
-               MediaType mediaType = event.getMediaType();
-               boolean mediaTypeSet = event instanceof OutboundSseEventImpl ? ((OutboundSseEventImpl) event).isMediaTypeSet() : true;
-               if (mediaType == null || !mediaTypeSet)
+               Object o = response.getOutputHeaders().getFirst("Content-Type");
+               if (o != null)
                {
-                  Object o = response.getOutputHeaders().getFirst("Content-Type");
-                  if (o != null)
+                  if (o instanceof MediaType)
                   {
-                     if (o instanceof MediaType)
+                     MediaType mt = (MediaType) o;
+                     String s = mt.getParameters().get(SseConstants.SSE_ELEMENT_MEDIA_TYPE);
+                     if (s != null)
                      {
-                        MediaType mt = (MediaType) o;
-                        String s = mt.getParameters().get(SseConstants.SSE_ELEMENT_MEDIA_TYPE);
-                        if (s != null)
-                        {
-                           mediaType = MediaType.valueOf(s);
-                        }
+                        mediaType = MediaType.valueOf(s);
                      }
-                     else if (o instanceof String)
-                     {
-                        MediaType mt = MediaType.valueOf((String) o);
-                        String s = mt.getParameters().get(SseConstants.SSE_ELEMENT_MEDIA_TYPE);
-                        if (s != null)
-                        {
-                           mediaType = MediaType.valueOf(s);
-                        }
-                     }
-                     else
+                  }
+                  else if (o instanceof String)
+                  {
+                     MediaType mt = MediaType.valueOf((String) o);
+                     String s = mt.getParameters().get(SseConstants.SSE_ELEMENT_MEDIA_TYPE);
+                     if (s != null)
                      {
-                        throw new RuntimeException(Messages.MESSAGES.expectedStringOrMediaType(o));
+                        mediaType = MediaType.valueOf(s);
                      }
                   }
+                  else
+                  {
+                     throw new RuntimeException(Messages.MESSAGES.expectedStringOrMediaType(o));
+                  }
                }
-               if (mediaType == null)
-               {
-                  mediaType = MediaType.TEXT_PLAIN_TYPE;
-               }
-               if (event instanceof OutboundSseEventImpl)
-               {
-                  ((OutboundSseEventImpl) event).setMediaType(mediaType);
-               }
-               writer.writeTo(event, event.getClass(), null, new Annotation[]{}, mediaType, null, bout);
-               AsyncOutputStream aos = response.getAsyncOutputStream();
-               // eager composition to guarantee ordering
-               CompletionStage<Void> a = aos.asyncWrite(bout.toByteArray());
-               CompletionStage<Void> b = aos.asyncFlush();
-               return a
-                     .thenCompose(v -> b)
-                     .exceptionally(e -> {
-                        if(e instanceof CompletionException)
-                           e = e.getCause();
-                        if(e instanceof IOException)
-                           close(false);
-                        LogMessages.LOGGER.failedToWriteSseEvent(event.toString(), e);
-                        SynchronousDispatcher.rethrow(e);
-                        // never reached
-                        return null;
-                     });
             }
+            if (mediaType == null)
+            {
+               mediaType = MediaType.TEXT_PLAIN_TYPE;
+            }
+            // a broadcast event is only encoded by the first sink
+            byte[] bytes = event instanceof BroadcastSseEvent
+                  ? ((BroadcastSseEvent) event).getBytes(mediaType, this::encode)
+                  : encode(event, mediaType);
+            return queue.offer(event, bytes);
          }
-         catch (IOException e)
-         {
-            //The connection could be broken or closed. whenever IO error happens, mark closed to true to
-            //stop event writing
-            close(false);
-            LogMessages.LOGGER.failedToWriteSseEvent(event.toString(), e);
-            CompletableFuture<Void> ret = new CompletableFuture<>();
-            ret.completeExceptionally(e);
-            return ret;
-         }
-         catch (Exception e)
-         {
-            LogMessages.LOGGER.failedToWriteSseEvent(event.toString(), e);
-            CompletableFuture<Void> ret = new CompletableFuture<>();
-            ret.completeExceptionally(new ProcessingException(e));
-            return ret;
-         }
-         finally
-         {
-            ResteasyContext.removeContextDataLevel();
-         }
+      }
+      catch (IOException e)
+      {
+         //The connection could be broken or closed. whenever IO error happens, mark closed to true to
+         //stop event writing
+         close(false);
+         LogMessages.LOGGER.failedToWriteSseEvent(event.toString(), e);
+         CompletableFuture<Void> ret = new CompletableFuture<>();
+         ret.completeExceptionally(e);
+         return ret;
+      }
+      catch (Exception e)
+      {
+         LogMessages.LOGGER.failedToWriteSseEvent(event.toString(), e);
+         CompletableFuture<Void> ret = new CompletableFuture<>();
+         ret.completeExceptionally(new ProcessingException(e));
+         return ret;
+      }
+      finally
+      {
+         ResteasyContext.removeContextDataLevel();
       }
       return CompletableFuture.completedFuture(null);
    }
 
+   /**
+    * Called by the queue, one event at a time.
+    */
+   private CompletionStage<Void> writeEncoded(OutboundSseEvent event, byte[] bytes)
+   {
+      ResteasyContext.pushContextDataMap(contextDataMap);
+      try
+      {
+         AsyncOutputStream aos = response.getAsyncOutputStream();
+         // eager composition to guarantee ordering
+         CompletionStage<Void> a = aos.asyncWrite(bytes);
+         CompletionStage<Void> b = aos.asyncFlush();
+         return a
+               .thenCompose(v -> b)
+               .exceptionally(e -> {
+                  if(e instanceof CompletionException)
+                     e = e.getCause();
+                  if(e instanceof IOException)
+                     close(false);
+                  LogMessages.LOGGER.failedToWriteSseEvent(event.toString(), e);
+                  SynchronousDispatcher.rethrow(e);
+                  // never reached
+                  return null;
+               });
+      }
+      catch (IOException e)
+      {
+         //The connection could be broken or closed. whenever IO error happens, mark closed to true to
+         //stop event writing
+         close(false);
+         LogMessages.LOGGER.failedToWriteSseEvent(event.toString(), e);
+         CompletableFuture<Void> ret = new CompletableFuture<>();
+         ret.completeExceptionally(e);
+         return ret;
+      }
+      finally
+      {
+         ResteasyContext.removeContextDataLevel();
+      }
+   }
+
+   private byte[] encode(OutboundSseEvent event, MediaType mediaType) throws IOException
+   {
+      // the data is written with the media type of the event, not the one the writer is given
+      OutboundSseEvent source = event instanceof BroadcastSseEvent ? ((BroadcastSseEvent) event).getEvent() : event;
+      if (source instanceof OutboundSseEventImpl)
+      {
+         ((OutboundSseEventImpl) source).setMediaType(mediaType);
+      }
+      else if (!mediaType.equals(source.getMediaType()))
+      {
+         source = new OutboundSseEventImpl(source.getName(), source.getId(), source.getReconnectDelay(),
+               source.getType(), source.getGenericType(), mediaType, source.getData(), source.getComment());
+      }
+      ByteArrayOutputStream bout = new ByteArrayOutputStream();
+      writer.writeTo(source, source.getClass(), null, new Annotation[]{}, mediaType, null, bout);
+      return bout.toByteArray();
+   }
+
    private String[] getStreamType(ResourceMethodInvoker method)
    {
       Stream stream = method.getMethod().getAnnotation(Stream.class);
@@ -0,0 +1,355 @@
+package org.jboss.resteasy.plugins.providers.sse;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+
+import org.jboss.resteasy.resteasy_jaxrs.i18n.Messages;
+
+/**
+ * Bounded queue of the events to write to one sink.  Events are written one at a time, in order, each one once the
+ * previous write completed, so that a slow client only delays its own events.  The queue is bounded by a number of
+ * events and, for events offered already encoded, by their size in bytes.  When the queue is full the
+ * {@link SseOverflowPolicy} applies; producers which would rather wait can use {@link #whenReady()}.
+ * <p>
+ * Offering an event never blocks, the thread that completes a write goes on with the next pending event.
+ */
+class SseEventQueue
+{
+   private static final CompletionStage<Void> DONE = CompletableFuture.completedFuture(null);
+
+   private static final class Payload
+   {
+      final OutboundSseEvent event;
+      final byte[] bytes;
+
+      Payload(final OutboundSseEvent event, final byte[] bytes)
+      {
+         this.event = event;
+         this.bytes = bytes;
+      }
+
+      int size()
+      {
+         return bytes == null ? 0 : bytes.length;
+      }
+   }
+
+   private static final class Item
+   {
+      // set to null once the event is being written or was discarded
+      final AtomicReference<Payload> payload;
+      final CompletableFuture<Void> written = new CompletableFuture<>();
+
+      Item(final Payload payload)
+      {
+         this.payload = new AtomicReference<>(payload);
+      }
+   }
+
+   private final ConcurrentLinkedQueue<Item> items = new ConcurrentLinkedQueue<>();
+   private final ConcurrentLinkedQueue<CompletableFuture<Void>> waiters = new ConcurrentLinkedQueue<>();
+   private final AtomicInteger depth = new AtomicInteger();
+   private final AtomicLong queuedBytes = new AtomicLong();
+   private final AtomicBoolean writing = new AtomicBoolean();
+   private final int capacity;
+   private final long maxBytes;
+   private final SseOverflowPolicy policy;
+   private final BiFunction<OutboundSseEvent, byte[], CompletionStage<?>> writer;
+   private final Runnable disconnect;
+   private final LongAdder dropped;
+   private final LongAdder coalesced;
+   private volatile CompletableFuture<Void> last;
+   private volatile boolean disconnected;
+
+   /**
+    * @param writer writes an event to the sink
+    * @param disconnect closes the sink, for the {@link SseOverflowPolicy#DISCONNECT} policy
+    * @param dropped incremented for each event discarded
+    * @param coalesced incremented for each event replaced by a newer one
+    */
+   SseEventQueue(final int capacity, final SseOverflowPolicy policy, final Function<OutboundSseEvent, CompletionStage<?>> writer,
+                 final Runnable disconnect, final LongAdder dropped, final LongAdder coalesced)
+   {
+      this(capacity, Long.MAX_VALUE, policy, (event, bytes) -> writer.apply(event), disconnect, dropped, coalesced);
+   }
+
+   /**
+    * @param maxBytes maximum size of the encoded events waiting to be written, a single event is always accepted
+    * @param writer writes an event, and its encoding if it was offered with one, to the sink
+    * @param disconnect closes the sink, for the {@link SseOverflowPolicy#DISCONNECT} policy
+    * @param dropped incremented for each event discarded
+    * @param coalesced incremented for each event replaced by a newer one
+    */
+   SseEventQueue(final int capacity, final long maxBytes, final SseOverflowPolicy policy,
+                 final BiFunction<OutboundSseEvent, byte[], CompletionStage<?>> writer,
+                 final Runnable disconnect, final LongAdder dropped, final LongAdder coalesced)
+   {
+      this.capacity = capacity;
+      this.maxBytes = maxBytes;
+      this.policy = policy;
+      this.writer = writer;
+      this.disconnect = disconnect;
+      this.dropped = dropped;
+      this.coalesced = coalesced;
+   }
+
+   /**
+    * @return completed once the event is written, or was discarded or replaced according to the overflow policy;
+    * completed exceptionally if writing failed or the sink was disconnected
+    */
+   CompletionStage<Void> offer(OutboundSseEvent event)
+   {
+      return offer(event, null);
+   }
+
+   /**
+    * @param event event
+    * @param bytes encoding of the event, may be null
+    * @return see {@link #offer(OutboundSseEvent)}
+    */
+   CompletionStage<Void> offer(OutboundSseEvent event, byte[] bytes)
+   {
+      if (disconnected)
+      {
+         return closed();
+      }
+      Payload payload = new Payload(event, bytes);
+      int size = payload.size();
+      int d = depth.incrementAndGet();
+      long b = queuedBytes.addAndGet(size);
+      if (d > capacity || (b > maxBytes && d > 1))
+      {
+         depth.decrementAndGet();
+         queuedBytes.addAndGet(-size);
+         switch (policy)
+         {
+            case COALESCE:
+               CompletionStage<Void> replaced = coalesce(payload);
+               if (replaced != null)
+               {
+                  return replaced;
+               }
+               // make room by discarding the oldest pending events
+               while (!fits(size))
+               {
+                  Item oldest = items.poll();
+                  if (oldest == null) break;
+                  depth.decrementAndGet();
+                  Payload discarded = oldest.payload.getAndSet(null);
+                  if (discarded != null) queuedBytes.addAndGet(-discarded.size());
+                  dropped.increment();
+                  oldest.written.complete(null);
+               }
+               depth.incrementAndGet();
+               queuedBytes.addAndGet(size);
+               break;
+            case DISCONNECT:
+               disconnected = true;
+               discardPending(null);
+               disconnect.run();
+               return closed();
+            default:
+               dropped.increment();
+               return DONE;
+         }
+      }
+      Item item = new Item(payload);
+      items.add(item);
+      last = item.written;
+      drain();
+      return item.written;
+   }
+
+   private boolean fits(int size)
+   {
+      int d = depth.get();
+      return d < capacity && (d == 0 || queuedBytes.get() + size <= maxBytes);
+   }
+
+   private CompletionStage<Void> coalesce(Payload payload)
+   {
+      String name = payload.event.getName();
+      if (name == null)
+      {
+         return null;
+      }
+      for (Item item : items)
+      {
+         Payload pending = item.payload.get();
+         // fails if the pending event is being written
+         if (pending != null && name.equals(pending.event.getName()) && item.payload.compareAndSet(pending, payload))
+         {
+            queuedBytes.addAndGet(payload.size() - pending.size());
+            coalesced.increment();
+            return item.written;
+         }
+      }
+      return null;
+   }
+
+   private void drain()
+   {
+      while (writing.compareAndSet(false, true))
+      {
+         Item item = items.poll();
+         if (item == null)
+         {
+            writing.set(false);
+            // an event may have been added after the poll, before writing was reset
+            if (items.isEmpty()) return;
+            continue;
+         }
+         depth.decrementAndGet();
+         Payload payload = item.payload.getAndSet(null);
+         queuedBytes.addAndGet(-payload.size());
+         if (!waiters.isEmpty()) signal();
+         CompletableFuture<?> written;
+         try
+         {
+            written = writer.apply(payload.event, payload.bytes).toCompletableFuture();
+         }
+         catch (RuntimeException e)
+         {
+            written = failed(e);
+         }
+         if (written.isDone())
+         {
+            written.whenComplete((v, t) -> complete(item, t));
+            writing.set(false);
+         }
+         else
+         {
+            written.whenComplete((v, t) -> {
+               complete(item, t);
+               writing.set(false);
+               drain();
+            });
+            return;
+         }
+      }
+   }
+
+   /**
+    * Backpressure signal for producers: they may wait for it before offering the next event, so that it is not
+    * subject to the overflow policy.
+    *
+    * @return completed once the queue has room for another event, completed exceptionally if the sink is
+    * disconnected
+    */
+   CompletionStage<Void> whenReady()
+   {
+      if (disconnected)
+      {
+         return closed();
+      }
+      if (fits(0))
+      {
+         return DONE;
+      }
+      CompletableFuture<Void> waiter = new CompletableFuture<>();
+      waiters.add(waiter);
+      // room may have been made, or the queue closed, before the waiter was added
+      if (disconnected || fits(0)) signal();
+      return waiter;
+   }
+
+   private void signal()
+   {
+      if (disconnected)
+      {
+         for (CompletableFuture<Void> waiter; (waiter = waiters.poll()) != null; )
+         {
+            waiter.completeExceptionally(new IllegalStateException(Messages.MESSAGES.sseEventSinkIsClosed()));
+         }
+         return;
+      }
+      // like a writability change, all the waiting producers are let through at once
+      while (fits(0))
+      {
+         CompletableFuture<Void> waiter = waiters.poll();
+         if (waiter == null) return;
+         waiter.complete(null);
+      }
+   }
+
+   /**
+    * @return completed once the events offered so far are written, discarded or failed
+    */
+   CompletionStage<Void> whenWritten()
+   {
+      CompletableFuture<Void> written = last;
+      return written == null ? DONE : written.handle((v, t) -> null);
+   }
+
+   /**
+    * Rejects the events offered from now on and discards the pending ones.
+    *
+    * @param cause the pending events complete exceptionally with it, or normally if null
+    */
+   void close(Throwable cause)
+   {
+      disconnected = true;
+      discardPending(cause);
+   }
+
+   private void discardPending(Throwable cause)
+   {
+      for (Item item; (item = items.poll()) != null; )
+      {
+         depth.decrementAndGet();
+         Payload discarded = item.payload.getAndSet(null);
+         if (discarded != null) queuedBytes.addAndGet(-discarded.size());
+         complete(item, cause);
+      }
+      signal();
+   }
+
+   private static void complete(Item item, Throwable t)
+   {
+      if (t == null) item.written.complete(null);
+      else item.written.completeExceptionally(t);
+   }
+
+   private static CompletableFuture<Void> closed()
+   {
+      return failed(new IllegalStateException(Messages.MESSAGES.sseEventSinkIsClosed()));
+   }
+
+   private static CompletableFuture<Void> failed(Throwable t)
+   {
+      CompletableFuture<Void> ret = new CompletableFuture<>();
+      ret.completeExceptionally(t);
+      return ret;
+   }
+
+   /**
+    * @return number of events waiting to be written
+    */
+   int getDepth()
+   {
+      return depth.get();
+   }
+
+   /**
+    * @return size of the encoded events waiting to be written
+    */
+   long getQueuedBytes()
+   {
+      return queuedBytes.get();
+   }
+
+   boolean isDisconnected()
+   {
+      return disconnected;
+   }
+}
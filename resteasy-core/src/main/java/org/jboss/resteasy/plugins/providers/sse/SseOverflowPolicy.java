@@ -0,0 +1,24 @@
+package org.jboss.resteasy.plugins.providers.sse;
+
+/**
+ * What happens to an event sent to an SseEventSink whose queue of pending events is full, because the client
+ * does not read them as fast as they are produced.
+ */
+public enum SseOverflowPolicy
+{
+   /**
+    * The event is discarded.
+    */
+   DROP,
+
+   /**
+    * A pending event with the same name is replaced by the new one, so the client only receives the latest
+    * event of each name.  If there is none the oldest pending event is discarded.
+    */
+   COALESCE,
+
+   /**
+    * The sink is closed.
+    */
+   DISCONNECT
+}
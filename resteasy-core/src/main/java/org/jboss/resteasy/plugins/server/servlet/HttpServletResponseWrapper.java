@@ -266,7 +266,7 @@ public class HttpServletResponseWrapper implements HttpResponse
       this.request = request;
       outputHeaders = new HttpServletResponseHeaders(response, factory);
       this.factory = factory;
-      this.contextDataMap = ResteasyContext.getContextDataMap();
+      this.contextDataMap = ResteasyContext.captureContextDataMap();
    }
 
    public int getStatus()
@@ -97,4 +97,108 @@ public interface ResteasyContextParameters {
 
     // Added for quarkus.  Initial use switch from warning msg to exception message.
     String RESTEASY_FAIL_FAST_ON_MULTIPLE_RESOURCES_MATCHING = "resteasy.fail.fast.on.multiple.resources.matching";
+
+   /**
+    * Enables caching of request matching results in the resource registry.  The default value is {@code true}.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_MATCH_CACHE_ENABLED = "resteasy.match.cache.enabled";
+
+   /**
+    * Maximum number of entries of each request matching cache.  The default value is {@code 2048}.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_MATCH_CACHE_SIZE = "resteasy.match.cache.size";
+
+   /**
+    * Matches request paths with a segment trie compiled from the registered path templates instead of
+    * scanning the regular expressions of the potential matches.  The default value is {@code false}.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_COMPILED_ROUTING = "resteasy.compiled.routing";
+
+   /**
+    * Maximum number of events waiting to be written to an SseEventSink.  Unbounded by default.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_SSE_SINK_QUEUE_SIZE = "resteasy.sse.sink.queue.size";
+
+   /**
+    * Maximum size in bytes of the encoded events waiting to be written to an SseEventSink.  Unbounded by default.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_SSE_SINK_QUEUE_MAX_BYTES = "resteasy.sse.sink.queue.max.bytes";
+
+   /**
+    * What an SseEventSink does with an event sent while its queue is full: {@code drop} (the default),
+    * {@code coalesce} or {@code disconnect}, see {@link org.jboss.resteasy.plugins.providers.sse.SseOverflowPolicy}.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_SSE_SINK_OVERFLOW_POLICY = "resteasy.sse.sink.overflow.policy";
+
+   /**
+    * Size in bytes under which the body of a multipart part is kept in memory instead of being written to a
+    * temporary file.  The default value is {@code 1024}.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_MULTIPART_MEMORY_THRESHOLD = "resteasy.multipart.memory.threshold";
+
+   /**
+    * Maximum size in bytes of the multipart part bodies of one request kept in memory, the next parts are written
+    * to temporary files.  Unbounded by default.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_MULTIPART_MEMORY_BUDGET = "resteasy.multipart.memory.budget";
+
+   /**
+    * Directory of the temporary files holding the multipart part bodies which are not kept in memory.  The default
+    * is the {@code java.io.tmpdir} directory.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_MULTIPART_TEMP_DIRECTORY = "resteasy.multipart.temp.directory";
+
+   /**
+    * Number of configured JAXB Marshallers and Unmarshallers kept for reuse per JAXB context, type, media type and
+    * decorators.  The default value is {@code 8}, {@code 0} disables pooling.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_JAXB_MARSHALLER_POOL_SIZE = "resteasy.jaxb.marshaller.pool.size";
+
+   /**
+    * Size in bytes under which an entity is not GZIP encoded even though its Content-Encoding is gzip, the header is
+    * removed instead.  The default value is {@code 0}, every entity is compressed.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_GZIP_MIN_SIZE = "resteasy.gzip.min.size";
+
+   /**
+    * Compression level of GZIP encoded entities, from {@code 0} to {@code 9}.  The default value is {@code -1}, the
+    * default level of {@link java.util.zip.Deflater}.
+    * <p>
+    * The name of the configuration property is <code>{@value}</code>.
+    * </p>
+    */
+   String RESTEASY_GZIP_COMPRESSION_LEVEL = "resteasy.gzip.compression.level";
 }
@@ -212,6 +212,12 @@ public abstract class AbstractBuiltResponse extends Response
 
    public void addMethodAnnotations(Annotation[] methodAnnotations)
    {
+      if (annotations == null || annotations.length == 0)
+      {
+         // share the array of the resource method, writers resolved with it can be cached per method
+         annotations = methodAnnotations;
+         return;
+      }
       List<Annotation> ann = new ArrayList<Annotation>();
       if (annotations != null)
       {
@@ -1,8 +1,8 @@
 package org.jboss.resteasy.specimpl;
 
+import org.jboss.resteasy.util.AcceptHeaderCache;
 import org.jboss.resteasy.util.CookieParser;
 import org.jboss.resteasy.util.DateUtil;
-import org.jboss.resteasy.util.MediaTypeHelper;
 import org.jboss.resteasy.util.WeightedLanguage;
 
 import javax.ws.rs.core.Cookie;
@@ -152,24 +152,13 @@ public class ResteasyHttpHeaders implements HttpHeaders
       return cachedMediaType;
    }
 
+   /**
+    * The list is shared by the requests sending the same Accept header, see {@link AcceptHeaderCache}.
+    */
    @Override
    public List<MediaType> getAcceptableMediaTypes()
    {
-      List<String> vals = requestHeaders.get(ACCEPT);
-      if (vals == null || vals.isEmpty()) {
-         return Collections.singletonList(MediaType.WILDCARD_TYPE);
-      } else {
-         List<MediaType> list = new ArrayList<MediaType>();
-         for (String v : vals) {
-            StringTokenizer tokenizer = new StringTokenizer(v, ",");
-            while (tokenizer.hasMoreElements()) {
-               String item = tokenizer.nextToken().trim();
-               list.add(MediaType.valueOf(item));
-            }
-         }
-         MediaTypeHelper.sortByWeight(list);
-         return Collections.unmodifiableList(list);
-      }
+      return AcceptHeaderCache.parse(requestHeaders.get(ACCEPT));
    }
 
    @Override
@@ -0,0 +1,100 @@
+package org.jboss.resteasy.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed size, log-linear histogram of durations in nanoseconds, in the spirit of HdrHistogram.
+ * Every power of two range is divided in {@value #SUB_BUCKETS} linear buckets, so a recorded value is known
+ * within 1/{@value #SUB_BUCKETS} of its magnitude.  Values over {@link #MAX_VALUE} (about 18 minutes) are
+ * counted in the last bucket.
+ * <p>
+ * Recording is a single atomic increment and never allocates, reading a percentile copies the counts so it can
+ * be done while the histogram is being updated.
+ */
+public class LatencyHistogram
+{
+   private static final int SUB_BUCKET_BITS = 3;
+   static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   private static final int MAX_EXPONENT = 40;
+   public static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+   static final int BUCKETS = bucket(MAX_VALUE) + 1;
+
+   private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+   static int bucket(long value)
+   {
+      if (value < SUB_BUCKETS) return value < 0 ? 0 : (int) value;
+      if (value > MAX_VALUE) value = MAX_VALUE;
+      int exponent = 63 - Long.numberOfLeadingZeros(value);
+      int shift = exponent - SUB_BUCKET_BITS;
+      return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+   }
+
+   /**
+    * @param bucket bucket index
+    * @return the highest value counted in the bucket
+    */
+   static long highestValue(int bucket)
+   {
+      if (bucket < SUB_BUCKETS) return bucket;
+      int shift = (bucket >>> SUB_BUCKET_BITS) - 1;
+      long base = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+      return base + (1L << shift) - 1;
+   }
+
+   public void record(long value)
+   {
+      counts.incrementAndGet(bucket(value));
+   }
+
+   /**
+    * @param percentile between 0 and 100, e.g. 99.9
+    * @return the value under which the given percentage of the recorded values fall, 0 if nothing was recorded
+    */
+   public long getValueAtPercentile(double percentile)
+   {
+      return getValuesAtPercentiles(percentile)[0];
+   }
+
+   /**
+    * Computes several percentiles from one copy of the counts, so they are consistent with each other.
+    *
+    * @param percentiles percentiles between 0 and 100, in increasing order
+    * @return the value of each percentile
+    */
+   public long[] getValuesAtPercentiles(double... percentiles)
+   {
+      long[] snapshot = new long[BUCKETS];
+      long total = 0;
+      for (int i = 0; i < BUCKETS; i++)
+      {
+         snapshot[i] = counts.get(i);
+         total += snapshot[i];
+      }
+      long[] values = new long[percentiles.length];
+      if (total == 0) return values;
+      int bucket = 0;
+      long seen = snapshot[0];
+      for (int p = 0; p < percentiles.length; p++)
+      {
+         double percentile = Math.min(100.0, Math.max(0.0, percentiles[p]));
+         long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+         while (seen < rank && bucket < BUCKETS - 1)
+         {
+            seen += snapshot[++bucket];
+         }
+         values[p] = highestValue(bucket);
+      }
+      return values;
+   }
+
+   public long getTotalCount()
+   {
+      long total = 0;
+      for (int i = 0; i < BUCKETS; i++)
+      {
+         total += counts.get(i);
+      }
+      return total;
+   }
+}
@@ -2,10 +2,24 @@ package org.jboss.resteasy.statistics;
 
 import org.jboss.resteasy.spi.statistics.MethodStatisticsLogger;
 
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
 public class MethodStatisticsLoggerImpl implements MethodStatisticsLogger {
-   private volatile long invocationCnt = 0;
-   private volatile long failureCnt = 0;
-   private volatile long totalExecutionTime = 0;
+
+   /**
+    * Everything recorded since the last reset.  A reset swaps in a new window instead of locking the recording
+    * threads, an invocation finishing during the swap may be counted in the discarded window.
+    */
+   private static class Window {
+      final LongAdder invocationCnt = new LongAdder();
+      final LongAdder failureCnt = new LongAdder();
+      final LongAdder totalExecutionTime = new LongAdder();
+      final LongAccumulator maxExecutionTime = new LongAccumulator(Math::max, 0);
+      final LatencyHistogram histogram = new LatencyHistogram();
+   }
+
+   private volatile Window window = new Window();
 
    @Override
    public long timestamp(){
@@ -14,62 +28,65 @@ public class MethodStatisticsLoggerImpl implements MethodStatisticsLogger {
 
    @Override
    public void duration(final long fromTimestamp) {
-      // invocation count and execution time are related.
-      // Set them together so avgExecutionTime will be calculated correctly
-      synchronized (this)
-      {
-         ++invocationCnt;
-         totalExecutionTime += (System.nanoTime() - fromTimestamp);
-      }
+      long duration = System.nanoTime() - fromTimestamp;
+      Window w = window;
+      w.invocationCnt.increment();
+      w.totalExecutionTime.add(duration);
+      w.maxExecutionTime.accumulate(duration);
+      w.histogram.record(duration);
    }
 
    @Override
    public void incFailureCnt() {
-      ++failureCnt;
+      window.failureCnt.increment();
    }
 
    @Override
    public void reset() {
-      synchronized (this)
-      {
-         invocationCnt = 0;
-         failureCnt = 0;
-         totalExecutionTime = 0;
-      }
+      window = new Window();
    }
 
    @Override
    public long getInvocationCnt() {
-      return invocationCnt;
+      return window.invocationCnt.sum();
    }
 
    @Override
    public long getFailedInvocationCnt() {
-      return failureCnt;
+      return window.failureCnt.sum();
    }
 
    @Override
    public long getAvgExecutionTime() {
-      long avgExecTime = -1;
-      synchronized (this)
-      {
-         try
-         {
-            avgExecTime = totalExecutionTime / invocationCnt;
-         } catch (Exception e)
-         {
-
-            if (invocationCnt == 0 && totalExecutionTime == 0)
-            {
-               avgExecTime = 0;
-            }
-         }
-      }
-      return avgExecTime;
+      Window w = window;
+      long invocationCnt = w.invocationCnt.sum();
+      return invocationCnt == 0 ? 0 : w.totalExecutionTime.sum() / invocationCnt;
    }
 
    @Override
    public long getTotalExecutionTime() {
-      return totalExecutionTime;
+      return window.totalExecutionTime.sum();
+   }
+
+   @Override
+   public long getMaxExecutionTime() {
+      return window.maxExecutionTime.get();
+   }
+
+   @Override
+   public long getExecutionTimePercentile(final double percentile) {
+      return getExecutionTimePercentiles(percentile)[0];
+   }
+
+   @Override
+   public long[] getExecutionTimePercentiles(final double... percentiles) {
+      Window w = window;
+      long[] values = w.histogram.getValuesAtPercentiles(percentiles);
+      // a bucket's upper bound may be over the longest duration actually seen
+      long max = w.maxExecutionTime.get();
+      for (int i = 0; i < values.length; i++) {
+         values[i] = Math.min(values[i], max);
+      }
+      return values;
    }
 }
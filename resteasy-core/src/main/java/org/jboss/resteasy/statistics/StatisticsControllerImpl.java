@@ -5,6 +5,8 @@ import org.jboss.resteasy.spi.statistics.MethodStatisticsLogger;
 import org.jboss.resteasy.spi.statistics.StatisticsController;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 public class StatisticsControllerImpl implements StatisticsController {
@@ -44,8 +46,19 @@ public class StatisticsControllerImpl implements StatisticsController {
       }
    }
 
+   @Override
+   public boolean isEnabled() {
+      return isEnabled;
+   }
+
+   @Override
+   public Collection<ResourceInvoker> getResourceInvokers() {
+      return Collections.unmodifiableList(registry);
+   }
+
    @Override
    public void reset() {
+      // each logger swaps its own counters, nothing is locked while the methods keep being invoked
       for (ResourceInvoker invoker : registry) {
          invoker.getMethodStatisticsLogger().reset();
       }
@@ -0,0 +1,186 @@
+package org.jboss.resteasy.util;
+
+import javax.ws.rs.core.MediaType;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.StringTokenizer;
+
+/**
+ * Interns parsed Accept headers.  Clients send a handful of distinct Accept headers, so the media types of a raw
+ * header are parsed and sorted by weight once, and every request sending the same header shares the resulting
+ * immutable {@link Parsed} list.  Lookups which use that list as a key (the match cache of the router, the provider
+ * lookups of {@link org.jboss.resteasy.core.MediaTypeMap}) then compare it by identity, and its media types cache
+ * their hash code.
+ * <p>
+ * The size of the caches is set by the <code>org.jboss.resteasy.max_accept_cache_size</code> system property.
+ */
+public final class AcceptHeaderCache
+{
+   private static final int MAX_CACHE_SIZE = Integer.getInteger("org.jboss.resteasy.max_accept_cache_size", 256);
+   // longer headers are parsed every time rather than filling the cache
+   private static final int MAX_HEADER_LENGTH = 1024;
+
+   private static final BoundedCache<String, Parsed> headers = new BoundedCache<>(MAX_CACHE_SIZE);
+   private static final BoundedCache<String, MediaType> mediaTypes = new BoundedCache<>(MAX_CACHE_SIZE);
+
+   /**
+    * Accept header of requests which do not send one.
+    */
+   public static final Parsed WILDCARD = new Parsed(Collections.<MediaType>singletonList(MediaType.WILDCARD_TYPE));
+
+   /**
+    * Immutable list of the media types of an Accept header, sorted by weight.
+    */
+   public static final class Parsed extends AbstractList<MediaType> implements RandomAccess
+   {
+      private final MediaType[] mediaTypes;
+      private final int hash;
+      private volatile List<WeightedMediaType> weighted;
+
+      Parsed(final List<MediaType> mediaTypes)
+      {
+         this.mediaTypes = mediaTypes.toArray(new MediaType[mediaTypes.size()]);
+         this.hash = super.hashCode();
+      }
+
+      @Override
+      public MediaType get(int index)
+      {
+         return mediaTypes[index];
+      }
+
+      @Override
+      public int size()
+      {
+         return mediaTypes.length;
+      }
+
+      /**
+       * @return the media types with their quality value taken out of the parameters
+       */
+      public List<WeightedMediaType> getWeightedMediaTypes()
+      {
+         List<WeightedMediaType> result = weighted;
+         if (result == null)
+         {
+            // computed on first use, so that an invalid quality value fails where it did before
+            List<WeightedMediaType> list = new ArrayList<WeightedMediaType>(mediaTypes.length);
+            for (MediaType mediaType : mediaTypes) list.add(WeightedMediaType.parse(mediaType));
+            result = Collections.unmodifiableList(list);
+            weighted = result;
+         }
+         return result;
+      }
+
+      @Override
+      public boolean equals(Object o)
+      {
+         if (this == o) return true;
+         if (o instanceof Parsed && hash != ((Parsed) o).hash) return false;
+         return super.equals(o);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hash;
+      }
+   }
+
+   /**
+    * A media type of an interned header, which computes its hash code once.
+    */
+   private static final class InternedMediaType extends MediaType
+   {
+      private final int hash;
+
+      InternedMediaType(final MediaType mediaType)
+      {
+         super(mediaType.getType(), mediaType.getSubtype(), mediaType.getParameters());
+         this.hash = super.hashCode();
+      }
+
+      @Override
+      public boolean equals(Object obj)
+      {
+         if (this == obj) return true;
+         if (obj instanceof InternedMediaType && hash != ((InternedMediaType) obj).hash) return false;
+         return super.equals(obj);
+      }
+
+      @Override
+      public int hashCode()
+      {
+         return hash;
+      }
+   }
+
+   private AcceptHeaderCache()
+   {
+   }
+
+   /**
+    * @param values values of the Accept header, may be null
+    * @return the accepted media types, sorted by weight
+    */
+   public static Parsed parse(List<String> values)
+   {
+      if (values == null || values.isEmpty()) return WILDCARD;
+      String header = values.size() == 1 ? values.get(0) : String.join(",", values);
+      if (header.length() > MAX_HEADER_LENGTH) return parse(header, false);
+      Parsed parsed = headers.get(header);
+      if (parsed == null)
+      {
+         parsed = headers.putIfAbsent(header, parse(header, true));
+      }
+      return parsed;
+   }
+
+   private static Parsed parse(String header, boolean intern)
+   {
+      List<MediaType> list = new ArrayList<MediaType>();
+      StringTokenizer tokenizer = new StringTokenizer(header, ",");
+      while (tokenizer.hasMoreElements())
+      {
+         String item = tokenizer.nextToken().trim();
+         list.add(intern ? intern(item) : MediaType.valueOf(item));
+      }
+      MediaTypeHelper.sortByWeight(list);
+      return new Parsed(list);
+   }
+
+   private static MediaType intern(String item)
+   {
+      MediaType mediaType = mediaTypes.get(item);
+      if (mediaType == null)
+      {
+         mediaType = mediaTypes.putIfAbsent(item, new InternedMediaType(MediaType.valueOf(item)));
+      }
+      return mediaType;
+   }
+
+   public static void clear()
+   {
+      headers.clear();
+      mediaTypes.clear();
+   }
+
+   /**
+    * @return cache of the parsed headers, its statistics tell how often parsing is skipped
+    */
+   public static BoundedCache<?, ?> getHeaderCache()
+   {
+      return headers;
+   }
+
+   /**
+    * @return cache of the media types the headers are made of
+    */
+   public static BoundedCache<?, ?> getMediaTypeCache()
+   {
+      return mediaTypes;
+   }
+}
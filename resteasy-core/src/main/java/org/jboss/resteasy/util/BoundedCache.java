@@ -0,0 +1,157 @@
+package org.jboss.resteasy.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A size bounded concurrent cache.  Reads never lock.  When the number of entries goes over the
+ * configured maximum, one writer sweeps the map and evicts the entries that have not been read since
+ * the previous sweep (a "second chance" approximation of LRU).  Hit, miss and eviction counters are kept
+ * so the effectiveness of the cache can be monitored.
+ */
+public class BoundedCache<K, V>
+{
+   private static class Entry<V>
+   {
+      final V value;
+      volatile boolean referenced;
+
+      Entry(final V value)
+      {
+         this.value = value;
+      }
+   }
+
+   private final ConcurrentHashMap<K, Entry<V>> map;
+   private final int maxSize;
+   private final ReentrantLock evictionLock = new ReentrantLock();
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+
+   public BoundedCache(final int maxSize)
+   {
+      if (maxSize < 1) throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+      this.maxSize = maxSize;
+      this.map = new ConcurrentHashMap<>(Math.min(maxSize, 1024));
+   }
+
+   public V get(K key)
+   {
+      Entry<V> entry = map.get(key);
+      if (entry == null)
+      {
+         misses.increment();
+         return null;
+      }
+      hits.increment();
+      // avoid a volatile write (and cache line invalidation) if the entry is already marked
+      if (!entry.referenced) entry.referenced = true;
+      return entry.value;
+   }
+
+   /**
+    * Adds the value if the key is not already cached.
+    *
+    * @param key key
+    * @param value value
+    * @return the value now associated with the key
+    */
+   public V putIfAbsent(K key, V value)
+   {
+      Entry<V> existing = map.putIfAbsent(key, new Entry<>(value));
+      if (existing != null) return existing.value;
+      if (map.size() > maxSize) evict();
+      return value;
+   }
+
+   public V remove(K key)
+   {
+      Entry<V> entry = map.remove(key);
+      return entry == null ? null : entry.value;
+   }
+
+   public void clear()
+   {
+      map.clear();
+   }
+
+   protected void evict()
+   {
+      // only one thread sweeps, the others keep going and may slightly overshoot the bound
+      if (!evictionLock.tryLock()) return;
+      try
+      {
+         for (int pass = 0; pass < 2 && map.size() > maxSize; pass++)
+         {
+            Iterator<Map.Entry<K, Entry<V>>> it = map.entrySet().iterator();
+            while (it.hasNext() && map.size() > maxSize)
+            {
+               Entry<V> entry = it.next().getValue();
+               if (entry.referenced)
+               {
+                  entry.referenced = false;
+               }
+               else
+               {
+                  it.remove();
+                  evictions.increment();
+               }
+            }
+         }
+      }
+      finally
+      {
+         evictionLock.unlock();
+      }
+   }
+
+   public int size()
+   {
+      return map.size();
+   }
+
+   public int getMaxSize()
+   {
+      return maxSize;
+   }
+
+   public long getHitCount()
+   {
+      return hits.sum();
+   }
+
+   public long getMissCount()
+   {
+      return misses.sum();
+   }
+
+   public long getEvictionCount()
+   {
+      return evictions.sum();
+   }
+
+   public double getHitRatio()
+   {
+      long h = hits.sum();
+      long total = h + misses.sum();
+      return total == 0 ? 0.0 : (double) h / total;
+   }
+
+   public void resetStatistics()
+   {
+      hits.reset();
+      misses.reset();
+      evictions.reset();
+   }
+
+   @Override
+   public String toString()
+   {
+      return "BoundedCache[size=" + size() + ", maxSize=" + maxSize + ", hits=" + getHitCount()
+            + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+   }
+}
@@ -69,6 +69,6 @@ public class ThreadLocalStack<T>
 
    public void clear()
    {
-      local.set(null);
+      local.remove();
    }
 }
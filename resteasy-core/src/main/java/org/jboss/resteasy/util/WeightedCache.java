@@ -0,0 +1,438 @@
+package org.jboss.resteasy.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bookkeeping of a concurrent cache bounded by the weight of its entries, for caches which keep their own index
+ * (by URI, media type, ...) and only delegate the size accounting and the choice of the entries to evict.
+ * <p>
+ * Every cached value has a {@link Handle}.  Lookups read the index of the cache without locking and record hits
+ * and misses here, which only writes the access time of the entry.  Adding and removing entries is serialized, and
+ * the cache index is only modified by the callbacks run with that lock held, so both stay consistent.
+ * <p>
+ * When an entry must be evicted, a few entries are sampled and the least recently used one is chosen (sampled
+ * LRU), so making room costs the same whatever the size of the cache.  Each addition also checks a few entries
+ * for staleness, so that expired entries are dropped even when the cache is not full; {@link #cleanUp()} checks
+ * them all.  If a frequency sketch is enabled, a new entry is only admitted in place of entries whose keys were
+ * requested less often (TinyLFU).
+ */
+public class WeightedCache<V>
+{
+   private static final int SAMPLES = 8;
+   private static final int SWEEP_STEP = 4;
+
+   /**
+    * A cached value, its weight and the key whose request frequency decides its admission.
+    */
+   public static final class Handle<V>
+   {
+      final V value;
+      final Object key;
+      final long weight;
+      volatile long lastAccess = System.nanoTime();
+      // position in the sampled list, -1 once removed; guarded by the lock
+      int slot = -1;
+
+      public Handle(final V value, final Object key, final long weight)
+      {
+         this.value = value;
+         this.key = key;
+         this.weight = weight;
+      }
+
+      public V getValue()
+      {
+         return value;
+      }
+
+      public long getWeight()
+      {
+         return weight;
+      }
+   }
+
+   /**
+    * Count-min sketch of the number of times a key was requested, 4 bits per counter.  The counters are halved
+    * periodically so that the frequencies follow the recent traffic.
+    */
+   private static class FrequencySketch
+   {
+      private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+      private final AtomicIntegerArray table;
+      private final int mask;
+      private final int sampleSize;
+      private final AtomicInteger additions = new AtomicInteger();
+
+      FrequencySketch(final int counters)
+      {
+         int size = Integer.highestOneBit(Math.max(64, counters - 1)) << 1;
+         table = new AtomicIntegerArray(size);
+         mask = size - 1;
+         sampleSize = 10 * size;
+      }
+
+      private int indexOf(int hash, int i)
+      {
+         long h = (hash + SEEDS[i]) * SEEDS[i];
+         h += h >>> 32;
+         return (int) h & mask;
+      }
+
+      void increment(Object o)
+      {
+         int hash = spread(o.hashCode());
+         boolean added = false;
+         for (int i = 0; i < SEEDS.length; i++)
+         {
+            if (table.getAndUpdate(indexOf(hash, i), c -> c < 15 ? c + 1 : c) < 15)
+            {
+               added = true;
+            }
+         }
+         // exactly one thread reaches the sample size, the others keep counting while it halves the counters
+         if (added && additions.incrementAndGet() == sampleSize)
+         {
+            reset();
+         }
+      }
+
+      int frequency(Object o)
+      {
+         int hash = spread(o.hashCode());
+         int frequency = Integer.MAX_VALUE;
+         for (int i = 0; i < SEEDS.length; i++)
+         {
+            frequency = Math.min(frequency, table.get(indexOf(hash, i)));
+         }
+         return frequency;
+      }
+
+      private void reset()
+      {
+         for (int i = 0; i < table.length(); i++)
+         {
+            table.updateAndGet(i, c -> c >>> 1);
+         }
+         additions.addAndGet(-sampleSize / 2);
+      }
+
+      private static int spread(int x)
+      {
+         x = ((x >>> 16) ^ x) * 0x45d9f3b;
+         x = ((x >>> 16) ^ x) * 0x45d9f3b;
+         return (x >>> 16) ^ x;
+      }
+   }
+
+   private final long maxBytes;
+   private final FrequencySketch sketch;
+   private final Predicate<V> stale;
+   private final Consumer<V> unlink;
+   private final ReentrantLock lock = new ReentrantLock();
+   private final ArrayList<Handle<V>> handles = new ArrayList<Handle<V>>();
+   private int sweepCursor;
+   private volatile long bytes;
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+   private final LongAdder rejections = new LongAdder();
+
+   /**
+    * @param maxBytes maximum total weight of the entries
+    * @param sketchCounters number of counters of the frequency sketch, 0 to admit every entry that fits
+    * @param stale whether a value is no longer worth keeping, e.g. expired
+    * @param unlink removes a value from the index of the cache, called with the lock held
+    */
+   public WeightedCache(final long maxBytes, final int sketchCounters, final Predicate<V> stale, final Consumer<V> unlink)
+   {
+      if (maxBytes < 1) throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+      this.maxBytes = maxBytes;
+      this.sketch = sketchCounters > 0 ? new FrequencySketch(sketchCounters) : null;
+      this.stale = stale;
+      this.unlink = unlink;
+   }
+
+   public void recordHit(Handle<V> handle)
+   {
+      hits.increment();
+      handle.lastAccess = System.nanoTime();
+      if (sketch != null) sketch.increment(handle.key);
+   }
+
+   public void recordMiss(Object key)
+   {
+      misses.increment();
+      if (sketch != null) sketch.increment(key);
+   }
+
+   /**
+    * Accounts for a new entry, evicting other entries if needed.
+    *
+    * @param handle the new entry
+    * @param replaced finds the entry of the index which the new one replaces, if any, run with the lock held
+    * @param link adds the new entry to the index in place of the replaced one, run with the lock held if the
+    *             entry is admitted
+    * @return false if the entry is too large or requested less often than the entries it would replace; the
+    * replaced entry is then removed, since it is outdated
+    */
+   public boolean add(Handle<V> handle, Supplier<Handle<V>> replaced, Runnable link)
+   {
+      lock.lock();
+      try
+      {
+         sweep(SWEEP_STEP);
+         Handle<V> previous = replaced.get();
+         long delta = handle.weight - (previous == null ? 0 : previous.weight);
+         if (handle.weight > maxBytes || (bytes + delta > maxBytes && !makeRoom(handle, previous, delta)))
+         {
+            if (previous != null) remove(previous);
+            rejections.increment();
+            return false;
+         }
+         if (previous != null) detach(previous);
+         link.run();
+         attach(handle);
+         return true;
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Evicts entries until the candidate fits.  The victims are all chosen, and compared with the candidate, before
+    * any of them is evicted, so that a rejected candidate does not evict anything.  Must be called with the lock held.
+    */
+   private boolean makeRoom(Handle<V> candidate, Handle<V> previous, long delta)
+   {
+      // replacing a cached entry, the key was already admitted
+      int frequency = sketch == null || previous != null ? Integer.MAX_VALUE : sketch.frequency(candidate.key);
+      List<Handle<V>> victims = new ArrayList<Handle<V>>();
+      long freed = 0;
+      while (bytes - freed + delta > maxBytes)
+      {
+         Handle<V> victim = sample(previous, victims);
+         if (victim == null) return false;
+         if (frequency != Integer.MAX_VALUE && !stale.test(victim.value) && sketch.frequency(victim.key) > frequency)
+         {
+            return false;
+         }
+         victims.add(victim);
+         freed += victim.weight;
+      }
+      for (Handle<V> victim : victims)
+      {
+         evict(victim);
+      }
+      return true;
+   }
+
+   /**
+    * Samples entries evenly spread from a random position; once all of them were skipped, the next entries are
+    * sampled until every entry was seen.
+    *
+    * @return a stale entry, or else the least recently used of a few entries, never the excluded nor the chosen ones
+    */
+   private Handle<V> sample(Handle<V> excluded, List<Handle<V>> chosen)
+   {
+      int size = handles.size();
+      int start = size <= SAMPLES ? 0 : ThreadLocalRandom.current().nextInt(size);
+      int step = Math.max(1, size / SAMPLES);
+      Handle<V> victim = null;
+      int sampled = 0;
+      for (int i = 0; i < size && sampled < SAMPLES; i++)
+      {
+         // i < SAMPLES * step visits every position once: offset by step first, then by one
+         int offset = i < SAMPLES * step ? (i % SAMPLES) * step + i / SAMPLES : i;
+         Handle<V> handle = handles.get((start + offset) % size);
+         if (handle == excluded || chosen.contains(handle)) continue;
+         if (stale.test(handle.value)) return handle;
+         if (victim == null || handle.lastAccess < victim.lastAccess) victim = handle;
+         sampled++;
+      }
+      return victim;
+   }
+
+   /**
+    * Checks the next entries of the sampled list, evicting the stale ones.  Must be called with the lock held.
+    */
+   private void sweep(int count)
+   {
+      for (int i = 0; i < count && !handles.isEmpty(); i++)
+      {
+         if (sweepCursor >= handles.size()) sweepCursor = 0;
+         Handle<V> handle = handles.get(sweepCursor);
+         // eviction moves the last entry to the cursor, which is checked next
+         if (stale.test(handle.value)) evict(handle);
+         else sweepCursor++;
+      }
+   }
+
+   /**
+    * Evicts every stale entry.
+    */
+   public void cleanUp()
+   {
+      lock.lock();
+      try
+      {
+         sweepCursor = 0;
+         sweep(handles.size());
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Removes an entry from the index, and counts it as evicted.
+    *
+    * @return false if it was already removed
+    */
+   public boolean evict(Handle<V> handle)
+   {
+      if (remove(handle))
+      {
+         evictions.increment();
+         return true;
+      }
+      return false;
+   }
+
+   /**
+    * Removes an entry from the index.
+    *
+    * @return false if it was already removed
+    */
+   public boolean remove(Handle<V> handle)
+   {
+      lock.lock();
+      try
+      {
+         if (handle.slot < 0) return false;
+         unlink.accept(handle.value);
+         detach(handle);
+         return true;
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   /**
+    * Removes every entry.
+    *
+    * @param clearIndex empties the index of the cache, run with the lock held
+    */
+   public void clear(Runnable clearIndex)
+   {
+      lock.lock();
+      try
+      {
+         clearIndex.run();
+         for (Handle<V> handle : handles)
+         {
+            handle.slot = -1;
+         }
+         handles.clear();
+         sweepCursor = 0;
+         bytes = 0;
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   private void attach(Handle<V> handle)
+   {
+      handle.slot = handles.size();
+      handles.add(handle);
+      bytes += handle.weight;
+   }
+
+   private void detach(Handle<V> handle)
+   {
+      Handle<V> last = handles.remove(handles.size() - 1);
+      if (last != handle)
+      {
+         handles.set(handle.slot, last);
+         last.slot = handle.slot;
+      }
+      handle.slot = -1;
+      bytes -= handle.weight;
+   }
+
+   public long getMaxBytes()
+   {
+      return maxBytes;
+   }
+
+   /**
+    * @return the total weight of the entries
+    */
+   public long getByteCount()
+   {
+      return bytes;
+   }
+
+   public int getEntryCount()
+   {
+      lock.lock();
+      try
+      {
+         return handles.size();
+      }
+      finally
+      {
+         lock.unlock();
+      }
+   }
+
+   public long getHitCount()
+   {
+      return hits.sum();
+   }
+
+   public long getMissCount()
+   {
+      return misses.sum();
+   }
+
+   /**
+    * @return number of entries removed because they were stale or to make room for new ones
+    */
+   public long getEvictionCount()
+   {
+      return evictions.sum();
+   }
+
+   /**
+    * @return number of entries which were not added, because they were larger than the cache or requested less
+    * often than the entries they would have replaced
+    */
+   public long getRejectionCount()
+   {
+      return rejections.sum();
+   }
+
+   public double getHitRatio()
+   {
+      long h = hits.sum();
+      long total = h + misses.sum();
+      return total == 0 ? 0.0 : (double) h / total;
+   }
+}
@@ -0,0 +1,123 @@
+package org.jboss.resteasy.core;
+
+import org.junit.Test;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.UriInfo;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ContextDataMapTest {
+
+    @Test
+    public void testSlotsAndOthers() {
+        ContextDataMap map = new ContextDataMap();
+        assertNull(map.put(UriInfo.class, "uri"));
+        assertNull(map.put(String.class, "string"));
+        assertEquals("uri", map.put(UriInfo.class, "uri2"));
+        assertEquals(2, map.size());
+        assertEquals("uri2", map.get(UriInfo.class));
+        assertEquals("string", map.get(String.class));
+        assertNull(map.get("not a class"));
+
+        Map<Class<?>, Object> expected = new HashMap<>();
+        expected.put(UriInfo.class, "uri2");
+        expected.put(String.class, "string");
+        assertEquals(expected, map);
+        assertEquals(expected.hashCode(), map.hashCode());
+
+        assertEquals("uri2", map.remove(UriInfo.class));
+        assertFalse(map.containsKey(UriInfo.class));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testNullValue() {
+        ContextDataMap map = new ContextDataMap();
+        map.put(HttpHeaders.class, null);
+        assertTrue(map.containsKey(HttpHeaders.class));
+        assertNull(map.get(HttpHeaders.class));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        ContextDataMap map = new ContextDataMap();
+        map.put(UriInfo.class, "uri");
+        map.put(HttpHeaders.class, "headers");
+        map.put(String.class, "string");
+        for (Iterator<Map.Entry<Class<?>, Object>> it = map.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<Class<?>, Object> entry = it.next();
+            if (entry.getKey() == HttpHeaders.class) {
+                entry.setValue("other");
+            } else {
+                it.remove();
+            }
+        }
+        assertEquals(1, map.size());
+        assertEquals("other", map.get(HttpHeaders.class));
+    }
+
+    @Test
+    public void testRecycled() {
+        boolean recycle = ResteasyContext.recycle;
+        ResteasyContext.recycle = true;
+        try {
+            Map<Class<?>, Object> map = ResteasyContext.getContextDataMap();
+            map.put(UriInfo.class, "uri");
+            ResteasyContext.clearContextData(true);
+            Map<Class<?>, Object> next = ResteasyContext.getContextDataMap();
+            assertSame(map, next);
+            assertTrue(next.isEmpty());
+            ResteasyContext.clearContextData();
+        } finally {
+            ResteasyContext.recycle = recycle;
+        }
+    }
+
+    @Test
+    public void testNotRecycledByDefault() {
+        Map<Class<?>, Object> map = ResteasyContext.getContextDataMap();
+        ResteasyContext.clearContextData(true);
+        assertNotSame(map, ResteasyContext.getContextDataMap());
+        ResteasyContext.clearContextData();
+    }
+
+    @Test
+    public void testRemoveContextData() {
+        boolean recycle = ResteasyContext.recycle;
+        ResteasyContext.recycle = true;
+        try {
+            Map<Class<?>, Object> map = ResteasyContext.getContextDataMap();
+            ResteasyContext.clearContextData(true);
+            ResteasyContext.removeContextData();
+            assertNotSame(map, ResteasyContext.getContextDataMap());
+            ResteasyContext.clearContextData();
+        } finally {
+            ResteasyContext.recycle = recycle;
+        }
+    }
+
+    @Test
+    public void testNotRecycled() {
+        Map<Class<?>, Object> map = ResteasyContext.getContextDataMap();
+        ResteasyContext.clearContextData(false);
+        assertNotSame(map, ResteasyContext.getContextDataMap());
+        ResteasyContext.clearContextData();
+
+        Map<Class<?>, Object> captured = ResteasyContext.captureContextDataMap();
+        captured.put(UriInfo.class, "uri");
+        ResteasyContext.clearContextData(true);
+        assertNotSame(captured, ResteasyContext.getContextDataMap());
+        assertEquals("uri", captured.get(UriInfo.class));
+        ResteasyContext.clearContextData();
+    }
+}
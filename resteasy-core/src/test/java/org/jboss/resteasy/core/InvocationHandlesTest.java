@@ -0,0 +1,120 @@
+package org.jboss.resteasy.core;
+
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InvocationHandlesTest {
+
+    public static class Resource {
+        public String value;
+
+        public Resource() {
+        }
+
+        public Resource(String value) {
+            this.value = value;
+        }
+
+        public String get(String prefix, int count) {
+            return prefix + count;
+        }
+
+        public void fail() {
+            throw new IllegalArgumentException("failed");
+        }
+    }
+
+    public static class Varargs {
+        public String[] values;
+
+        public Varargs(String... values) {
+            this.values = values;
+        }
+
+        public int count(String... values) {
+            return values.length;
+        }
+
+        public void setValues(String... values) {
+            this.values = values;
+        }
+    }
+
+    public abstract static class Abstract {
+        public Abstract() {
+        }
+    }
+
+    @Test
+    public void testMethod() throws Throwable {
+        MethodHandle handle = InvocationHandles.forMethod(Resource.class.getMethod("get", String.class, int.class));
+        assertNotNull(handle);
+        assertEquals("a1", (Object) handle.invokeExact((Object) new Resource(), new Object[]{"a", 1}));
+    }
+
+    @Test
+    public void testMethodThrowsUnwrapped() throws Throwable {
+        MethodHandle handle = InvocationHandles.forMethod(Resource.class.getMethod("fail"));
+        try {
+            Object ignored = (Object) handle.invokeExact((Object) new Resource(), (Object[]) null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals("failed", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testInaccessible() throws Exception {
+        // public method of a class which is not public
+        assertNull(InvocationHandles.forMethod(Collections.emptyList().getClass().getMethod("size")));
+        assertNull(InvocationHandles.forConstructor(Abstract.class.getConstructor()));
+    }
+
+    @Test
+    public void testConstructorAndField() throws Throwable {
+        MethodHandle constructor = InvocationHandles.forConstructor(Resource.class.getConstructor(String.class));
+        Resource resource = (Resource) (Object) constructor.invokeExact(new Object[]{"a"});
+        assertEquals("a", resource.value);
+
+        MethodHandle field = InvocationHandles.forField(Resource.class.getField("value"));
+        field.invokeExact((Object) resource, (Object) "b");
+        assertEquals("b", resource.value);
+    }
+
+    @Test
+    public void testVarargs() throws Throwable {
+        String[] values = {"a", "b"};
+        MethodHandle method = InvocationHandles.forMethod(Varargs.class.getMethod("count", String[].class));
+        assertEquals(2, (Object) method.invokeExact((Object) new Varargs(), new Object[]{values}));
+
+        MethodHandle constructor = InvocationHandles.forConstructor(Varargs.class.getConstructor(String[].class));
+        Varargs varargs = (Varargs) (Object) constructor.invokeExact(new Object[]{values});
+        assertSame(values, varargs.values);
+
+        MethodHandle setter = InvocationHandles.forSetter(Varargs.class.getMethod("setValues", String[].class));
+        String[] others = {"c"};
+        setter.invokeExact((Object) varargs, (Object) others);
+        assertSame(others, varargs.values);
+    }
+
+    @Test
+    public void testParameters() {
+        InvocationHandles.Parameters parameters = new InvocationHandles.Parameters(new Class<?>[]{String.class, int.class});
+        assertTrue(parameters.accepts(new Object[]{"a", 1}));
+        assertTrue(parameters.accepts(new Object[]{null, 1}));
+        assertFalse(parameters.accepts(new Object[]{"a", null}));
+        assertFalse(parameters.accepts(new Object[]{"a", 1L}));
+        assertFalse(parameters.accepts(new Object[]{"a"}));
+        assertTrue(new InvocationHandles.Parameters(new Class<?>[0]).accepts((Object[]) null));
+    }
+}
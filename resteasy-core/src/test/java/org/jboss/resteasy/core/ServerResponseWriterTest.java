@@ -0,0 +1,152 @@
+package org.jboss.resteasy.core;
+
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.specimpl.BuiltResponse;
+import org.jboss.resteasy.specimpl.MultivaluedMapImpl;
+import org.jboss.resteasy.specimpl.ResteasyHttpHeaders;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.jboss.resteasy.util.BoundedCache;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ServerResponseWriterTest {
+
+   @Path("/negotiate")
+   public static class NegotiationResource {
+      @GET
+      @Produces({"text/*", "application/*"})
+      public String get() {
+         return "negotiated";
+      }
+   }
+
+   private Dispatcher dispatcher;
+
+   @Before
+   public void deploy() {
+      dispatcher = MockDispatcherFactory.createDispatcher();
+      dispatcher.getRegistry().addPerRequestResource(NegotiationResource.class);
+   }
+
+   private static HttpHeaders accept(String... values) {
+      MultivaluedMap<String, String> headers = new MultivaluedMapImpl<>();
+      for (String value : values) {
+         headers.add(HttpHeaders.ACCEPT, value);
+      }
+      return new ResteasyHttpHeaders(headers);
+   }
+
+   private static final class Negotiation {
+      final ResourceMethodInvoker invoker;
+      final MediaType mediaType;
+
+      Negotiation(final ResourceMethodInvoker invoker, final MediaType mediaType) {
+         this.invoker = invoker;
+         this.mediaType = mediaType;
+      }
+   }
+
+   /**
+    * Routes a request with the given Accept headers and negotiates the media type of its response.
+    */
+   private Negotiation negotiate(String... accept) throws Exception {
+      MockHttpRequest request = MockHttpRequest.get("/negotiate");
+      for (String value : accept) {
+         request.header(HttpHeaders.ACCEPT, value);
+      }
+      ResourceMethodInvoker invoker = (ResourceMethodInvoker) dispatcher.getRegistry().getResourceInvoker(request);
+      BuiltResponse response = (BuiltResponse) Response.ok("negotiated").build();
+      MediaType mediaType = ServerResponseWriter.getResponseMediaType(response, request, null,
+            dispatcher.getProviderFactory(), invoker);
+      return new Negotiation(invoker, mediaType);
+   }
+
+   @Test
+   public void testAcceptKeyDropsWhitespaceAroundSeparators() {
+      assertEquals("text/plain;q=0.5,application/json",
+            ServerResponseWriter.acceptKey(accept(" text/plain; q = 0.5 ,\tapplication/json ")));
+      assertEquals("text/plain;q=0.5,application/json",
+            ServerResponseWriter.acceptKey(accept("text/plain;q=0.5", "application/json")));
+      // whitespace within a token is kept, so that an invalid header is not mistaken for a valid one
+      assertEquals("text/plain x", ServerResponseWriter.acceptKey(accept("text/plain x")));
+   }
+
+   @Test
+   public void testAcceptKeyDefaultsToWildcard() {
+      assertEquals("*/*", ServerResponseWriter.acceptKey(accept()));
+   }
+
+   @Test
+   public void testAcceptKeyNotCached() {
+      assertNull(ServerResponseWriter.acceptKey(accept("text/plain;foo=\"a b\"")));
+      // parsed as the subtype "plain "
+      assertNull(ServerResponseWriter.acceptKey(accept("text/plain ;q=0.5")));
+      assertNull(ServerResponseWriter.acceptKey(accept("application/json, text/plain\t;q=0.5")));
+      StringBuilder longHeader = new StringBuilder("text/plain");
+      while (longHeader.length() < 600) {
+         longHeader.append(",text/plain");
+      }
+      assertNull(ServerResponseWriter.acceptKey(accept(longHeader.toString())));
+   }
+
+   @Test
+   public void testNegotiationCacheHit() throws Exception {
+      Negotiation first = negotiate("*/*");
+      BoundedCache<String, MediaType> cache = first.invoker.getNegotiatedMediaTypeCache();
+      // JAX-RS 2.0 Section 3.8.9
+      assertEquals(MediaType.APPLICATION_OCTET_STREAM_TYPE, first.mediaType);
+      assertEquals(1, cache.size());
+      assertEquals(0, cache.getHitCount());
+
+      Negotiation second = negotiate("*/*");
+      assertSame(first.invoker, second.invoker);
+      assertEquals(first.mediaType, second.mediaType);
+      assertEquals(1, cache.size());
+      assertEquals(1, cache.getHitCount());
+   }
+
+   @Test
+   public void testCachedNegotiationMatchesFreshNegotiation() throws Exception {
+      // the method produces wildcard types, so the media type of the response is negotiated
+      String[][][] equivalentHeaders = {
+            {{"text/*, application/*;q=0.1"},
+                  {"text/*,\tapplication/*; q=0.1"},
+                  {"text/*", "application/*;q=0.1"}},
+            {{"application/*;q=0.5, */*;q=0.1"},
+                  {"application/*; q = 0.5 , */*; q=0.1"},
+                  {"application/*;q=0.5", "*/*;q=0.1"}},
+            {{}, {"*/*"}},
+      };
+      for (String[][] headers : equivalentHeaders) {
+         Negotiation first = negotiate(headers[0]);
+         BoundedCache<String, MediaType> cache = first.invoker.getNegotiatedMediaTypeCache();
+         for (int i = 1; i < headers.length; i++) {
+            String[] accept = headers[i];
+            String message = String.join(",", accept);
+            // the equivalent header hits the entry of the first one
+            long hits = cache.getHitCount();
+            Negotiation cached = negotiate(accept);
+            assertEquals(message, hits + 1, cache.getHitCount());
+            assertEquals(message, first.mediaType, cached.mediaType);
+
+            cache.clear();
+            Negotiation fresh = negotiate(accept);
+            assertEquals(message, hits + 1, cache.getHitCount());
+            assertEquals(message, fresh.mediaType, cached.mediaType);
+         }
+      }
+   }
+}
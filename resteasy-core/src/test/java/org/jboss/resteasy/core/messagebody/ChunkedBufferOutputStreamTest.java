@@ -0,0 +1,100 @@
+package org.jboss.resteasy.core.messagebody;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChunkedBufferOutputStreamTest {
+
+    private static class RecordingAsyncOutputStream extends AsyncOutputStream {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final List<CompletableFuture<Void>> pending = new ArrayList<>();
+        int writes;
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public CompletionStage<Void> asyncFlush() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletionStage<Void> asyncWrite(byte[] b, int offset, int length) {
+            bytes.write(b, offset, length);
+            writes++;
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }
+    }
+
+    private static byte[] entity(int size) {
+        byte[] entity = new byte[size];
+        for (int i = 0; i < size; i++) {
+            entity[i] = (byte) i;
+        }
+        return entity;
+    }
+
+    @Test
+    public void testChunks() throws Exception {
+        byte[] entity = entity(3 * ChunkedBufferOutputStream.CHUNK_SIZE + 100);
+        ChunkedBufferOutputStream out = new ChunkedBufferOutputStream();
+        out.write(entity, 0, 10);
+        out.write(entity[10]);
+        out.write(entity, 11, entity.length - 11);
+        assertEquals(entity.length, out.size());
+
+        RecordingAsyncOutputStream async = new RecordingAsyncOutputStream();
+        CompletionStage<Void> written = out.writeTo(async);
+        // each chunk is only written once the previous write completed
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i + 1, async.writes);
+            async.pending.get(i).complete(null);
+        }
+        assertTrue(written.toCompletableFuture().isDone());
+        assertEquals(4, async.writes);
+        assertArrayEquals(entity, async.bytes.toByteArray());
+    }
+
+    @Test
+    public void testSizeHint() throws Exception {
+        Class<?> writer = getClass();
+        assertEquals(0, ChunkedBufferOutputStream.getSizeHint(writer, String.class));
+        ChunkedBufferOutputStream.recordSize(writer, String.class, 40_000);
+        int hint = ChunkedBufferOutputStream.getSizeHint(writer, String.class);
+        assertTrue(hint >= 40_000);
+
+        byte[] entity = entity(40_000);
+        ChunkedBufferOutputStream out = new ChunkedBufferOutputStream(hint);
+        out.write(entity, 0, entity.length);
+        RecordingAsyncOutputStream async = new RecordingAsyncOutputStream();
+        out.writeTo(async);
+        assertEquals("Entity should fit in the presized chunk", 1, async.writes);
+        assertArrayEquals(entity, async.bytes.toByteArray());
+
+        ChunkedBufferOutputStream.recordSize(writer, String.class, 1000);
+        assertTrue(ChunkedBufferOutputStream.getSizeHint(writer, String.class) < hint);
+        assertEquals(0, ChunkedBufferOutputStream.getSizeHint(writer, Integer.class));
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        RecordingAsyncOutputStream async = new RecordingAsyncOutputStream();
+        new ChunkedBufferOutputStream().writeTo(async);
+        assertEquals(1, async.writes);
+        assertEquals(0, async.bytes.size());
+    }
+}
@@ -0,0 +1,52 @@
+package org.jboss.resteasy.core.providerfactory;
+
+import org.jboss.resteasy.core.MediaTypeMap;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.lang.annotation.Annotation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MessageBodyProviderCacheTest {
+
+    private final Annotation[] annotations = new Annotation[0];
+
+    @Test
+    public void testHit() {
+        MessageBodyProviderCache cache = new MessageBodyProviderCache(4);
+        MediaTypeMap<String> providers = new MediaTypeMap<>();
+        providers.add(MediaType.TEXT_PLAIN_TYPE, "text");
+
+        assertNull(cache.get(providers, String.class, String.class, annotations, MediaType.TEXT_PLAIN_TYPE));
+        cache.put(providers, String.class, String.class, annotations, MediaType.TEXT_PLAIN_TYPE, "text");
+        assertEquals("text", cache.get(providers, String.class, String.class, annotations, MediaType.TEXT_PLAIN_TYPE));
+        assertEquals("text", cache.get(providers, String.class, String.class, annotations,
+                new MediaType("text", "plain")));
+        // annotations are compared by identity
+        assertNull(cache.get(providers, String.class, String.class, new Annotation[0], MediaType.TEXT_PLAIN_TYPE));
+    }
+
+    @Test
+    public void testInvalidatedOnAdd() {
+        MessageBodyProviderCache cache = new MessageBodyProviderCache(4);
+        MediaTypeMap<String> providers = new MediaTypeMap<>();
+        providers.add(MediaType.TEXT_PLAIN_TYPE, "text");
+        cache.put(providers, String.class, String.class, annotations, MediaType.TEXT_PLAIN_TYPE, "text");
+
+        providers.addWildcard("any");
+        assertNull(cache.get(providers, String.class, String.class, annotations, MediaType.TEXT_PLAIN_TYPE));
+    }
+
+    @Test
+    public void testInvalidatedOnSnapshot() {
+        MessageBodyProviderCache cache = new MessageBodyProviderCache(4);
+        MediaTypeMap<String> providers = new MediaTypeMap<>();
+        providers.add(MediaType.TEXT_PLAIN_TYPE, "text");
+        cache.put(providers, String.class, String.class, annotations, MediaType.TEXT_PLAIN_TYPE, "text");
+
+        assertNull(cache.get(new MediaTypeMap<>(providers), String.class, String.class, annotations,
+                MediaType.TEXT_PLAIN_TYPE));
+    }
+}
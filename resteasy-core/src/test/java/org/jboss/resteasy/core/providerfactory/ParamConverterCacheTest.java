@@ -0,0 +1,90 @@
+package org.jboss.resteasy.core.providerfactory;
+
+import org.junit.Test;
+
+import javax.ws.rs.ext.ParamConverter;
+import javax.ws.rs.ext.ParamConverterProvider;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ParamConverterCacheTest {
+
+    public static class Point {
+        final int x;
+
+        Point(final int x) {
+            this.x = x;
+        }
+    }
+
+    public static class CountingProvider implements ParamConverterProvider {
+        final AtomicInteger calls = new AtomicInteger();
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <T> ParamConverter<T> getConverter(Class<T> rawType, Type genericType, Annotation[] annotations) {
+            calls.incrementAndGet();
+            if (rawType != Point.class) {
+                return null;
+            }
+            return (ParamConverter<T>) new ParamConverter<Point>() {
+                @Override
+                public Point fromString(String value) {
+                    return new Point(Integer.parseInt(value));
+                }
+
+                @Override
+                public String toString(Point value) {
+                    return Integer.toString(value.x);
+                }
+            };
+        }
+    }
+
+    public static class OtherProvider implements ParamConverterProvider {
+        @Override
+        public <T> ParamConverter<T> getConverter(Class<T> rawType, Type genericType, Annotation[] annotations) {
+            return null;
+        }
+    }
+
+    @Test
+    public void testConverterIsCached() {
+        ResteasyProviderFactoryImpl factory = new ResteasyProviderFactoryImpl();
+        CountingProvider provider = new CountingProvider();
+        factory.registerProviderInstance(provider);
+
+        ParamConverter<?> converter = factory.getParamConverter(Point.class, null, null);
+        assertSame(converter, factory.getParamConverter(Point.class, null, null));
+        assertEquals("7", factory.toHeaderString(new Point(7)));
+        assertEquals(1, provider.calls.get());
+    }
+
+    @Test
+    public void testMissIsCached() {
+        ResteasyProviderFactoryImpl factory = new ResteasyProviderFactoryImpl();
+        CountingProvider provider = new CountingProvider();
+        factory.registerProviderInstance(provider);
+
+        assertNull(factory.getParamConverter(Integer.class, null, null));
+        assertNull(factory.getParamConverter(Integer.class, null, null));
+        assertEquals(1, provider.calls.get());
+    }
+
+    @Test
+    public void testClearedOnRegistration() {
+        ResteasyProviderFactoryImpl factory = new ResteasyProviderFactoryImpl();
+        CountingProvider provider = new CountingProvider();
+        factory.registerProviderInstance(provider);
+
+        factory.getParamConverter(Point.class, null, null);
+        factory.registerProviderInstance(new OtherProvider());
+        factory.getParamConverter(Point.class, null, null);
+        assertEquals(2, provider.calls.get());
+    }
+}
@@ -0,0 +1,135 @@
+package org.jboss.resteasy.plugins.interceptors;
+
+import org.jboss.resteasy.spi.AsyncOutputStream;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GZIPEncodingOutputStreamTest {
+
+    private static class BufferedAsyncOutputStream extends AsyncOutputStream {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        @Override
+        public void write(int b) {
+            bytes.write(b);
+        }
+
+        @Override
+        public CompletionStage<Void> asyncFlush() {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public CompletionStage<Void> asyncWrite(byte[] b, int offset, int length) {
+            bytes.write(b, offset, length);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private static byte[] entity(int size) {
+        byte[] entity = new byte[size];
+        Random random = new Random(size);
+        for (int i = 0; i < size; i++) {
+            // compressible, but not trivially
+            entity[i] = (byte) ('a' + random.nextInt(8));
+        }
+        return entity;
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int n; (n = in.read(buffer)) != -1; ) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    @Test
+    public void testBlocking() throws Exception {
+        DeflaterPool pool = new DeflaterPool(6, 1);
+        byte[] entity = entity(100_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPEncodingOutputStream gzip = new GZIPEncodingOutputStream(out, pool, 0, null);
+        for (int i = 0; i < entity.length; i += 1000) {
+            gzip.write(entity, i, 1000);
+        }
+        gzip.finish();
+        assertTrue(out.size() < entity.length);
+        assertArrayEquals(entity, gunzip(out.toByteArray()));
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void testAsync() throws Exception {
+        DeflaterPool pool = new DeflaterPool(1, 1);
+        byte[] entity = entity(50_000);
+        BufferedAsyncOutputStream out = new BufferedAsyncOutputStream();
+        GZIPEncodingOutputStream gzip = new GZIPEncodingOutputStream(out, pool, 0, null);
+        gzip.asyncWrite(entity, 0, 20_000).toCompletableFuture().get();
+        gzip.asyncWrite(entity, 20_000, 30_000).toCompletableFuture().get();
+        gzip.asyncFinish().toCompletableFuture().get();
+        assertArrayEquals(entity, gunzip(out.bytes.toByteArray()));
+
+        // the Deflater is reused
+        out = new BufferedAsyncOutputStream();
+        gzip = new GZIPEncodingOutputStream(out, pool, 0, null);
+        gzip.asyncWrite(entity).toCompletableFuture().get();
+        gzip.asyncFinish().toCompletableFuture().get();
+        assertArrayEquals(entity, gunzip(out.bytes.toByteArray()));
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    public void testMinSize() throws Exception {
+        DeflaterPool pool = new DeflaterPool(6, 1);
+        AtomicBoolean uncompressed = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPEncodingOutputStream gzip = new GZIPEncodingOutputStream(out, pool, 1024, () -> uncompressed.set(true));
+        byte[] entity = entity(1000);
+        gzip.write(entity, 0, 500);
+        gzip.flush();
+        assertEquals("Nothing should be written before the size is known", 0, out.size());
+        gzip.write(entity, 500, 500);
+        gzip.finish();
+        assertTrue(uncompressed.get());
+        assertArrayEquals(entity, out.toByteArray());
+
+        uncompressed.set(false);
+        out = new ByteArrayOutputStream();
+        gzip = new GZIPEncodingOutputStream(out, pool, 1024, () -> uncompressed.set(true));
+        entity = entity(2000);
+        gzip.write(entity, 0, 1000);
+        assertFalse(gzip.isCompressing());
+        gzip.write(entity, 1000, 1000);
+        assertTrue(gzip.isCompressing());
+        gzip.finish();
+        assertFalse(uncompressed.get());
+        assertArrayEquals(entity, gunzip(out.toByteArray()));
+    }
+
+    @Test
+    public void testDiscard() throws Exception {
+        DeflaterPool pool = new DeflaterPool(6, 1);
+        GZIPEncodingOutputStream gzip = new GZIPEncodingOutputStream(new ByteArrayOutputStream(), pool, 0, null);
+        gzip.write(entity(100), 0, 100);
+        gzip.discard();
+        assertEquals(0, pool.getIdleCount());
+    }
+}
@@ -0,0 +1,173 @@
+package org.jboss.resteasy.plugins.providers.sse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.sse.SseEventSink;
+
+import org.jboss.resteasy.annotations.SseElementType;
+import org.jboss.resteasy.mock.MockDispatcherFactory;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.mock.MockHttpResponse;
+import org.jboss.resteasy.spi.Dispatcher;
+import org.jboss.resteasy.spi.ResteasyAsynchronousContext;
+import org.jboss.resteasy.spi.ResteasyAsynchronousResponse;
+import org.jboss.resteasy.spi.RunnableWithException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SseBroadcasterImplTest {
+
+    public static class Price {
+        final String symbol;
+        final int value;
+
+        Price(final String symbol, final int value) {
+            this.symbol = symbol;
+            this.value = value;
+        }
+    }
+
+    /**
+     * The only writer of {@link Price}, so that an event written as text/plain fails.
+     */
+    @Produces(MediaType.APPLICATION_JSON)
+    public static class PriceWriter implements MessageBodyWriter<Price> {
+        @Override
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+            return type == Price.class && MediaType.APPLICATION_JSON_TYPE.isCompatible(mediaType);
+        }
+
+        @Override
+        public void writeTo(Price price, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                            MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+            entityStream.write(("{\"symbol\":\"" + price.symbol + "\",\"value\":" + price.value + "}")
+                    .getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Path("/prices")
+    public static class PriceResource {
+        static SseBroadcasterImpl broadcaster;
+
+        @GET
+        @Produces(MediaType.SERVER_SENT_EVENTS)
+        @SseElementType(MediaType.APPLICATION_JSON)
+        public void subscribe(@Context SseEventSink sink) {
+            broadcaster.register(sink);
+        }
+    }
+
+    /**
+     * Keeps the response open once the sink suspends it, like a servlet container.
+     */
+    private static class OpenContext implements ResteasyAsynchronousContext {
+        boolean suspended;
+
+        @Override
+        public void initialRequestStarted() {
+        }
+
+        @Override
+        public void initialRequestEnded() {
+        }
+
+        @Override
+        public boolean isOnInitialRequest() {
+            return true;
+        }
+
+        @Override
+        public boolean isSuspended() {
+            return suspended;
+        }
+
+        @Override
+        public ResteasyAsynchronousResponse getAsyncResponse() {
+            return null;
+        }
+
+        @Override
+        public ResteasyAsynchronousResponse suspend() {
+            suspended = true;
+            return null;
+        }
+
+        @Override
+        public ResteasyAsynchronousResponse suspend(long millis) {
+            return suspend();
+        }
+
+        @Override
+        public ResteasyAsynchronousResponse suspend(long time, TimeUnit unit) {
+            return suspend();
+        }
+
+        @Override
+        public void complete() {
+        }
+
+        @Override
+        public CompletionStage<Void> executeBlockingIo(RunnableWithException f, boolean hasInterceptors) {
+            CompletableFuture<Void> ret = new CompletableFuture<>();
+            try {
+                f.run();
+                ret.complete(null);
+            } catch (Exception e) {
+                ret.completeExceptionally(e);
+            }
+            return ret;
+        }
+
+        @Override
+        public CompletionStage<Void> executeAsyncIo(CompletionStage<Void> f) {
+            return f;
+        }
+    }
+
+    private static MockHttpResponse subscribe(Dispatcher dispatcher) throws Exception {
+        MockHttpRequest request = MockHttpRequest.get("/prices");
+        request.setAsynchronousContext(new OpenContext());
+        MockHttpResponse response = new MockHttpResponse();
+        dispatcher.invoke(request, response);
+        return response;
+    }
+
+    @Test
+    public void testBroadcastJsonEvent() throws Exception {
+        Dispatcher dispatcher = MockDispatcherFactory.createDispatcher();
+        dispatcher.getProviderFactory().registerProvider(PriceWriter.class);
+        dispatcher.getRegistry().addPerRequestResource(PriceResource.class);
+        SseBroadcasterImpl broadcaster = new SseBroadcasterImpl();
+        PriceResource.broadcaster = broadcaster;
+
+        MockHttpResponse first = subscribe(dispatcher);
+        MockHttpResponse second = subscribe(dispatcher);
+        broadcaster.broadcast(new OutboundSseEventImpl.BuilderImpl().name("price")
+                .data(Price.class, new Price("ACME", 42)).build()).toCompletableFuture().get();
+
+        for (MockHttpResponse response : new MockHttpResponse[]{first, second}) {
+            assertEquals(200, response.getStatus());
+            String events = response.getContentAsString();
+            assertTrue(events, events.contains("event: price\ndata: {\"symbol\":\"ACME\",\"value\":42}\n\n"));
+        }
+        assertEquals(0, broadcaster.getQueuedEventCount());
+        assertEquals(0, broadcaster.getDroppedEventCount());
+        broadcaster.close();
+    }
+}
@@ -0,0 +1,201 @@
+package org.jboss.resteasy.plugins.providers.sse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SseEventQueueTest {
+
+    /**
+     * Sink whose writes complete when the test says so.
+     */
+    private static class SlowSink {
+        final List<String> written = new ArrayList<>();
+        final List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+        CompletionStage<?> write(OutboundSseEvent event) {
+            written.add(event.getName() + "=" + event.getData());
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            pending.add(future);
+            return future;
+        }
+
+        void completeAll() {
+            while (!pending.isEmpty()) {
+                pending.remove(0).complete(null);
+            }
+        }
+    }
+
+    private static OutboundSseEvent event(String name, String data) {
+        return new OutboundSseEventImpl.BuilderImpl().name(name).data(String.class, data).build();
+    }
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    @Test
+    public void testWritesInOrderOneAtATime() {
+        SlowSink sink = new SlowSink();
+        SseEventQueue queue = new SseEventQueue(10, SseOverflowPolicy.DROP, sink::write, () -> { }, dropped, coalesced);
+        CompletionStage<Void> first = queue.offer(event("a", "1"));
+        CompletionStage<Void> second = queue.offer(event("a", "2"));
+        assertEquals(1, sink.written.size());
+        assertEquals(1, queue.getDepth());
+
+        sink.pending.remove(0).complete(null);
+        assertTrue(first.toCompletableFuture().isDone());
+        assertFalse(second.toCompletableFuture().isDone());
+        assertEquals(2, sink.written.size());
+        sink.completeAll();
+        assertTrue(second.toCompletableFuture().isDone());
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    public void testSynchronousWrites() {
+        List<String> written = new ArrayList<>();
+        SseEventQueue queue = new SseEventQueue(1, SseOverflowPolicy.DISCONNECT, e -> {
+            written.add(e.getData().toString());
+            return CompletableFuture.completedFuture(null);
+        }, () -> { }, dropped, coalesced);
+        for (int i = 0; i < 10000; i++) {
+            assertTrue(queue.offer(event("a", String.valueOf(i))).toCompletableFuture().isDone());
+        }
+        assertEquals(10000, written.size());
+        assertFalse(queue.isDisconnected());
+    }
+
+    @Test
+    public void testDrop() {
+        SlowSink sink = new SlowSink();
+        SseEventQueue queue = new SseEventQueue(2, SseOverflowPolicy.DROP, sink::write, () -> { }, dropped, coalesced);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(event("a", String.valueOf(i)));
+        }
+        // one being written, two queued
+        assertEquals(2, queue.getDepth());
+        assertEquals(2, dropped.sum());
+        sink.completeAll();
+        sink.completeAll();
+        assertEquals("[a=0, a=1, a=2]", sink.written.toString());
+    }
+
+    @Test
+    public void testCoalesce() {
+        SlowSink sink = new SlowSink();
+        SseEventQueue queue = new SseEventQueue(2, SseOverflowPolicy.COALESCE, sink::write, () -> { }, dropped, coalesced);
+        queue.offer(event("a", "1"));
+        queue.offer(event("a", "2"));
+        queue.offer(event("b", "1"));
+        queue.offer(event("a", "3"));
+        queue.offer(event("c", "1"));
+        assertEquals(1, coalesced.sum());
+        assertEquals(1, dropped.sum());
+        for (int i = 0; i < 3; i++) {
+            sink.completeAll();
+        }
+        // a=2 was replaced by a=3, then the oldest pending event dropped for c=1
+        assertEquals("[a=1, b=1, c=1]", sink.written.toString());
+    }
+
+    @Test
+    public void testDisconnect() {
+        SlowSink sink = new SlowSink();
+        AtomicBoolean closed = new AtomicBoolean();
+        SseEventQueue queue = new SseEventQueue(1, SseOverflowPolicy.DISCONNECT, sink::write, () -> closed.set(true), dropped, coalesced);
+        queue.offer(event("a", "1"));
+        CompletionStage<Void> queued = queue.offer(event("a", "2"));
+        CompletionStage<Void> overflow = queue.offer(event("a", "3"));
+        assertTrue(closed.get());
+        assertTrue(queue.isDisconnected());
+        assertTrue(queued.toCompletableFuture().isDone());
+        assertTrue(overflow.toCompletableFuture().isCompletedExceptionally());
+        assertTrue(queue.offer(event("a", "4")).toCompletableFuture().isCompletedExceptionally());
+        assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    public void testBytesBound() {
+        SlowSink sink = new SlowSink();
+        SseEventQueue queue = new SseEventQueue(10, 10, SseOverflowPolicy.DROP, (e, b) -> sink.write(e),
+                () -> { }, dropped, coalesced);
+        // written at once, then queued until the size goes over the bound
+        queue.offer(event("a", "1"), new byte[8]);
+        queue.offer(event("a", "2"), new byte[8]);
+        assertEquals(8, queue.getQueuedBytes());
+        queue.offer(event("a", "3"), new byte[8]);
+        assertEquals(1, dropped.sum());
+        assertEquals(1, queue.getDepth());
+        sink.completeAll();
+        assertEquals(0, queue.getQueuedBytes());
+        queue.offer(event("a", "4"), new byte[8]);
+        // a single pending event is accepted whatever its size
+        queue.offer(event("a", "5"), new byte[64]);
+        assertEquals(64, queue.getQueuedBytes());
+        sink.completeAll();
+        assertEquals("[a=1, a=2, a=4, a=5]", sink.written.toString());
+    }
+
+    @Test
+    public void testCoalesceKeepsBytes() {
+        SlowSink sink = new SlowSink();
+        SseEventQueue queue = new SseEventQueue(2, Long.MAX_VALUE, SseOverflowPolicy.COALESCE, (e, b) -> sink.write(e),
+                () -> { }, dropped, coalesced);
+        queue.offer(event("a", "1"), new byte[1]);
+        queue.offer(event("a", "2"), new byte[2]);
+        queue.offer(event("b", "1"), new byte[4]);
+        queue.offer(event("a", "3"), new byte[8]);
+        assertEquals(12, queue.getQueuedBytes());
+        queue.offer(event("c", "1"), new byte[16]);
+        assertEquals(20, queue.getQueuedBytes());
+    }
+
+    @Test
+    public void testWhenReady() {
+        SlowSink sink = new SlowSink();
+        SseEventQueue queue = new SseEventQueue(1, SseOverflowPolicy.DROP, sink::write, () -> { }, dropped, coalesced);
+        assertTrue(queue.whenReady().toCompletableFuture().isDone());
+        queue.offer(event("a", "1"));
+        queue.offer(event("a", "2"));
+        CompletionStage<Void> ready = queue.whenReady();
+        assertFalse(ready.toCompletableFuture().isDone());
+        sink.pending.remove(0).complete(null);
+        assertTrue(ready.toCompletableFuture().isDone());
+        assertFalse(ready.toCompletableFuture().isCompletedExceptionally());
+
+        queue.offer(event("a", "3"));
+        CompletionStage<Void> closed = queue.whenReady();
+        queue.close(null);
+        assertTrue(closed.toCompletableFuture().isCompletedExceptionally());
+        assertEquals(0, dropped.sum());
+    }
+
+    @Test
+    public void testClose() {
+        SlowSink sink = new SlowSink();
+        SseEventQueue queue = new SseEventQueue(10, SseOverflowPolicy.DROP, sink::write, () -> { }, dropped, coalesced);
+        CompletionStage<Void> first = queue.offer(event("a", "1"));
+        CompletionStage<Void> second = queue.offer(event("a", "2"));
+        CompletionStage<Void> written = queue.whenWritten();
+        queue.close(new IllegalStateException());
+        assertTrue(second.toCompletableFuture().isCompletedExceptionally());
+        assertTrue(written.toCompletableFuture().isDone());
+        assertFalse(first.toCompletableFuture().isDone());
+        sink.completeAll();
+        assertTrue(first.toCompletableFuture().isDone());
+        assertEquals("[a=1]", sink.written.toString());
+        assertTrue(queue.offer(event("a", "3")).toCompletableFuture().isCompletedExceptionally());
+    }
+}
@@ -0,0 +1,63 @@
+package org.jboss.resteasy.statistics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MethodStatisticsLoggerImplTest {
+
+    @Test
+    public void testBuckets() {
+        for (long value = 0; value < 100_000; value++) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertTrue(value <= LatencyHistogram.highestValue(bucket));
+            assertTrue(bucket == 0 || value > LatencyHistogram.highestValue(bucket - 1));
+        }
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(Long.MAX_VALUE));
+        assertEquals(LatencyHistogram.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000);
+        }
+        assertEquals(1000, histogram.getTotalCount());
+        long[] values = histogram.getValuesAtPercentiles(50, 90, 99, 99.9, 100);
+        assertWithin(500_000, values[0]);
+        assertWithin(900_000, values[1]);
+        assertWithin(990_000, values[2]);
+        assertWithin(999_000, values[3]);
+        assertWithin(1_000_000, values[4]);
+    }
+
+    @Test
+    public void testLogger() {
+        MethodStatisticsLoggerImpl logger = new MethodStatisticsLoggerImpl();
+        long now = logger.timestamp();
+        logger.duration(now - 2_000_000);
+        logger.duration(now - 4_000_000);
+        logger.incFailureCnt();
+
+        assertEquals(2, logger.getInvocationCnt());
+        assertEquals(1, logger.getFailedInvocationCnt());
+        assertTrue(logger.getAvgExecutionTime() >= 3_000_000);
+        assertTrue(logger.getExecutionTimePercentile(99.9) <= logger.getMaxExecutionTime());
+        assertTrue(logger.getExecutionTimePercentile(99.9) >= 4_000_000);
+
+        logger.reset();
+        assertEquals(0, logger.getInvocationCnt());
+        assertEquals(0, logger.getFailedInvocationCnt());
+        assertEquals(0, logger.getAvgExecutionTime());
+        assertEquals(0, logger.getExecutionTimePercentile(50));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        // one bucket is 1/8 of the power of two range the value is in
+        assertTrue("expected " + expected + " but was " + actual,
+                actual >= expected && actual <= expected + expected / 4);
+    }
+}
@@ -0,0 +1,53 @@
+package org.jboss.resteasy.util;
+
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class AcceptHeaderCacheTest {
+
+    @Test
+    public void testParsedOnce() {
+        List<MediaType> first = AcceptHeaderCache.parse(Collections.singletonList("text/plain;q=0.5, application/json"));
+        List<MediaType> second = AcceptHeaderCache.parse(Collections.singletonList("text/plain;q=0.5, application/json"));
+        assertSame(first, second);
+        assertEquals(Arrays.asList(MediaType.APPLICATION_JSON_TYPE, MediaType.valueOf("text/plain;q=0.5")), first);
+        assertEquals(MediaType.APPLICATION_JSON_TYPE.hashCode(), first.get(0).hashCode());
+    }
+
+    @Test
+    public void testMediaTypesShared() {
+        List<MediaType> one = AcceptHeaderCache.parse(Collections.singletonList("application/xml,application/json"));
+        List<MediaType> other = AcceptHeaderCache.parse(Arrays.asList("application/json", "text/html"));
+        assertSame(one.get(1), other.get(0));
+    }
+
+    @Test
+    public void testMissingHeader() {
+        assertSame(AcceptHeaderCache.WILDCARD, AcceptHeaderCache.parse(null));
+        assertSame(AcceptHeaderCache.WILDCARD, AcceptHeaderCache.parse(Collections.<String>emptyList()));
+        assertEquals(Collections.singletonList(MediaType.WILDCARD_TYPE), AcceptHeaderCache.WILDCARD);
+    }
+
+    @Test
+    public void testWeightedMediaTypes() {
+        AcceptHeaderCache.Parsed parsed = AcceptHeaderCache.parse(Collections.singletonList("text/*;q=0.2,text/html"));
+        List<WeightedMediaType> weighted = parsed.getWeightedMediaTypes();
+        assertEquals(2, weighted.size());
+        assertEquals(1.0f, weighted.get(0).getWeight(), 0.0001f);
+        assertEquals(0.2f, weighted.get(1).getWeight(), 0.0001f);
+        assertEquals("*", weighted.get(1).getSubtype());
+        assertSame(weighted, parsed.getWeightedMediaTypes());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testImmutable() {
+        AcceptHeaderCache.parse(Collections.singletonList("text/plain")).add(MediaType.WILDCARD_TYPE);
+    }
+}
@@ -0,0 +1,52 @@
+package org.jboss.resteasy.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void testHitAndMiss() {
+        final BoundedCache<String, String> cache = new BoundedCache<>(10);
+        assertNull(cache.get("a"));
+        assertEquals("1", cache.putIfAbsent("a", "1"));
+        assertEquals("1", cache.putIfAbsent("a", "2"));
+        assertEquals("1", cache.get("a"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRatio(), 0.0001);
+    }
+
+    @Test
+    public void testSizeIsBounded() {
+        final BoundedCache<Integer, Integer> cache = new BoundedCache<>(100);
+        for (int i = 0; i < 10000; i++) {
+            cache.putIfAbsent(i, i);
+        }
+        assertTrue(cache.size() <= 100);
+        assertEquals(10000 - cache.size(), cache.getEvictionCount());
+    }
+
+    @Test
+    public void testReferencedEntriesSurviveEviction() {
+        final BoundedCache<Integer, Integer> cache = new BoundedCache<>(10);
+        cache.putIfAbsent(-1, -1);
+        for (int i = 0; i < 100; i++) {
+            cache.get(-1);
+            cache.putIfAbsent(i, i);
+        }
+        assertEquals(Integer.valueOf(-1), cache.get(-1));
+    }
+
+    @Test
+    public void testClear() {
+        final BoundedCache<String, String> cache = new BoundedCache<>(10);
+        cache.putIfAbsent("a", "1");
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("a"));
+    }
+}
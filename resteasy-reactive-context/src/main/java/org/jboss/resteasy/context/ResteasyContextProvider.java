@@ -15,7 +15,7 @@ public class ResteasyContextProvider implements ThreadContextProvider
    @Override
    public ThreadContextSnapshot currentContext(Map<String, String> props)
    {
-      Map<Class<?>, Object> context = ResteasyContext.getContextDataMap();
+      Map<Class<?>, Object> context = ResteasyContext.captureContextDataMap();
       return () -> {
          ResteasyContext.pushContextDataMap(context);
          return () -> {
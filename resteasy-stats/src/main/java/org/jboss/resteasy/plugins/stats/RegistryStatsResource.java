@@ -15,6 +15,7 @@ import org.jboss.resteasy.core.ResourceMethodRegistry;
 import org.jboss.resteasy.core.ResteasyContext;
 import org.jboss.resteasy.spi.Registry;
 import org.jboss.resteasy.spi.ResourceInvoker;
+import org.jboss.resteasy.spi.statistics.MethodStatisticsLogger;
 
 /**
  * @author <a href="mailto:bill@burkecentral.com">Bill Burke</a>
@@ -60,6 +61,7 @@ public class RegistryStatsResource
                   AtomicLong stat = rm.getStats().get(httpMethod);
                   if (stat != null) method.setInvocations(stat.longValue());
                   else method.setInvocations(0);
+                  setExecutionStatistics(method, rm.getMethodStatisticsLogger());
 
                   if (rm.getProduces() != null)
                   {
@@ -95,4 +97,18 @@ public class RegistryStatsResource
 
       return data;
    }
+
+   private static void setExecutionStatistics(ResourceMethodEntry method, MethodStatisticsLogger statistics)
+   {
+      // the no-op logger used while statistics are disabled returns -1
+      if (statistics == null || statistics.getInvocationCnt() < 0) return;
+      method.setFailures(statistics.getFailedInvocationCnt());
+      method.setAvgExecutionTime(statistics.getAvgExecutionTime());
+      method.setMaxExecutionTime(statistics.getMaxExecutionTime());
+      long[] percentiles = statistics.getExecutionTimePercentiles(50, 90, 99, 99.9);
+      method.setP50ExecutionTime(percentiles[0]);
+      method.setP90ExecutionTime(percentiles[1]);
+      method.setP99ExecutionTime(percentiles[2]);
+      method.setP999ExecutionTime(percentiles[3]);
+   }
 }
@@ -28,6 +28,28 @@ public class ResourceMethodEntry
    @XmlAttribute
    private long invocations;
 
+   // the following are only set when statistics are enabled, times are in nanoseconds
+   @XmlAttribute
+   private Long failures;
+
+   @XmlAttribute
+   private Long avgExecutionTime;
+
+   @XmlAttribute
+   private Long maxExecutionTime;
+
+   @XmlAttribute
+   private Long p50ExecutionTime;
+
+   @XmlAttribute
+   private Long p90ExecutionTime;
+
+   @XmlAttribute
+   private Long p99ExecutionTime;
+
+   @XmlAttribute
+   private Long p999ExecutionTime;
+
    @XmlElement
    private List<String> produces = new ArrayList<String>();
 
@@ -66,6 +88,76 @@ public class ResourceMethodEntry
       this.invocations = invocations;
    }
 
+   public Long getFailures()
+   {
+      return failures;
+   }
+
+   public void setFailures(Long failures)
+   {
+      this.failures = failures;
+   }
+
+   public Long getAvgExecutionTime()
+   {
+      return avgExecutionTime;
+   }
+
+   public void setAvgExecutionTime(Long avgExecutionTime)
+   {
+      this.avgExecutionTime = avgExecutionTime;
+   }
+
+   public Long getMaxExecutionTime()
+   {
+      return maxExecutionTime;
+   }
+
+   public void setMaxExecutionTime(Long maxExecutionTime)
+   {
+      this.maxExecutionTime = maxExecutionTime;
+   }
+
+   public Long getP50ExecutionTime()
+   {
+      return p50ExecutionTime;
+   }
+
+   public void setP50ExecutionTime(Long p50ExecutionTime)
+   {
+      this.p50ExecutionTime = p50ExecutionTime;
+   }
+
+   public Long getP90ExecutionTime()
+   {
+      return p90ExecutionTime;
+   }
+
+   public void setP90ExecutionTime(Long p90ExecutionTime)
+   {
+      this.p90ExecutionTime = p90ExecutionTime;
+   }
+
+   public Long getP99ExecutionTime()
+   {
+      return p99ExecutionTime;
+   }
+
+   public void setP99ExecutionTime(Long p99ExecutionTime)
+   {
+      this.p99ExecutionTime = p99ExecutionTime;
+   }
+
+   public Long getP999ExecutionTime()
+   {
+      return p999ExecutionTime;
+   }
+
+   public void setP999ExecutionTime(Long p999ExecutionTime)
+   {
+      this.p999ExecutionTime = p999ExecutionTime;
+   }
+
    public List<String> getProduces()
    {
       return produces;
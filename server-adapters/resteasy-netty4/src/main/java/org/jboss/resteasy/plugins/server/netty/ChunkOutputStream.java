@@ -8,7 +8,6 @@ import org.jboss.resteasy.plugins.server.netty.i18n.Messages;
 import org.jboss.resteasy.spi.AsyncOutputStream;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelPromise;
 import io.netty.handler.codec.http.DefaultHttpContent;
@@ -28,35 +27,81 @@ import io.netty.handler.codec.http.DefaultHttpContent;
  * ctx.writeAndFlush(LastHttpContent.EMPTY_LAST_CONTENT).addListener(ChannelFutureListener.CLOSE);
  * }
  * </pre>
+ * <p>
+ * The content is gathered in buffers of the channel's {@link io.netty.buffer.ByteBufAllocator}, which are handed to
+ * the channel as they are without being copied. A buffer is sent once the chunk size is reached, or when the stream is
+ * flushed, so that small writes go out together.  A buffer which is not sent, because the response is reset or the
+ * connection is closed first, is given back to the allocator.
+ * <p>
+ * Until it is sent, the buffer only belongs to the thread writing the response, the event loop never touches it: a
+ * chunk which could not be sent only marks the stream as failed, and the next write, which also fails when the
+ * connection is closed, releases the buffer.
+ *
  * @author tbussier
  *
  */
 public class ChunkOutputStream extends AsyncOutputStream {
-   final ByteBuf buffer;
+   // only used by the thread writing the response
+   ByteBuf buffer;
    final ChannelHandlerContext ctx;
    final NettyHttpResponse response;
+   final int chunksize;
+   // set on the event loop when a chunk could not be sent
+   private volatile Throwable failure;
 
    ChunkOutputStream(final NettyHttpResponse response, final ChannelHandlerContext ctx, final int chunksize) {
       this.response = response;
       if (chunksize < 1) {
          throw new IllegalArgumentException(Messages.MESSAGES.chunkSizeMustBeAtLeastOne());
       }
-      this.buffer = Unpooled.buffer(0, chunksize);
+      this.chunksize = chunksize;
       this.ctx = ctx;
    }
 
+   private ByteBuf buffer() throws IOException {
+      checkOpen();
+      if (buffer == null) {
+         buffer = ctx.alloc().directBuffer(chunksize, chunksize);
+      }
+      return buffer;
+   }
+
+   /**
+    * @throws IOException if a chunk could not be sent or the connection is closed, once the content which was not
+    * sent yet is discarded
+    */
+   private void checkOpen() throws IOException {
+      Throwable cause = failure;
+      if (cause != null || !ctx.channel().isActive()) {
+         release();
+         throw new IOException(Messages.MESSAGES.connectionClosed(), cause);
+      }
+   }
+
+   /**
+    * Discards the content which was not sent yet.  Must be called by the thread writing the response.
+    */
+   void release() {
+      ByteBuf buf = buffer;
+      if (buf != null) {
+         buffer = null;
+         buf.release();
+      }
+   }
+
    @Override
    public void write(int b) throws IOException {
-      if (buffer.maxWritableBytes() < 1) {
-         flush();
+      ByteBuf buf = buffer();
+      buf.writeByte(b);
+      if (buf.maxWritableBytes() == 0) {
+         send(ctx.newPromise());
       }
-      buffer.writeByte(b);
    }
 
    public void reset()
    {
       if (response.isCommitted()) throw new IllegalStateException(Messages.MESSAGES.responseIsCommitted());
-      buffer.clear();
+      release();
    }
 
    @Override
@@ -74,17 +119,16 @@ public class ChunkOutputStream extends AsyncOutputStream {
    private void write(byte[] b, int off, int len, ChannelPromise promise) throws IOException {
       int dataLengthLeftToWrite = len;
       int dataToWriteOffset = off;
-      int spaceLeftInCurrentChunk;
       MultiPromise mp = new MultiPromise(ctx, promise);
-      while ((spaceLeftInCurrentChunk = buffer.maxWritableBytes()) < dataLengthLeftToWrite) {
-         buffer.writeBytes(b, dataToWriteOffset, spaceLeftInCurrentChunk);
-         dataToWriteOffset = dataToWriteOffset + spaceLeftInCurrentChunk;
-         dataLengthLeftToWrite = dataLengthLeftToWrite - spaceLeftInCurrentChunk;
-         flush(mp.newPromise());
-      }
-      if (dataLengthLeftToWrite > 0) {
-         buffer.writeBytes(b, dataToWriteOffset, dataLengthLeftToWrite);
-         flush(mp.newPromise());
+      while (dataLengthLeftToWrite > 0) {
+         ByteBuf buf = buffer();
+         int length = Math.min(dataLengthLeftToWrite, buf.maxWritableBytes());
+         buf.writeBytes(b, dataToWriteOffset, length);
+         dataToWriteOffset = dataToWriteOffset + length;
+         dataLengthLeftToWrite = dataLengthLeftToWrite - length;
+         if (buf.maxWritableBytes() == 0) {
+            send(mp.newPromise());
+         }
       }
       mp.readyToForward();
    }
@@ -95,17 +139,33 @@ public class ChunkOutputStream extends AsyncOutputStream {
    }
 
    private void flush(ChannelPromise promise) throws IOException {
-      int readable = buffer.readableBytes();
-      if (readable == 0) {
+      if (buffer == null || !buffer.isReadable()) {
+         // give the pooled buffer back, the response may be finished
+         release();
          promise.setSuccess();
          return;
       }
-      if (!response.isCommitted()) response.prepareChunkStream();
-      ctx.writeAndFlush(new DefaultHttpContent(buffer.copy()), promise);
-      buffer.clear();
+      try {
+         checkOpen();
+      } catch (IOException e) {
+         promise.setFailure(e);
+         return;
+      }
+      send(promise);
       super.flush();
    }
 
+   private void send(ChannelPromise promise) {
+      if (!response.isCommitted()) response.prepareChunkStream();
+      // the channel takes over the buffer and releases it once written
+      ByteBuf chunk = buffer;
+      buffer = null;
+      ctx.writeAndFlush(new DefaultHttpContent(chunk), promise).addListener(future -> {
+         // the next chunks will not be sent either, the writing thread gives up at its next write
+         if (!future.isSuccess()) failure = future.cause();
+      });
+   }
+
    @Override
    public CompletionStage<Void> asyncFlush()
    {
@@ -60,6 +60,7 @@ public class NettyHttpRequest extends BaseHttpRequest
    private final ChannelHandlerContext ctx;
    private volatile boolean flushed;
    private ByteBuf content;
+   private NettyRequestBodyStream bodyStream;
 
    public NettyHttpRequest(final ChannelHandlerContext ctx, final ResteasyHttpHeaders httpHeaders, final ResteasyUriInfo uri, final String httpMethod, final SynchronousDispatcher dispatcher, final NettyHttpResponse response, final boolean is100ContinueExpected)
    {
@@ -191,10 +192,29 @@ public class NettyHttpRequest extends BaseHttpRequest
       this.inputStream = new ByteBufInputStream(content);
    }
 
+   /**
+    * Sets the body of a request dispatched while it is still being received.
+    */
+   public void setBodyStream(NettyRequestBodyStream bodyStream) {
+      this.bodyStream = bodyStream;
+      this.inputStream = bodyStream;
+   }
+
+   /**
+    * @return the body being received, or null when the body was received before the request was dispatched
+    */
+   public NettyRequestBodyStream getBodyStream() {
+      return bodyStream;
+   }
+
    public void releaseContentBuffer() {
       if (content != null) {
          this.content.release();
       }
+      // a suspended request may still read its body, it is released when the response is sent
+      if (bodyStream != null && !executionContext.isSuspended()) {
+         bodyStream.close();
+      }
    }
 
    class NettyExecutionContext extends AbstractExecutionContext {
@@ -274,7 +294,7 @@ public class NettyHttpRequest extends BaseHttpRequest
               }
               return CompletableFuture.completedFuture(null);
           } else if(!hasInterceptors) {
-              Map<Class<?>, Object> context = ResteasyContext.getContextDataMap();
+              Map<Class<?>, Object> context = ResteasyContext.captureContextDataMap();
               // turn any sync request into async
               if(!isSuspended()) {
                   suspend();
@@ -388,6 +408,13 @@ public class NettyHttpRequest extends BaseHttpRequest
             {
                throw new RuntimeException(e);
             }
+            finally
+            {
+               if (bodyStream != null)
+               {
+                  bodyStream.close();
+               }
+            }
          }
 
          @Override
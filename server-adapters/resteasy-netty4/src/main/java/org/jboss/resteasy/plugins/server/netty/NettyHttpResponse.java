@@ -34,8 +34,10 @@ import io.netty.handler.codec.http.LastHttpContent;
 public class NettyHttpResponse implements HttpResponse
 {
    private static final int EMPTY_CONTENT_LENGTH = 0;
+   static final int DEFAULT_BUFFER_SIZE = 8192;
    private int status = 200;
    private OutputStream os;
+   private final ChunkOutputStream chunkOutputStream;
    private MultivaluedMap<String, Object> outputHeaders;
    private final ChannelHandlerContext ctx;
    private boolean committed;
@@ -49,10 +51,19 @@ public class NettyHttpResponse implements HttpResponse
    }
 
    public NettyHttpResponse(final ChannelHandlerContext ctx, final boolean keepAlive, final ResteasyProviderFactory providerFactory, final HttpMethod method)
+   {
+      this(ctx, keepAlive, providerFactory, method, DEFAULT_BUFFER_SIZE);
+   }
+
+   /**
+    * @param bufferSize the number of bytes written to the output stream which are gathered before being sent as a chunk
+    */
+   public NettyHttpResponse(final ChannelHandlerContext ctx, final boolean keepAlive, final ResteasyProviderFactory providerFactory, final HttpMethod method, final int bufferSize)
    {
       outputHeaders = new MultivaluedMapImpl<String, Object>();
       this.method = method;
-      os = (method == null || !method.equals(HttpMethod.HEAD)) ? new ChunkOutputStream(this, ctx, 1000) : null; //[RESTEASY-1627]
+      chunkOutputStream = (method == null || !method.equals(HttpMethod.HEAD)) ? new ChunkOutputStream(this, ctx, bufferSize) : null; //[RESTEASY-1627]
+      os = chunkOutputStream;
       this.ctx = ctx;
       this.keepAlive = keepAlive;
       this.providerFactory = providerFactory;
@@ -103,6 +114,7 @@ public class NettyHttpResponse implements HttpResponse
    @Override
    public void sendError(int status, String message) throws IOException
    {
+      releaseBuffer();
       if (committed)
       {
          throw new IllegalStateException();
@@ -157,7 +169,21 @@ public class NettyHttpResponse implements HttpResponse
          throw new IllegalStateException(Messages.MESSAGES.alreadyCommitted());
       }
       outputHeaders.clear();
-      outputHeaders.clear();
+      if (chunkOutputStream != null)
+      {
+         chunkOutputStream.reset();
+      }
+   }
+
+   /**
+    * Discards the content written to the output stream which was not sent yet.
+    */
+   void releaseBuffer()
+   {
+      if (chunkOutputStream != null)
+      {
+         chunkOutputStream.release();
+      }
    }
 
    public boolean isKeepAlive()
@@ -13,6 +13,7 @@ import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.http.HttpObjectAggregator;
 import io.netty.handler.codec.http.HttpRequestDecoder;
 import io.netty.handler.codec.http.HttpResponseEncoder;
+import io.netty.handler.codec.http.HttpServerExpectContinueHandler;
 import io.netty.handler.ssl.SniHandler;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.handler.timeout.IdleStateHandler;
@@ -65,6 +66,9 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer<NettyJaxrsServer>
    private int maxHeaderSize = 8192;
    private int maxChunkSize = 8192;
    private int backlog = 128;
+   private boolean streamingRequestBody;
+   private int requestBodyBufferSize = 64 * 1024;
+   private int responseBufferSize = 8192;
    // default no idle timeout.
    private int idleTimeout = -1;
    private List<ChannelHandler> channelHandlers = Collections.emptyList();
@@ -240,6 +244,40 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer<NettyJaxrsServer>
       return this;
    }
 
+   /**
+    * Dispatch requests as soon as their headers are received, instead of once their whole body is received.  The body
+    * is then read from a {@link NettyRequestBodyStream} while it is being received, so that large bodies stream to
+    * the {@link javax.ws.rs.ext.MessageBodyReader}s without being held in memory.  The max request size still applies.
+    *
+    * @param streamingRequestBody true to stream request bodies. This is false by default.
+    */
+   public NettyJaxrsServer setStreamingRequestBody(boolean streamingRequestBody) {
+      this.streamingRequestBody = streamingRequestBody;
+      return this;
+   }
+
+   /**
+    * Set the number of bytes of a streamed request body which are received ahead of the reader. Beyond it, the
+    * channel stops reading until the reader has read half of them.
+    *
+    * @param requestBodyBufferSize the buffer size in bytes. This is 64kb by default.
+    */
+   public NettyJaxrsServer setRequestBodyBufferSize(int requestBodyBufferSize) {
+      this.requestBodyBufferSize = requestBodyBufferSize;
+      return this;
+   }
+
+   /**
+    * Set the number of bytes of a response body which are gathered before being sent as a chunk. The response body is
+    * also sent when it is flushed.
+    *
+    * @param responseBufferSize the buffer size in bytes. This is 8kb by default.
+    */
+   public NettyJaxrsServer setResponseBufferSize(int responseBufferSize) {
+      this.responseBufferSize = responseBufferSize;
+      return this;
+   }
+
    public NettyJaxrsServer setMaxInitialLineLength(int maxInitialLineLength) {
       this.maxInitialLineLength = maxInitialLineLength;
       return this;
@@ -369,9 +407,18 @@ public class NettyJaxrsServer implements EmbeddedJaxrsServer<NettyJaxrsServer>
       }
       channelPipeline.addLast(new HttpRequestDecoder(maxInitialLineLength, maxHeaderSize, maxChunkSize));
       channelPipeline.addLast(new HttpResponseEncoder());
-      channelPipeline.addLast(new HttpObjectAggregator(maxRequestSize));
+      if (streamingRequestBody) {
+         channelPipeline.addLast(new HttpServerExpectContinueHandler());
+      } else {
+         channelPipeline.addLast(new HttpObjectAggregator(maxRequestSize));
+      }
       channelPipeline.addLast(httpChannelHandlers.toArray(new ChannelHandler[httpChannelHandlers.size()]));
-      channelPipeline.addLast(new RestEasyHttpRequestDecoder(dispatcher.getDispatcher(), root, protocol));
+      RestEasyHttpRequestDecoder requestDecoder = new RestEasyHttpRequestDecoder(dispatcher.getDispatcher(), root, protocol, responseBufferSize);
+      if (streamingRequestBody) {
+         channelPipeline.addLast(new RestEasyStreamingHttpRequestDecoder(requestDecoder, maxRequestSize, requestBodyBufferSize));
+      } else {
+         channelPipeline.addLast(requestDecoder);
+      }
       channelPipeline.addLast(new RestEasyHttpResponseEncoder());
       channelPipeline.addLast(eventExecutor, new RequestHandler(dispatcher));
    }
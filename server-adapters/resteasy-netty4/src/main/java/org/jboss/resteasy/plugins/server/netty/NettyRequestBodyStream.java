@@ -0,0 +1,232 @@
+package org.jboss.resteasy.plugins.server.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * {@link InputStream} over the body of a request which is still being received.  The chunks of the body are added on
+ * the event loop as they arrive, while the request is dispatched on an executor thread which reads them, blocking
+ * until the next chunk arrives.  When more than the high watermark of bytes are waiting to be read, the channel stops
+ * reading until the reader brings them below the low watermark.
+ * <p>
+ * Readers which must not block use {@link #whenReadable()}, which completes once {@link #available()} bytes, or the
+ * end of the body, can be read without blocking.
+ *
+ * @see NettyJaxrsServer#setStreamingRequestBody(boolean)
+ */
+public class NettyRequestBodyStream extends InputStream
+{
+   private final Channel channel;
+   private final int highWatermark;
+   private final int lowWatermark;
+   private final ArrayDeque<ByteBuf> chunks = new ArrayDeque<ByteBuf>();
+   private int buffered;
+   private boolean paused;
+   private boolean finished;
+   private boolean closed;
+   private IOException failure;
+   private CompletableFuture<Void> readable;
+
+   public NettyRequestBodyStream(final Channel channel, final int highWatermark)
+   {
+      this.channel = channel;
+      this.highWatermark = highWatermark;
+      this.lowWatermark = highWatermark / 2;
+   }
+
+   /**
+    * Adds a chunk of the body, taking over its reference.
+    */
+   void offer(ByteBuf chunk)
+   {
+      CompletableFuture<Void> toComplete;
+      synchronized (this)
+      {
+         if (closed || failure != null || !chunk.isReadable())
+         {
+            chunk.release();
+            return;
+         }
+         chunks.add(chunk);
+         buffered += chunk.readableBytes();
+         if (!paused && buffered > highWatermark)
+         {
+            paused = true;
+            channel.config().setAutoRead(false);
+         }
+         toComplete = signal();
+      }
+      complete(toComplete);
+   }
+
+   /**
+    * Marks the end of the body.
+    */
+   void finish()
+   {
+      CompletableFuture<Void> toComplete;
+      synchronized (this)
+      {
+         finished = true;
+         toComplete = signal();
+      }
+      complete(toComplete);
+   }
+
+   /**
+    * Fails the reads which go beyond the chunks already received.
+    */
+   void fail(IOException cause)
+   {
+      CompletableFuture<Void> toComplete;
+      synchronized (this)
+      {
+         if (failure == null)
+         {
+            failure = cause;
+         }
+         toComplete = signal();
+      }
+      complete(toComplete);
+   }
+
+   /**
+    * @return a stage which completes when {@link #read(byte[], int, int)} no longer blocks
+    */
+   public synchronized CompletionStage<Void> whenReadable()
+   {
+      if (!chunks.isEmpty() || finished || closed || failure != null)
+      {
+         return CompletableFuture.completedFuture(null);
+      }
+      if (readable == null)
+      {
+         readable = new CompletableFuture<Void>();
+      }
+      return readable;
+   }
+
+   /**
+    * @return true when the whole body has been received and read
+    */
+   public synchronized boolean isFinished()
+   {
+      return (finished || closed) && chunks.isEmpty();
+   }
+
+   @Override
+   public synchronized int available() throws IOException
+   {
+      return buffered;
+   }
+
+   @Override
+   public int read() throws IOException
+   {
+      byte[] b = new byte[1];
+      int n = read(b, 0, 1);
+      return n < 0 ? -1 : b[0] & 0xff;
+   }
+
+   @Override
+   public synchronized int read(byte[] b, int off, int len) throws IOException
+   {
+      if (len == 0)
+      {
+         return 0;
+      }
+      while (chunks.isEmpty())
+      {
+         if (closed)
+         {
+            return -1;
+         }
+         if (failure != null)
+         {
+            throw failure;
+         }
+         if (finished)
+         {
+            return -1;
+         }
+         try
+         {
+            wait();
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+         }
+      }
+      ByteBuf chunk = chunks.peek();
+      int n = Math.min(len, chunk.readableBytes());
+      chunk.readBytes(b, off, n);
+      if (!chunk.isReadable())
+      {
+         chunks.poll().release();
+      }
+      buffered -= n;
+      resumeIfDrained();
+      return n;
+   }
+
+   /**
+    * Releases the chunks which were not read, and discards the rest of the body.
+    */
+   @Override
+   public void close()
+   {
+      CompletableFuture<Void> toComplete;
+      synchronized (this)
+      {
+         if (closed)
+         {
+            return;
+         }
+         closed = true;
+         ByteBuf chunk;
+         while ((chunk = chunks.poll()) != null)
+         {
+            chunk.release();
+         }
+         buffered = 0;
+         resumeIfDrained();
+         toComplete = signal();
+      }
+      complete(toComplete);
+   }
+
+   private void resumeIfDrained()
+   {
+      if (paused && buffered < lowWatermark)
+      {
+         paused = false;
+         channel.config().setAutoRead(true);
+      }
+   }
+
+   private CompletableFuture<Void> signal()
+   {
+      notifyAll();
+      CompletableFuture<Void> toComplete = readable;
+      readable = null;
+      return toComplete;
+   }
+
+   private static void complete(CompletableFuture<Void> toComplete)
+   {
+      // outside of the monitor, the continuations may read
+      if (toComplete != null)
+      {
+         toComplete.complete(null);
+      }
+   }
+}
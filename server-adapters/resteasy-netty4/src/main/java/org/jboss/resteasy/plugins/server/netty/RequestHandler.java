@@ -50,12 +50,14 @@ public class RequestHandler extends SimpleChannelInboundHandler
             try {
                dispatcher.service(ctx, request, response, true);
             } catch (Failure e1) {
+               if (abort(ctx, response)) return;
                response.reset();
                response.setStatus(e1.getErrorCode());
             } catch (Exception ex) {
+               LogMessages.LOGGER.error(Messages.MESSAGES.unexpected(), ex);
+               if (abort(ctx, response)) return;
                response.reset();
                response.setStatus(500);
-               LogMessages.LOGGER.error(Messages.MESSAGES.unexpected(), ex);
             }
 
             if (!request.getAsyncContext().isSuspended()) {
@@ -68,6 +70,21 @@ public class RequestHandler extends SimpleChannelInboundHandler
       }
    }
 
+   /**
+    * Closes the connection of a response which failed once part of it was sent, since its status can no longer be
+    * changed.
+    *
+    * @return true if the response was aborted
+    */
+   private static boolean abort(ChannelHandlerContext ctx, NettyHttpResponse response) {
+      if (!response.isCommitted()) {
+         return false;
+      }
+      response.releaseBuffer();
+      ctx.close();
+      return true;
+   }
+
 // No longer called. However, note that if it is called, it should write a
 // io.netty.handler.codec.http.DefaultFullHttpResponse rather
 // than a io.netty.handler.codec.http.DefaultHttpResponse. The latter doesn't leave
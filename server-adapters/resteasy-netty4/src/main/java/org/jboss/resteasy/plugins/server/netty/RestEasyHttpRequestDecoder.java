@@ -8,6 +8,7 @@ import io.netty.handler.codec.MessageToMessageDecoder;
 import io.netty.handler.codec.http.HttpContent;
 import io.netty.handler.codec.http.HttpUtil;
 
+import java.io.IOException;
 import java.util.List;
 
 import org.jboss.resteasy.core.SynchronousDispatcher;
@@ -31,6 +32,7 @@ public class RestEasyHttpRequestDecoder extends MessageToMessageDecoder<io.netty
    private final SynchronousDispatcher dispatcher;
    private final String servletMappingPrefix;
    private final String proto;
+   private final int responseBufferSize;
 
    public enum Protocol
    {
@@ -39,8 +41,17 @@ public class RestEasyHttpRequestDecoder extends MessageToMessageDecoder<io.netty
    }
 
    public RestEasyHttpRequestDecoder(final SynchronousDispatcher dispatcher, final String servletMappingPrefix, final Protocol protocol)
+   {
+      this(dispatcher, servletMappingPrefix, protocol, NettyHttpResponse.DEFAULT_BUFFER_SIZE);
+   }
+
+   /**
+    * @param responseBufferSize the number of bytes of a response body which are gathered before being sent as a chunk
+    */
+   public RestEasyHttpRequestDecoder(final SynchronousDispatcher dispatcher, final String servletMappingPrefix, final Protocol protocol, final int responseBufferSize)
    {
       this.dispatcher = dispatcher;
+      this.responseBufferSize = responseBufferSize;
       this.servletMappingPrefix = servletMappingPrefix;
       if (protocol == Protocol.HTTP)
       {
@@ -54,9 +65,32 @@ public class RestEasyHttpRequestDecoder extends MessageToMessageDecoder<io.netty
 
    @Override
    protected void decode(ChannelHandlerContext ctx, io.netty.handler.codec.http.HttpRequest request, List<Object> out) throws Exception
+   {
+      NettyHttpRequest nettyRequest = createRequest(ctx, request);
+      if (nettyRequest != null && request instanceof HttpContent)
+      {
+         HttpContent content = (HttpContent) request;
+         ByteBuf byteBuf = content.content();
+
+         // Does the request contain a body that will need to be retained
+         if(byteBuf.readableBytes() > 0) {
+            ByteBuf buf = byteBuf.retain();
+            nettyRequest.setContentBuffer(buf);
+         }
+
+         out.add(nettyRequest);
+      }
+   }
+
+   /**
+    * Creates the {@link NettyHttpRequest} of the request line and headers, or answers with a 400 when they are invalid.
+    *
+    * @return the request, or null when it could not be decoded
+    */
+   protected NettyHttpRequest createRequest(ChannelHandlerContext ctx, io.netty.handler.codec.http.HttpRequest request) throws IOException
    {
       boolean keepAlive = HttpUtil.isKeepAlive(request);
-      final NettyHttpResponse response = new NettyHttpResponse(ctx, keepAlive, dispatcher.getProviderFactory(), request.method());
+      final NettyHttpResponse response = new NettyHttpResponse(ctx, keepAlive, dispatcher.getProviderFactory(), request.method(), responseBufferSize);
 
       DecoderResult decoderResult = request.decoderResult();
       if (decoderResult.isFailure())
@@ -70,7 +104,7 @@ public class RestEasyHttpRequestDecoder extends MessageToMessageDecoder<io.netty
          {
             response.sendError(400);
          }
-         return;
+         return null;
       }
 
       final ResteasyHttpHeaders headers;
@@ -80,26 +114,14 @@ public class RestEasyHttpRequestDecoder extends MessageToMessageDecoder<io.netty
          headers = NettyUtil.extractHttpHeaders(request);
 
          uriInfo = NettyUtil.extractUriInfo(request, servletMappingPrefix, proto);
-         NettyHttpRequest nettyRequest = new NettyHttpRequest(ctx, headers, uriInfo, request.method().name(), dispatcher, response, HttpUtil.is100ContinueExpected(request) );
-         if (request instanceof HttpContent)
-         {
-            HttpContent content = (HttpContent) request;
-            ByteBuf byteBuf = content.content();
-
-            // Does the request contain a body that will need to be retained
-            if(byteBuf.readableBytes() > 0) {
-               ByteBuf buf = byteBuf.retain();
-               nettyRequest.setContentBuffer(buf);
-            }
-
-            out.add(nettyRequest);
-         }
+         return new NettyHttpRequest(ctx, headers, uriInfo, request.method().name(), dispatcher, response, HttpUtil.is100ContinueExpected(request) );
       }
       catch (Exception e)
       {
          response.sendError(400);
          // made it warn so that people can filter this.
          LogMessages.LOGGER.warn(Messages.MESSAGES.failedToParseRequest(), e);
+         return null;
       }
    }
 }
@@ -0,0 +1,112 @@
+package org.jboss.resteasy.plugins.server.netty;
+
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.jboss.resteasy.plugins.server.netty.i18n.Messages;
+
+import static io.netty.handler.codec.http.HttpResponseStatus.REQUEST_ENTITY_TOO_LARGE;
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+
+/**
+ * This {@link MessageToMessageDecoder} decodes a {@link HttpRequest} to a {@link NettyHttpRequest} as soon as its
+ * headers are received, so that it is routed and dispatched while its body is still being received.  The
+ * {@link HttpContent}s which follow are fed to the {@link NettyRequestBodyStream} of the request.
+ *
+ * This implementation keeps the state of the request being received, so it is not sharable.
+ *
+ * @see NettyJaxrsServer#setStreamingRequestBody(boolean)
+ */
+public class RestEasyStreamingHttpRequestDecoder extends MessageToMessageDecoder<HttpObject>
+{
+   private final RestEasyHttpRequestDecoder requestDecoder;
+   private final int maxRequestSize;
+   private final int bufferSize;
+   private NettyRequestBodyStream body;
+   private long received;
+
+   /**
+    * @param requestDecoder decodes the request line and headers
+    * @param maxRequestSize the max size of a request body
+    * @param bufferSize the number of bytes received ahead of the reader before the channel stops reading
+    */
+   public RestEasyStreamingHttpRequestDecoder(final RestEasyHttpRequestDecoder requestDecoder, final int maxRequestSize, final int bufferSize)
+   {
+      this.requestDecoder = requestDecoder;
+      this.maxRequestSize = maxRequestSize;
+      this.bufferSize = bufferSize;
+   }
+
+   @Override
+   protected void decode(ChannelHandlerContext ctx, HttpObject msg, List<Object> out) throws Exception
+   {
+      if (msg instanceof FullHttpRequest)
+      {
+         // aggregated by a handler of the application
+         requestDecoder.decode(ctx, (FullHttpRequest) msg, out);
+         return;
+      }
+      if (msg instanceof HttpRequest)
+      {
+         HttpRequest request = (HttpRequest) msg;
+         if (HttpUtil.getContentLength(request, -1L) > maxRequestSize)
+         {
+            FullHttpResponse response = new DefaultFullHttpResponse(HTTP_1_1, REQUEST_ENTITY_TOO_LARGE);
+            HttpUtil.setContentLength(response, 0);
+            ctx.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
+            return;
+         }
+         NettyHttpRequest nettyRequest = requestDecoder.createRequest(ctx, request);
+         if (nettyRequest == null)
+         {
+            return;
+         }
+         body = new NettyRequestBodyStream(ctx.channel(), bufferSize);
+         received = 0;
+         nettyRequest.setBodyStream(body);
+         out.add(nettyRequest);
+      }
+      if (msg instanceof HttpContent && body != null)
+      {
+         HttpContent content = (HttpContent) msg;
+         received += content.content().readableBytes();
+         if (received > maxRequestSize)
+         {
+            // the rest of the body cannot be skipped without reading it all
+            body.fail(new IOException(Messages.MESSAGES.requestEntityTooLarge(maxRequestSize)));
+            body = null;
+            ctx.close();
+            return;
+         }
+         body.offer(content.content().retain());
+         if (msg instanceof LastHttpContent)
+         {
+            body.finish();
+            body = null;
+         }
+      }
+   }
+
+   @Override
+   public void channelInactive(ChannelHandlerContext ctx) throws Exception
+   {
+      if (body != null)
+      {
+         body.fail(new IOException(Messages.MESSAGES.connectionClosedBeforeRequestBody()));
+         body = null;
+      }
+      super.channelInactive(ctx);
+   }
+}
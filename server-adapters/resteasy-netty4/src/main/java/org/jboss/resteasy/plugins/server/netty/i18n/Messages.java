@@ -25,12 +25,21 @@ public interface Messages
    @Message(id = BASE + 10, value = "Chunk size must be at least 1")
    String chunkSizeMustBeAtLeastOne();
 
+   @Message(id = BASE + 11, value = "Connection closed before the request body was received")
+   String connectionClosedBeforeRequestBody();
+
    @Message(id = BASE + 12, value = "Exception caught by handler")
    String exceptionCaught();
 
+   @Message(id = BASE + 13, value = "Connection closed, the response cannot be sent")
+   String connectionClosed();
+
    @Message(id = BASE + 15, value = "Failed to parse request.")
    String failedToParseRequest();
 
+   @Message(id = BASE + 17, value = "Request body is larger than %s bytes")
+   String requestEntityTooLarge(int maxRequestSize);
+
    @Message(id = BASE + 20, value = "response is committed")
    String responseIsCommitted();
 
@@ -10,6 +10,7 @@ import org.junit.Test;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
@@ -18,9 +19,14 @@ import javax.ws.rs.core.Response;
 import javax.ws.rs.core.StreamingOutput;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.Socket;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.jboss.resteasy.test.TestPortProvider.generateURL;
 
@@ -33,6 +39,8 @@ public class StreamingOutputTest
    static String BASE_URI = generateURL("");
    static Client client;
    static CountDownLatch latch;
+   static CountDownLatch clientClosed;
+   static CompletableFuture<Long> endlessWritten;
 
    @Path("/test")
    public static class Resteasy1029Netty4StreamingOutput {
@@ -76,7 +84,65 @@ public class StreamingOutputTest
          };
       }
 
+      @GET
+      @Path("large")
+      @Produces(MediaType.TEXT_PLAIN)
+      public StreamingOutput large() {
+         return new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException, WebApplicationException {
+               // small writes, never flushed, spanning many chunks
+               for (int i = 0; i < 100000; i++) {
+                  output.write('0' + i % 10);
+                  output.write(("" + i % 10).getBytes(StandardCharsets.ISO_8859_1));
+               }
+            }
+         };
+      }
+
+      @GET
+      @Path("failed")
+      @Produces(MediaType.TEXT_PLAIN)
+      public StreamingOutput failed(@QueryParam("length") int length) {
+         return new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException, WebApplicationException {
+               for (int i = 0; i < length; i++) {
+                  output.write('x');
+               }
+               throw new IllegalStateException("failed after " + length + " bytes");
+            }
+         };
+      }
 
+      @GET
+      @Path("endless")
+      @Produces(MediaType.APPLICATION_OCTET_STREAM)
+      public StreamingOutput endless() {
+         return new StreamingOutput() {
+            @Override
+            public void write(OutputStream output) throws IOException, WebApplicationException {
+               byte[] block = new byte[16 * 1024];
+               long written = 0;
+               try {
+                  output.write(block);
+                  output.flush();
+                  clientClosed.await(20, TimeUnit.SECONDS);
+                  // far more than the client could ever read
+                  for (int i = 0; i < 4096; i++) {
+                     output.write(block);
+                     written += block.length;
+                  }
+               } catch (IOException e) {
+                  endlessWritten.completeExceptionally(e);
+                  throw e;
+               } catch (InterruptedException e) {
+                  throw new RuntimeException(e);
+               }
+               endlessWritten.complete(written);
+            }
+         };
+      }
 
    }
 
@@ -139,4 +205,64 @@ public class StreamingOutputTest
               "\n"));
       Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
    }
+
+   @Test
+   public void testLargeStreamingOutput() throws Exception
+   {
+      Response response = client.target(BASE_URI).path("test/large").request().get();
+      Assert.assertEquals(response.getStatus(), Response.Status.OK.getStatusCode());
+      String entity = response.readEntity(String.class);
+      Assert.assertEquals(200000, entity.length());
+      for (int i = 0; i < 100000; i++) {
+         char c = (char) ('0' + i % 10);
+         Assert.assertEquals(c, entity.charAt(2 * i));
+         Assert.assertEquals(c, entity.charAt(2 * i + 1));
+      }
+   }
+
+   @Test
+   public void testFailureAfterBufferedWrite() throws Exception
+   {
+      // the partial content is still buffered, it is dropped and the error is sent instead
+      Response response = client.target(BASE_URI).path("test/failed").queryParam("length", 100).request().get();
+      Assert.assertEquals(Response.Status.INTERNAL_SERVER_ERROR.getStatusCode(), response.getStatus());
+      String entity = response.readEntity(String.class);
+      Assert.assertFalse(entity, entity.contains("x"));
+      // the connection is still usable
+      testStreamingOutput();
+   }
+
+   @Test(timeout = 60000)
+   public void testConnectionClosedDuringLargeWrite() throws Exception
+   {
+      clientClosed = new CountDownLatch(1);
+      endlessWritten = new CompletableFuture<>();
+      try (Socket socket = new Socket(TestPortProvider.getHost(), TestPortProvider.getPort()))
+      {
+         socket.getOutputStream().write("GET /test/endless HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+         // the headers and the first chunk
+         InputStream in = socket.getInputStream();
+         byte[] buffer = new byte[8192];
+         int read = 0;
+         while (read < 16 * 1024)
+         {
+            int n = in.read(buffer);
+            Assert.assertTrue(n > 0);
+            read += n;
+         }
+         socket.setSoLinger(true, 0);
+      }
+      clientClosed.countDown();
+      try
+      {
+         long written = endlessWritten.get(20, TimeUnit.SECONDS);
+         Assert.fail(written + " bytes written to a closed connection");
+      }
+      catch (ExecutionException e)
+      {
+         Assert.assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof IOException);
+      }
+      // the server is still usable
+      testStreamingOutput();
+   }
 }
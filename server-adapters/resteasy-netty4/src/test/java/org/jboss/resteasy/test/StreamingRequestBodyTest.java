@@ -0,0 +1,123 @@
+package org.jboss.resteasy.test;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.jboss.resteasy.core.ResteasyDeploymentImpl;
+import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer;
+import org.jboss.resteasy.spi.ResteasyDeployment;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Request bodies read while they are being received, with a buffer much smaller than the body.
+ */
+public class StreamingRequestBodyTest
+{
+   private static final int MAX_REQUEST_SIZE = 4 * 1024 * 1024;
+
+   @Path("/")
+   public static class Resource
+   {
+      @POST
+      @Path("/count")
+      @Produces("text/plain")
+      public String count(InputStream in) throws IOException
+      {
+         byte[] buffer = new byte[8192];
+         long count = 0;
+         int n;
+         while ((n = in.read(buffer)) != -1)
+         {
+            count += n;
+         }
+         return Long.toString(count);
+      }
+
+      @GET
+      @Path("/hello")
+      @Produces("text/plain")
+      public String hello()
+      {
+         return "hello world";
+      }
+   }
+
+   static NettyJaxrsServer server;
+   static Client client;
+
+   @BeforeClass
+   public static void setup() throws Exception
+   {
+      ResteasyDeployment deployment = new ResteasyDeploymentImpl();
+      server = new NettyJaxrsServer();
+      server.setDeployment(deployment);
+      server.setPort(TestPortProvider.getPort());
+      server.setRootResourcePath("");
+      server.setSecurityDomain(null);
+      server.setStreamingRequestBody(true);
+      server.setRequestBodyBufferSize(16 * 1024);
+      server.setMaxRequestSize(MAX_REQUEST_SIZE);
+      server.start();
+      deployment.getRegistry().addPerRequestResource(Resource.class);
+      client = ClientBuilder.newClient();
+   }
+
+   @AfterClass
+   public static void end() throws Exception
+   {
+      client.close();
+      server.stop();
+   }
+
+   @Test
+   public void testLargeBody() throws Exception
+   {
+      byte[] body = new byte[MAX_REQUEST_SIZE];
+      Arrays.fill(body, (byte) 'a');
+      WebTarget target = client.target(generateURL("/count"));
+      Response response = target.request().post(Entity.entity(body, MediaType.APPLICATION_OCTET_STREAM_TYPE));
+      Assert.assertEquals(200, response.getStatus());
+      Assert.assertEquals(Integer.toString(body.length), response.readEntity(String.class));
+   }
+
+   @Test
+   public void testConnectionReused() throws Exception
+   {
+      WebTarget target = client.target(generateURL("/count"));
+      for (int i = 0; i < 10; i++)
+      {
+         Response response = target.request().post(Entity.entity(new byte[i * 10000], MediaType.APPLICATION_OCTET_STREAM_TYPE));
+         Assert.assertEquals(200, response.getStatus());
+         Assert.assertEquals(Integer.toString(i * 10000), response.readEntity(String.class));
+      }
+      Response response = client.target(generateURL("/hello")).request().get();
+      Assert.assertEquals(200, response.getStatus());
+      Assert.assertEquals("hello world", response.readEntity(String.class));
+   }
+
+   @Test
+   public void testExpect100() throws Exception
+   {
+      WebTarget target = client.target(generateURL("/count"));
+      Response response = target.request().header("Expect", "100-continue").post(Entity.entity("hi", "text/plain"));
+      Assert.assertEquals(200, response.getStatus());
+      Assert.assertEquals("2", response.readEntity(String.class));
+   }
+}
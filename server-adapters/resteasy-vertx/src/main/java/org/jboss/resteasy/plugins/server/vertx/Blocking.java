@@ -0,0 +1,18 @@
+package org.jboss.resteasy.plugins.server.vertx;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The resource method, or the methods of the resource class, may block: they run off the event loop, according to
+ * the blocking execution policy of the {@link ExecutionPolicyFeature}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Blocking
+{
+}
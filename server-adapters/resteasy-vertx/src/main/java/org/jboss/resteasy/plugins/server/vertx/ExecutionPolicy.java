@@ -0,0 +1,22 @@
+package org.jboss.resteasy.plugins.server.vertx;
+
+/**
+ * Where a resource method runs, see {@link ExecutionPolicyFeature}.
+ */
+public enum ExecutionPolicy
+{
+   /**
+    * On the event loop which received the request, for methods which never block.
+    */
+   EVENT_LOOP,
+
+   /**
+    * On a bounded pool of worker threads.
+    */
+   WORKER,
+
+   /**
+    * On a virtual thread of its own, when the JVM supports them; on the worker threads otherwise.
+    */
+   VIRTUAL_THREAD
+}
@@ -0,0 +1,349 @@
+package org.jboss.resteasy.plugins.server.vertx;
+
+import io.vertx.core.Context;
+import org.jboss.resteasy.core.ResteasyContext;
+import org.jboss.resteasy.core.ThreadLocalResteasyProviderFactory;
+import org.jboss.resteasy.core.interception.jaxrs.SuspendableContainerRequestContext;
+import org.jboss.resteasy.microprofile.config.ResteasyConfigProvider;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+
+import javax.ws.rs.ConstrainedTo;
+import javax.ws.rs.RuntimeType;
+import javax.ws.rs.ServiceUnavailableException;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.DynamicFeature;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.container.Suspended;
+import javax.ws.rs.core.Configuration;
+import javax.ws.rs.core.FeatureContext;
+import javax.ws.rs.ext.Providers;
+import javax.ws.rs.sse.SseEventSink;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides, for each resource method, where it runs.  Requests are received on a Vert.x event loop, where methods
+ * which may block would stall every connection of the loop, so such methods are handed to worker threads:
+ * <ul>
+ * <li>methods, or methods of classes, annotated with {@link NonBlocking} run on the event loop, as well as methods
+ * returning a {@link CompletionStage} or another asynchronous type, and methods taking an
+ * {@link javax.ws.rs.container.AsyncResponse} or an {@link SseEventSink}</li>
+ * <li>methods, or methods of classes, annotated with {@link Blocking} run according to the blocking policy, on the
+ * worker threads if it is {@link ExecutionPolicy#EVENT_LOOP}</li>
+ * <li>other methods run according to the blocking policy, set by the {@value #EXECUTION_POLICY} parameter, which
+ * defaults to {@link ExecutionPolicy#EVENT_LOOP}</li>
+ * </ul>
+ * A method which runs off the event loop suspends the request in a request filter, before the filters of the
+ * application, and resumes it on a worker thread, which carries on with the request context of the event loop.  When
+ * the {@value #WORKER_QUEUE_SIZE} requests waiting for a worker thread are exceeded, the request fails with a 503.
+ */
+@ConstrainedTo(RuntimeType.SERVER)
+public class ExecutionPolicyFeature implements DynamicFeature, AutoCloseable
+{
+   /**
+    * Execution policy of the methods which may block: <code>event-loop</code>, <code>worker</code> or
+    * <code>virtual-thread</code>.
+    */
+   public static final String EXECUTION_POLICY = "resteasy.vertx.execution.policy";
+
+   /**
+    * Number of worker threads, 20 by default.
+    */
+   public static final String WORKER_POOL_SIZE = "resteasy.vertx.worker.pool.size";
+
+   /**
+    * Number of requests waiting for a worker thread, 1024 by default.
+    */
+   public static final String WORKER_QUEUE_SIZE = "resteasy.vertx.worker.queue.size";
+
+   // runs before the filters of the application, which may block too
+   private static final int PRIORITY = 0;
+
+   /**
+    * Statistics of the requests run according to an execution policy.
+    */
+   public static final class Metrics
+   {
+      private final AtomicInteger queued = new AtomicInteger();
+      private final AtomicInteger active = new AtomicInteger();
+      private final LongAdder completed = new LongAdder();
+      private final LongAdder rejected = new LongAdder();
+
+      /**
+       * @return number of requests waiting for a thread
+       */
+      public int getQueued()
+      {
+         return queued.get();
+      }
+
+      /**
+       * @return number of requests running
+       */
+      public int getActive()
+      {
+         return active.get();
+      }
+
+      public long getCompleted()
+      {
+         return completed.sum();
+      }
+
+      /**
+       * @return number of requests which failed because too many requests were waiting
+       */
+      public long getRejected()
+      {
+         return rejected.sum();
+      }
+   }
+
+   private final ExecutionPolicy blockingPolicy;
+   private final int workerPoolSize;
+   private final int workerQueueSize;
+   private final Map<Method, ExecutionPolicy> policies = new ConcurrentHashMap<>();
+   private final Map<ExecutionPolicy, Metrics> metrics = new EnumMap<>(ExecutionPolicy.class);
+   private ThreadPoolExecutor workers;
+   private ExecutorService virtualThreads;
+   private boolean virtualThreadsUnsupported;
+
+   /**
+    * @param blockingPolicy execution policy of the methods which may block
+    * @param workerPoolSize number of worker threads
+    * @param workerQueueSize number of requests waiting for a worker thread
+    */
+   public ExecutionPolicyFeature(final ExecutionPolicy blockingPolicy, final int workerPoolSize, final int workerQueueSize)
+   {
+      this.blockingPolicy = blockingPolicy;
+      this.workerPoolSize = workerPoolSize;
+      this.workerQueueSize = workerQueueSize;
+      for (ExecutionPolicy policy : ExecutionPolicy.values())
+      {
+         metrics.put(policy, new Metrics());
+      }
+   }
+
+   /**
+    * @return a feature configured by the {@value #EXECUTION_POLICY}, {@value #WORKER_POOL_SIZE} and
+    * {@value #WORKER_QUEUE_SIZE} parameters
+    */
+   public static ExecutionPolicyFeature fromConfig()
+   {
+      String policy = ResteasyConfigProvider.getConfig().getOptionalValue(EXECUTION_POLICY, String.class).orElse("event-loop");
+      int poolSize = ResteasyConfigProvider.getConfig().getOptionalValue(WORKER_POOL_SIZE, Integer.class).orElse(20);
+      int queueSize = ResteasyConfigProvider.getConfig().getOptionalValue(WORKER_QUEUE_SIZE, Integer.class).orElse(1024);
+      return new ExecutionPolicyFeature(ExecutionPolicy.valueOf(policy.trim().toUpperCase(Locale.ENGLISH).replace('-', '_')),
+            poolSize, queueSize);
+   }
+
+   @Override
+   public void configure(ResourceInfo resourceInfo, FeatureContext context)
+   {
+      Method method = resourceInfo.getResourceMethod();
+      ExecutionPolicy policy = getExecutionPolicy(resourceInfo.getResourceClass(), method, context.getConfiguration());
+      Executor executor = null;
+      if (policy == ExecutionPolicy.VIRTUAL_THREAD)
+      {
+         executor = getVirtualThreads();
+         if (executor == null) policy = ExecutionPolicy.WORKER;
+      }
+      if (policy == ExecutionPolicy.WORKER)
+      {
+         executor = getWorkers();
+      }
+      policies.put(method, policy);
+      if (executor != null)
+      {
+         context.register(new OffloadFilter(executor, metrics.get(policy)), PRIORITY);
+      }
+   }
+
+   protected ExecutionPolicy getExecutionPolicy(Class<?> resourceClass, Method method, Configuration configuration)
+   {
+      if (method.isAnnotationPresent(NonBlocking.class)) return ExecutionPolicy.EVENT_LOOP;
+      if (method.isAnnotationPresent(Blocking.class)) return getBlockingPolicy();
+      if (resourceClass.isAnnotationPresent(NonBlocking.class)) return ExecutionPolicy.EVENT_LOOP;
+      if (resourceClass.isAnnotationPresent(Blocking.class)) return getBlockingPolicy();
+      if (isAsynchronous(method, configuration)) return ExecutionPolicy.EVENT_LOOP;
+      return blockingPolicy;
+   }
+
+   private ExecutionPolicy getBlockingPolicy()
+   {
+      return blockingPolicy == ExecutionPolicy.EVENT_LOOP ? ExecutionPolicy.WORKER : blockingPolicy;
+   }
+
+   private static boolean isAsynchronous(Method method, Configuration configuration)
+   {
+      Class<?> returnType = method.getReturnType();
+      if (CompletionStage.class.isAssignableFrom(returnType))
+      {
+         return true;
+      }
+      if (configuration instanceof ResteasyProviderFactory)
+      {
+         ResteasyProviderFactory providerFactory = (ResteasyProviderFactory) configuration;
+         if (providerFactory.getAsyncResponseProvider(returnType) != null
+               || providerFactory.getAsyncStreamProvider(returnType) != null)
+         {
+            return true;
+         }
+      }
+      for (Class<?> type : method.getParameterTypes())
+      {
+         if (SseEventSink.class.equals(type)) return true;
+      }
+      for (Annotation[] annotations : method.getParameterAnnotations())
+      {
+         for (Annotation annotation : annotations)
+         {
+            if (annotation.annotationType() == Suspended.class) return true;
+         }
+      }
+      return false;
+   }
+
+   private synchronized Executor getWorkers()
+   {
+      if (workers == null)
+      {
+         AtomicInteger count = new AtomicInteger();
+         workers = new ThreadPoolExecutor(workerPoolSize, workerPoolSize, 60, TimeUnit.SECONDS,
+               new ArrayBlockingQueue<>(workerQueueSize), runnable -> {
+                  Thread thread = new Thread(runnable, "resteasy-vertx-worker-" + count.incrementAndGet());
+                  thread.setDaemon(true);
+                  return thread;
+               });
+         workers.allowCoreThreadTimeOut(true);
+      }
+      return workers;
+   }
+
+   private synchronized Executor getVirtualThreads()
+   {
+      if (virtualThreads == null && !virtualThreadsUnsupported)
+      {
+         try
+         {
+            // looked up so that this compiles and runs on JVMs without virtual threads
+            virtualThreads = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+         }
+         catch (ReflectiveOperationException e)
+         {
+            virtualThreadsUnsupported = true;
+         }
+      }
+      return virtualThreads;
+   }
+
+   /**
+    * @param method resource method
+    * @return where the method runs, null if the method is unknown
+    */
+   public ExecutionPolicy getExecutionPolicy(Method method)
+   {
+      return policies.get(method);
+   }
+
+   /**
+    * @param policy execution policy
+    * @return statistics of the requests run according to this policy, requests run on the event loop are not counted
+    */
+   public Metrics getMetrics(ExecutionPolicy policy)
+   {
+      return metrics.get(policy);
+   }
+
+   public ExecutionPolicy getBlockingExecutionPolicy()
+   {
+      return blockingPolicy;
+   }
+
+   /**
+    * Stops the threads once the requests waiting for them have run.  Requests to methods which run off the event
+    * loop then fail with a 503.
+    */
+   @Override
+   public synchronized void close()
+   {
+      if (workers != null)
+      {
+         workers.shutdown();
+         workers = null;
+      }
+      if (virtualThreads != null)
+      {
+         virtualThreads.shutdown();
+         virtualThreads = null;
+      }
+   }
+
+   private static final class OffloadFilter implements ContainerRequestFilter
+   {
+      private final Executor executor;
+      private final Metrics metrics;
+
+      OffloadFilter(final Executor executor, final Metrics metrics)
+      {
+         this.executor = executor;
+         this.metrics = metrics;
+      }
+
+      @Override
+      public void filter(ContainerRequestContext requestContext)
+      {
+         if (!Context.isOnEventLoopThread() || !(requestContext instanceof SuspendableContainerRequestContext))
+         {
+            return;
+         }
+         SuspendableContainerRequestContext context = (SuspendableContainerRequestContext) requestContext;
+         ResteasyProviderFactory providerFactory = (ResteasyProviderFactory) ResteasyContext.getContextData(Providers.class);
+         context.suspend();
+         metrics.queued.incrementAndGet();
+         try
+         {
+            executor.execute(() -> {
+               metrics.queued.decrementAndGet();
+               metrics.active.incrementAndGet();
+               boolean pushed = providerFactory != null
+                     && ResteasyProviderFactory.getInstance() instanceof ThreadLocalResteasyProviderFactory;
+               if (pushed) ThreadLocalResteasyProviderFactory.push(providerFactory);
+               try
+               {
+                  // carries on with the request context captured when the request was suspended
+                  context.resume();
+               }
+               finally
+               {
+                  if (pushed) ThreadLocalResteasyProviderFactory.pop();
+                  ResteasyContext.clearContextData();
+                  metrics.completed.increment();
+                  metrics.active.decrementAndGet();
+               }
+            });
+         }
+         catch (RejectedExecutionException e)
+         {
+            metrics.queued.decrementAndGet();
+            metrics.rejected.increment();
+            context.resume(new ServiceUnavailableException());
+         }
+      }
+   }
+}
@@ -57,6 +57,7 @@ public class VertxHttpRequest extends BaseHttpRequest
    private final Context context;
    private volatile boolean flushed;
    private HttpServerRequest request;
+   private VertxRequestBodyStream bodyStream;
 
    public VertxHttpRequest(final Context context, final HttpServerRequest request, final ResteasyUriInfo uri, final SynchronousDispatcher dispatcher, final VertxHttpResponse response, final boolean is100ContinueExpected)
    {
@@ -158,6 +159,23 @@ public class VertxHttpRequest extends BaseHttpRequest
       return httpMethod;
    }
 
+   /**
+    * Sets the body of a request dispatched while it is still being received.
+    */
+   public void setBodyStream(VertxRequestBodyStream bodyStream)
+   {
+      this.bodyStream = bodyStream;
+      this.inputStream = bodyStream;
+   }
+
+   /**
+    * @return the body being received, or null when the body was received before the request was dispatched
+    */
+   public VertxRequestBodyStream getBodyStream()
+   {
+      return bodyStream;
+   }
+
    public VertxHttpResponse getResponse()
    {
       return response;
@@ -338,6 +356,12 @@ public class VertxHttpRequest extends BaseHttpRequest
             } catch (IOException e)
             {
                throw new RuntimeException(e);
+            } finally
+            {
+               if (bodyStream != null)
+               {
+                  bodyStream.close();
+               }
             }
          }
 
@@ -423,7 +447,7 @@ public class VertxHttpRequest extends BaseHttpRequest
               }
               return CompletableFuture.completedFuture(null);
           } else if(!hasInterceptors) {
-              Map<Class<?>, Object> context = ResteasyContext.getContextDataMap();
+              Map<Class<?>, Object> context = ResteasyContext.captureContextDataMap();
               // turn any sync request into async
               if(!isSuspended()) {
                   suspend();
@@ -43,6 +43,8 @@ public class VertxJaxrsServer implements EmbeddedJaxrsServer<VertxJaxrsServer>
    protected VertxResteasyDeployment deployment;
    protected String root = "";
    protected SecurityDomain domain;
+   private boolean streamingRequestBody;
+   private int requestBodyBufferSize = 64 * 1024;
    private String deploymentID;
    private EmbeddedServerHelper serverHelper = new EmbeddedServerHelper();
    // default no idle timeout.
@@ -77,7 +79,7 @@ public class VertxJaxrsServer implements EmbeddedJaxrsServer<VertxJaxrsServer>
       vertx = Vertx.vertx(vertxOptions);
       //deployment.start();
       String key = UUID.randomUUID().toString();
-      deploymentMap.put(key, new Helper(root, serverOptions, deployment, domain));
+      deploymentMap.put(key, new Helper(root, serverOptions, deployment, domain, streamingRequestBody, requestBodyBufferSize));
       // Configure the server.
       CompletableFuture<String> fut = new CompletableFuture<>();
       DeploymentOptions deploymentOptions = new DeploymentOptions()
@@ -226,6 +228,28 @@ public class VertxJaxrsServer implements EmbeddedJaxrsServer<VertxJaxrsServer>
       return serverOptions;
    }
 
+   /**
+    * Stream request bodies while they are being received.
+    *
+    * @param streamingRequestBody true to stream request bodies. This is false by default.
+    * @see VertxRequestHandler#setStreamingRequestBody(boolean)
+    */
+   public VertxJaxrsServer setStreamingRequestBody(boolean streamingRequestBody)
+   {
+      this.streamingRequestBody = streamingRequestBody;
+      return this;
+   }
+
+   /**
+    * @param requestBodyBufferSize the buffer size in bytes. This is 64kb by default.
+    * @see VertxRequestHandler#setRequestBodyBufferSize(int)
+    */
+   public VertxJaxrsServer setRequestBodyBufferSize(int requestBodyBufferSize)
+   {
+      this.requestBodyBufferSize = requestBodyBufferSize;
+      return this;
+   }
+
 
 
    private static class Helper
@@ -234,18 +258,25 @@ public class VertxJaxrsServer implements EmbeddedJaxrsServer<VertxJaxrsServer>
       final HttpServerOptions serverOptions;
       final ResteasyDeployment deployment;
       final SecurityDomain domain;
+      final boolean streamingRequestBody;
+      final int requestBodyBufferSize;
 
-      Helper(final String root, final HttpServerOptions serverOptions, final ResteasyDeployment deployment, final SecurityDomain domain)
+      Helper(final String root, final HttpServerOptions serverOptions, final ResteasyDeployment deployment, final SecurityDomain domain,
+             final boolean streamingRequestBody, final int requestBodyBufferSize)
       {
          this.root = root;
          this.serverOptions = serverOptions;
          this.deployment = deployment;
          this.domain = domain;
+         this.streamingRequestBody = streamingRequestBody;
+         this.requestBodyBufferSize = requestBodyBufferSize;
       }
 
       public Handler<HttpServerRequest> createHandler(Vertx vertx)
       {
-         return new VertxRequestHandler(vertx, deployment, root, domain);
+         return new VertxRequestHandler(vertx, deployment, root, domain)
+            .setStreamingRequestBody(streamingRequestBody)
+            .setRequestBodyBufferSize(requestBodyBufferSize);
       }
    }
 
@@ -259,7 +290,7 @@ public class VertxJaxrsServer implements EmbeddedJaxrsServer<VertxJaxrsServer>
       {
          Helper helper = deploymentMap.get(config().getString("helper"));
          server = vertx.createHttpServer(helper.serverOptions);
-         server.requestHandler(new VertxRequestHandler(vertx, helper.deployment, helper.root, helper.domain));
+         server.requestHandler(helper.createHandler(vertx));
          server.listen(ar -> {
             if (ar.succeeded())
             {
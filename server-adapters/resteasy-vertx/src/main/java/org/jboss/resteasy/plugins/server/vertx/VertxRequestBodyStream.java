@@ -0,0 +1,235 @@
+package org.jboss.resteasy.plugins.server.vertx;
+
+import io.netty.buffer.ByteBuf;
+import io.vertx.core.Context;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import org.jboss.resteasy.plugins.server.vertx.i18n.Messages;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * {@link InputStream} over the body of a request which is still being received.  The buffers of the body are added on
+ * the event loop as they arrive, while the request is dispatched.  When more than the high watermark of bytes are
+ * waiting to be read, the request is paused until the reader brings them below the low watermark.
+ * <p>
+ * A read which would wait for the next buffer blocks the calling thread, so it fails on the event loop, which would
+ * never deliver that buffer.  {@link VertxRequestHandler} therefore dispatches requests with a body on worker
+ * threads; {@link #whenReadable()} completes once {@link #available()} bytes, or the end of the body, can be read
+ * without blocking.
+ *
+ * @see VertxRequestHandler#setStreamingRequestBody(boolean)
+ */
+public class VertxRequestBodyStream extends InputStream
+{
+   private final Context context;
+   private final HttpServerRequest request;
+   private final int highWatermark;
+   private final int lowWatermark;
+   private final ArrayDeque<ByteBuf> buffers = new ArrayDeque<>();
+   private int buffered;
+   private boolean paused;
+   private boolean finished;
+   private boolean closed;
+   private IOException failure;
+   private CompletableFuture<Void> readable;
+
+   /**
+    * Takes over the handlers of the request, so it must be created on the event loop of the request, before the
+    * request is dispatched.
+    */
+   public VertxRequestBodyStream(final Context context, final HttpServerRequest request, final int highWatermark)
+   {
+      this.context = context;
+      this.request = request;
+      this.highWatermark = highWatermark;
+      this.lowWatermark = highWatermark / 2;
+      request.handler(this::offer);
+      request.endHandler(v -> finish());
+      request.exceptionHandler(t -> fail(t instanceof IOException ? (IOException) t : new IOException(t)));
+   }
+
+   private void offer(Buffer buffer)
+   {
+      CompletableFuture<Void> toComplete;
+      synchronized (this)
+      {
+         if (closed || failure != null || buffer.length() == 0)
+         {
+            return;
+         }
+         buffers.add(buffer.getByteBuf());
+         buffered += buffer.length();
+         if (!paused && buffered > highWatermark)
+         {
+            paused = true;
+            request.pause();
+         }
+         toComplete = signal();
+      }
+      complete(toComplete);
+   }
+
+   private void finish()
+   {
+      CompletableFuture<Void> toComplete;
+      synchronized (this)
+      {
+         finished = true;
+         toComplete = signal();
+      }
+      complete(toComplete);
+   }
+
+   private void fail(IOException cause)
+   {
+      CompletableFuture<Void> toComplete;
+      synchronized (this)
+      {
+         if (failure == null)
+         {
+            failure = cause;
+         }
+         toComplete = signal();
+      }
+      complete(toComplete);
+   }
+
+   /**
+    * @return a stage which completes when {@link #read(byte[], int, int)} no longer blocks
+    */
+   public synchronized CompletionStage<Void> whenReadable()
+   {
+      if (!buffers.isEmpty() || finished || closed || failure != null)
+      {
+         return CompletableFuture.completedFuture(null);
+      }
+      if (readable == null)
+      {
+         readable = new CompletableFuture<>();
+      }
+      return readable;
+   }
+
+   /**
+    * @return true when the whole body has been received and read
+    */
+   public synchronized boolean isFinished()
+   {
+      return (finished || closed) && buffers.isEmpty();
+   }
+
+   @Override
+   public synchronized int available() throws IOException
+   {
+      return buffered;
+   }
+
+   @Override
+   public int read() throws IOException
+   {
+      byte[] b = new byte[1];
+      int n = read(b, 0, 1);
+      return n < 0 ? -1 : b[0] & 0xff;
+   }
+
+   @Override
+   public synchronized int read(byte[] b, int off, int len) throws IOException
+   {
+      if (len == 0)
+      {
+         return 0;
+      }
+      while (buffers.isEmpty())
+      {
+         if (closed)
+         {
+            return -1;
+         }
+         if (failure != null)
+         {
+            throw failure;
+         }
+         if (finished)
+         {
+            return -1;
+         }
+         if (Context.isOnEventLoopThread())
+         {
+            throw new IOException(Messages.MESSAGES.cannotBlockEventLoop());
+         }
+         try
+         {
+            wait();
+         }
+         catch (InterruptedException e)
+         {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+         }
+      }
+      ByteBuf buffer = buffers.peek();
+      int n = Math.min(len, buffer.readableBytes());
+      buffer.readBytes(b, off, n);
+      if (!buffer.isReadable())
+      {
+         buffers.poll();
+      }
+      buffered -= n;
+      resumeIfDrained();
+      return n;
+   }
+
+   /**
+    * Drops the buffers which were not read, and discards the rest of the body.
+    */
+   @Override
+   public void close()
+   {
+      CompletableFuture<Void> toComplete;
+      synchronized (this)
+      {
+         if (closed)
+         {
+            return;
+         }
+         closed = true;
+         buffers.clear();
+         buffered = 0;
+         resumeIfDrained();
+         toComplete = signal();
+      }
+      complete(toComplete);
+   }
+
+   private void resumeIfDrained()
+   {
+      if (paused && buffered < lowWatermark)
+      {
+         paused = false;
+         context.runOnContext(v -> request.resume());
+      }
+   }
+
+   private CompletableFuture<Void> signal()
+   {
+      notifyAll();
+      CompletableFuture<Void> toComplete = readable;
+      readable = null;
+      return toComplete;
+   }
+
+   private static void complete(CompletableFuture<Void> toComplete)
+   {
+      // outside of the monitor, the continuations may read
+      if (toComplete != null)
+      {
+         toComplete.complete(null);
+      }
+   }
+}
@@ -4,6 +4,7 @@ import io.netty.buffer.ByteBufInputStream;
 import io.vertx.core.Context;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpHeaders;
 import io.vertx.core.http.HttpServerRequest;
 import io.vertx.core.http.HttpServerResponse;
 import org.jboss.resteasy.core.SynchronousDispatcher;
@@ -14,6 +15,7 @@ import org.jboss.resteasy.spi.Failure;
 import org.jboss.resteasy.spi.ResteasyDeployment;
 import org.jboss.resteasy.specimpl.ResteasyUriInfo;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 /**
@@ -25,6 +27,8 @@ public class VertxRequestHandler implements Handler<HttpServerRequest>
    private final Vertx vertx;
    protected final RequestDispatcher dispatcher;
    private final String servletMappingPrefix;
+   private boolean streamingRequestBody;
+   private int requestBodyBufferSize = 64 * 1024;
 
    public VertxRequestHandler(final Vertx vertx, final ResteasyDeployment deployment, final String servletMappingPrefix, final SecurityDomain domain)
    {
@@ -43,43 +47,115 @@ public class VertxRequestHandler implements Handler<HttpServerRequest>
       this(vertx, deployment, "");
    }
 
+   /**
+    * Dispatch requests as soon as their headers are received, instead of once their whole body is received.  The body
+    * is then read from a {@link VertxRequestBodyStream} while it is being received, so that large bodies stream to
+    * the {@link javax.ws.rs.ext.MessageBodyReader}s without being held in memory.  Since the event loop cannot wait
+    * for the body it receives, requests with a body are dispatched on a Vert.x worker thread, whatever the
+    * {@link ExecutionPolicy} of their method.
+    *
+    * @param streamingRequestBody true to stream request bodies. This is false by default.
+    */
+   public VertxRequestHandler setStreamingRequestBody(boolean streamingRequestBody)
+   {
+      this.streamingRequestBody = streamingRequestBody;
+      return this;
+   }
+
+   /**
+    * Set the number of bytes of a streamed request body which are received ahead of the reader. Beyond it, the request
+    * is paused until the reader has read half of them.
+    *
+    * @param requestBodyBufferSize the buffer size in bytes. This is 64kb by default.
+    */
+   public VertxRequestHandler setRequestBodyBufferSize(int requestBodyBufferSize)
+   {
+      this.requestBodyBufferSize = requestBodyBufferSize;
+      return this;
+   }
+
    @Override
    public void handle(HttpServerRequest request)
    {
+      if (streamingRequestBody)
+      {
+         Context ctx = vertx.getOrCreateContext();
+         VertxHttpRequest vertxRequest = createRequest(ctx, request);
+         if (hasBody(request))
+         {
+            vertxRequest.setBodyStream(new VertxRequestBodyStream(ctx, request, requestBodyBufferSize));
+            // unordered, so that the requests of the event loop do not wait for each other
+            ctx.executeBlocking(future -> {
+               dispatch(ctx, request, vertxRequest);
+               future.complete();
+            }, false, null);
+         }
+         else
+         {
+            // the end of the body may not have been received yet, but there is nothing to wait for
+            vertxRequest.setInputStream(new ByteArrayInputStream(new byte[0]));
+            dispatch(ctx, request, vertxRequest);
+         }
+         return;
+      }
       request.bodyHandler(buff -> {
          Context ctx = vertx.getOrCreateContext();
-         ResteasyUriInfo uriInfo = VertxUtil.extractUriInfo(request, servletMappingPrefix);
-         HttpServerResponse response = request.response();
-         VertxHttpResponse vertxResponse = new VertxHttpResponse(response, dispatcher.getProviderFactory(), request.method());
-         VertxHttpRequest vertxRequest = new VertxHttpRequest(ctx, request, uriInfo, dispatcher.getDispatcher(), vertxResponse, false);
+         VertxHttpRequest vertxRequest = createRequest(ctx, request);
          if (buff.length() > 0)
          {
             ByteBufInputStream in = new ByteBufInputStream(buff.getByteBuf());
             vertxRequest.setInputStream(in);
          }
+         dispatch(ctx, request, vertxRequest);
+      });
+   }
+
+   private static boolean hasBody(HttpServerRequest request)
+   {
+      String contentLength = request.getHeader(HttpHeaders.CONTENT_LENGTH);
+      if (contentLength != null)
+      {
+         return !"0".equals(contentLength.trim());
+      }
+      return request.getHeader(HttpHeaders.TRANSFER_ENCODING) != null;
+   }
+
+   private VertxHttpRequest createRequest(Context ctx, HttpServerRequest request)
+   {
+      ResteasyUriInfo uriInfo = VertxUtil.extractUriInfo(request, servletMappingPrefix);
+      VertxHttpResponse vertxResponse = new VertxHttpResponse(request.response(), dispatcher.getProviderFactory(), request.method());
+      return new VertxHttpRequest(ctx, request, uriInfo, dispatcher.getDispatcher(), vertxResponse, false);
+   }
+
+   private void dispatch(Context ctx, HttpServerRequest request, VertxHttpRequest vertxRequest)
+   {
+      HttpServerResponse response = request.response();
+      VertxHttpResponse vertxResponse = vertxRequest.getResponse();
+      try
+      {
+         dispatcher.service(ctx, request, response, vertxRequest, vertxResponse, true);
+      } catch (Failure e1)
+      {
+         vertxResponse.setStatus(e1.getErrorCode());
+      } catch (Exception ex)
+      {
+         vertxResponse.setStatus(500);
+         LogMessages.LOGGER.error(Messages.MESSAGES.unexpected(), ex);
+      }
 
+      if (!vertxRequest.getAsyncContext().isSuspended())
+      {
          try
          {
-            dispatcher.service(ctx, request, response, vertxRequest, vertxResponse, true);
-         } catch (Failure e1)
+            vertxResponse.finish();
+         } catch (IOException e)
          {
-            vertxResponse.setStatus(e1.getErrorCode());
-         } catch (Exception ex)
-         {
-            vertxResponse.setStatus(500);
-            LogMessages.LOGGER.error(Messages.MESSAGES.unexpected(), ex);
+            LogMessages.LOGGER.error(Messages.MESSAGES.unexpected(), e);
          }
-
-         if (!vertxRequest.getAsyncContext().isSuspended())
+         if (vertxRequest.getBodyStream() != null)
          {
-            try
-            {
-               vertxResponse.finish();
-            } catch (IOException e)
-            {
-               LogMessages.LOGGER.error(Messages.MESSAGES.unexpected(), e);
-            }
+            vertxRequest.getBodyStream().close();
          }
-      });
+      }
    }
 }
@@ -8,6 +8,42 @@ import org.jboss.resteasy.spi.Registry;
  */
 public class VertxResteasyDeployment extends ResteasyDeploymentImpl
 {
+   private ExecutionPolicyFeature executionPolicyFeature;
+
+   /**
+    * @return the feature deciding where resource methods run, configured from the deployment parameters unless set
+    */
+   public ExecutionPolicyFeature getExecutionPolicyFeature()
+   {
+      return executionPolicyFeature;
+   }
+
+   public void setExecutionPolicyFeature(ExecutionPolicyFeature executionPolicyFeature)
+   {
+      this.executionPolicyFeature = executionPolicyFeature;
+   }
+
+   @Override
+   public void registration()
+   {
+      if (executionPolicyFeature == null)
+      {
+         executionPolicyFeature = ExecutionPolicyFeature.fromConfig();
+      }
+      // registered before the resources, to which it applies
+      providerFactory.register(executionPolicyFeature);
+      super.registration();
+   }
+
+   @Override
+   public void stop()
+   {
+      super.stop();
+      if (executionPolicyFeature != null)
+      {
+         executionPolicyFeature.close();
+      }
+   }
 
    @Override
    public VertxRegistry getRegistry()
@@ -22,6 +22,9 @@ public interface Messages
    @Message(id = BASE + 5, value = "Already suspended")
    String alreadySuspended();
 
+   @Message(id = BASE + 7, value = "Cannot block the event loop to wait for the request body, the method reading it must run on a worker thread")
+   String cannotBlockEventLoop();
+
    @Message(id = BASE + 10, value = "Chunk size must be at least 1")
    String chunkSizeMustBeAtLeastOne();
 
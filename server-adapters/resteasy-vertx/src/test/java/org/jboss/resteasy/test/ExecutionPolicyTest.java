@@ -0,0 +1,189 @@
+package org.jboss.resteasy.test;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.plugins.server.vertx.Blocking;
+import org.jboss.resteasy.plugins.server.vertx.ExecutionPolicy;
+import org.jboss.resteasy.plugins.server.vertx.ExecutionPolicyFeature;
+import org.jboss.resteasy.plugins.server.vertx.NonBlocking;
+import org.jboss.resteasy.plugins.server.vertx.VertxContainer;
+import org.jboss.resteasy.plugins.server.vertx.VertxResteasyDeployment;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+/**
+ * Test that resource methods run on the event loop or on worker threads according to the execution policy
+ */
+public class ExecutionPolicyTest
+{
+
+   @Path("/")
+   public static class Resource
+   {
+      @GET
+      @Path("blocking")
+      @Blocking
+      public String blocking(@Context UriInfo uriInfo)
+      {
+         return Thread.currentThread().getName() + " " + uriInfo.getPath();
+      }
+
+      @GET
+      @Path("nonblocking")
+      @NonBlocking
+      public String nonBlocking()
+      {
+         return Thread.currentThread().getName();
+      }
+
+      @GET
+      @Path("async")
+      public CompletionStage<String> async()
+      {
+         return CompletableFuture.completedFuture(Thread.currentThread().getName());
+      }
+
+      @GET
+      @Path("default")
+      public String byDefault()
+      {
+         return Thread.currentThread().getName();
+      }
+
+      @GET
+      @Path("wait")
+      @Blocking
+      public String waitForRelease() throws InterruptedException
+      {
+         return Boolean.toString(release.await(20, TimeUnit.SECONDS));
+      }
+   }
+
+   static CountDownLatch release;
+   Client client;
+   ExecutionPolicyFeature feature;
+
+   @Before
+   public void setup() throws Exception
+   {
+      release = new CountDownLatch(1);
+      VertxResteasyDeployment deployment = new VertxResteasyDeployment();
+      // a single worker thread and a single waiting request, so that the queue is easily full
+      feature = new ExecutionPolicyFeature(ExecutionPolicy.EVENT_LOOP, 1, 1);
+      deployment.setExecutionPolicyFeature(feature);
+      deployment.getActualResourceClasses().add(Resource.class);
+      VertxContainer.start(deployment);
+      client = ((ResteasyClientBuilder) ClientBuilder.newBuilder()).connectionPoolSize(4).build();
+   }
+
+   @After
+   public void end() throws Exception
+   {
+      release.countDown();
+      try
+      {
+         client.close();
+      }
+      catch (Exception e)
+      {
+
+      }
+      VertxContainer.stop();
+   }
+
+   private String get(String path)
+   {
+      return client.target(generateURL(path)).request().get(String.class);
+   }
+
+   private static void await(BooleanSupplier condition) throws InterruptedException
+   {
+      long deadline = System.currentTimeMillis() + 10000;
+      while (!condition.getAsBoolean())
+      {
+         Assert.assertTrue("timed out", System.currentTimeMillis() < deadline);
+         Thread.sleep(10);
+      }
+   }
+
+   @Test
+   public void testBlockingRunsOnWorker() throws Exception
+   {
+      String response = get("/blocking");
+      Assert.assertTrue(response, response.startsWith("resteasy-vertx-worker-"));
+      Assert.assertTrue(response, response.endsWith(" /blocking"));
+      Assert.assertEquals(ExecutionPolicy.WORKER, feature.getExecutionPolicy(Resource.class.getMethod("blocking", UriInfo.class)));
+      // the response may be sent before the worker is done with the request
+      ExecutionPolicyFeature.Metrics metrics = feature.getMetrics(ExecutionPolicy.WORKER);
+      Assert.assertTrue(metrics.getCompleted() + metrics.getActive() >= 1);
+      Assert.assertEquals(0, feature.getMetrics(ExecutionPolicy.WORKER).getRejected());
+   }
+
+   @Test
+   public void testEventLoop() throws Exception
+   {
+      Assert.assertTrue(get("/nonblocking").startsWith("vert.x-eventloop-thread"));
+      Assert.assertTrue(get("/async").startsWith("vert.x-eventloop-thread"));
+      Assert.assertTrue(get("/default").startsWith("vert.x-eventloop-thread"));
+      Assert.assertEquals(ExecutionPolicy.EVENT_LOOP, feature.getExecutionPolicy(Resource.class.getMethod("async")));
+   }
+
+   private static void assertReleased(Future<Response> future) throws Exception
+   {
+      Response response = future.get(20, TimeUnit.SECONDS);
+      Assert.assertEquals(200, response.getStatus());
+      Assert.assertEquals("true", response.readEntity(String.class));
+   }
+
+   @Test
+   public void testFullQueueRejected() throws Exception
+   {
+      ExecutionPolicyFeature.Metrics metrics = feature.getMetrics(ExecutionPolicy.WORKER);
+      Future<Response> active = client.target(generateURL("/wait")).request().async().get();
+      await(() -> metrics.getActive() == 1);
+      Future<Response> queued = client.target(generateURL("/wait")).request().async().get();
+      await(() -> metrics.getQueued() == 1);
+
+      Response rejected = client.target(generateURL("/blocking")).request().get();
+      Assert.assertEquals(503, rejected.getStatus());
+      rejected.close();
+      Assert.assertEquals(1, metrics.getRejected());
+      // the event loop is not held up by the waiting requests
+      Assert.assertTrue(get("/nonblocking").startsWith("vert.x-eventloop-thread"));
+
+      release.countDown();
+      assertReleased(active);
+      assertReleased(queued);
+      await(() -> metrics.getCompleted() == 2 && metrics.getActive() == 0 && metrics.getQueued() == 0);
+   }
+
+   @Test
+   public void testClose() throws Exception
+   {
+      Assert.assertTrue(get("/blocking").startsWith("resteasy-vertx-worker-"));
+      feature.close();
+
+      Response response = client.target(generateURL("/blocking")).request().get();
+      Assert.assertEquals(503, response.getStatus());
+      response.close();
+      Assert.assertEquals(1, feature.getMetrics(ExecutionPolicy.WORKER).getRejected());
+      Assert.assertTrue(get("/nonblocking").startsWith("vert.x-eventloop-thread"));
+   }
+}
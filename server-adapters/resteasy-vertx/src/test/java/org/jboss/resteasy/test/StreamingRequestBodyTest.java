@@ -0,0 +1,136 @@
+package org.jboss.resteasy.test;
+
+import static org.jboss.resteasy.test.TestPortProvider.generateURL;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.jboss.resteasy.plugins.server.vertx.ExecutionPolicy;
+import org.jboss.resteasy.plugins.server.vertx.ExecutionPolicyFeature;
+import org.jboss.resteasy.plugins.server.vertx.NonBlocking;
+import org.jboss.resteasy.plugins.server.vertx.VertxJaxrsServer;
+import org.jboss.resteasy.plugins.server.vertx.VertxResteasyDeployment;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Request bodies read while they are being received, with a buffer much smaller than the body, by methods which
+ * run on the event loop according to the execution policy.
+ */
+public class StreamingRequestBodyTest
+{
+   private static final int BODY_SIZE = 4 * 1024 * 1024;
+
+   @Path("/")
+   public static class Resource
+   {
+      @POST
+      @Path("/count")
+      @Produces("text/plain")
+      public String count(InputStream in) throws IOException
+      {
+         byte[] buffer = new byte[8192];
+         long count = 0;
+         int n;
+         while ((n = in.read(buffer)) != -1)
+         {
+            count += n;
+         }
+         return Long.toString(count);
+      }
+
+      @POST
+      @Path("/thread")
+      @Produces("text/plain")
+      @NonBlocking
+      public String thread(String body)
+      {
+         return Thread.currentThread().getName();
+      }
+
+      @GET
+      @Path("/hello")
+      @Produces("text/plain")
+      public String hello()
+      {
+         return Thread.currentThread().getName();
+      }
+   }
+
+   static VertxJaxrsServer server;
+   static Client client;
+
+   @BeforeClass
+   public static void setup() throws Exception
+   {
+      VertxResteasyDeployment deployment = new VertxResteasyDeployment();
+      deployment.setExecutionPolicyFeature(new ExecutionPolicyFeature(ExecutionPolicy.EVENT_LOOP, 2, 16));
+      deployment.getActualResourceClasses().add(Resource.class);
+      server = new VertxJaxrsServer();
+      server.setDeployment(deployment);
+      server.setPort(TestPortProvider.getPort());
+      server.setRootResourcePath("");
+      server.setSecurityDomain(null);
+      server.setStreamingRequestBody(true);
+      server.setRequestBodyBufferSize(16 * 1024);
+      server.start();
+      client = ClientBuilder.newClient();
+   }
+
+   @AfterClass
+   public static void end() throws Exception
+   {
+      client.close();
+      server.stop();
+   }
+
+   @Test
+   public void testLargeBody() throws Exception
+   {
+      byte[] body = new byte[BODY_SIZE];
+      Arrays.fill(body, (byte) 'a');
+      WebTarget target = client.target(generateURL("/count"));
+      Response response = target.request().post(Entity.entity(body, MediaType.APPLICATION_OCTET_STREAM_TYPE));
+      Assert.assertEquals(200, response.getStatus());
+      Assert.assertEquals(Integer.toString(body.length), response.readEntity(String.class));
+   }
+
+   @Test
+   public void testBodyReadOffEventLoop() throws Exception
+   {
+      Response response = client.target(generateURL("/thread")).request().post(Entity.entity("hi", "text/plain"));
+      Assert.assertEquals(200, response.getStatus());
+      String thread = response.readEntity(String.class);
+      Assert.assertFalse(thread, thread.startsWith("vert.x-eventloop-thread"));
+   }
+
+   @Test
+   public void testConnectionReused() throws Exception
+   {
+      WebTarget target = client.target(generateURL("/count"));
+      for (int i = 0; i < 10; i++)
+      {
+         Response response = target.request().post(Entity.entity(new byte[i * 10000], MediaType.APPLICATION_OCTET_STREAM_TYPE));
+         Assert.assertEquals(200, response.getStatus());
+         Assert.assertEquals(Integer.toString(i * 10000), response.readEntity(String.class));
+      }
+      // without a body, the request stays on the event loop
+      Response response = client.target(generateURL("/hello")).request().get();
+      Assert.assertEquals(200, response.getStatus());
+      Assert.assertTrue(response.readEntity(String.class).startsWith("vert.x-eventloop-thread"));
+   }
+}
@@ -0,0 +1,198 @@
+package org.jboss.resteasy.test.client;
+
+import org.jboss.resteasy.client.jaxrs.cache.BoundedBrowserCache;
+import org.jboss.resteasy.client.jaxrs.cache.BrowserCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @tpSubChapter Resteasy-client
+ * @tpChapter Client tests
+ * @tpTestCaseDetails Size bounded browser cache eviction and admission
+ * @tpSince RESTEasy 4.6.0
+ */
+public class BoundedBrowserCacheTest {
+
+   private static final MediaType TEXT = MediaType.TEXT_PLAIN_TYPE;
+
+   private static BrowserCache.Entry put(BoundedBrowserCache cache, String key, int size, int expires, String etag) {
+      return cache.put(key, TEXT, new MultivaluedHashMap<String, String>(), new byte[size], expires, etag, null);
+   }
+
+   /**
+    * @tpTestDetails Entries are weighed and the least recently used ones are evicted, not the whole cache
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testLeastRecentlyUsedEvicted() {
+      BoundedBrowserCache cache = new BoundedBrowserCache(1000);
+      put(cache, "a", 300, 60, null);
+      put(cache, "b", 300, 60, null);
+      put(cache, "c", 300, 60, null);
+      Assert.assertTrue("Entry weight not accounted", cache.getByteCount() >= 900);
+
+      Assert.assertNotNull(cache.get("a", TEXT));
+      Assert.assertNotNull(cache.get("c", TEXT));
+      cache.get("d", TEXT);
+      put(cache, "d", 300, 60, null);
+
+      Assert.assertNull("Least recently used entry should be evicted", cache.get("b", TEXT));
+      Assert.assertNotNull(cache.get("a", TEXT));
+      Assert.assertNotNull(cache.get("c", TEXT));
+      Assert.assertNotNull(cache.get("d", TEXT));
+      Assert.assertEquals(1, cache.getEvictionCount());
+      Assert.assertTrue(cache.getByteCount() <= cache.getMaxBytes());
+   }
+
+   /**
+    * @tpTestDetails Expired entries that can't be revalidated are evicted first
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testExpiredEvictedFirst() {
+      BoundedBrowserCache cache = new BoundedBrowserCache(1000);
+      put(cache, "a", 300, 60, null);
+      put(cache, "b", 300, 0, null);
+      put(cache, "c", 300, 0, "\"v1\"");
+      cache.get("a", TEXT);
+      cache.get("b", TEXT);
+      cache.get("c", TEXT);
+      cache.get("d", TEXT);
+      put(cache, "d", 300, 60, null);
+
+      Assert.assertNull("Expired entry should be evicted", cache.get("b", TEXT));
+      Assert.assertNotNull(cache.get("a", TEXT));
+      Assert.assertNotNull("Expired entry with an ETag can still be revalidated", cache.get("c", TEXT));
+      Assert.assertNotNull(cache.get("d", TEXT));
+   }
+
+   /**
+    * @tpTestDetails A response requested less often than the cached entries is not admitted
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testAdmission() {
+      BoundedBrowserCache cache = new BoundedBrowserCache(1000);
+      put(cache, "a", 400, 60, null);
+      put(cache, "b", 400, 60, null);
+      for (int i = 0; i < 5; i++) {
+         cache.get("a", TEXT);
+         cache.get("b", TEXT);
+      }
+      put(cache, "once", 400, 60, null);
+
+      Assert.assertNull(cache.get("once", TEXT));
+      Assert.assertNotNull(cache.get("a", TEXT));
+      Assert.assertNotNull(cache.get("b", TEXT));
+      Assert.assertEquals(1, cache.getRejectionCount());
+      Assert.assertEquals(0, cache.getEvictionCount());
+   }
+
+   /**
+    * @tpTestDetails A rejected response which needs several entries evicted to fit does not evict any of them
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testRejectionEvictsNothing() {
+      BoundedBrowserCache cache = new BoundedBrowserCache(1000);
+      put(cache, "a", 300, 60, null);
+      put(cache, "b", 300, 60, null);
+      put(cache, "c", 300, 60, null);
+      // "a" is the least recently used, and requested less often than "large"
+      cache.get("a", TEXT);
+      for (int i = 0; i < 5; i++) {
+         cache.get("b", TEXT);
+         cache.get("c", TEXT);
+      }
+      cache.get("large", TEXT);
+      cache.get("large", TEXT);
+      put(cache, "large", 600, 60, null);
+
+      Assert.assertNull(cache.get("large", TEXT));
+      Assert.assertNotNull(cache.get("a", TEXT));
+      Assert.assertNotNull(cache.get("b", TEXT));
+      Assert.assertNotNull(cache.get("c", TEXT));
+      Assert.assertEquals(1, cache.getRejectionCount());
+      Assert.assertEquals(0, cache.getEvictionCount());
+   }
+
+   /**
+    * @tpTestDetails Byte count follows replaced and removed entries
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testReplaceAndRemove() {
+      BoundedBrowserCache cache = new BoundedBrowserCache(10000);
+      put(cache, "a", 100, 60, null);
+      long small = cache.getByteCount();
+      put(cache, "a", 200, 60, null);
+      Assert.assertEquals(small + 100, cache.getByteCount());
+      Assert.assertEquals(1, cache.getEntryCount());
+
+      cache.remove("a", TEXT);
+      Assert.assertEquals(0, cache.getByteCount());
+      Assert.assertEquals(0, cache.getEntryCount());
+      Assert.assertNull(cache.get("a", TEXT));
+      Assert.assertTrue(cache.getHitCount() == 0 && cache.getMissCount() == 1);
+   }
+
+   /**
+    * @tpTestDetails Expired entries that can't be revalidated are dropped even when the cache is not full
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testExpiredSweptWithoutPressure() {
+      BoundedBrowserCache cache = new BoundedBrowserCache(100000);
+      put(cache, "a", 100, 0, null);
+      put(cache, "b", 100, 0, "\"v1\"");
+      put(cache, "c", 100, 60, null);
+      cache.cleanUp();
+
+      Assert.assertNull("Expired entry should be dropped", cache.get("a", TEXT));
+      Assert.assertNotNull("Expired entry with an ETag can still be revalidated", cache.get("b", TEXT));
+      Assert.assertNotNull(cache.get("c", TEXT));
+      Assert.assertEquals(2, cache.getEntryCount());
+      Assert.assertEquals(1, cache.getEvictionCount());
+   }
+
+   /**
+    * @tpTestDetails Concurrent lookups and puts of many more entries than fit keep the cache within its bound,
+    *                and the accounted entries match the cached ones
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testConcurrentPutsStayBounded() throws Exception {
+      BoundedBrowserCache cache = new BoundedBrowserCache(10000);
+      List<Thread> threads = new ArrayList<>();
+      for (int t = 0; t < 4; t++) {
+         threads.add(new Thread(() -> {
+            for (int i = 0; i < 2000; i++) {
+               String key = "k" + ThreadLocalRandom.current().nextInt(500);
+               if (cache.get(key, TEXT) == null) {
+                  put(cache, key, 100, 60, null);
+               }
+            }
+         }));
+      }
+      for (Thread thread : threads) {
+         thread.start();
+      }
+      for (Thread thread : threads) {
+         thread.join();
+      }
+
+      Assert.assertTrue(cache.getByteCount() <= cache.getMaxBytes());
+      Assert.assertTrue("Cache should not be emptied", cache.getEntryCount() > 50);
+      int cached = 0;
+      for (int i = 0; i < 500; i++) {
+         if (cache.getAny("k" + i) != null) cached++;
+      }
+      Assert.assertEquals(cache.getEntryCount(), cached);
+   }
+}
@@ -0,0 +1,403 @@
+package org.jboss.resteasy.test.client;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.MessageBodyWriter;
+
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient43Engine;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * @tpSubChapter Resteasy-client
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Request entities streamed by the Apache HttpClient 4.3 engine while they are being written. The
+ * server is a plain socket, so that it can stop reading or close the connection in the middle of the body.
+ * @tpSince RESTEasy 4.6.0
+ */
+public class StreamingRequestEntityTest
+{
+   private static final int CHUNK = 1000;
+
+   /**
+    * Entity written by {@link BodyWriter}, in writes of {@value #CHUNK} bytes.
+    */
+   public static class Body
+   {
+      final int size;
+      String header;
+      int failAfter = -1;
+      int pauseAfter = -1;
+      final CountDownLatch paused = new CountDownLatch(1);
+      final CountDownLatch resume = new CountDownLatch(1);
+      volatile int written;
+
+      Body(final int size)
+      {
+         this.size = size;
+      }
+   }
+
+   public static class BodyWriter implements MessageBodyWriter<Body>
+   {
+      @Override
+      public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType)
+      {
+         return Body.class.isAssignableFrom(type);
+      }
+
+      @Override
+      public void writeTo(Body body, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                          MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException
+      {
+         if (body.header != null)
+         {
+            // before the first byte, so it is still sent
+            httpHeaders.putSingle("X-Written-By", body.header);
+         }
+         byte[] chunk = new byte[CHUNK];
+         Arrays.fill(chunk, (byte) 'a');
+         while (body.written < body.size)
+         {
+            if (body.written == body.failAfter)
+            {
+               throw new IOException("writer failed");
+            }
+            if (body.written == body.pauseAfter)
+            {
+               entityStream.flush();
+               body.paused.countDown();
+               try
+               {
+                  body.resume.await();
+               }
+               catch (InterruptedException e)
+               {
+                  throw new InterruptedIOException();
+               }
+            }
+            entityStream.write(chunk);
+            body.written += CHUNK;
+         }
+      }
+   }
+
+   private interface Handler
+   {
+      Object handle(Socket socket, InputStream in) throws Exception;
+   }
+
+   /**
+    * Accepts a single connection, and completes {@link #result} with what its handler returns.
+    */
+   private static class Server
+   {
+      final ServerSocket socket;
+      final CompletableFuture<Object> result = new CompletableFuture<>();
+
+      Server(final Handler handler) throws IOException
+      {
+         socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+         Thread thread = new Thread(() -> {
+            try (Socket connection = socket.accept())
+            {
+               connection.setSoTimeout(20000);
+               result.complete(handler.handle(connection, new BufferedInputStream(connection.getInputStream())));
+            }
+            catch (Throwable t)
+            {
+               result.completeExceptionally(t);
+            }
+         }, "streaming-request-entity-server");
+         thread.setDaemon(true);
+         thread.start();
+      }
+
+      String url()
+      {
+         return "http://127.0.0.1:" + socket.getLocalPort() + "/upload";
+      }
+
+      Object result() throws Exception
+      {
+         return result.get(20, TimeUnit.SECONDS);
+      }
+
+      void close() throws IOException
+      {
+         socket.close();
+      }
+   }
+
+   private ResteasyClient client;
+   private Server server;
+
+   @Before
+   public void before()
+   {
+      client = (ResteasyClient) ClientBuilder.newBuilder().register(BodyWriter.class).build();
+      ((ApacheHttpClient43Engine) client.httpEngine()).setStreamingRequestEntity(true);
+   }
+
+   @After
+   public void after() throws IOException
+   {
+      client.close();
+      if (server != null)
+      {
+         server.close();
+      }
+   }
+
+   private static String readLine(InputStream in) throws IOException
+   {
+      ByteArrayOutputStream line = new ByteArrayOutputStream();
+      int b;
+      while ((b = in.read()) != '\n')
+      {
+         if (b < 0)
+         {
+            throw new EOFException();
+         }
+         if (b != '\r')
+         {
+            line.write(b);
+         }
+      }
+      return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+   }
+
+   private static Map<String, String> readHeaders(InputStream in) throws IOException
+   {
+      Map<String, String> headers = new HashMap<>();
+      // request line
+      readLine(in);
+      String line;
+      while (!(line = readLine(in)).isEmpty())
+      {
+         int colon = line.indexOf(':');
+         headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ENGLISH), line.substring(colon + 1).trim());
+      }
+      return headers;
+   }
+
+   /**
+    * @return the length of the body, once its last chunk is read
+    */
+   private static long readChunkedBody(InputStream in) throws IOException
+   {
+      long length = 0;
+      byte[] buffer = new byte[8192];
+      while (true)
+      {
+         int size = Integer.parseInt(readLine(in).split(";")[0].trim(), 16);
+         if (size == 0)
+         {
+            // trailers
+            while (!readLine(in).isEmpty())
+            {
+            }
+            return length;
+         }
+         for (int left = size; left > 0; )
+         {
+            int n = in.read(buffer, 0, Math.min(left, buffer.length));
+            if (n < 0)
+            {
+               throw new EOFException();
+            }
+            left -= n;
+         }
+         length += size;
+         readLine(in);
+      }
+   }
+
+   private static void respond(Socket socket, String entity) throws IOException
+   {
+      byte[] body = entity.getBytes(StandardCharsets.UTF_8);
+      OutputStream out = socket.getOutputStream();
+      out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\nContent-Length: " + body.length
+            + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+      out.write(body);
+      out.flush();
+   }
+
+   /**
+    * Reads the whole body and responds with its length.
+    *
+    * @return the headers of the request, or false if the body ended before its last chunk
+    */
+   private static Object echoLength(Socket socket, InputStream in) throws IOException
+   {
+      Map<String, String> headers = readHeaders(in);
+      long length;
+      try
+      {
+         length = readChunkedBody(in);
+      }
+      catch (IOException e)
+      {
+         return false;
+      }
+      respond(socket, Long.toString(length));
+      return headers;
+   }
+
+   private Response post(Body body)
+   {
+      return client.target(server.url()).request().post(Entity.entity(body, MediaType.APPLICATION_OCTET_STREAM_TYPE));
+   }
+
+   private static void assertFailed(Throwable t)
+   {
+      Assert.assertTrue(String.valueOf(t), t instanceof ProcessingException);
+   }
+
+   /**
+    * @tpTestDetails A body much larger than the buffer of the engine is sent chunked, without a Content-Length
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test(timeout = 60000)
+   public void testChunkedBody() throws Exception
+   {
+      server = new Server(StreamingRequestEntityTest::echoLength);
+      Body body = new Body(1000 * CHUNK);
+      try (Response response = post(body))
+      {
+         Assert.assertEquals(200, response.getStatus());
+         Assert.assertEquals(Integer.toString(body.size), response.readEntity(String.class));
+      }
+      @SuppressWarnings("unchecked")
+      Map<String, String> headers = (Map<String, String>) server.result();
+      Assert.assertEquals("chunked", headers.get("transfer-encoding"));
+      Assert.assertNull(headers.get("content-length"));
+   }
+
+   /**
+    * @tpTestDetails Headers set by the MessageBodyWriter before it writes the first byte are sent
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test(timeout = 60000)
+   public void testHeadersSetByWriter() throws Exception
+   {
+      server = new Server(StreamingRequestEntityTest::echoLength);
+      Body body = new Body(20 * CHUNK);
+      body.header = "body-writer";
+      try (Response response = post(body))
+      {
+         Assert.assertEquals(200, response.getStatus());
+         Assert.assertEquals(Integer.toString(body.size), response.readEntity(String.class));
+      }
+      @SuppressWarnings("unchecked")
+      Map<String, String> headers = (Map<String, String>) server.result();
+      Assert.assertEquals("body-writer", headers.get("x-written-by"));
+      Assert.assertEquals(MediaType.APPLICATION_OCTET_STREAM, headers.get("content-type"));
+   }
+
+   /**
+    * @tpTestDetails A MessageBodyWriter which fails once part of the body is sent aborts the request, the server
+    * never receives the last chunk
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test(timeout = 60000)
+   public void testWriterFailureAbortsRequest() throws Exception
+   {
+      server = new Server(StreamingRequestEntityTest::echoLength);
+      Body body = new Body(100 * CHUNK);
+      body.failAfter = 20 * CHUNK;
+      try
+      {
+         post(body).close();
+         Assert.fail("the request should fail with its writer");
+      }
+      catch (ProcessingException expected)
+      {
+      }
+      Assert.assertEquals(Boolean.FALSE, server.result());
+   }
+
+   /**
+    * @tpTestDetails The server closes the connection while the writer waits for the body to be sent, the writer
+    * fails instead of blocking
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test(timeout = 60000)
+   public void testServerClosesWhileWriterBlocked() throws Exception
+   {
+      server = new Server((socket, in) -> {
+         readHeaders(in);
+         in.read(new byte[10 * CHUNK]);
+         // the client is blocked on the full socket buffers, reset the connection
+         socket.setSoLinger(true, 0);
+         return true;
+      });
+      Body body = new Body(64 * 1000 * CHUNK);
+      try
+      {
+         post(body).close();
+         Assert.fail("the request should fail when the connection is reset");
+      }
+      catch (ProcessingException expected)
+      {
+      }
+      Assert.assertEquals(Boolean.TRUE, server.result());
+      Assert.assertTrue(body.written < body.size);
+   }
+
+   /**
+    * @tpTestDetails The client is closed while a body is being written, the write fails and the request ends
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test(timeout = 60000)
+   public void testCloseWhileWriting() throws Exception
+   {
+      server = new Server(StreamingRequestEntityTest::echoLength);
+      Body body = new Body(1000 * CHUNK);
+      body.pauseAfter = 20 * CHUNK;
+      CompletableFuture<Response> response = CompletableFuture.supplyAsync(() -> post(body));
+      Assert.assertTrue(body.paused.await(20, TimeUnit.SECONDS));
+      client.close();
+      body.resume.countDown();
+      try
+      {
+         response.get(20, TimeUnit.SECONDS).close();
+         Assert.fail("the request should fail once the client is closed");
+      }
+      catch (ExecutionException e)
+      {
+         assertFailed(e.getCause());
+      }
+      Assert.assertEquals(Boolean.FALSE, server.result());
+      Assert.assertTrue(body.written < body.size);
+   }
+}
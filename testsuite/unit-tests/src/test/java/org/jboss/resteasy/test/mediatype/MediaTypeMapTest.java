@@ -36,6 +36,27 @@ public class MediaTypeMapTest {
       testString(locked);
    }
 
+   /**
+    * @tpTestDetails Lookups are cached until a new entry is added, upper case media types match the same entries
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testCache() {
+      MediaTypeMap<String> map = new MediaTypeMap<String>();
+      map.add(MediaType.TEXT_PLAIN, "plain");
+      Assert.assertEquals(1, map.getPossible(new MediaType("text", "plain"), String.class).size());
+      Assert.assertEquals(1, map.getPossible(new MediaType("text", "plain"), String.class).size());
+      Assert.assertEquals(1, map.getPossible(new MediaType("TEXT", "Plain"), String.class).size());
+      Assert.assertEquals(1, map.getCacheHitCount());
+      Assert.assertEquals(2, map.getCacheMissCount());
+
+      map.add(MediaType.WILDCARD, "wildcard");
+      List<String> list = map.getPossible(new MediaType("text", "plain"), String.class);
+      Assert.assertEquals(2, list.size());
+      Assert.assertEquals("plain", list.get(0));
+      Assert.assertEquals(3, map.getCacheMissCount());
+   }
+
    protected void test(MediaTypeMap<String> map) {
       String defaultPlainText = "defaultPlainText";
       map.add(new MediaType("text", "plain"), defaultPlainText);
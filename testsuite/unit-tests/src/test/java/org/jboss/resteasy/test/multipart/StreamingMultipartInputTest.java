@@ -0,0 +1,130 @@
+package org.jboss.resteasy.test.multipart;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.james.mime4j.storage.MemoryStorageProvider;
+import org.apache.james.mime4j.storage.Storage;
+import org.apache.james.mime4j.storage.StorageOutputStream;
+import org.jboss.resteasy.core.providerfactory.ResteasyProviderFactoryImpl;
+import org.jboss.resteasy.plugins.providers.multipart.InputPart;
+import org.jboss.resteasy.plugins.providers.multipart.MemoryBudgetStorageProvider;
+import org.jboss.resteasy.plugins.providers.multipart.MultipartInputImpl;
+import org.jboss.resteasy.plugins.providers.multipart.StreamingMultipartInputImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class StreamingMultipartInputTest {
+
+    private static final String BOUNDARY = "B98hgCmKsQ-B5AUFnm2FnDRCgHPDE3";
+    private static final MediaType CONTENT_TYPE = new MediaType("multipart", "form-data", Collections.singletonMap("boundary", BOUNDARY));
+
+    private static final String MESSAGE = "preamble\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"text\"\r\n"
+            + "Content-Type: text/plain\r\n"
+            + "\r\n"
+            + "first part\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"data\"\r\n"
+            + "Content-Type: application/octet-stream\r\n"
+            + "Content-Transfer-Encoding: base64\r\n"
+            + "\r\n"
+            + Base64.getEncoder().encodeToString("ABC123".getBytes(StandardCharsets.US_ASCII)) + "\r\n"
+            + "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"last\"\r\n"
+            + "\r\n"
+            + "last part\r\n"
+            + "--" + BOUNDARY + "--";
+
+    private static String body(InputPart part) throws IOException {
+        return new String(IOUtils.toByteArray(((MultipartInputImpl.PartImpl) part).getBody()), StandardCharsets.US_ASCII);
+    }
+
+    private static StreamingMultipartInputImpl parse() throws IOException {
+        StreamingMultipartInputImpl multipart = new StreamingMultipartInputImpl(CONTENT_TYPE, new ResteasyProviderFactoryImpl());
+        multipart.parse(new ByteArrayInputStream(MESSAGE.getBytes(StandardCharsets.US_ASCII)));
+        return multipart;
+    }
+
+    @Test
+    public void testNextPart() throws Exception {
+        MultipartInputImpl buffered = new MultipartInputImpl(CONTENT_TYPE, new ResteasyProviderFactoryImpl());
+        buffered.parse(new ByteArrayInputStream(MESSAGE.getBytes(StandardCharsets.US_ASCII)));
+        List<InputPart> expected = buffered.getParts();
+
+        StreamingMultipartInputImpl multipart = parse();
+        for (InputPart part : expected) {
+            InputPart streamed = multipart.nextPart();
+            Assert.assertNotNull(streamed);
+            Assert.assertEquals(part.getMediaType(), streamed.getMediaType());
+            Assert.assertEquals(part.getHeaders(), streamed.getHeaders());
+            Assert.assertEquals(body(part), body(streamed));
+        }
+        Assert.assertNull(multipart.nextPart());
+        Assert.assertEquals(buffered.getPreamble(), multipart.getPreamble());
+        Assert.assertEquals("ABC123", body(expected.get(1)));
+    }
+
+    @Test
+    public void testUnreadBodySkipped() throws Exception {
+        StreamingMultipartInputImpl multipart = parse();
+        Assert.assertNotNull(multipart.nextPart());
+        Assert.assertNotNull(multipart.nextPart());
+        Assert.assertEquals("last part", body(multipart.nextPart()));
+        Assert.assertNull(multipart.nextPart());
+    }
+
+    @Test
+    public void testRemainingParts() throws Exception {
+        StreamingMultipartInputImpl multipart = parse();
+        Assert.assertEquals("first part", body(multipart.nextPart()));
+        List<InputPart> parts = multipart.getParts();
+        Assert.assertEquals(2, parts.size());
+        Assert.assertEquals("ABC123", body(parts.get(0)));
+        Assert.assertEquals("last part", body(parts.get(1)));
+        Assert.assertNull(multipart.nextPart());
+        multipart.close();
+    }
+
+    @Test
+    public void testMemoryBudget() throws Exception {
+        AtomicInteger spilled = new AtomicInteger();
+        MemoryStorageProvider backend = new MemoryStorageProvider() {
+            @Override
+            public StorageOutputStream createStorageOutputStream() {
+                spilled.incrementAndGet();
+                return super.createStorageOutputStream();
+            }
+        };
+        MemoryBudgetStorageProvider provider = new MemoryBudgetStorageProvider(backend, 100, 150);
+
+        Storage small = provider.store(new ByteArrayInputStream(new byte[80]));
+        Assert.assertEquals(0, spilled.get());
+        Assert.assertEquals(70, provider.getRemainingBudget());
+
+        // fits the threshold but not the remaining budget
+        Storage overBudget = provider.store(new ByteArrayInputStream(new byte[80]));
+        Assert.assertEquals(1, spilled.get());
+        Assert.assertEquals(70, provider.getRemainingBudget());
+
+        // over the threshold
+        Storage large = provider.store(new ByteArrayInputStream(new byte[101]));
+        Assert.assertEquals(2, spilled.get());
+        Assert.assertEquals(101, IOUtils.toByteArray(large.getInputStream()).length);
+        Assert.assertEquals(80, IOUtils.toByteArray(overBudget.getInputStream()).length);
+
+        small.delete();
+        Assert.assertEquals(150, provider.getRemainingBudget());
+        Storage again = provider.store(new ByteArrayInputStream(new byte[80]));
+        Assert.assertEquals(2, spilled.get());
+        Assert.assertEquals(80, IOUtils.toByteArray(again.getInputStream()).length);
+    }
+}
@@ -0,0 +1,198 @@
+package org.jboss.resteasy.test.providers;
+
+import org.jboss.resteasy.annotations.providers.jaxb.Formatted;
+import org.jboss.resteasy.annotations.providers.jaxb.XmlHeader;
+import org.jboss.resteasy.core.ResteasyContext;
+import org.jboss.resteasy.plugins.providers.RegisterBuiltin;
+import org.jboss.resteasy.plugins.providers.jaxb.JAXBMarshallerPool;
+import org.jboss.resteasy.plugins.providers.jaxb.JAXBXmlRootElementProvider;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.ext.Providers;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.annotation.Annotation;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+/**
+ * @tpSubChapter Providers - jaxb
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Pooling of JAXB Marshallers and Unmarshallers
+ * @tpSince RESTEasy 4.6.0
+ */
+public class JaxbMarshallerPoolTest {
+
+   @XmlRootElement
+   public static class Item {
+      public String name;
+   }
+
+   @XmlRootElement
+   @XmlHeader("<?xml-stylesheet type='text/xsl' href='item.xsl' ?>")
+   public static class StyledItem {
+      public String name;
+   }
+
+   @Formatted
+   public void formatted() {
+   }
+
+   private static final MediaType XML = MediaType.APPLICATION_XML_TYPE;
+
+   /**
+    * @tpTestDetails Instances are reused per key, and only up to the size of the pool
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testAcquireRelease() throws Exception {
+      JAXBContext context = JAXBContext.newInstance(Item.class);
+      JAXBMarshallerPool<Marshaller> pool = new JAXBMarshallerPool<>(2);
+      JAXBMarshallerPool.Key key = JAXBMarshallerPool.key(Marshaller.class, context, Item.class, null, XML);
+      Assert.assertFalse(key.isDecorated());
+
+      Assert.assertNull(pool.acquire(key));
+      Marshaller first = context.createMarshaller();
+      Marshaller second = context.createMarshaller();
+      Marshaller third = context.createMarshaller();
+      pool.release(key, first);
+      pool.release(key, second);
+      pool.release(key, third);
+      Assert.assertEquals("Pool should be bounded", 2, pool.getPooledCount());
+
+      Assert.assertSame(first, pool.acquire(JAXBMarshallerPool.key(Marshaller.class, context, Item.class, null, XML)));
+      Assert.assertSame(second, pool.acquire(key));
+      Assert.assertNull(pool.acquire(key));
+      Assert.assertEquals(2, pool.getHitCount());
+      Assert.assertEquals(2, pool.getMissCount());
+      Assert.assertEquals(0, pool.getPooledCount());
+   }
+
+   /**
+    * @tpTestDetails The media type and its parameters, the context and the decorators are part of the key
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testKeys() throws Exception {
+      JAXBContext context = JAXBContext.newInstance(Item.class);
+      JAXBMarshallerPool<Marshaller> pool = new JAXBMarshallerPool<>(JAXBMarshallerPool.DEFAULT_SIZE);
+      JAXBMarshallerPool.Key key = JAXBMarshallerPool.key(Marshaller.class, context, Item.class, null, XML);
+      pool.release(key, context.createMarshaller());
+
+      Assert.assertNull(pool.acquire(JAXBMarshallerPool.key(Marshaller.class, context, Item.class, null,
+            XML.withCharset(StandardCharsets.ISO_8859_1.name()))));
+      Assert.assertNull(pool.acquire(JAXBMarshallerPool.key(Marshaller.class, JAXBContext.newInstance(Item.class),
+            Item.class, null, XML)));
+
+      Annotation[] formatted = getClass().getMethod("formatted").getAnnotations();
+      JAXBMarshallerPool.Key decorated = JAXBMarshallerPool.key(Marshaller.class, context, Item.class, formatted, XML);
+      Assert.assertTrue(decorated.isDecorated());
+      Assert.assertNotEquals(key, decorated);
+      Assert.assertNull(pool.acquire(decorated));
+
+      // @Formatted only decorates Marshallers
+      Assert.assertFalse(JAXBMarshallerPool.key(Unmarshaller.class, context, Item.class, formatted, XML).isDecorated());
+      // decorators of the type
+      Assert.assertTrue(JAXBMarshallerPool.key(Marshaller.class, context, StyledItem.class, null, XML).isDecorated());
+
+      Assert.assertNotNull(pool.acquire(key));
+   }
+
+   /**
+    * @tpTestDetails A pooled Marshaller produces the same output as a new one
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testReuse() throws Exception {
+      JAXBContext context = JAXBContext.newInstance(Item.class);
+      JAXBMarshallerPool<Marshaller> pool = new JAXBMarshallerPool<>(JAXBMarshallerPool.DEFAULT_SIZE);
+      JAXBMarshallerPool.Key key = JAXBMarshallerPool.key(Marshaller.class, context, Item.class, null, XML);
+      Item item = new Item();
+      item.name = "pooled";
+
+      Marshaller marshaller = context.createMarshaller();
+      ByteArrayOutputStream expected = new ByteArrayOutputStream();
+      marshaller.marshal(item, expected);
+      pool.release(key, marshaller);
+
+      ByteArrayOutputStream actual = new ByteArrayOutputStream();
+      pool.acquire(key).marshal(item, actual);
+      Assert.assertEquals(expected.toString("UTF-8"), actual.toString("UTF-8"));
+   }
+
+   /**
+    * @tpTestDetails Beyond the maximum number of keys the least recently used one is dropped
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testLeastRecentlyUsedKeyDropped() throws Exception {
+      JAXBContext context = JAXBContext.newInstance(Item.class);
+      JAXBMarshallerPool<Marshaller> pool = new JAXBMarshallerPool<>(1);
+      JAXBMarshallerPool.Key used = JAXBMarshallerPool.key(Marshaller.class, context, Item.class, null, XML);
+      pool.release(used, context.createMarshaller());
+
+      JAXBMarshallerPool.Key[] keys = new JAXBMarshallerPool.Key[JAXBMarshallerPool.MAX_KEYS];
+      for (int i = 0; i < keys.length; i++) {
+         pool.release(used, pool.acquire(used));
+         keys[i] = JAXBMarshallerPool.key(Marshaller.class, context, Item.class, null,
+               new MediaType("application", "xml", Collections.singletonMap("v", String.valueOf(i))));
+         pool.release(keys[i], context.createMarshaller());
+      }
+      Assert.assertEquals(JAXBMarshallerPool.MAX_KEYS, pool.getKeyCount());
+      Assert.assertNotNull("A key in use should be kept", pool.acquire(used));
+      Assert.assertNull("The least recently used key should be dropped", pool.acquire(keys[0]));
+      Assert.assertNotNull(pool.acquire(keys[keys.length - 1]));
+   }
+
+   /**
+    * @tpTestDetails The provider reuses its Marshallers and Unmarshallers, and pooled ones write and read the same
+    *                documents as new ones, in the charset of the media type
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testProviderRoundTrip() throws Exception {
+      ResteasyProviderFactory factory = ResteasyProviderFactory.newInstance();
+      RegisterBuiltin.register(factory);
+      JAXBXmlRootElementProvider provider = new JAXBXmlRootElementProvider();
+      factory.injectProperties(provider);
+      Annotation[] annotations = {};
+      Item item = new Item();
+      item.name = "pooled \u00e9";
+
+      try (ResteasyContext.CloseableContext c = ResteasyContext.addCloseableContextDataLevel()) {
+         ResteasyContext.pushContext(Providers.class, factory);
+         for (MediaType mediaType : new MediaType[]{XML, XML.withCharset(StandardCharsets.ISO_8859_1.name())}) {
+            String first = null;
+            for (int i = 0; i < 3; i++) {
+               ByteArrayOutputStream out = new ByteArrayOutputStream();
+               provider.writeTo(item, Item.class, Item.class, annotations, mediaType,
+                     new MultivaluedHashMap<String, Object>(), out);
+               String document = out.toString(mediaType.getParameters().containsKey("charset")
+                     ? StandardCharsets.ISO_8859_1.name() : StandardCharsets.UTF_8.name());
+               if (first == null) first = document;
+               Assert.assertEquals(first, document);
+
+               Item read = (Item) provider.readFrom((Class) Item.class, Item.class, annotations, mediaType,
+                     new MultivaluedHashMap<String, String>(), new ByteArrayInputStream(out.toByteArray()));
+               Assert.assertEquals(item.name, read.name);
+            }
+            if (mediaType != XML) {
+               Assert.assertTrue(first, first.contains("encoding=\"ISO-8859-1\""));
+            }
+         }
+      }
+      // one miss per media type, then the same instance is reused
+      Assert.assertEquals(2, provider.getMarshallerPool().getMissCount());
+      Assert.assertEquals(4, provider.getMarshallerPool().getHitCount());
+      Assert.assertEquals(2, provider.getUnmarshallerPool().getMissCount());
+      Assert.assertEquals(4, provider.getUnmarshallerPool().getHitCount());
+   }
+}
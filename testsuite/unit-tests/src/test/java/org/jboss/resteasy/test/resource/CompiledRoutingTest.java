@@ -0,0 +1,174 @@
+package org.jboss.resteasy.test.resource;
+
+import org.jboss.resteasy.core.ResourceLocatorInvoker;
+import org.jboss.resteasy.core.ResourceMethodInvoker;
+import org.jboss.resteasy.core.ResourceMethodRegistry;
+import org.jboss.resteasy.mock.MockHttpRequest;
+import org.jboss.resteasy.plugins.server.servlet.ResteasyContextParameters;
+import org.jboss.resteasy.core.registry.SegmentNode;
+import org.jboss.resteasy.spi.ResourceInvoker;
+import org.jboss.resteasy.spi.ResteasyProviderFactory;
+import org.jboss.resteasy.test.resource.resource.CompiledRoutingResource;
+import org.jboss.resteasy.test.resource.resource.SegmentNullResource;
+import org.junit.AfterClass;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import javax.ws.rs.NotFoundException;
+import java.util.Arrays;
+
+/**
+ * @tpSubChapter Resource tests
+ * @tpChapter Unit tests
+ * @tpTestCaseDetails Resource matching with the compiled segment trie router
+ * @tpSince RESTEasy 4.6.0
+ */
+public class CompiledRoutingTest {
+
+   @BeforeClass
+   public static void enableCompiledRouting() {
+      System.setProperty(ResteasyContextParameters.RESTEASY_COMPILED_ROUTING, "true");
+   }
+
+   @AfterClass
+   public static void disableCompiledRouting() {
+      System.clearProperty(ResteasyContextParameters.RESTEASY_COMPILED_ROUTING);
+   }
+
+   /**
+    * @tpTestDetails Literal, simple parameter and mixed segments, literal segments take precedence
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testTemplates() throws Exception {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.addPerRequestResource(CompiledRoutingResource.class);
+
+      assertMatch(registry, "/orders", "orders");
+      assertMatch(registry, "/orders/special", "special");
+      MockHttpRequest request = assertMatch(registry, "/orders/42", "order");
+      Assert.assertEquals("42", request.getUri().getPathParameters().getFirst("id"));
+      request = assertMatch(registry, "/orders/42/items/7", "item");
+      Assert.assertEquals("42", request.getUri().getPathParameters().getFirst("id"));
+      Assert.assertEquals("7", request.getUri().getPathParameters().getFirst("item"));
+      request = assertMatch(registry, "/orders/42/file.json", "file");
+      Assert.assertEquals("json", request.getUri().getPathParameters().getFirst("ext"));
+      // second request to the same template is served from the cache and still gets its own parameters
+      request = assertMatch(registry, "/orders/43", "order");
+      Assert.assertEquals("43", request.getUri().getPathParameters().getFirst("id"));
+   }
+
+   /**
+    * @tpTestDetails Sub-resource locators are matched with their regex
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testLocator() throws Exception {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.addPerRequestResource(CompiledRoutingResource.class);
+      ResourceLocatorInvoker invoker = (ResourceLocatorInvoker) registry.getResourceInvoker(MockHttpRequest.get("/orders/42/sub/responseok"));
+      Assert.assertEquals("locator", invoker.getMethod().getName());
+   }
+
+   /**
+    * @tpTestDetails Templates with a regex are matched the same way as by the default router
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testRegex() throws Exception {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.addSingletonResource(new SegmentNullResource());
+      assertMatch(registry, "/", "doNothing");
+      assertMatch(registry, "/child", "childDoNothing");
+      assertMatch(registry, "/child/foo", "childWithName");
+      assertMatch(registry, "/child/1", "childWithId");
+      assertMatch(registry, "/child1/1", "child1WithId");
+   }
+
+   /**
+    * @tpTestDetails Paths without a matching template are not found
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test(expected = NotFoundException.class)
+   public void testNotFound() throws Exception {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.addPerRequestResource(CompiledRoutingResource.class);
+      registry.getResourceInvoker(MockHttpRequest.get("/orders/42/items"));
+   }
+
+   /**
+    * @tpTestDetails The compiled router selects the same method, with the same path parameters and chosen media type,
+    * or fails the same way, as the default router on the same resources
+    * @tpSince RESTEasy 4.6.0
+    */
+   @Test
+   public void testSameAsDefaultRouter() throws Exception {
+      ResourceMethodRegistry compiled = createRegistry();
+      ResourceMethodRegistry standard;
+      System.clearProperty(ResteasyContextParameters.RESTEASY_COMPILED_ROUTING);
+      try {
+         standard = createRegistry();
+      } finally {
+         System.setProperty(ResteasyContextParameters.RESTEASY_COMPILED_ROUTING, "true");
+      }
+      String[][] requests = {
+            // method, path, Accept, Content-Type
+            {"GET", "/", null, null},
+            {"GET", "/child", null, null},
+            {"GET", "/child/foo", null, null},
+            {"GET", "/child/1", null, null},
+            {"GET", "/child1/1", null, null},
+            {"GET", "/child1/foo", null, null},
+            {"GET", "/orders", null, null},
+            {"GET", "/orders/", null, null},
+            {"GET", "/orders/special", null, null},
+            {"GET", "/orders/42", null, null},
+            {"GET", "/orders/42", "text/*", null},
+            {"GET", "/orders/42", "application/json", null},
+            {"HEAD", "/orders/42", null, null},
+            {"OPTIONS", "/orders/42", null, null},
+            {"DELETE", "/orders/42", null, null},
+            {"PUT", "/orders/42", null, "application/json"},
+            {"PUT", "/orders/42", null, "text/plain"},
+            {"GET", "/orders/42/items/7", null, null},
+            {"GET", "/orders/42/items", null, null},
+            {"GET", "/orders/42/file.json", null, null},
+            {"GET", "/orders/42/sub/responseok", null, null},
+            {"GET", "/unknown/path", null, null},
+      };
+      for (String[] request : requests) {
+         // twice, the second request is served from the caches of each router
+         for (int i = 0; i < 2; i++) {
+            Assert.assertEquals(Arrays.toString(request), route(standard, request), route(compiled, request));
+         }
+      }
+   }
+
+   private static ResourceMethodRegistry createRegistry() {
+      ResourceMethodRegistry registry = new ResourceMethodRegistry(ResteasyProviderFactory.getInstance());
+      registry.addPerRequestResource(CompiledRoutingResource.class);
+      registry.addSingletonResource(new SegmentNullResource());
+      return registry;
+   }
+
+   private static String route(ResourceMethodRegistry registry, String[] r) throws Exception {
+      MockHttpRequest request = MockHttpRequest.create(r[0], r[1]);
+      if (r[2] != null) request.accept(r[2]);
+      if (r[3] != null) request.contentType(r[3]);
+      try {
+         ResourceInvoker invoker = registry.getResourceInvoker(request);
+         return invoker.getMethod().getName() + " " + request.getUri().getPathParameters()
+               + " " + request.getAttribute(SegmentNode.RESTEASY_CHOSEN_ACCEPT);
+      } catch (RuntimeException e) {
+         return e.getClass().getName();
+      }
+   }
+
+   private MockHttpRequest assertMatch(ResourceMethodRegistry registry, String url, String methodName) throws Exception {
+      MockHttpRequest request = MockHttpRequest.get(url);
+      ResourceMethodInvoker invoker = (ResourceMethodInvoker) registry.getResourceInvoker(request);
+      Assert.assertEquals("Wrong resource method matched for " + url, methodName, invoker.getMethod().getName());
+      return request;
+   }
+}
@@ -0,0 +1,57 @@
+package org.jboss.resteasy.test.resource.resource;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+
+@Path("/orders")
+public class CompiledRoutingResource {
+
+   @GET
+   @Produces("text/plain")
+   public String orders() {
+      return "orders";
+   }
+
+   @GET
+   @Produces("text/plain")
+   @Path("special")
+   public String special() {
+      return "special";
+   }
+
+   @GET
+   @Produces("text/plain")
+   @Path("{id}")
+   public String order(@PathParam("id") String id) {
+      return id;
+   }
+
+   @PUT
+   @Consumes("application/json")
+   @Path("{id}")
+   public void update(@PathParam("id") String id, String order) {
+   }
+
+   @GET
+   @Produces("text/plain")
+   @Path("{id}/items/{item}")
+   public String item(@PathParam("id") String id, @PathParam("item") String item) {
+      return id + item;
+   }
+
+   @GET
+   @Produces("text/plain")
+   @Path("{id}/file.{ext}")
+   public String file(@PathParam("id") String id, @PathParam("ext") String ext) {
+      return id + ext;
+   }
+
+   @Path("{id}/sub")
+   public SegmentLocatorComplex locator() {
+      return new SegmentLocatorComplex();
+   }
+}